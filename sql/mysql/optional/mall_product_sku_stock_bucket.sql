@@ -0,0 +1,14 @@
+CREATE TABLE `product_sku_stock_bucket` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '编号',
+    `sku_id` bigint NOT NULL COMMENT 'SKU 编号',
+    `bucket_no` int NOT NULL COMMENT '分桶序号',
+    `stock` int NOT NULL COMMENT '库存',
+    `creator` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT '' COMMENT '创建者',
+    `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updater` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT '' COMMENT '更新者',
+    `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
+    `tenant_id` bigint NOT NULL DEFAULT 0 COMMENT '租户编号',
+    PRIMARY KEY (`id`) USING BTREE,
+    INDEX `idx_sku_id` (`sku_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '商品 SKU 库存分桶';
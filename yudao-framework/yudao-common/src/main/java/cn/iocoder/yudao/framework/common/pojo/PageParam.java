@@ -26,4 +26,10 @@ public class PageParam implements Serializable {
     @Max(value = 100, message = "每页条数最大值为 100")
     private Integer pageSize = PAGE_SIZE;
 
+    @Schema(description = "上一页最后一条记录的编号。仅按照编号倒序的分页接口（如 API 访问日志、错误日志、操作日志，交易订单、支付订单）支持，传递时使用游标分页，忽略 pageNo，且不查询总数（total 返回空）；其它分页接口忽略该参数", example = "1024")
+    private Long lastId;
+
+    @Schema(description = "是否查询总数，默认为 true。关闭时，total 返回空，避免大表的 COUNT 查询", example = "true")
+    private Boolean searchCount = true;
+
 }
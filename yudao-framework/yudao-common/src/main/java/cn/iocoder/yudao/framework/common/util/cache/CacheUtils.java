@@ -1,25 +1,149 @@
 package cn.iocoder.yudao.framework.common.util.cache;
 
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
-import java.util.concurrent.Executors;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
 
 /**
  * Cache 工具类
  *
+ * 所有缓存共享一个有界的刷新线程池，并按照名字注册，由 {@link #addListener(BiConsumer)} 接入监控
+ *
  * @author 芋道源码
  */
+@Slf4j
 public class CacheUtils {
 
+    /**
+     * 默认的最大数量
+     */
+    public static final long MAXIMUM_SIZE_DEFAULT = 10000L;
+
+    /**
+     * 刷新缓存的线程数
+     */
+    private static final int REFRESH_THREAD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /**
+     * 刷新缓存的队列大小
+     */
+    private static final int REFRESH_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 刷新缓存的线程池，所有缓存共享
+     *
+     * 队列满时，拒绝本次刷新：Guava 会记录告警日志，并继续返回旧值，等待下次访问时再次刷新
+     */
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = new ThreadPoolExecutor(
+            REFRESH_THREAD_COUNT, REFRESH_THREAD_COUNT, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), new NamedThreadFactory("cache-refresh-", true));
+
+    static {
+        REFRESH_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 已注册的缓存
+     *
+     * key：缓存名字
+     */
+    private static final Map<String, Cache<?, ?>> CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存注册的监听器们
+     */
+    private static final List<BiConsumer<String, Cache<?, ?>>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * 创建异步刷新的缓存，不注册监控
+     *
+     * @deprecated 使用 {@link #buildAsyncReloadingCache(String, Duration, CacheLoader)} 替代，从而接入监控
+     */
+    @Deprecated
     public static <K, V> LoadingCache<K, V> buildAsyncReloadingCache(Duration duration, CacheLoader<K, V> loader) {
-        return CacheBuilder.newBuilder()
+        return buildAsyncReloadingCache(null, MAXIMUM_SIZE_DEFAULT, duration, loader);
+    }
+
+    public static <K, V> LoadingCache<K, V> buildAsyncReloadingCache(String name, Duration duration, CacheLoader<K, V> loader) {
+        return buildAsyncReloadingCache(name, MAXIMUM_SIZE_DEFAULT, duration, loader);
+    }
+
+    /**
+     * 创建异步刷新的缓存
+     *
+     * 超过 duration 后访问时，触发异步刷新，期间所有线程都返回旧值；只有首次加载时，才会阻塞
+     *
+     * @param name 缓存名字，用于监控。为空时，不注册
+     * @param maximumSize 最大数量
+     * @param duration 刷新间隔
+     * @param loader 加载器
+     * @return 缓存
+     */
+    public static <K, V> LoadingCache<K, V> buildAsyncReloadingCache(String name, long maximumSize, Duration duration,
+                                                                     CacheLoader<K, V> loader) {
+        LoadingCache<K, V> cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
                 // 只阻塞当前数据加载线程，其他线程返回旧值
                 .refreshAfterWrite(duration)
+                // 记录命中率、加载耗时、淘汰数量等统计
+                .recordStats()
                 // 通过 asyncReloading 实现全异步加载，包括 refreshAfterWrite 被阻塞的加载线程
-                .build(CacheLoader.asyncReloading(loader, Executors.newCachedThreadPool())); // TODO 芋艿：可能要思考下，未来要不要做成可配置
+                .build(CacheLoader.asyncReloading(loader, REFRESH_EXECUTOR));
+        if (name != null) {
+            register(name, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * 注册缓存，通知所有监听器
+     *
+     * 名字重复时，使用新的缓存替换，并打印告警日志：例如说，单元测试时多次创建 Spring 容器，同一个 Bean 会重复注册。
+     * 此时，监控按照名字区分，可能仍然统计旧的缓存，所以不同的缓存，需要使用不同的名字
+     *
+     * @param name 缓存名字
+     * @param cache 缓存
+     */
+    public static synchronized void register(String name, Cache<?, ?> cache) {
+        Cache<?, ?> oldCache = CACHES.put(name, cache);
+        if (oldCache == cache) {
+            return;
+        }
+        if (oldCache != null) {
+            log.warn("[register][缓存({}) 的名字重复，使用新的缓存替换]", name);
+        }
+        LISTENERS.forEach(listener -> listener.accept(name, cache));
+    }
+
+    /**
+     * 添加缓存注册的监听器，已注册的缓存也会通知
+     *
+     * @param listener 监听器
+     */
+    public static synchronized void addListener(BiConsumer<String, Cache<?, ?>> listener) {
+        LISTENERS.add(listener);
+        CACHES.forEach(listener);
+    }
+
+    /**
+     * 移除缓存注册的监听器
+     *
+     * @param listener 监听器，需要和 {@link #addListener(BiConsumer)} 时是同一个对象
+     */
+    public static synchronized void removeListener(BiConsumer<String, Cache<?, ?>> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    public static ThreadPoolExecutor getRefreshExecutor() {
+        return REFRESH_EXECUTOR;
     }
 
 }
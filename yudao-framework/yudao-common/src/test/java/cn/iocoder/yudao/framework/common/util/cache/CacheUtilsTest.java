@@ -0,0 +1,112 @@
+package cn.iocoder.yudao.framework.common.util.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CacheUtils} 的单元测试
+ */
+public class CacheUtilsTest {
+
+    @Test
+    public void testBuildAsyncReloadingCache() throws Exception {
+        // 准备参数
+        AtomicInteger counter = new AtomicInteger();
+        CacheLoader<String, Integer> loader = new CacheLoader<String, Integer>() {
+
+            @Override
+            public Integer load(String key) {
+                return counter.incrementAndGet();
+            }
+
+        };
+
+        // 调用
+        LoadingCache<String, Integer> cache = CacheUtils.buildAsyncReloadingCache("test.reloading", 2L,
+                Duration.ofMinutes(1L), loader);
+        // 断言：命中缓存
+        assertEquals(1, cache.get("a"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(1L, cache.stats().hitCount());
+        assertEquals(1L, cache.stats().missCount());
+        // 断言：超过最大数量，淘汰
+        cache.get("b");
+        cache.get("c");
+        cache.cleanUp();
+        assertTrue(cache.size() <= 2);
+        assertTrue(cache.stats().evictionCount() >= 1);
+    }
+
+    @Test
+    public void testAddListener() {
+        // 准备参数
+        LoadingCache<String, String> cache01 = CacheUtils.buildAsyncReloadingCache("test.listener01",
+                Duration.ofMinutes(1L), CacheLoader.from(key -> key));
+        Map<String, Cache<?, ?>> caches = new HashMap<>();
+        BiConsumer<String, Cache<?, ?>> listener = caches::put;
+
+        try {
+            // 调用：已注册的缓存，也会通知
+            CacheUtils.addListener(listener);
+            assertSame(cache01, caches.get("test.listener01"));
+            // 调用：新注册的缓存
+            LoadingCache<String, String> cache02 = CacheUtils.buildAsyncReloadingCache("test.listener02",
+                    Duration.ofMinutes(1L), CacheLoader.from(key -> key));
+            assertSame(cache02, caches.get("test.listener02"));
+        } finally {
+            CacheUtils.removeListener(listener);
+        }
+        // 调用：移除后，不再通知
+        CacheUtils.buildAsyncReloadingCache("test.listener03", Duration.ofMinutes(1L), CacheLoader.from(key -> key));
+        assertFalse(caches.containsKey("test.listener03"));
+    }
+
+    @Test
+    public void testRegister_duplicateName() {
+        // 准备参数
+        LoadingCache<String, String> cache01 = CacheUtils.buildAsyncReloadingCache("test.duplicate",
+                Duration.ofMinutes(1L), CacheLoader.from(key -> key));
+        List<Cache<?, ?>> notifiedCaches = new ArrayList<>();
+        BiConsumer<String, Cache<?, ?>> listener = (name, cache) -> {
+            if ("test.duplicate".equals(name)) {
+                notifiedCaches.add(cache);
+            }
+        };
+
+        try {
+            CacheUtils.addListener(listener);
+            // 调用：重复注册同一个缓存，不重复通知
+            CacheUtils.register("test.duplicate", cache01);
+            // 调用：名字重复的新缓存，替换原有缓存
+            LoadingCache<String, String> cache02 = CacheUtils.buildAsyncReloadingCache("test.duplicate",
+                    Duration.ofMinutes(1L), CacheLoader.from(key -> key));
+            // 断言
+            assertEquals(2, notifiedCaches.size());
+            assertSame(cache01, notifiedCaches.get(0));
+            assertSame(cache02, notifiedCaches.get(1));
+        } finally {
+            CacheUtils.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void testGetRefreshExecutor() {
+        // 断言：共享、有界的线程池
+        assertSame(CacheUtils.getRefreshExecutor(), CacheUtils.getRefreshExecutor());
+        assertEquals(CacheUtils.getRefreshExecutor().getCorePoolSize(), CacheUtils.getRefreshExecutor().getMaximumPoolSize());
+        assertTrue(CacheUtils.getRefreshExecutor().getQueue().remainingCapacity() < Integer.MAX_VALUE);
+    }
+
+}
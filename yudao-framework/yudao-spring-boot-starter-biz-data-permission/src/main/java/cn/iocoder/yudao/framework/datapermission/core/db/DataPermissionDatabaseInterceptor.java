@@ -9,6 +9,11 @@ import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
 import com.baomidou.mybatisplus.extension.parser.JsqlParserSupport;
 import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import net.sf.jsqlparser.expression.*;
@@ -43,13 +48,35 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author 芋道源码
  */
 @RequiredArgsConstructor
-public class DataPermissionDatabaseInterceptor extends JsqlParserSupport implements InnerInterceptor {
+public class DataPermissionDatabaseInterceptor extends JsqlParserSupport implements InnerInterceptor, MeterBinder {
+
+    /**
+     * 重写后的 SQL 的最大缓存数量
+     */
+    private static final int REWRITE_CACHE_SIZE = 2048;
 
     private final DataPermissionRuleFactory ruleFactory;
 
     @Getter
     private final MappedStatementCache mappedStatementCache = new MappedStatementCache();
 
+    /**
+     * 重写后的 SQL 缓存
+     *
+     * key：原始 SQL + 每个 {@link DataPermissionRule} 的指纹，见 {@link #buildRewriteCacheKey(String, List)} 方法
+     * value：重写后的 SQL
+     */
+    @Getter
+    private final Cache<String, String> rewriteCache = CacheBuilder.newBuilder()
+            .maximumSize(REWRITE_CACHE_SIZE)
+            .recordStats() // 记录命中率等统计
+            .build();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, rewriteCache, "data_permission.sql");
+    }
+
     @Override // SELECT 场景
     public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         // 获得 Mapper 对应的数据权限的规则
@@ -59,11 +86,20 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
         }
 
         PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
+        // 优先从缓存中，获得重写后的 SQL
+        String cacheKey = buildRewriteCacheKey(mpBs.sql(), rules);
+        String rewriteSql = getRewriteCache(cacheKey);
+        if (rewriteSql != null) {
+            mpBs.sql(rewriteSql);
+            return;
+        }
         try {
             // 初始化上下文
             ContextHolder.init(rules);
             // 处理 SQL
-            mpBs.sql(parserSingle(mpBs.sql(), null));
+            rewriteSql = parserSingle(mpBs.sql(), null);
+            mpBs.sql(rewriteSql);
+            putRewriteCache(cacheKey, rewriteSql);
         } finally {
             // 添加是否需要重写的缓存
             addMappedStatementCache(ms);
@@ -85,11 +121,20 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
             }
 
             PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
+            // 优先从缓存中，获得重写后的 SQL
+            String cacheKey = buildRewriteCacheKey(mpBs.sql(), rules);
+            String rewriteSql = getRewriteCache(cacheKey);
+            if (rewriteSql != null) {
+                mpBs.sql(rewriteSql);
+                return;
+            }
             try {
                 // 初始化上下文
                 ContextHolder.init(rules);
                 // 处理 SQL
-                mpBs.sql(parserMulti(mpBs.sql(), null));
+                rewriteSql = parserMulti(mpBs.sql(), null);
+                mpBs.sql(rewriteSql);
+                putRewriteCache(cacheKey, rewriteSql);
             } finally {
                 // 添加是否需要重写的缓存
                 addMappedStatementCache(ms);
@@ -518,6 +563,38 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
         return allExpression;
     }
 
+    /**
+     * 构建重写后的 SQL 的缓存 Key
+     *
+     * 由于 {@link DataPermissionRule} 的过滤条件，只和表名、别名、指纹有关，而表名、别名由原始 SQL 决定，
+     * 所以原始 SQL + 规则指纹相同时，重写后的 SQL 也相同
+     *
+     * @param sql 原始 SQL
+     * @param rules 数据权限规则数组
+     * @return 缓存 Key；如果任一规则不支持缓存，则返回 null
+     */
+    private static String buildRewriteCacheKey(String sql, List<DataPermissionRule> rules) {
+        StringBuilder key = new StringBuilder(sql);
+        for (DataPermissionRule rule : rules) {
+            String fingerprint = rule.getFingerprint();
+            if (fingerprint == null) {
+                return null;
+            }
+            key.append('\n').append(rule.getClass().getName()).append(':').append(fingerprint);
+        }
+        return key.toString();
+    }
+
+    private String getRewriteCache(String cacheKey) {
+        return cacheKey != null ? rewriteCache.getIfPresent(cacheKey) : null;
+    }
+
+    private void putRewriteCache(String cacheKey, String rewriteSql) {
+        if (cacheKey != null) {
+            rewriteCache.put(cacheKey, rewriteSql);
+        }
+    }
+
     /**
      * 判断 SQL 是否重写。如果没有重写，则添加到 {@link MappedStatementCache} 中
      *
@@ -33,4 +33,16 @@ public interface DataPermissionRule {
      */
     Expression getExpression(String tableName, Alias tableAlias);
 
+    /**
+     * 获得当前上下文（例如说，登录用户）下，规则的指纹
+     *
+     * 指纹相同时，对相同的表名和别名，{@link #getExpression(String, Alias)} 必须返回相同的过滤条件。
+     * 这样，DataPermissionDatabaseInterceptor 可以按照 SQL + 指纹，缓存重写后的 SQL，避免每次都解析 SQL
+     *
+     * @return 指纹。默认返回 null，表示不支持缓存，每次都重写 SQL
+     */
+    default String getFingerprint() {
+        return null;
+    }
+
 }
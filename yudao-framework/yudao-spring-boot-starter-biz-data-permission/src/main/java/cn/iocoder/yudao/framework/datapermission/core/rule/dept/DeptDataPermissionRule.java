@@ -52,6 +52,19 @@ public class DeptDataPermissionRule implements DataPermissionRule {
      * LoginUser 的 Context 缓存 Key
      */
     protected static final String CONTEXT_KEY = DeptDataPermissionRule.class.getSimpleName();
+    /**
+     * 指纹的 Context 缓存 Key
+     */
+    protected static final String FINGERPRINT_CONTEXT_KEY = CONTEXT_KEY + ".fingerprint";
+
+    /**
+     * 指纹：不进行数据权限的处理
+     */
+    private static final String FINGERPRINT_NONE = "none";
+    /**
+     * 指纹：可查看全部数据
+     */
+    private static final String FINGERPRINT_ALL = "all";
 
     private static final String DEPT_COLUMN_NAME = "dept_id";
     private static final String USER_COLUMN_NAME = "user_id";
@@ -99,17 +112,11 @@ public class DeptDataPermissionRule implements DataPermissionRule {
         }
 
         // 获得数据权限
-        DeptDataPermissionRespDTO deptDataPermission = loginUser.getContext(CONTEXT_KEY, DeptDataPermissionRespDTO.class);
-        // 从上下文中拿不到，则调用逻辑进行获取
+        DeptDataPermissionRespDTO deptDataPermission = getDeptDataPermission(loginUser);
         if (deptDataPermission == null) {
-            deptDataPermission = permissionApi.getDeptDataPermission(loginUser.getId());
-            if (deptDataPermission == null) {
-                log.error("[getExpression][LoginUser({}) 获取数据权限为 null]", JsonUtils.toJsonString(loginUser));
-                throw new NullPointerException(String.format("LoginUser(%d) Table(%s/%s) 未返回数据权限",
-                        loginUser.getId(), tableName, tableAlias.getName()));
-            }
-            // 添加到上下文中，避免重复计算
-            loginUser.setContext(CONTEXT_KEY, deptDataPermission);
+            log.error("[getExpression][LoginUser({}) 获取数据权限为 null]", JsonUtils.toJsonString(loginUser));
+            throw new NullPointerException(String.format("LoginUser(%d) Table(%s/%s) 未返回数据权限",
+                    loginUser.getId(), tableName, tableAlias.getName()));
         }
 
         // 情况一，如果是 ALL 可查看全部，则无需拼接条件
@@ -144,6 +151,76 @@ public class DeptDataPermissionRule implements DataPermissionRule {
         return new Parenthesis(new OrExpression(deptExpression, userExpression));
     }
 
+    @Override
+    public String getFingerprint() {
+        // 无登陆用户、非管理员类型的用户，不进行数据权限的处理，所以指纹相同
+        LoginUser loginUser = SecurityFrameworkUtils.getLoginUser();
+        if (loginUser == null
+            || ObjectUtil.notEqual(loginUser.getUserType(), UserTypeEnum.ADMIN.getValue())) {
+            return FINGERPRINT_NONE;
+        }
+        // 从上下文中获取，避免重复计算
+        String fingerprint = loginUser.getContext(FINGERPRINT_CONTEXT_KEY, String.class);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        // 获得数据权限。获取不到时，不进行缓存，由 getExpression 方法抛出异常
+        DeptDataPermissionRespDTO deptDataPermission = getDeptDataPermission(loginUser);
+        if (deptDataPermission == null) {
+            return null;
+        }
+        fingerprint = buildFingerprint(loginUser.getId(), deptDataPermission);
+        loginUser.setContext(FINGERPRINT_CONTEXT_KEY, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * 构建数据权限的指纹
+     *
+     * 由于指纹直接包含数据权限的内容（部门编号等），所以角色、部门的分配变更后，指纹随之变化，无需额外清理缓存
+     *
+     * @param userId 用户编号
+     * @param deptDataPermission 数据权限
+     * @return 指纹
+     */
+    private static String buildFingerprint(Long userId, DeptDataPermissionRespDTO deptDataPermission) {
+        if (deptDataPermission.getAll()) {
+            return FINGERPRINT_ALL;
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        // 可查看自己时，条件中包含用户编号
+        if (Boolean.TRUE.equals(deptDataPermission.getSelf())) {
+            fingerprint.append(userId);
+        }
+        fingerprint.append('|');
+        if (CollUtil.isNotEmpty(deptDataPermission.getDeptIds())) {
+            // 排序，保证相同的部门编号集合，指纹相同
+            deptDataPermission.getDeptIds().stream().sorted()
+                    .forEach(deptId -> fingerprint.append(deptId).append(','));
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * 获得登录用户的数据权限
+     *
+     * @param loginUser 登录用户
+     * @return 数据权限
+     */
+    private DeptDataPermissionRespDTO getDeptDataPermission(LoginUser loginUser) {
+        DeptDataPermissionRespDTO deptDataPermission = loginUser.getContext(CONTEXT_KEY, DeptDataPermissionRespDTO.class);
+        // 从上下文中拿不到，则调用逻辑进行获取
+        if (deptDataPermission == null) {
+            deptDataPermission = permissionApi.getDeptDataPermission(loginUser.getId());
+            if (deptDataPermission == null) {
+                return null;
+            }
+            // 添加到上下文中，避免重复计算
+            loginUser.setContext(CONTEXT_KEY, deptDataPermission);
+        }
+        return deptDataPermission;
+    }
+
     private Expression buildDeptExpression(String tableName, Alias tableAlias, Set<Long> deptIds) {
         // 如果不存在配置，则无需作为条件
         String columnName = deptColumns.get(tableName);
@@ -50,6 +50,7 @@ public class DataPermissionDatabaseInterceptorTest extends BaseMockitoUnitTest {
         DataPermissionDatabaseInterceptor.ContextHolder.clear();
         // 清空缓存
         interceptor.getMappedStatementCache().clear();
+        interceptor.getRewriteCache().invalidateAll();
     }
 
     @Test // 不存在规则，且不匹配
@@ -120,6 +121,41 @@ public class DataPermissionDatabaseInterceptorTest extends BaseMockitoUnitTest {
         }
     }
 
+    @Test // 存在规则，且支持缓存
+    public void testBeforeQuery_withRewriteCache() {
+        try (MockedStatic<PluginUtils> pluginUtilsMock = mockStatic(PluginUtils.class)) {
+            // 准备参数
+            MappedStatement mappedStatement = mock(MappedStatement.class);
+            BoundSql boundSql = mock(BoundSql.class);
+            // mock 方法(数据权限)
+            FingerprintDataPermissionRule rule = new FingerprintDataPermissionRule();
+            when(ruleFactory.getDataPermissionRule(same(mappedStatement.getId())))
+                    .thenReturn(singletonList(rule));
+            // mock 方法(MPBoundSql)
+            PluginUtils.MPBoundSql mpBs = mock(PluginUtils.MPBoundSql.class);
+            pluginUtilsMock.when(() -> PluginUtils.mpBoundSql(same(boundSql))).thenReturn(mpBs);
+            // mock 方法(SQL)
+            String sql = "select * from t_user where id = 1";
+            when(mpBs.sql()).thenReturn(sql);
+
+            // 调用：第一次重写 SQL，第二次使用缓存
+            interceptor.beforeQuery(null, mappedStatement, null, null, null, boundSql);
+            interceptor.beforeQuery(null, mappedStatement, null, null, null, boundSql);
+            // 断言
+            verify(mpBs, times(2)).sql(
+                    eq("SELECT * FROM t_user WHERE id = 1 AND t_user.dept_id = 100"));
+            assertEquals(1, rule.expressionCount);
+            assertEquals(1, interceptor.getRewriteCache().size());
+
+            // 调用：指纹变化后，重新重写 SQL
+            rule.fingerprint = "2";
+            interceptor.beforeQuery(null, mappedStatement, null, null, null, boundSql);
+            // 断言
+            assertEquals(2, rule.expressionCount);
+            assertEquals(2, interceptor.getRewriteCache().size());
+        }
+    }
+
     @Test
     public void testAddNoRewritable() {
         // 准备参数
@@ -173,6 +209,25 @@ public class DataPermissionDatabaseInterceptorTest extends BaseMockitoUnitTest {
 
     }
 
+    private static class FingerprintDataPermissionRule extends DeptDataPermissionRule {
+
+        private String fingerprint = "1";
+
+        private int expressionCount;
+
+        @Override
+        public Expression getExpression(String tableName, Alias tableAlias) {
+            expressionCount++;
+            return super.getExpression(tableName, tableAlias);
+        }
+
+        @Override
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+    }
+
     private static class EmptyDataPermissionRule implements DataPermissionRule {
 
         @Override
@@ -235,4 +235,26 @@ class DeptDataPermissionRuleTest extends BaseMockitoUnitTest {
         }
     }
 
+    @Test // 指纹（dept + self）
+    public void testGetFingerprint() {
+        try (MockedStatic<SecurityFrameworkUtils> securityFrameworkUtilsMock
+                     = mockStatic(SecurityFrameworkUtils.class)) {
+            // mock 方法（LoginUser）
+            LoginUser loginUser = randomPojo(LoginUser.class, o -> o.setId(1L)
+                    .setUserType(UserTypeEnum.ADMIN.getValue()));
+            securityFrameworkUtilsMock.when(SecurityFrameworkUtils::getLoginUser).thenReturn(loginUser);
+            // mock 方法（DeptDataPermissionRespDTO）
+            DeptDataPermissionRespDTO deptDataPermission = new DeptDataPermissionRespDTO()
+                    .setDeptIds(CollUtil.newLinkedHashSet(20L, 10L)).setSelf(true);
+            when(permissionApi.getDeptDataPermission(same(1L))).thenReturn(deptDataPermission);
+
+            // 调用
+            String fingerprint = rule.getFingerprint();
+            // 断言
+            assertEquals("1|10,20,", fingerprint);
+            assertEquals(fingerprint, loginUser.getContext(DeptDataPermissionRule.FINGERPRINT_CONTEXT_KEY, String.class));
+            assertSame(deptDataPermission, loginUser.getContext(DeptDataPermissionRule.CONTEXT_KEY, DeptDataPermissionRespDTO.class));
+        }
+    }
+
 }
@@ -1,75 +1,162 @@
 package cn.iocoder.yudao.framework.dict.core.util;
 
-import cn.hutool.core.util.ObjectUtil;
-import cn.iocoder.yudao.framework.common.core.KeyValue;
-import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.iocoder.yudao.module.system.api.dict.DictDataApi;
 import cn.iocoder.yudao.module.system.api.dict.dto.DictDataRespDTO;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import lombok.SneakyThrows;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
 
 /**
  * 字典工具类
  *
+ * 按照字典类型，缓存全量的字典数据快照，避免 Excel 导出等场景，逐条加载字典数据：
+ * 1. 加载：首次访问某个字典类型时，批量加载该类型的所有字典数据
+ * 2. 刷新：定时获取所有已缓存字典类型的版本，只重新加载版本变化的字典类型
+ *
  * @author 芋道源码
  */
 @Slf4j
 public class DictFrameworkUtils {
 
-    private static DictDataApi dictDataApi;
-
-    private static final DictDataRespDTO DICT_DATA_NULL = new DictDataRespDTO();
-
     /**
-     * 针对 {@link #getDictDataLabel(String, String)} 的缓存
+     * 刷新间隔
      */
-    private static final LoadingCache<KeyValue<String, String>, DictDataRespDTO> GET_DICT_DATA_CACHE = CacheUtils.buildAsyncReloadingCache(
-            Duration.ofMinutes(1L), // 过期时间 1 分钟
-            new CacheLoader<KeyValue<String, String>, DictDataRespDTO>() {
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(1L);
 
-                @Override
-                public DictDataRespDTO load(KeyValue<String, String> key) {
-                    return ObjectUtil.defaultIfNull(dictDataApi.getDictData(key.getKey(), key.getValue()), DICT_DATA_NULL);
-                }
-
-            });
+    private static DictDataApi dictDataApi;
 
     /**
-     * 针对 {@link #parseDictDataValue(String, String)} 的缓存
+     * 字典数据的快照
+     *
+     * key：字典类型
      */
-    private static final LoadingCache<KeyValue<String, String>, DictDataRespDTO> PARSE_DICT_DATA_CACHE = CacheUtils.buildAsyncReloadingCache(
-            Duration.ofMinutes(1L), // 过期时间 1 分钟
-            new CacheLoader<KeyValue<String, String>, DictDataRespDTO>() {
-
-                @Override
-                public DictDataRespDTO load(KeyValue<String, String> key) {
-                    return ObjectUtil.defaultIfNull(dictDataApi.parseDictData(key.getKey(), key.getValue()), DICT_DATA_NULL);
-                }
+    private static final Map<String, DictSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
 
-            });
+    /**
+     * 刷新快照的线程池，只有一个线程
+     */
+    private static ScheduledExecutorService refreshExecutor;
 
-    public static void init(DictDataApi dictDataApi) {
+    public static synchronized void init(DictDataApi dictDataApi) {
         DictFrameworkUtils.dictDataApi = dictDataApi;
+        SNAPSHOTS.clear();
+        if (refreshExecutor == null) {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("dict-refresh-", true));
+            refreshExecutor.scheduleWithFixedDelay(DictFrameworkUtils::refresh,
+                    REFRESH_INTERVAL.toMillis(), REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
         log.info("[init][初始化 DictFrameworkUtils 成功]");
     }
 
-    @SneakyThrows
     public static String getDictDataLabel(String dictType, Integer value) {
-        return GET_DICT_DATA_CACHE.get(new KeyValue<>(dictType, String.valueOf(value))).getLabel();
+        return getDictDataLabel(dictType, String.valueOf(value));
     }
 
-    @SneakyThrows
     public static String getDictDataLabel(String dictType, String value) {
-        return GET_DICT_DATA_CACHE.get(new KeyValue<>(dictType, value)).getLabel();
+        return getDictDataLabelMap(dictType).get(value);
     }
 
-    @SneakyThrows
     public static String parseDictDataValue(String dictType, String label) {
-        return PARSE_DICT_DATA_CACHE.get(new KeyValue<>(dictType, label)).getValue();
+        return getDictDataValueMap(dictType).get(label);
+    }
+
+    /**
+     * 批量获得字典数据的标签
+     *
+     * @param dictType 字典类型
+     * @param values 字典数据值的数组
+     * @return 字典数据标签的数组，和 values 一一对应。不存在时，为 null
+     */
+    public static List<String> getDictDataLabelList(String dictType, Collection<String> values) {
+        Map<String, String> labelMap = getDictDataLabelMap(dictType);
+        return convertList(values, labelMap::get);
+    }
+
+    /**
+     * 获得字典类型的 value 与 label 的映射
+     *
+     * @param dictType 字典类型
+     * @return 映射，key 为 value，value 为 label。不可修改
+     */
+    public static Map<String, String> getDictDataLabelMap(String dictType) {
+        return getSnapshot(dictType).getLabelMap();
+    }
+
+    /**
+     * 获得字典类型的 label 与 value 的映射
+     *
+     * @param dictType 字典类型
+     * @return 映射，key 为 label，value 为 value。不可修改
+     */
+    public static Map<String, String> getDictDataValueMap(String dictType) {
+        return getSnapshot(dictType).getValueMap();
+    }
+
+    private static DictSnapshot getSnapshot(String dictType) {
+        return SNAPSHOTS.computeIfAbsent(dictType, DictFrameworkUtils::loadSnapshot);
+    }
+
+    private static DictSnapshot loadSnapshot(String dictType) {
+        // 先获取版本，再加载数据。这样，加载期间的变更，下次刷新时会重新加载
+        String version = dictDataApi.getDictDataVersionMap(Collections.singleton(dictType)).get(dictType);
+        List<DictDataRespDTO> list = dictDataApi.getDictDataList(dictType);
+        return new DictSnapshot(version,
+                Collections.unmodifiableMap(convertMap(list, DictDataRespDTO::getValue, DictDataRespDTO::getLabel)),
+                Collections.unmodifiableMap(convertMap(list, DictDataRespDTO::getLabel, DictDataRespDTO::getValue)));
+    }
+
+    /**
+     * 刷新快照：只重新加载版本变化的字典类型
+     */
+    private static void refresh() {
+        if (SNAPSHOTS.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> versionMap = dictDataApi.getDictDataVersionMap(new HashSet<>(SNAPSHOTS.keySet()));
+            SNAPSHOTS.forEach((dictType, snapshot) -> {
+                if (Objects.equals(snapshot.getVersion(), versionMap.get(dictType))) {
+                    return;
+                }
+                SNAPSHOTS.put(dictType, loadSnapshot(dictType));
+                log.info("[refresh][字典类型({}) 刷新完成，版本({})]", dictType, versionMap.get(dictType));
+            });
+        } catch (Exception ex) {
+            log.error("[refresh][刷新字典数据失败]", ex);
+        }
+    }
+
+    /**
+     * 字典类型的快照
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class DictSnapshot {
+
+        /**
+         * 版本，用于判断是否需要刷新
+         */
+        private final String version;
+        /**
+         * key：value；value：label
+         */
+        private final Map<String, String> labelMap;
+        /**
+         * key：label；value：value
+         */
+        private final Map<String, String> valueMap;
+
     }
 
 }
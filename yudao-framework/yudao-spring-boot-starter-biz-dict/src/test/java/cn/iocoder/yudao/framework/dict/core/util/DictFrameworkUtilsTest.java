@@ -8,9 +8,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.List;
+
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomString;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
 
 /**
  * {@link DictFrameworkUtils} 的单元测试
@@ -30,9 +36,28 @@ public class DictFrameworkUtilsTest extends BaseMockitoUnitTest {
         // mock 数据
         DictDataRespDTO dataRespDTO = randomPojo(DictDataRespDTO.class, o -> o.setStatus(CommonStatusEnum.ENABLE.getStatus()));
         // mock 方法
-        when(dictDataApi.getDictData(dataRespDTO.getDictType(), dataRespDTO.getValue())).thenReturn(dataRespDTO);
+        when(dictDataApi.getDictDataList(dataRespDTO.getDictType())).thenReturn(singletonList(dataRespDTO));
         // 断言返回值
         assertEquals(dataRespDTO.getLabel(), DictFrameworkUtils.getDictDataLabel(dataRespDTO.getDictType(), dataRespDTO.getValue()));
+        assertNull(DictFrameworkUtils.getDictDataLabel(dataRespDTO.getDictType(), randomString()));
+        // 断言：同一个字典类型，只批量加载一次
+        verify(dictDataApi, times(1)).getDictDataList(dataRespDTO.getDictType());
+    }
+
+    @Test
+    public void testGetDictDataLabelList() {
+        // mock 数据
+        DictDataRespDTO dataRespDTO01 = randomPojo(DictDataRespDTO.class, o -> o.setDictType("yunai"));
+        DictDataRespDTO dataRespDTO02 = randomPojo(DictDataRespDTO.class, o -> o.setDictType("yunai"));
+        // mock 方法
+        when(dictDataApi.getDictDataList("yunai")).thenReturn(asList(dataRespDTO01, dataRespDTO02));
+        // 准备参数
+        List<String> values = asList(dataRespDTO02.getValue(), randomString(), dataRespDTO01.getValue());
+
+        // 调用
+        List<String> labels = DictFrameworkUtils.getDictDataLabelList("yunai", values);
+        // 断言
+        assertEquals(asList(dataRespDTO02.getLabel(), null, dataRespDTO01.getLabel()), labels);
     }
 
     @Test
@@ -40,7 +65,7 @@ public class DictFrameworkUtilsTest extends BaseMockitoUnitTest {
         // mock 数据
         DictDataRespDTO resp = randomPojo(DictDataRespDTO.class, o -> o.setStatus(CommonStatusEnum.ENABLE.getStatus()));
         // mock 方法
-        when(dictDataApi.parseDictData(resp.getDictType(), resp.getLabel())).thenReturn(resp);
+        when(dictDataApi.getDictDataList(resp.getDictType())).thenReturn(singletonList(resp));
         // 断言返回值
         assertEquals(resp.getValue(), DictFrameworkUtils.parseDictDataValue(resp.getDictType(), resp.getLabel()));
     }
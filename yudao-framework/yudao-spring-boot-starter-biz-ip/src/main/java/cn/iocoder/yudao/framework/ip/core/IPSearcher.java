@@ -0,0 +1,209 @@
+package cn.iocoder.yudao.framework.ip.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * IP 地区查询器，基于 ip2region.xdb 文件构建
+ *
+ * 加载时，将 xdb 的 segment 索引解析成 int 数组：IP 段的起始 IP、地区编号；并按照 IP 的高 16 位分桶。
+ * 查询时，只需要在桶内二分查找，不创建 String 等对象；并且创建后不可变，可以被多线程无锁访问。
+ *
+ * 注意，要求 xdb 的数据是地区编号，并且 IP 段连续覆盖整个 IPv4 地址空间，ip2region 生成的 xdb 文件满足
+ *
+ * @author 芋道源码
+ */
+public class IPSearcher {
+
+    /**
+     * xdb 头部中，第一个 segment 索引的位置
+     */
+    private static final int HEADER_START_INDEX_PTR = 8;
+    /**
+     * xdb 头部中，最后一个 segment 索引的位置
+     */
+    private static final int HEADER_END_INDEX_PTR = 12;
+    /**
+     * 每个 segment 索引的大小：起始 IP(4) + 结束 IP(4) + 数据长度(2) + 数据位置(4)
+     */
+    private static final int SEGMENT_INDEX_SIZE = 14;
+
+    /**
+     * 桶的数量，按照 IP 的高 16 位分桶
+     */
+    private static final int BUCKET_COUNT = 1 << 16;
+
+    /**
+     * IP 段的起始 IP，从小到大排序
+     *
+     * 为了使用有符号比较，存储的是 IP 异或 {@link Integer#MIN_VALUE} 的结果
+     */
+    private final int[] startIps;
+    /**
+     * IP 段的地区编号，和 {@link #startIps} 一一对应
+     */
+    private final int[] areaIds;
+    /**
+     * 桶，buckets[i] 为 IP (i << 16) 所在的 IP 段下标
+     */
+    private final int[] buckets;
+
+    private IPSearcher(int[] startIps, int[] areaIds, int[] buckets) {
+        this.startIps = startIps;
+        this.areaIds = areaIds;
+        this.buckets = buckets;
+    }
+
+    /**
+     * 基于 xdb 文件的内容，创建查询器
+     *
+     * @param xdb xdb 文件的内容
+     * @return 查询器
+     */
+    public static IPSearcher load(byte[] xdb) {
+        // 校验格式
+        if (xdb == null || xdb.length < HEADER_END_INDEX_PTR + 4) {
+            throw new IllegalArgumentException("xdb 文件格式不正确");
+        }
+        int startPtr = getInt(xdb, HEADER_START_INDEX_PTR);
+        int endPtr = getInt(xdb, HEADER_END_INDEX_PTR);
+        if (startPtr <= 0 || endPtr < startPtr || endPtr > xdb.length - SEGMENT_INDEX_SIZE
+                || (endPtr - startPtr) % SEGMENT_INDEX_SIZE != 0) {
+            throw new IllegalArgumentException("xdb 文件格式不正确");
+        }
+
+        // 解析 segment 索引。相同数据位置的地区编号，只解析一次
+        int count = (endPtr - startPtr) / SEGMENT_INDEX_SIZE + 1;
+        int[] startIps = new int[count];
+        int[] areaIds = new int[count];
+        Map<Integer, Integer> areaIdCache = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int ptr = startPtr + i * SEGMENT_INDEX_SIZE;
+            startIps[i] = getInt(xdb, ptr) ^ Integer.MIN_VALUE;
+            int dataLength = (xdb[ptr + 8] & 0xFF) | ((xdb[ptr + 9] & 0xFF) << 8);
+            int dataPtr = getInt(xdb, ptr + 10);
+            areaIds[i] = areaIdCache.computeIfAbsent(dataPtr, key -> parseAreaId(xdb, dataPtr, dataLength));
+            if (i > 0 && startIps[i] <= startIps[i - 1]) {
+                throw new IllegalArgumentException("xdb 文件的 IP 段未排序");
+            }
+        }
+        if (startIps[0] != Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("xdb 文件的 IP 段未从 0.0.0.0 开始");
+        }
+
+        // 分桶
+        int[] buckets = new int[BUCKET_COUNT + 1];
+        int index = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            int ip = (i << 16) ^ Integer.MIN_VALUE;
+            while (index + 1 < count && startIps[index + 1] <= ip) {
+                index++;
+            }
+            buckets[i] = index;
+        }
+        buckets[BUCKET_COUNT] = count - 1;
+        return new IPSearcher(startIps, areaIds, buckets);
+    }
+
+    /**
+     * 查询 IP 对应的地区编号
+     *
+     * @param ip IP 地址的 int 表示，参考 {@link #parseIp(CharSequence)} 的返回
+     * @return 地区编号
+     */
+    public int search(int ip) {
+        int key = ip ^ Integer.MIN_VALUE;
+        int bucket = ip >>> 16;
+        // 在桶内二分查找，最后一个起始 IP <= ip 的 IP 段
+        int low = buckets[bucket];
+        int high = buckets[bucket + 1];
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (startIps[mid] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return areaIds[low];
+    }
+
+    /**
+     * 获得 IP 段的数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return startIps.length;
+    }
+
+    /**
+     * 解析 IPv4 地址，不创建 String 等对象
+     *
+     * @param ip IP 地址，格式为 127.0.0.1，允许前后有空白
+     * @return IP 地址的 int 表示，即无符号的 32 位整数
+     * @throws IllegalArgumentException IP 地址格式不正确
+     */
+    public static int parseIp(CharSequence ip) {
+        int start = 0;
+        int end = ip.length();
+        while (start < end && ip.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && ip.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int result = 0;
+        int part = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                part = part * 10 + (c - '0');
+                if (++digits > 3 || part > 255) {
+                    throw invalidIp(ip);
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = (result << 8) | part;
+                part = 0;
+                digits = 0;
+                dots++;
+            } else {
+                throw invalidIp(ip);
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            throw invalidIp(ip);
+        }
+        return (result << 8) | part;
+    }
+
+    private static IllegalArgumentException invalidIp(CharSequence ip) {
+        return new IllegalArgumentException("IP 地址(" + ip + ") 格式不正确");
+    }
+
+    private static int parseAreaId(byte[] xdb, int ptr, int length) {
+        if (length <= 0 || ptr < 0 || ptr > xdb.length - length) {
+            throw new IllegalArgumentException("xdb 文件的数据位置不正确");
+        }
+        boolean negative = xdb[ptr] == '-';
+        int result = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            int digit = xdb[ptr + i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("xdb 文件的数据不是地区编号");
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | ((bytes[offset + 1] & 0xFF) << 8)
+                | ((bytes[offset + 2] & 0xFF) << 16)
+                | ((bytes[offset + 3] & 0xFF) << 24);
+    }
+
+}
@@ -9,14 +9,16 @@ import cn.iocoder.yudao.framework.ip.core.Area;
 import cn.iocoder.yudao.framework.ip.core.enums.AreaTypeEnum;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * 区域工具类
  *
+ * 启动时，将区域树按照深度优先的顺序，构建成数组索引：
+ * 1. 编号到位置的映射，使用数组实现，查询无需装箱、无需计算 hash
+ * 2. 每个区域的子树，是连续的一段位置，所以 {@link #isAncestor(Integer, Integer)} 只需比较位置
+ * 3. 预先计算 {@link #format(Integer)} 的结果，无需每次拼接
+ *
  * @author 芋道源码
  */
 @Slf4j
@@ -28,15 +30,46 @@ public class AreaUtils {
     @SuppressWarnings("InstantiationOfUtilityClass")
     private final static AreaUtils INSTANCE = new AreaUtils();
 
+    /**
+     * 默认的分隔符
+     */
+    private static final String SEPARATOR_DEFAULT = " ";
+
+    /**
+     * 区域的位置，即深度优先遍历的顺序
+     *
+     * 下标：区域编号；值：位置，不存在时为 -1
+     */
+    private static short[] positions;
+    /**
+     * 区域编号
+     *
+     * 下标：位置
+     */
+    private static int[] ids;
     /**
      * Area 内存缓存，提升访问速度
+     *
+     * 下标：位置
+     */
+    private static Area[] areas;
+    /**
+     * 子树的结束位置（不包含）
+     *
+     * 下标：位置；子树的位置范围为 [位置, ends[位置])
+     */
+    private static int[] ends;
+    /**
+     * 使用默认分隔符格式化后的区域
+     *
+     * 下标：位置
      */
-    private static Map<Integer, Area> areas;
+    private static String[] formats;
 
     private AreaUtils() {
         long now = System.currentTimeMillis();
-        areas = new HashMap<>();
-        areas.put(Area.ID_GLOBAL, new Area(Area.ID_GLOBAL, "全球", 0,
+        Map<Integer, Area> areaMap = new HashMap<>();
+        areaMap.put(Area.ID_GLOBAL, new Area(Area.ID_GLOBAL, "全球", 0,
                 null, new ArrayList<>()));
         // 从 csv 中加载数据
         List<CsvRow> rows = CsvUtil.getReader().read(ResourceUtil.getUtf8Reader("area.csv")).getRows();
@@ -46,20 +79,72 @@ public class AreaUtils {
             Area area = new Area(Integer.valueOf(row.get(0)), row.get(1), Integer.valueOf(row.get(2)),
                     null, new ArrayList<>());
             // 添加到 areas 中
-            areas.put(area.getId(), area);
+            areaMap.put(area.getId(), area);
         }
 
         // 构建父子关系：因为 Area 中没有 parentId 字段，所以需要重复读取
         for (CsvRow row : rows) {
-            Area area = areas.get(Integer.valueOf(row.get(0))); // 自己
-            Area parent = areas.get(Integer.valueOf(row.get(3))); // 父
+            Area area = areaMap.get(Integer.valueOf(row.get(0))); // 自己
+            Area parent = areaMap.get(Integer.valueOf(row.get(3))); // 父
             Assert.isTrue(area != parent, "{}:父子节点相同", area.getName());
             area.setParent(parent);
             parent.getChildren().add(area);
         }
+
+        // 构建数组索引
+        buildIndex(areaMap);
         log.info("启动加载 AreaUtils 成功，耗时 ({}) 毫秒", System.currentTimeMillis() - now);
     }
 
+    private static void buildIndex(Map<Integer, Area> areaMap) {
+        int size = areaMap.size();
+        Assert.isTrue(size <= Short.MAX_VALUE, "区域数量({}) 超过上限", size);
+        ids = new int[size];
+        areas = new Area[size];
+        ends = new int[size];
+        formats = new String[size];
+        positions = new short[Collections.max(areaMap.keySet()) + 1];
+        Arrays.fill(positions, (short) -1);
+        // 深度优先遍历，从全球开始
+        int position = visit(areaMap.get(Area.ID_GLOBAL), 0);
+        Assert.isTrue(position == size, "存在未挂载到全球的区域");
+        for (int i = 0; i < size; i++) {
+            formats[i] = buildFormat(areas[i], SEPARATOR_DEFAULT);
+        }
+    }
+
+    /**
+     * 深度优先遍历，设置区域及其子树的位置
+     *
+     * @param area 区域
+     * @param position 区域的位置
+     * @return 子树的结束位置（不包含）
+     */
+    private static int visit(Area area, int position) {
+        ids[position] = area.getId();
+        areas[position] = area;
+        positions[area.getId()] = (short) position;
+        int end = position + 1;
+        for (Area child : area.getChildren()) {
+            end = visit(child, end);
+        }
+        ends[position] = end;
+        return end;
+    }
+
+    /**
+     * 获得区域的位置
+     *
+     * @param id 区域编号
+     * @return 位置。不存在时，返回 -1
+     */
+    private static int getPosition(Integer id) {
+        if (id == null || id < 0 || id >= positions.length) {
+            return -1;
+        }
+        return positions[id];
+    }
+
     /**
      * 获得指定编号对应的区域
      *
@@ -67,7 +152,59 @@ public class AreaUtils {
      * @return 区域
      */
     public static Area getArea(Integer id) {
-        return areas.get(id);
+        int position = getPosition(id);
+        return position >= 0 ? areas[position] : null;
+    }
+
+    /**
+     * 判断 ancestorId 是否为 id 的祖先区域，不包括自身
+     *
+     * 例如说，“上海”是“静安区”的祖先区域
+     *
+     * @param ancestorId 祖先区域编号
+     * @param id 区域编号
+     * @return 是否为祖先区域
+     */
+    public static boolean isAncestor(Integer ancestorId, Integer id) {
+        int ancestorPosition = getPosition(ancestorId);
+        int position = getPosition(id);
+        if (ancestorPosition < 0 || position < 0) {
+            return false;
+        }
+        return ancestorPosition < position && position < ends[ancestorPosition];
+    }
+
+    /**
+     * 获得区域的子区域编号数组
+     *
+     * @param id 区域编号
+     * @return 子区域编号数组。区域不存在时，返回空数组
+     */
+    public static List<Integer> getChildIds(Integer id) {
+        int position = getPosition(id);
+        if (position < 0) {
+            return Collections.emptyList();
+        }
+        List<Integer> childIds = new ArrayList<>();
+        // 子区域的子树，也是连续的，所以直接跳到下一个子区域
+        for (int i = position + 1; i < ends[position]; i = ends[i]) {
+            childIds.add(ids[i]);
+        }
+        return childIds;
+    }
+
+    /**
+     * 获得区域的所有后代区域编号数组，包括子区域、子区域的子区域等，不包括自身
+     *
+     * @param id 区域编号
+     * @return 后代区域编号数组。区域不存在时，返回空数组
+     */
+    public static int[] getDescendantIds(Integer id) {
+        int position = getPosition(id);
+        if (position < 0) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(ids, position + 1, ends[position]);
     }
 
     /**
@@ -77,7 +214,8 @@ public class AreaUtils {
      * @return 格式化后的区域
      */
     public static String format(Integer id) {
-        return format(id, " ");
+        int position = getPosition(id);
+        return position >= 0 ? formats[position] : null;
     }
 
     /**
@@ -95,13 +233,18 @@ public class AreaUtils {
      * @return 格式化后的区域
      */
     public static String format(Integer id, String separator) {
+        if (SEPARATOR_DEFAULT.equals(separator)) {
+            return format(id);
+        }
         // 获得区域
-        Area area = areas.get(id);
+        Area area = getArea(id);
         if (area == null) {
             return null;
         }
+        return buildFormat(area, separator);
+    }
 
-        // 格式化
+    private static String buildFormat(Area area, String separator) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < AreaTypeEnum.values().length; i++) { // 避免死循环
             sb.insert(0, area.getName());
@@ -1,18 +1,19 @@
 package cn.iocoder.yudao.framework.ip.core.utils;
 
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.resource.ResourceUtil;
 import cn.iocoder.yudao.framework.ip.core.Area;
-import lombok.SneakyThrows;
+import cn.iocoder.yudao.framework.ip.core.IPSearcher;
 import lombok.extern.slf4j.Slf4j;
-import org.lionsoul.ip2region.xdb.Searcher;
-
-import java.io.IOException;
 
 /**
  * IP 工具类
  *
  * IP 数据源来自 ip2region.xdb 精简版，基于 <a href="https://gitee.com/zhijiantianya/ip2region"/> 项目
  *
+ * 启动时，将 xdb 解析成 {@link IPSearcher}，查询时直接返回 int 的地区编号，无需创建 String 再解析。
+ * 支持通过 {@link #reload(String)} 热更新 xdb 文件
+ *
  * @author wanglhup
  */
 @Slf4j
@@ -26,8 +27,10 @@ public class IPUtils {
 
     /**
      * IP 查询器，启动加载到内存中
+     *
+     * 热更新时，整体替换，所以查询无需加锁
      */
-    private static Searcher SEARCHER;
+    private static volatile IPSearcher SEARCHER;
 
     /**
      * 私有化构造
@@ -36,33 +39,55 @@ public class IPUtils {
         try {
             long now = System.currentTimeMillis();
             byte[] bytes = ResourceUtil.readBytes("ip2region.xdb");
-            SEARCHER = Searcher.newWithBuffer(bytes);
+            SEARCHER = IPSearcher.load(bytes);
             log.info("启动加载 IPUtils 成功，耗时 ({}) 毫秒", System.currentTimeMillis() - now);
-        } catch (IOException e) {
+        } catch (Exception e) {
             log.error("启动加载 IPUtils 失败", e);
         }
     }
 
+    /**
+     * 热更新 xdb 文件
+     *
+     * 加载失败时，抛出异常，并继续使用原来的 xdb 文件
+     *
+     * @param path xdb 文件的路径
+     */
+    public static void reload(String path) {
+        reload(FileUtil.readBytes(path));
+    }
+
+    /**
+     * 热更新 xdb 文件
+     *
+     * @param bytes xdb 文件的内容
+     */
+    public static void reload(byte[] bytes) {
+        long now = System.currentTimeMillis();
+        IPSearcher searcher = IPSearcher.load(bytes);
+        SEARCHER = searcher;
+        log.info("[reload][热更新 IPUtils 成功，IP 段数量({})，耗时 ({}) 毫秒]", searcher.size(),
+                System.currentTimeMillis() - now);
+    }
+
     /**
      * 查询 IP 对应的地区编号
      *
      * @param ip IP 地址，格式为 127.0.0.1
      * @return 地区id
      */
-    @SneakyThrows
     public static Integer getAreaId(String ip) {
-        return Integer.parseInt(SEARCHER.search(ip.trim()));
+        return SEARCHER.search(IPSearcher.parseIp(ip));
     }
 
     /**
      * 查询 IP 对应的地区编号
      *
-     * @param ip IP 地址的时间戳，格式参考{@link Searcher#checkIP(String)} 的返回
+     * @param ip IP 地址的数值，格式参考{@link IPSearcher#parseIp(CharSequence)} 的返回
      * @return 地区编号
      */
-    @SneakyThrows
     public static Integer getAreaId(long ip) {
-        return Integer.parseInt(SEARCHER.search(ip));
+        return SEARCHER.search((int) ip);
     }
 
     /**
@@ -78,7 +103,7 @@ public class IPUtils {
     /**
      * 查询 IP 对应的地区
      *
-     * @param ip IP 地址的时间戳，格式参考{@link Searcher#checkIP(String)} 的返回
+     * @param ip IP 地址的数值，格式参考{@link IPSearcher#parseIp(CharSequence)} 的返回
      * @return 地区
      */
     public static Area getArea(long ip) {
@@ -5,7 +5,9 @@ import cn.iocoder.yudao.framework.ip.core.Area;
 import cn.iocoder.yudao.framework.ip.core.enums.AreaTypeEnum;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * {@link AreaUtils} 的单元测试
@@ -31,6 +33,33 @@ public class AreaUtilsTest {
         assertEquals(AreaUtils.format(110105), "北京 北京市 朝阳区");
         assertEquals(AreaUtils.format(1), "中国");
         assertEquals(AreaUtils.format(2), "蒙古");
+        assertEquals(AreaUtils.format(110105, "/"), "北京/北京市/朝阳区");
+        assertNull(AreaUtils.format(-1));
+        assertNull(AreaUtils.format(null));
+    }
+
+    @Test
+    public void testIsAncestor() {
+        assertTrue(AreaUtils.isAncestor(110000, 110105)); // 北京 -> 朝阳区
+        assertTrue(AreaUtils.isAncestor(1, 110105)); // 中国 -> 朝阳区
+        assertFalse(AreaUtils.isAncestor(110105, 110105)); // 不包括自身
+        assertFalse(AreaUtils.isAncestor(110105, 110000));
+        assertFalse(AreaUtils.isAncestor(310000, 110105)); // 上海 -> 朝阳区
+        assertFalse(AreaUtils.isAncestor(null, 110105));
+    }
+
+    @Test
+    public void testGetChildIds() {
+        // 调用：北京市
+        assertEquals(AreaUtils.getArea(110100).getChildren().size(), AreaUtils.getChildIds(110100).size());
+        assertTrue(AreaUtils.getChildIds(110100).contains(110105));
+        // 调用：北京，包括北京市、以及北京市的子区域
+        int[] descendantIds = AreaUtils.getDescendantIds(110000);
+        assertEquals(17, descendantIds.length);
+        assertTrue(Arrays.stream(descendantIds).allMatch(id -> AreaUtils.isAncestor(110000, id)));
+        // 调用：不存在
+        assertTrue(AreaUtils.getChildIds(-1).isEmpty());
+        assertEquals(0, AreaUtils.getDescendantIds(-1).length);
     }
 
 }
@@ -1,17 +1,24 @@
 package cn.iocoder.yudao.framework.ip.core.utils;
 
+import cn.hutool.core.io.resource.ResourceUtil;
 import cn.iocoder.yudao.framework.ip.core.Area;
+import cn.iocoder.yudao.framework.ip.core.IPSearcher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.lionsoul.ip2region.xdb.Searcher;
 
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * {@link IPUtils} 的单元测试
  *
  * @author wanglhup
  */
+@Slf4j
 public class IPUtilsTest {
 
     @Test
@@ -29,6 +36,14 @@ public class IPUtilsTest {
         assertEquals(360900, areaId);
     }
 
+    @Test
+    public void testGetAreaId_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> IPUtils.getAreaId("120.202.4"));
+        assertThrows(IllegalArgumentException.class, () -> IPUtils.getAreaId("120.202.4.256"));
+        assertThrows(IllegalArgumentException.class, () -> IPUtils.getAreaId("120.202..4"));
+        assertThrows(IllegalArgumentException.class, () -> IPUtils.getAreaId("yudao"));
+    }
+
     @Test
     public void testGetArea_string() {
         // 120.202.4.0|120.202.4.255|420600
@@ -44,4 +59,59 @@ public class IPUtilsTest {
         assertEquals("宜春市", area.getName());
     }
 
+    @Test
+    public void testSearch_sameAsSearcher() throws Exception {
+        // 准备参数
+        byte[] bytes = ResourceUtil.readBytes("ip2region.xdb");
+        IPSearcher ipSearcher = IPSearcher.load(bytes);
+        Searcher searcher = Searcher.newWithBuffer(bytes);
+
+        // 断言：边界、随机的 IP，和 ip2region 的查询结果一致
+        Random random = new Random(1024L);
+        for (int i = 0; i < 100000; i++) {
+            long ip = i == 0 ? 0L : i == 1 ? 0xFFFFFFFFL : random.nextInt() & 0xFFFFFFFFL;
+            assertEquals(Integer.parseInt(searcher.search(ip)), ipSearcher.search((int) ip));
+        }
+        assertEquals(Searcher.checkIP("120.202.4.50"), IPSearcher.parseIp(" 120.202.4.50 ") & 0xFFFFFFFFL);
+    }
+
+    @Test
+    public void testReload() {
+        // 调用：加载失败时，继续使用原来的 xdb 文件
+        assertThrows(IllegalArgumentException.class, () -> IPUtils.reload(new byte[16]));
+        assertEquals(420600, IPUtils.getAreaId("120.202.4.50"));
+
+        // 调用：加载成功
+        IPUtils.reload(ResourceUtil.readBytes("ip2region.xdb"));
+        assertEquals(420600, IPUtils.getAreaId("120.202.4.50"));
+    }
+
+    @Test
+    @Disabled("性能测试，需要时手动执行")
+    public void testSearch_benchmark() throws Exception {
+        // 准备参数
+        byte[] bytes = ResourceUtil.readBytes("ip2region.xdb");
+        IPSearcher ipSearcher = IPSearcher.load(bytes);
+        Searcher searcher = Searcher.newWithBuffer(bytes);
+        int[] ips = new Random(1024L).ints(10000).toArray();
+        int count = 1000000;
+
+        // 调用：IPSearcher
+        long sum = 0;
+        long now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sum += ipSearcher.search(ips[i % ips.length]);
+        }
+        long ipSearcherTime = System.nanoTime() - now;
+        // 调用：ip2region 的 Searcher + Integer.parseInt
+        now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sum -= Integer.parseInt(searcher.search(ips[i % ips.length] & 0xFFFFFFFFL));
+        }
+        long searcherTime = System.nanoTime() - now;
+        assertEquals(0L, sum);
+        log.info("[testSearch_benchmark][IPSearcher: {} 次/秒，Searcher: {} 次/秒]",
+                count * 1000000000L / ipSearcherTime, count * 1000000000L / searcherTime);
+    }
+
 }
@@ -3,6 +3,7 @@ package cn.iocoder.yudao.framework.tenant.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Set;
 
@@ -39,4 +40,48 @@ public class TenantProperties {
      */
     private Set<String> ignoreTables = Collections.emptySet();
 
+    /**
+     * 改写后的多租户 SQL 的最大缓存数量
+     *
+     * 每条不同的 SQL 占用一个，超过后按照 LRU 淘汰。多行 VALUES 的批量插入、超长的 SQL 不缓存
+     */
+    private Long sqlCacheSize = 1024L;
+
+    /**
+     * 多租户 Job 配置
+     */
+    private Job job = new Job();
+
+    @Data
+    public static class Job {
+
+        /**
+         * 执行多租户 Job 的线程池大小，所有 Job 共享
+         */
+        private Integer poolSize = 8;
+
+        /**
+         * 执行多租户 Job 的线程池队列大小，超过后由 Job 线程自己执行
+         */
+        private Integer queueCapacity = 100;
+
+        /**
+         * 每个 Job 默认并行执行的租户数量，可通过 @TenantJob 的 parallelism 属性覆盖
+         */
+        private Integer parallelism = 4;
+
+        /**
+         * 是否开启租户分片，基于一致性 Hash 将租户分配到各个调度节点
+         *
+         * 注意，要求每个节点都会触发 Job；Quartz 集群模式下，不能开启
+         */
+        private Boolean sharding = false;
+
+        /**
+         * 分片时，调度节点上报心跳的间隔
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(10);
+
+    }
+
 }
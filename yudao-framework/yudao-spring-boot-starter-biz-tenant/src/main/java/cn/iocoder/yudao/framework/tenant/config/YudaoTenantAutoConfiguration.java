@@ -1,11 +1,17 @@
 package cn.iocoder.yudao.framework.tenant.config;
 
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.system.SystemUtil;
 import cn.iocoder.yudao.framework.common.enums.WebFilterOrderEnum;
 import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
 import cn.iocoder.yudao.framework.redis.config.YudaoCacheProperties;
+import cn.iocoder.yudao.framework.redis.core.MultiLevelCacheDecorator;
 import cn.iocoder.yudao.framework.tenant.core.aop.TenantIgnoreAspect;
 import cn.iocoder.yudao.framework.tenant.core.db.TenantDatabaseInterceptor;
+import cn.iocoder.yudao.framework.tenant.core.db.TenantLineCachedInnerInterceptor;
 import cn.iocoder.yudao.framework.tenant.core.job.TenantJobAspect;
+import cn.iocoder.yudao.framework.tenant.core.job.TenantJobNodeRedisDAO;
+import cn.iocoder.yudao.framework.tenant.core.job.TenantJobSharding;
 import cn.iocoder.yudao.framework.tenant.core.mq.TenantRedisMessageInterceptor;
 import cn.iocoder.yudao.framework.tenant.core.redis.TenantRedisCacheManager;
 import cn.iocoder.yudao.framework.tenant.core.security.TenantSecurityWebFilter;
@@ -16,7 +22,8 @@ import cn.iocoder.yudao.framework.web.config.WebProperties;
 import cn.iocoder.yudao.framework.web.core.handler.GlobalExceptionHandler;
 import cn.iocoder.yudao.module.system.api.tenant.TenantApi;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -29,8 +36,11 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Objects;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @AutoConfiguration
 @ConditionalOnProperty(prefix = "yudao.tenant", value = "enable", matchIfMissing = true) // 允许使用 yudao.tenant.enable=false 禁用多租户
@@ -52,9 +62,10 @@ public class YudaoTenantAutoConfiguration {
     // ========== DB ==========
 
     @Bean
-    public TenantLineInnerInterceptor tenantLineInnerInterceptor(TenantProperties properties,
-                                                                 MybatisPlusInterceptor interceptor) {
-        TenantLineInnerInterceptor inner = new TenantLineInnerInterceptor(new TenantDatabaseInterceptor(properties));
+    public TenantLineCachedInnerInterceptor tenantLineInnerInterceptor(TenantProperties properties,
+                                                                       MybatisPlusInterceptor interceptor) {
+        TenantLineCachedInnerInterceptor inner = new TenantLineCachedInnerInterceptor(
+                new TenantDatabaseInterceptor(properties), properties.getSqlCacheSize());
         // 添加到 interceptor 中
         // 需要加在首个，主要是为了在分页插件前面。这个是 MyBatis Plus 的规定
         MyBatisUtils.addInterceptor(interceptor, inner, 0);
@@ -94,9 +105,37 @@ public class YudaoTenantAutoConfiguration {
 
     // ========== Job ==========
 
+    public static final String TENANT_JOB_THREAD_POOL_TASK_EXECUTOR = "TENANT_JOB_THREAD_POOL_TASK_EXECUTOR";
+
+    @Bean(TENANT_JOB_THREAD_POOL_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor tenantJobThreadPoolTaskExecutor(TenantProperties tenantProperties) {
+        TenantProperties.Job job = tenantProperties.getJob();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(job.getPoolSize()); // 设置核心线程数
+        executor.setMaxPoolSize(job.getPoolSize()); // 设置最大线程数
+        executor.setKeepAliveSeconds(60); // 设置空闲时间
+        executor.setAllowCoreThreadTimeOut(true); // Job 执行完后，释放空闲线程
+        executor.setQueueCapacity(job.getQueueCapacity()); // 设置队列大小
+        executor.setThreadNamePrefix("tenant-job-"); // 配置线程池的前缀
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "yudao.tenant.job", value = "sharding", havingValue = "true")
+    public TenantJobSharding tenantJobSharding(TenantProperties tenantProperties, StringRedisTemplate stringRedisTemplate) {
+        String nodeId = NetUtil.getLocalhostStr() + "@" + SystemUtil.getCurrentPID();
+        return new TenantJobSharding(new TenantJobNodeRedisDAO(stringRedisTemplate),
+                tenantProperties.getJob().getHeartbeatInterval(), nodeId);
+    }
+
     @Bean
-    public TenantJobAspect tenantJobAspect(TenantFrameworkService tenantFrameworkService) {
-        return new TenantJobAspect(tenantFrameworkService);
+    public TenantJobAspect tenantJobAspect(TenantFrameworkService tenantFrameworkService,
+                                           TenantProperties tenantProperties,
+                                           @Qualifier(TENANT_JOB_THREAD_POOL_TASK_EXECUTOR) ThreadPoolTaskExecutor executor,
+                                           ObjectProvider<TenantJobSharding> shardingProvider) {
+        return new TenantJobAspect(tenantFrameworkService, tenantProperties.getJob(), executor,
+                shardingProvider.getIfAvailable());
     }
 
     // ========== Redis ==========
@@ -105,13 +144,16 @@ public class YudaoTenantAutoConfiguration {
     @Primary // 引入租户时，tenantRedisCacheManager 为主 Bean
     public RedisCacheManager tenantRedisCacheManager(RedisTemplate<String, Object> redisTemplate,
                                                      RedisCacheConfiguration redisCacheConfiguration,
-                                                     YudaoCacheProperties yudaoCacheProperties) {
+                                                     YudaoCacheProperties yudaoCacheProperties,
+                                                     ObjectProvider<MultiLevelCacheDecorator> multiLevelCacheDecorator) {
         // 创建 RedisCacheWriter 对象
         RedisConnectionFactory connectionFactory = Objects.requireNonNull(redisTemplate.getConnectionFactory());
         RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
                 BatchStrategies.scan(yudaoCacheProperties.getRedisScanBatchSize()));
         // 创建 TenantRedisCacheManager 对象
-        return new TenantRedisCacheManager(cacheWriter, redisCacheConfiguration);
+        TenantRedisCacheManager cacheManager = new TenantRedisCacheManager(cacheWriter, redisCacheConfiguration);
+        cacheManager.setMultiLevelCacheDecorator(multiLevelCacheDecorator.getIfAvailable());
+        return cacheManager;
     }
 
 }
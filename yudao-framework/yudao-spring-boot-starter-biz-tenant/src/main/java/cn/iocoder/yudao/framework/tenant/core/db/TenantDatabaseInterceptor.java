@@ -5,7 +5,7 @@ import cn.iocoder.yudao.framework.tenant.config.TenantProperties;
 import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
 import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
 import net.sf.jsqlparser.expression.Expression;
-import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.schema.Column;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -17,6 +17,16 @@ import java.util.Set;
  */
 public class TenantDatabaseInterceptor implements TenantLineHandler {
 
+    /**
+     * 租户编号的占位符
+     *
+     * 改写 SQL 时使用占位符，而不是具体的租户编号，使改写后的 SQL 和租户无关、可以被缓存。
+     * 执行时，由 {@link TenantLineCachedInnerInterceptor} 替换成当前的租户编号
+     */
+    public static final String TENANT_ID_PLACEHOLDER = "__YUDAO_TENANT_ID__";
+
+    private static final Column TENANT_ID_EXPRESSION = new Column(TENANT_ID_PLACEHOLDER);
+
     private final Set<String> ignoreTables = new HashSet<>();
 
     public TenantDatabaseInterceptor(TenantProperties properties) {
@@ -31,7 +41,7 @@ public class TenantDatabaseInterceptor implements TenantLineHandler {
 
     @Override
     public Expression getTenantId() {
-        return new LongValue(TenantContextHolder.getRequiredTenantId());
+        return TENANT_ID_EXPRESSION;
     }
 
     @Override
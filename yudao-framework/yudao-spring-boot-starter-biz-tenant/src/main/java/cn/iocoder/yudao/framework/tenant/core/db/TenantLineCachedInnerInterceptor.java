@@ -0,0 +1,232 @@
+package cn.iocoder.yudao.framework.tenant.core.db;
+
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.mybatis.core.injector.InsertBatchValues;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import com.baomidou.mybatisplus.core.plugins.InterceptorIgnoreHelper;
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 带 SQL 缓存的 {@link TenantLineInnerInterceptor} 实现类
+ *
+ * MyBatis Plus 默认每次执行 SQL 时，都会使用 JSqlParser 解析并改写 SQL，拼接 tenant_id = ? 条件。
+ * 考虑到改写的结果只和原始 SQL 有关，所以缓存改写后的 SQL：
+ * 1. 改写时，租户编号使用 {@link TenantDatabaseInterceptor#TENANT_ID_PLACEHOLDER} 占位，而不是具体的租户编号
+ * 2. SELECT 时，将占位替换成 ? 参数，并绑定当前的租户编号
+ * 3. INSERT、UPDATE、DELETE 时，将占位替换成当前的租户编号。
+ *    原因是，BatchExecutor 在 SQL 相同时，会复用 PreparedStatement，并使用未改写的参数列表设置参数，无法额外绑定参数
+ * 4. 多行 VALUES 的批量插入、超长的 SQL，直接解析、不缓存，见 {@link #SQL_CACHE_MAX_LENGTH}
+ *
+ * @author 芋道源码
+ */
+public class TenantLineCachedInnerInterceptor extends TenantLineInnerInterceptor implements MeterBinder {
+
+    /**
+     * 租户编号的参数名，通过 {@link BoundSql#setAdditionalParameter(String, Object)} 设置
+     */
+    private static final String TENANT_ID_PARAMETER = "__yudao_tenant_id";
+
+    /**
+     * 缓存的 SQL 的最大长度。超过时，直接解析、不缓存
+     *
+     * 原因是，超长的 SQL 一般是批量操作，行数、参数数量不同时 SQL 也不同，命中率低，却占用大量内存，并淘汰常用的 SQL
+     */
+    static final int SQL_CACHE_MAX_LENGTH = 4096;
+
+    /**
+     * 改写后的 SQL 缓存
+     *
+     * key：原始 SQL
+     */
+    private final Cache<String, TenantSql> sqlCache;
+
+    public TenantLineCachedInnerInterceptor(TenantLineHandler tenantLineHandler, long cacheSize) {
+        super(tenantLineHandler);
+        this.sqlCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats() // 记录命中率等统计
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, sqlCache, "tenant.sql");
+    }
+
+    @Override
+    public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                            ResultHandler resultHandler, BoundSql boundSql) {
+        // 全局忽略多租户时，所有表都不会拼接条件，直接跳过
+        if (InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId()) || TenantContextHolder.isIgnore()) {
+            return;
+        }
+        PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
+        TenantSql tenantSql = getTenantSql(ms, mpBs.sql(), false);
+        if (tenantSql.getParameterIndexes().length == 0) {
+            return;
+        }
+        // 在对应位置，插入租户编号的参数
+        ParameterMapping tenantIdMapping = new ParameterMapping.Builder(ms.getConfiguration(),
+                TENANT_ID_PARAMETER, Long.class).build();
+        List<ParameterMapping> parameterMappings = new ArrayList<>(mpBs.parameterMappings());
+        for (int index : tenantSql.getParameterIndexes()) {
+            parameterMappings.add(index, tenantIdMapping);
+        }
+        mpBs.parameterMappings(parameterMappings);
+        boundSql.setAdditionalParameter(TENANT_ID_PARAMETER, TenantContextHolder.getRequiredTenantId());
+        mpBs.sql(tenantSql.getParameterSql());
+    }
+
+    @Override
+    public void beforePrepare(StatementHandler sh, Connection connection, Integer transactionTimeout) {
+        PluginUtils.MPStatementHandler mpSh = PluginUtils.mpStatementHandler(sh);
+        MappedStatement ms = mpSh.mappedStatement();
+        SqlCommandType sct = ms.getSqlCommandType();
+        if (sct != SqlCommandType.INSERT && sct != SqlCommandType.UPDATE && sct != SqlCommandType.DELETE) {
+            return;
+        }
+        if (InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId()) || TenantContextHolder.isIgnore()) {
+            return;
+        }
+        PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
+        TenantSql tenantSql = getTenantSql(ms, mpBs.sql(), true);
+        if (tenantSql.getParameterIndexes().length == 0) {
+            return;
+        }
+        mpBs.sql(tenantSql.getTemplateSql().replace(TenantDatabaseInterceptor.TENANT_ID_PLACEHOLDER,
+                String.valueOf(TenantContextHolder.getRequiredTenantId())));
+    }
+
+    private TenantSql getTenantSql(MappedStatement ms, String sql, boolean multi) {
+        // 多行 VALUES 的批量插入、超长的 SQL，不缓存
+        if (!isCacheable(ms, sql)) {
+            return buildTenantSql(multi ? parserMulti(sql, null) : parserSingle(sql, null));
+        }
+        TenantSql tenantSql = sqlCache.getIfPresent(sql);
+        if (tenantSql == null) {
+            String templateSql = multi ? parserMulti(sql, null) : parserSingle(sql, null);
+            tenantSql = buildTenantSql(templateSql);
+            sqlCache.put(sql, tenantSql);
+        }
+        return tenantSql;
+    }
+
+    /**
+     * 是否缓存改写后的 SQL
+     *
+     * {@link InsertBatchValues} 的 SQL，每种行数、为空的字段组合都不同，并且可能长达几十 KB，所以不缓存
+     *
+     * @param ms MappedStatement 对象
+     * @param sql 原始 SQL
+     * @return 是否缓存
+     */
+    private static boolean isCacheable(MappedStatement ms, String sql) {
+        return !StrUtil.endWith(ms.getId(), StrUtil.DOT + InsertBatchValues.METHOD_NAME)
+                && sql.length() <= SQL_CACHE_MAX_LENGTH;
+    }
+
+    /**
+     * 解析改写后的 SQL，计算租户编号占位在所有 ? 参数中的位置
+     *
+     * 引号、注释中的 ? 不是参数，需要跳过：
+     * 1. 引号：支持 '、"、`，其中 '、" 内支持 MySQL 的 \ 转义，例如说 'it\'s ?'；'' 这样的重复引号，相当于两个相邻的字符串，无需特殊处理
+     * 2. 注释：支持 -- 单行注释、/* 开头的多行注释
+     *
+     * @param templateSql 改写后的 SQL
+     * @return TenantSql 对象
+     */
+    static TenantSql buildTenantSql(String templateSql) {
+        String placeholder = TenantDatabaseInterceptor.TENANT_ID_PLACEHOLDER;
+        StringBuilder parameterSql = new StringBuilder(templateSql.length());
+        List<Integer> indexes = new ArrayList<>();
+        int parameterCount = 0;
+        char quote = 0; // 当前所在的引号，0 表示不在引号中
+        for (int i = 0; i < templateSql.length(); i++) {
+            char c = templateSql.charAt(i);
+            if (quote != 0) {
+                if (c == '\\' && quote != '`' && i + 1 < templateSql.length()) {
+                    // 转义字符，连同下一个字符一起跳过
+                    parameterSql.append(c).append(templateSql.charAt(++i));
+                    continue;
+                }
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (templateSql.startsWith("--", i) || templateSql.startsWith("/*", i)) {
+                // 注释，整段跳过
+                int end = findCommentEnd(templateSql, i);
+                parameterSql.append(templateSql, i, end);
+                i = end - 1;
+                continue;
+            } else if (c == '?') {
+                parameterCount++;
+            } else if (templateSql.startsWith(placeholder, i)) {
+                indexes.add(parameterCount++);
+                parameterSql.append('?');
+                i += placeholder.length() - 1;
+                continue;
+            }
+            parameterSql.append(c);
+        }
+        return new TenantSql(templateSql, parameterSql.toString(), indexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 获得注释的结束位置
+     *
+     * @param sql SQL
+     * @param start 注释的开始位置，即 -- 或 /* 的位置
+     * @return 结束位置（不包含）。未闭合时，为 SQL 的长度
+     */
+    private static int findCommentEnd(String sql, int start) {
+        if (sql.startsWith("--", start)) {
+            int end = sql.indexOf('\n', start);
+            return end < 0 ? sql.length() : end;
+        }
+        int end = sql.indexOf("*/", start + 2);
+        return end < 0 ? sql.length() : end + 2;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    static class TenantSql {
+
+        /**
+         * 改写后的 SQL，租户编号使用占位
+         */
+        private final String templateSql;
+        /**
+         * 改写后的 SQL，租户编号使用 ? 参数
+         */
+        private final String parameterSql;
+        /**
+         * 租户编号的参数，在所有 ? 参数中的位置，从小到大
+         */
+        private final int[] parameterIndexes;
+
+    }
+
+}
@@ -11,4 +11,12 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface TenantJob {
+
+    /**
+     * 并行执行的租户数量
+     *
+     * 小于等于 0 时，使用 yudao.tenant.job.parallelism 配置项
+     */
+    int parallelism() default 0;
+
 }
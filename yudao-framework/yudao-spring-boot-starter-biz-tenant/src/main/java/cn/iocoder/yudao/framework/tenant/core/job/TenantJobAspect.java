@@ -2,7 +2,8 @@ package cn.iocoder.yudao.framework.tenant.core.job;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.exceptions.ExceptionUtil;
-import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.tenant.config.TenantProperties;
 import cn.iocoder.yudao.framework.tenant.core.service.TenantFrameworkService;
 import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import lombok.RequiredArgsConstructor;
@@ -10,15 +11,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.task.AsyncTaskExecutor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
 
 /**
  * 多租户 JobHandler AOP
  * 任务执行时，会按照租户逐个执行 Job 的逻辑
  *
+ * 1. 并行：在独立的有界线程池中执行，并通过 {@link TenantJob#parallelism()} 控制每个 Job 同时执行的租户数量，
+ *    避免和 parallelStream 等共用 ForkJoinPool
+ * 2. 分片：开启 {@link TenantJobSharding} 时，当前节点只执行分配给它的租户
+ * 3. 日志：返回成功、失败的租户数量，以及失败租户的异常信息，即 {@link TenantJobSummary}，记录到 Job 日志中
+ *
  * 注意，需要保证 JobHandler 的幂等性。因为 Job 因为某个租户执行失败重试时，之前执行成功的租户也会再次执行。
  *
  * @author 芋道源码
@@ -28,29 +42,84 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class TenantJobAspect {
 
+    /**
+     * 返回结果的最大长度，和 infra_job_log 表的 result 字段一致
+     */
+    static final int RESULT_MAX_LENGTH = 4000;
+
     private final TenantFrameworkService tenantFrameworkService;
 
+    private final TenantProperties.Job jobProperties;
+
+    private final AsyncTaskExecutor executor;
+
+    /**
+     * 分片器，为空时表示不分片
+     */
+    private final TenantJobSharding sharding;
+
     @Around("@annotation(tenantJob)")
     public String around(ProceedingJoinPoint joinPoint, TenantJob tenantJob) {
-        // 获得租户列表
+        // 获得租户列表，如果开启分片，则只执行当前节点的租户
         List<Long> tenantIds = tenantFrameworkService.getTenantIds();
+        if (sharding != null && CollUtil.isNotEmpty(tenantIds)) {
+            tenantIds = sharding.filter(tenantIds);
+        }
         if (CollUtil.isEmpty(tenantIds)) {
             return null;
         }
 
         // 逐个租户，执行 Job
-        Map<Long, String> results = new ConcurrentHashMap<>();
-        tenantIds.parallelStream().forEach(tenantId -> {
-            // TODO 芋艿：先通过 parallel 实现并行；1）多个租户，是一条执行日志；2）异常的情况
-            TenantUtils.execute(tenantId, () -> {
-                try {
-                    joinPoint.proceed();
-                } catch (Throwable e) {
-                    results.put(tenantId, ExceptionUtil.getRootCauseMessage(e));
-                }
-            });
+        Map<Long, TenantJobResult> results = new ConcurrentHashMap<>();
+        int parallelism = tenantJob.parallelism() > 0 ? tenantJob.parallelism() : jobProperties.getParallelism();
+        parallelism = Math.max(1, Math.min(parallelism, tenantIds.size()));
+        if (parallelism == 1) {
+            // 情况一：串行执行，直接使用当前线程
+            tenantIds.forEach(tenantId -> results.put(tenantId, execute(joinPoint, tenantId)));
+        } else {
+            // 情况二：并行执行，提交 parallelism 个任务，每个任务从队列中拉取租户执行
+            Queue<Long> queue = new ConcurrentLinkedQueue<>(tenantIds);
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(executor.submit(() -> {
+                    for (Long tenantId = queue.poll(); tenantId != null; tenantId = queue.poll()) {
+                        results.put(tenantId, execute(joinPoint, tenantId));
+                    }
+                }));
+            }
+            waitAll(futures);
+        }
+        // 按照租户的顺序，返回执行结果的汇总
+        return TenantJobSummary.toJsonString(convertList(tenantIds, results::get, results::containsKey), RESULT_MAX_LENGTH);
+    }
+
+    private TenantJobResult execute(ProceedingJoinPoint joinPoint, Long tenantId) {
+        TenantJobResult result = new TenantJobResult(tenantId, true, null, null);
+        long startTime = System.currentTimeMillis();
+        TenantUtils.execute(tenantId, () -> {
+            try {
+                result.setResult(StrUtil.toStringOrNull(joinPoint.proceed()));
+            } catch (Throwable e) {
+                log.error("[execute][租户({}) 执行 Job({}) 发生异常]", tenantId, joinPoint.getSignature(), e);
+                result.setSuccess(false);
+                result.setResult(ExceptionUtil.getRootCauseMessage(e));
+            }
         });
-        return JsonUtils.toJsonString(results);
+        result.setDuration(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private static void waitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("[waitAll][执行 Job 发生异常]", e.getCause());
+            }
+        }
     }
 
 }
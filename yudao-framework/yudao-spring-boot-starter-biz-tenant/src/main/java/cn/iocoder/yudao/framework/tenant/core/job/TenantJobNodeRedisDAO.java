@@ -0,0 +1,45 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 多租户 Job 的调度节点 Redis DAO
+ *
+ * @author 芋道源码
+ */
+@RequiredArgsConstructor
+public class TenantJobNodeRedisDAO {
+
+    /**
+     * 多租户 Job 的存活节点
+     *
+     * KEY 格式：tenant_job_node
+     * VALUE 数据格式：ZSET，member 为节点编号，score 为最后一次心跳的时间戳
+     * 过期时间：不固定
+     */
+    private static final String TENANT_JOB_NODE = "tenant_job_node";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public void heartbeat(String nodeId, long time) {
+        stringRedisTemplate.opsForZSet().add(TENANT_JOB_NODE, nodeId, time);
+    }
+
+    public void delete(String nodeId) {
+        stringRedisTemplate.opsForZSet().remove(TENANT_JOB_NODE, nodeId);
+    }
+
+    public void deleteExpired(long minTime) {
+        stringRedisTemplate.opsForZSet().removeRangeByScore(TENANT_JOB_NODE, 0, minTime - 1);
+    }
+
+    public Set<String> getNodeIds(long minTime) {
+        Set<String> nodeIds = stringRedisTemplate.opsForZSet().rangeByScore(TENANT_JOB_NODE, minTime, Double.MAX_VALUE);
+        return nodeIds != null ? new HashSet<>(nodeIds) : new HashSet<>();
+    }
+
+}
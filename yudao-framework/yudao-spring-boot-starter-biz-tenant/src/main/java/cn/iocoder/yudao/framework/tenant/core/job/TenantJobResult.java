@@ -0,0 +1,34 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 多租户 Job 中，单个租户的执行结果，记录到 Job 日志中
+ *
+ * @author 芋道源码
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantJobResult {
+
+    /**
+     * 租户编号
+     */
+    private Long tenantId;
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+    /**
+     * 运行时长，单位：毫秒
+     */
+    private Long duration;
+    /**
+     * 执行结果。成功时，为 JobHandler 的返回；失败时，为异常信息
+     */
+    private String result;
+
+}
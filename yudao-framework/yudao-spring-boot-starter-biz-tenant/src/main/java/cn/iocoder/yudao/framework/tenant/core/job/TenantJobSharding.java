@@ -0,0 +1,141 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.HashUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.filterList;
+
+/**
+ * 多租户 Job 的分片器，基于一致性 Hash 将租户分配到各个调度节点
+ *
+ * 每个节点定时通过 {@link TenantJobNodeRedisDAO} 上报心跳，执行 Job 时，只执行分配给当前节点的租户。
+ * 节点上下线时，只有该节点的租户会重新分配，其它租户仍然在原节点执行
+ *
+ * 注意，要求每个节点都会触发 Job，例如说 Quartz 使用内存存储（非集群模式）。
+ * Quartz 集群模式下，同一时刻只有一个节点会触发 Job，此时不能开启分片，否则其它节点的租户不会被执行
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class TenantJobSharding implements InitializingBean, DisposableBean {
+
+    /**
+     * 每个节点的虚拟节点数量，使租户分配更均匀
+     */
+    private static final int VIRTUAL_NODE_COUNT = 160;
+    /**
+     * 超过多少个心跳周期未上报，认为节点已下线
+     */
+    private static final int HEARTBEAT_TIMEOUT_COUNT = 3;
+
+    private final TenantJobNodeRedisDAO nodeRedisDAO;
+
+    private final Duration heartbeatInterval;
+
+    /**
+     * 当前节点编号
+     */
+    @Getter
+    private final String nodeId;
+
+    private ScheduledExecutorService scheduler;
+
+    public TenantJobSharding(TenantJobNodeRedisDAO nodeRedisDAO, Duration heartbeatInterval, String nodeId) {
+        this.nodeRedisDAO = nodeRedisDAO;
+        this.heartbeatInterval = heartbeatInterval;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("tenant-job-heartbeat-", true));
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            nodeRedisDAO.delete(nodeId);
+        } catch (Exception ex) {
+            log.error("[destroy][节点({}) 下线失败]", nodeId, ex);
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            nodeRedisDAO.heartbeat(nodeId, now);
+            nodeRedisDAO.deleteExpired(now - heartbeatInterval.toMillis() * HEARTBEAT_TIMEOUT_COUNT);
+        } catch (Exception ex) {
+            log.error("[heartbeat][节点({}) 上报心跳失败]", nodeId, ex);
+        }
+    }
+
+    /**
+     * 过滤出分配给当前节点的租户
+     *
+     * 获取存活节点失败时，为保证 Job 不漏执行，返回全部租户
+     *
+     * @param tenantIds 租户编号数组
+     * @return 当前节点的租户编号数组
+     */
+    public List<Long> filter(List<Long> tenantIds) {
+        Set<String> nodeIds;
+        try {
+            nodeIds = nodeRedisDAO.getNodeIds(System.currentTimeMillis()
+                    - heartbeatInterval.toMillis() * HEARTBEAT_TIMEOUT_COUNT);
+        } catch (Exception ex) {
+            log.error("[filter][节点({}) 获取存活节点失败，执行全部租户]", nodeId, ex);
+            return tenantIds;
+        }
+        nodeIds.add(nodeId); // 保证当前节点在环上，例如说心跳还未上报
+        if (nodeIds.size() == 1) {
+            return tenantIds;
+        }
+        TreeMap<Integer, String> ring = buildRing(nodeIds);
+        return filterList(tenantIds, tenantId -> nodeId.equals(getNode(ring, tenantId)));
+    }
+
+    /**
+     * 构建一致性 Hash 环
+     *
+     * @param nodeIds 节点编号数组
+     * @return Hash 环，key 为虚拟节点的 hash，value 为节点编号
+     */
+    private static TreeMap<Integer, String> buildRing(Collection<String> nodeIds) {
+        TreeMap<Integer, String> ring = new TreeMap<>();
+        for (String nodeId : new TreeSet<>(nodeIds)) { // 排序，保证 hash 冲突时，各个节点构建的环一致
+            for (int i = 0; i < VIRTUAL_NODE_COUNT; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        return ring;
+    }
+
+    /**
+     * 获得租户所在的节点，即 Hash 环上顺时针的第一个节点
+     */
+    private static String getNode(TreeMap<Integer, String> ring, Long tenantId) {
+        Map.Entry<Integer, String> entry = ring.ceilingEntry(hash(String.valueOf(tenantId)));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static int hash(String key) {
+        return HashUtil.murmur32(StrUtil.utf8Bytes(key));
+    }
+
+}
@@ -0,0 +1,84 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多租户 Job 的执行汇总，记录到 Job 日志中
+ *
+ * 只记录失败的租户，避免租户较多时，超过 Job 日志 result 字段的长度
+ *
+ * @author 芋道源码
+ */
+@Data
+public class TenantJobSummary {
+
+    /**
+     * 单个租户的异常信息的最大长度
+     */
+    static final int FAILURE_MESSAGE_MAX_LENGTH = 200;
+
+    /**
+     * 执行的租户数量
+     */
+    private Integer total;
+    /**
+     * 成功的租户数量
+     */
+    private Integer successCount;
+    /**
+     * 失败的租户数量
+     */
+    private Integer failureCount;
+    /**
+     * 失败的租户
+     *
+     * key：租户编号
+     * value：异常信息
+     */
+    private Map<Long, String> failures;
+    /**
+     * 因为长度限制，未记录到 {@link #failures} 的失败租户数量
+     */
+    private Integer omittedFailureCount;
+
+    /**
+     * 汇总每个租户的执行结果，并转换成不超过 maxLength 的 JSON 字符串
+     *
+     * @param results 每个租户的执行结果
+     * @param maxLength 最大长度
+     * @return JSON 字符串
+     */
+    public static String toJsonString(List<TenantJobResult> results, int maxLength) {
+        TenantJobSummary summary = new TenantJobSummary();
+        summary.setTotal(results.size());
+        summary.setSuccessCount((int) results.stream().filter(TenantJobResult::getSuccess).count());
+        summary.setFailureCount(results.size() - summary.getSuccessCount());
+        summary.setFailures(new LinkedHashMap<>());
+        summary.setOmittedFailureCount(summary.getFailureCount());
+        // 逐个添加失败的租户，直到超过长度限制
+        int length = JsonUtils.toJsonString(summary).length() + String.valueOf(results.size()).length(); // 预留 omittedFailureCount 变短的余量
+        for (TenantJobResult result : results) {
+            if (Boolean.TRUE.equals(result.getSuccess())) {
+                continue;
+            }
+            String message = StrUtil.maxLength(StrUtil.nullToEmpty(result.getResult()), FAILURE_MESSAGE_MAX_LENGTH);
+            // 格式为 "tenantId":"message", 的长度
+            int entryLength = String.valueOf(result.getTenantId()).length() + JsonUtils.toJsonString(message).length() + 4;
+            if (length + entryLength > maxLength) {
+                break;
+            }
+            length += entryLength;
+            summary.getFailures().put(result.getTenantId(), message);
+            summary.setOmittedFailureCount(summary.getOmittedFailureCount() - 1);
+        }
+        // 兜底：保证不超过长度限制
+        return StrUtil.sub(JsonUtils.toJsonString(summary), 0, maxLength);
+    }
+
+}
@@ -26,7 +26,7 @@ public class TenantFrameworkServiceImpl implements TenantFrameworkService {
     /**
      * 针对 {@link #getTenantIds()} 的缓存
      */
-    private final LoadingCache<Object, List<Long>> getTenantIdsCache = CacheUtils.buildAsyncReloadingCache(
+    private final LoadingCache<Object, List<Long>> getTenantIdsCache = CacheUtils.buildAsyncReloadingCache("tenant.ids",
             Duration.ofMinutes(1L), // 过期时间 1 分钟
             new CacheLoader<Object, List<Long>>() {
 
@@ -40,7 +40,7 @@ public class TenantFrameworkServiceImpl implements TenantFrameworkService {
     /**
      * 针对 {@link #validTenant(Long)} 的缓存
      */
-    private final LoadingCache<Long, ServiceException> validTenantCache = CacheUtils.buildAsyncReloadingCache(
+    private final LoadingCache<Long, ServiceException> validTenantCache = CacheUtils.buildAsyncReloadingCache("tenant.valid",
             Duration.ofMinutes(1L), // 过期时间 1 分钟
             new CacheLoader<Long, ServiceException>() {
 
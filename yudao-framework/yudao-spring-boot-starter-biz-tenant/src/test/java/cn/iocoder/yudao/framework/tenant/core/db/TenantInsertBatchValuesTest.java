@@ -0,0 +1,178 @@
+package cn.iocoder.yudao.framework.tenant.core.db;
+
+import cn.iocoder.yudao.framework.mybatis.core.dataobject.BaseDO;
+import cn.iocoder.yudao.framework.mybatis.core.handler.DefaultDBFieldHandler;
+import cn.iocoder.yudao.framework.mybatis.core.injector.InsertBatchValues;
+import cn.iocoder.yudao.framework.mybatis.core.injector.YudaoSqlInjector;
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.tenant.config.TenantProperties;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TenantLineCachedInnerInterceptor} 与 {@link InsertBatchValues} 的集成测试
+ *
+ * 基于 H2 的 MySQL 模式，使用和生产一致的 {@link TenantLineCachedInnerInterceptor} 多租户插件，不依赖 Spring 容器
+ *
+ * @author 芋道源码
+ */
+public class TenantInsertBatchValuesTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    private static SimpleMeterRegistry meterRegistry;
+
+    @BeforeAll
+    public static void setUpClass() throws Exception {
+        // 创建 DB
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:tenant_insert_batch;MODE=MYSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS \"test_tenant_batch\" (" +
+                    "\"id\" bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY," +
+                    "\"name\" varchar(64) NOT NULL," +
+                    "\"creator\" varchar(64) DEFAULT ''," +
+                    "\"create_time\" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "\"updater\" varchar(64) DEFAULT ''," +
+                    "\"update_time\" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "\"deleted\" bit NOT NULL DEFAULT FALSE," +
+                    "\"tenant_id\" bigint NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (\"id\"))");
+        }
+
+        // 创建 MyBatis 配置：自增主键 + 自动填充 + 带 SQL 缓存的多租户
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("unit-test", new JdbcTransactionFactory(), dataSource));
+        GlobalConfig globalConfig = GlobalConfigUtils.getGlobalConfig(configuration);
+        globalConfig.setSqlInjector(new YudaoSqlInjector());
+        globalConfig.setMetaObjectHandler(new DefaultDBFieldHandler());
+        globalConfig.getDbConfig().setIdType(IdType.AUTO);
+        TenantLineCachedInnerInterceptor tenantInterceptor = new TenantLineCachedInnerInterceptor(
+                new TenantDatabaseInterceptor(new TenantProperties()), 1024L);
+        meterRegistry = new SimpleMeterRegistry();
+        tenantInterceptor.bindTo(meterRegistry);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(tenantInterceptor);
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(TestTenantBatchMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        TenantContextHolder.setIgnore(true);
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(TestTenantBatchMapper.class).delete(null);
+        }
+        TenantContextHolder.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    public void testInsertBatch() {
+        // 准备参数：第 3 条指定了租户编号
+        TenantContextHolder.setTenantId(10L);
+        List<TestTenantBatchDO> list = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            list.add(new TestTenantBatchDO().setName("name" + i));
+        }
+        list.get(2).setTenantId(20L);
+
+        // 调用
+        double cacheSize = getSqlCacheSize();
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(TestTenantBatchMapper.class).insertBatch(list);
+        }
+        // 断言：批量插入的 SQL，没有缓存
+        assertEquals(cacheSize, getSqlCacheSize());
+        // 断言：每一行都有 tenant_id；指定的租户编号，不会被覆盖
+        TenantContextHolder.setIgnore(true);
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            TestTenantBatchMapper mapper = session.getMapper(TestTenantBatchMapper.class);
+            for (int i = 0; i < list.size(); i++) {
+                assertNotNull(list.get(i).getId());
+                TestTenantBatchDO dbBatch = mapper.selectById(list.get(i).getId());
+                assertEquals("name" + i, dbBatch.getName());
+                assertEquals(i == 2 ? 20L : 10L, dbBatch.getTenantId());
+            }
+        }
+    }
+
+    @Test
+    public void testSqlCache() {
+        // 准备参数
+        TenantContextHolder.setTenantId(10L);
+
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            TestTenantBatchMapper mapper = session.getMapper(TestTenantBatchMapper.class);
+            // 调用：单条插入，缓存
+            double cacheSize = getSqlCacheSize();
+            TestTenantBatchDO batch = new TestTenantBatchDO().setName("a");
+            mapper.insert(batch);
+            assertEquals(cacheSize + 1, getSqlCacheSize());
+            // 调用：超长的 SQL，不缓存
+            cacheSize = getSqlCacheSize();
+            List<Long> ids = LongStream.rangeClosed(1, 3000).boxed().collect(Collectors.toList());
+            assertEquals(1, mapper.selectBatchIds(ids).stream()
+                    .filter(dbBatch -> dbBatch.getId().equals(batch.getId())).count());
+            assertEquals(cacheSize, getSqlCacheSize());
+        }
+    }
+
+    private static double getSqlCacheSize() {
+        return meterRegistry.get("cache.size").tag("cache", "tenant.sql").gauge().value();
+    }
+
+    @TableName("test_tenant_batch")
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class TestTenantBatchDO extends BaseDO {
+
+        @TableId
+        private Long id;
+        private String name;
+        private Long tenantId;
+
+    }
+
+    @Mapper
+    public interface TestTenantBatchMapper extends BaseMapperX<TestTenantBatchDO> {
+    }
+
+}
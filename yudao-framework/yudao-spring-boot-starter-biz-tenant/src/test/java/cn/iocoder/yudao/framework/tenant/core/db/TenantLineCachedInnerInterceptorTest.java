@@ -0,0 +1,117 @@
+package cn.iocoder.yudao.framework.tenant.core.db;
+
+import cn.iocoder.yudao.framework.tenant.config.TenantProperties;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import cn.iocoder.yudao.framework.tenant.core.db.TenantLineCachedInnerInterceptor.TenantSql;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static cn.iocoder.yudao.framework.tenant.core.db.TenantDatabaseInterceptor.TENANT_ID_PLACEHOLDER;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TenantLineCachedInnerInterceptor} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class TenantLineCachedInnerInterceptorTest {
+
+    @AfterEach
+    public void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    public void testBuildTenantSql_multiParameter() {
+        // 调用
+        TenantSql tenantSql = TenantLineCachedInnerInterceptor.buildTenantSql(
+                "SELECT * FROM a JOIN b ON a.id = b.a_id AND b.tenant_id = " + TENANT_ID_PLACEHOLDER
+                        + " WHERE a.name = ? AND a.type IN (?, ?) AND a.tenant_id = " + TENANT_ID_PLACEHOLDER + " LIMIT ?");
+        // 断言
+        assertEquals("SELECT * FROM a JOIN b ON a.id = b.a_id AND b.tenant_id = ?"
+                + " WHERE a.name = ? AND a.type IN (?, ?) AND a.tenant_id = ? LIMIT ?", tenantSql.getParameterSql());
+        assertArrayEquals(new int[]{0, 4}, tenantSql.getParameterIndexes());
+    }
+
+    @Test
+    public void testBuildTenantSql_literal() {
+        // 调用：字符串、标识符中的 ?
+        TenantSql tenantSql = TenantLineCachedInnerInterceptor.buildTenantSql(
+                "SELECT `?` FROM a WHERE a.name = '?' AND a.remark = \"?\" AND a.type = ?"
+                        + " AND a.tenant_id = " + TENANT_ID_PLACEHOLDER);
+        // 断言
+        assertArrayEquals(new int[]{1}, tenantSql.getParameterIndexes());
+    }
+
+    @Test
+    public void testBuildTenantSql_escapedQuote() {
+        // 调用：MySQL 的 \ 转义，以及 '' 重复引号
+        TenantSql tenantSql = TenantLineCachedInnerInterceptor.buildTenantSql(
+                "SELECT * FROM a WHERE a.name = 'it\\'s ?' AND a.remark = \"say \\\"?\\\"\" AND a.title = 'it''s ?'"
+                        + " AND a.path = 'C:\\\\' AND a.type = ? AND a.tenant_id = " + TENANT_ID_PLACEHOLDER);
+        // 断言：引号内的 ? 不计入，'C:\\' 以 \\ 结尾也能正确闭合
+        assertArrayEquals(new int[]{1}, tenantSql.getParameterIndexes());
+        assertTrue(tenantSql.getParameterSql().endsWith("a.type = ? AND a.tenant_id = ?"));
+    }
+
+    @Test
+    public void testBuildTenantSql_comment() {
+        // 调用：注释中的 ?
+        TenantSql tenantSql = TenantLineCachedInnerInterceptor.buildTenantSql(
+                "SELECT * FROM a /* name = ? */ WHERE a.name = ? -- type = ?\n"
+                        + " AND a.tenant_id = " + TENANT_ID_PLACEHOLDER + " /* 未闭合的注释 ?");
+        // 断言
+        assertArrayEquals(new int[]{1}, tenantSql.getParameterIndexes());
+        assertEquals("SELECT * FROM a /* name = ? */ WHERE a.name = ? -- type = ?\n"
+                + " AND a.tenant_id = ? /* 未闭合的注释 ?", tenantSql.getParameterSql());
+    }
+
+    @Test
+    public void testBuildTenantSql_none() {
+        // 调用
+        TenantSql tenantSql = TenantLineCachedInnerInterceptor.buildTenantSql("SELECT * FROM a WHERE a.name = ?");
+        // 断言
+        assertEquals(0, tenantSql.getParameterIndexes().length);
+        assertEquals("SELECT * FROM a WHERE a.name = ?", tenantSql.getParameterSql());
+    }
+
+    @Test
+    public void testBeforeQuery() {
+        // 准备参数
+        TenantContextHolder.setTenantId(10L);
+        TenantLineCachedInnerInterceptor interceptor = new TenantLineCachedInnerInterceptor(
+                new TenantDatabaseInterceptor(new TenantProperties()), 16);
+        Configuration configuration = new Configuration();
+        String sql = "SELECT id FROM t_user WHERE name = ? AND remark = '?' LIMIT ?";
+        MappedStatement ms = new MappedStatement.Builder(configuration, "TestMapper.selectList",
+                new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).build();
+
+        // 调用：执行两次，第二次命中缓存
+        for (int i = 0; i < 2; i++) {
+            BoundSql boundSql = new BoundSql(configuration, sql, new ArrayList<>(asList(
+                    new ParameterMapping.Builder(configuration, "name", Object.class).build(),
+                    new ParameterMapping.Builder(configuration, "limit", Object.class).build())), null);
+            interceptor.beforeQuery(null, ms, null, RowBounds.DEFAULT, null, boundSql);
+            // 断言：租户编号的参数，插入到 LIMIT 参数之前
+            assertEquals("SELECT id FROM t_user WHERE name = ? AND remark = '?' AND tenant_id = ? LIMIT ?",
+                    boundSql.getSql());
+            List<String> properties = boundSql.getParameterMappings().stream()
+                    .map(ParameterMapping::getProperty).collect(Collectors.toList());
+            assertEquals(asList("name", "__yudao_tenant_id", "limit"), properties);
+            assertEquals(10L, boundSql.getAdditionalParameter("__yudao_tenant_id"));
+        }
+    }
+
+}
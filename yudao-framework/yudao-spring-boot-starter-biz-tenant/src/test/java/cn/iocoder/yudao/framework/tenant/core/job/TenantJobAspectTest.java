@@ -0,0 +1,173 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.tenant.config.TenantProperties;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import cn.iocoder.yudao.framework.tenant.core.service.TenantFrameworkService;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TenantJobAspect} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class TenantJobAspectTest extends BaseMockitoUnitTest {
+
+    @Mock
+    private TenantFrameworkService tenantFrameworkService;
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+    @Mock
+    private TenantJobSharding sharding;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAround_serial() throws Throwable {
+        // mock 方法：租户 2 执行失败
+        when(tenantFrameworkService.getTenantIds()).thenReturn(asList(1L, 2L, 3L));
+        List<Long> executedTenantIds = new ArrayList<>();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            Long tenantId = TenantContextHolder.getTenantId();
+            executedTenantIds.add(tenantId);
+            if (tenantId == 2L) {
+                throw new IllegalStateException("租户 2 异常");
+            }
+            return "success";
+        });
+
+        // 调用
+        String result = buildAspect(null).around(joinPoint, mockTenantJob(1));
+        // 断言：按照租户的顺序执行，并恢复租户上下文
+        assertEquals(asList(1L, 2L, 3L), executedTenantIds);
+        assertNull(TenantContextHolder.getTenantId());
+        // 断言：汇总结果
+        TenantJobSummary summary = JsonUtils.parseObject(result, TenantJobSummary.class);
+        assertEquals(3, summary.getTotal());
+        assertEquals(2, summary.getSuccessCount());
+        assertEquals(1, summary.getFailureCount());
+        assertEquals(0, summary.getOmittedFailureCount());
+        assertEquals(1, summary.getFailures().size());
+        assertTrue(summary.getFailures().get(2L).contains("租户 2 异常"));
+    }
+
+    @Test
+    public void testAround_parallel() throws Throwable {
+        // mock 方法
+        List<Long> tenantIds = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        when(tenantFrameworkService.getTenantIds()).thenReturn(tenantIds);
+        Map<Long, Integer> executedCounts = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            executedCounts.merge(TenantContextHolder.getTenantId(), 1, Integer::sum);
+            Thread.sleep(1);
+            running.decrementAndGet();
+            return "success";
+        });
+
+        // 调用
+        String result = buildAspect(null).around(joinPoint, mockTenantJob(2));
+        // 断言：每个租户执行一次，并且同时执行的租户数量，不超过 parallelism
+        assertEquals(100, executedCounts.size());
+        assertTrue(executedCounts.values().stream().allMatch(count -> count == 1));
+        assertTrue(maxRunning.get() <= 2);
+        TenantJobSummary summary = JsonUtils.parseObject(result, TenantJobSummary.class);
+        assertEquals(100, summary.getTotal());
+        assertEquals(100, summary.getSuccessCount());
+        assertTrue(summary.getFailures().isEmpty());
+    }
+
+    @Test
+    public void testAround_truncate() throws Throwable {
+        // mock 方法：所有租户都执行失败，并且异常信息很长
+        List<Long> tenantIds = LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+        when(tenantFrameworkService.getTenantIds()).thenReturn(tenantIds);
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException(StrUtil.repeat('错', 1000)));
+
+        // 调用
+        String result = buildAspect(null).around(joinPoint, mockTenantJob(1));
+        // 断言：不超过 Job 日志的长度限制，并且是合法的 JSON
+        assertTrue(result.length() <= TenantJobAspect.RESULT_MAX_LENGTH);
+        TenantJobSummary summary = JsonUtils.parseObject(result, TenantJobSummary.class);
+        assertEquals(1000, summary.getTotal());
+        assertEquals(1000, summary.getFailureCount());
+        assertFalse(summary.getFailures().isEmpty());
+        assertTrue(summary.getOmittedFailureCount() > 0);
+        assertEquals(1000, summary.getFailures().size() + summary.getOmittedFailureCount());
+        summary.getFailures().values().forEach(message ->
+                assertTrue(message.length() <= TenantJobSummary.FAILURE_MESSAGE_MAX_LENGTH));
+    }
+
+    @Test
+    public void testAround_sharding() throws Throwable {
+        // mock 方法：当前节点只分配到租户 2
+        when(tenantFrameworkService.getTenantIds()).thenReturn(asList(1L, 2L, 3L));
+        when(sharding.filter(any())).thenReturn(singletonList(2L));
+        when(joinPoint.proceed()).thenReturn("success");
+
+        // 调用
+        String result = buildAspect(sharding).around(joinPoint, mockTenantJob(0));
+        // 断言
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(1, JsonUtils.parseObject(result, TenantJobSummary.class).getTotal());
+    }
+
+    @Test
+    public void testAround_empty() throws Throwable {
+        // mock 方法
+        when(tenantFrameworkService.getTenantIds()).thenReturn(asList(1L, 2L));
+        when(sharding.filter(any())).thenReturn(Collections.emptyList());
+
+        // 调用，并断言
+        assertNull(buildAspect(sharding).around(joinPoint, mock(TenantJob.class)));
+        verify(joinPoint, never()).proceed();
+    }
+
+    private TenantJobAspect buildAspect(TenantJobSharding sharding) {
+        return new TenantJobAspect(tenantFrameworkService, new TenantProperties.Job(), executor, sharding);
+    }
+
+    private static TenantJob mockTenantJob(int parallelism) {
+        TenantJob tenantJob = mock(TenantJob.class);
+        when(tenantJob.parallelism()).thenReturn(parallelism);
+        return tenantJob;
+    }
+
+}
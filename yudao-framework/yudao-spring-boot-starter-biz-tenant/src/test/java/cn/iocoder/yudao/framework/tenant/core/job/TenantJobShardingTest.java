@@ -0,0 +1,90 @@
+package cn.iocoder.yudao.framework.tenant.core.job;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TenantJobSharding} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class TenantJobShardingTest extends BaseMockitoUnitTest {
+
+    private static final List<Long> TENANT_IDS = LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+
+    @Mock
+    private TenantJobNodeRedisDAO nodeRedisDAO;
+
+    @Test
+    public void testFilter_singleNode() {
+        // mock 方法：心跳还未上报，没有存活节点
+        when(nodeRedisDAO.getNodeIds(anyLong())).thenReturn(new HashSet<>());
+
+        // 调用，并断言：只有当前节点，执行全部租户
+        assertEquals(TENANT_IDS, buildSharding("node-1").filter(TENANT_IDS));
+    }
+
+    @Test
+    public void testFilter_redisError() {
+        // mock 方法
+        when(nodeRedisDAO.getNodeIds(anyLong())).thenThrow(new IllegalStateException("Redis 不可用"));
+
+        // 调用，并断言：为保证不漏执行，执行全部租户
+        assertEquals(TENANT_IDS, buildSharding("node-1").filter(TENANT_IDS));
+    }
+
+    @Test
+    public void testFilter_multiNode() {
+        // mock 方法
+        List<String> nodeIds = asList("node-1", "node-2", "node-3");
+        when(nodeRedisDAO.getNodeIds(anyLong())).thenAnswer(invocation -> new HashSet<>(nodeIds));
+
+        // 调用
+        Map<String, List<Long>> nodeTenantIds = filterByNodes(nodeIds);
+        // 断言：每个租户，恰好分配到一个节点
+        List<Long> allTenantIds = nodeTenantIds.values().stream().flatMap(Collection::stream)
+                .sorted().collect(Collectors.toList());
+        assertEquals(TENANT_IDS, allTenantIds);
+        // 断言：分配相对均匀，每个节点都分配到租户
+        nodeTenantIds.values().forEach(tenantIds -> assertTrue(tenantIds.size() > 100, "节点分配的租户过少"));
+    }
+
+    @Test
+    public void testFilter_nodeOffline() {
+        // 调用：三个节点
+        List<String> nodeIds = new ArrayList<>(asList("node-1", "node-2", "node-3"));
+        when(nodeRedisDAO.getNodeIds(anyLong())).thenAnswer(invocation -> new HashSet<>(nodeIds));
+        Map<String, List<Long>> before = filterByNodes(nodeIds);
+        // 调用：node-3 下线
+        nodeIds.remove("node-3");
+        Map<String, List<Long>> after = filterByNodes(nodeIds);
+
+        // 断言：其它节点原有的租户，仍然在原节点执行
+        assertTrue(after.get("node-1").containsAll(before.get("node-1")));
+        assertTrue(after.get("node-2").containsAll(before.get("node-2")));
+        // 断言：node-3 的租户，分配到其它节点
+        assertEquals(TENANT_IDS.size(), after.get("node-1").size() + after.get("node-2").size());
+    }
+
+    private Map<String, List<Long>> filterByNodes(List<String> nodeIds) {
+        Map<String, List<Long>> result = new HashMap<>();
+        nodeIds.forEach(nodeId -> result.put(nodeId, buildSharding(nodeId).filter(TENANT_IDS)));
+        return result;
+    }
+
+    private TenantJobSharding buildSharding(String nodeId) {
+        return new TenantJobSharding(nodeRedisDAO, Duration.ofSeconds(10), nodeId);
+    }
+
+}
@@ -1,21 +1,39 @@
 package cn.iocoder.yudao.framework.excel.core.util;
 
+import cn.hutool.core.collection.CollUtil;
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.read.listener.PageReadListener;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Excel 工具类
  *
  * @author 芋道源码
  */
+@Slf4j
 public class ExcelUtils {
 
+    /**
+     * 单个 sheet 的最大行数
+     *
+     * xlsx 单个 sheet 最多 1048576 行，超过时，自动拆分到新的 sheet 中
+     */
+    private static final int SHEET_MAX_ROWS = 1000000;
+
     /**
      * 将列表以 Excel 响应给前端
      *
@@ -39,10 +57,102 @@ public class ExcelUtils {
         response.setContentType("application/vnd.ms-excel;charset=UTF-8");
     }
 
+    /**
+     * 将数据分页查询，以 Excel 流式响应给前端
+     *
+     * 和 {@link #write(HttpServletResponse, String, String, Class, List)} 的差异是：每次只查询、写入一页数据，
+     * 写完即可被回收，避免大数据量导出时，全部数据加载到内存中
+     *
+     * @param response 响应
+     * @param filename 文件名
+     * @param sheetName Excel sheet 名
+     * @param head Excel head 头
+     * @param pageLoader 分页加载器：参数为上一页的最后一条数据，首页时为 null；返回空列表时，结束导出
+     * @param converter 转换器：将每一页的数据，转换成 head 类型
+     * @param gzip 是否 gzip 压缩。开启时，文件名会追加 .gz 后缀
+     * @param <S> 泛型，查询的数据类型，一般是 DO
+     * @param <T> 泛型，保证 head 和 data 类型的一致性
+     * @throws IOException 写入失败的情况
+     */
+    public static <S, T> void write(HttpServletResponse response, String filename, String sheetName, Class<T> head,
+                                    Function<S, List<S>> pageLoader, Function<List<S>, List<T>> converter,
+                                    boolean gzip) throws IOException {
+        // 先查询第一页。目的是，查询报错时，响应 contentType 还未被修改
+        List<S> list = pageLoader.apply(null);
+        // 设置 header 和 contentType。流式写入时，数据会边写边刷到客户端，所以必须写在最前面
+        if (gzip) {
+            response.addHeader("Content-Disposition", "attachment;filename=" + URLEncoder.encode(filename + ".gz", "UTF-8"));
+            response.setContentType("application/gzip");
+        } else {
+            response.addHeader("Content-Disposition", "attachment;filename=" + URLEncoder.encode(filename, "UTF-8"));
+            response.setContentType("application/vnd.ms-excel;charset=UTF-8");
+        }
+
+        // 输出 Excel
+        OutputStream outputStream = gzip ? new GZIPOutputStream(response.getOutputStream())
+                : response.getOutputStream();
+        ExcelWriter writer = EasyExcel.write(outputStream, head)
+                .autoCloseStream(false) // 不要自动关闭，交给 Servlet 自己处理
+                .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy()) // 基于 column 长度，自动适配。最大 255 宽度
+                .build();
+        long startTime = System.currentTimeMillis();
+        int sheetNo = 0, sheetRows = 0;
+        long totalRows = 0;
+        WriteSheet sheet = EasyExcel.writerSheet(sheetNo, sheetName).build();
+        try {
+            while (CollUtil.isNotEmpty(list)) {
+                // 超过单个 sheet 的最大行数，写入到新的 sheet
+                if (sheetRows + list.size() > SHEET_MAX_ROWS) {
+                    sheetNo++;
+                    sheetRows = 0;
+                    sheet = EasyExcel.writerSheet(sheetNo, sheetName + (sheetNo + 1)).build();
+                }
+                writer.write(converter.apply(list), sheet);
+                sheetRows += list.size();
+                totalRows += list.size();
+                log.info("[write][文件({}) 已导出 {} 行，耗时 {} ms]", filename, totalRows,
+                        System.currentTimeMillis() - startTime);
+                // 查询下一页
+                list = pageLoader.apply(CollUtil.getLast(list));
+            }
+        } finally {
+            writer.finish();
+        }
+        if (outputStream instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) outputStream).finish(); // 只结束压缩，不关闭 Servlet 的输出流
+        }
+    }
+
     public static <T> List<T> read(MultipartFile file, Class<T> head) throws IOException {
        return EasyExcel.read(file.getInputStream(), head, null)
                 .autoCloseStream(false)  // 不要自动关闭，交给 Servlet 自己处理
                 .doReadAllSync();
     }
 
+    /**
+     * 分批读取 Excel
+     *
+     * 和 {@link #read(MultipartFile, Class)} 的差异是：边解析边回调，每攒够 batchSize 行，就交给 consumer 处理，
+     * 处理完即可被回收，避免大文件导入时，全部数据加载到内存中
+     *
+     * @param file 文件
+     * @param head Excel head 头
+     * @param batchSize 每批的行数
+     * @param consumer 每批数据的处理器
+     * @param <T> 泛型
+     * @return 读取的总行数
+     * @throws IOException 读取失败的情况
+     */
+    public static <T> int read(MultipartFile file, Class<T> head, int batchSize,
+                               Consumer<List<T>> consumer) throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        EasyExcel.read(file.getInputStream(), head, new PageReadListener<T>(list -> {
+                    count.addAndGet(list.size());
+                    consumer.accept(list);
+                }, batchSize))
+                .autoCloseStream(false)  // 不要自动关闭，交给 Servlet 自己处理
+                .doReadAll();
+        return count.get();
+    }
+
 }
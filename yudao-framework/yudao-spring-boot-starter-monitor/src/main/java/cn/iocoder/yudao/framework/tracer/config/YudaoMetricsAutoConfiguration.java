@@ -1,6 +1,10 @@
 package cn.iocoder.yudao.framework.tracer.config;
 
+import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -8,6 +12,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 
+import java.util.Collections;
+
 /**
  * Metrics 配置类
  *
@@ -24,4 +30,16 @@ public class YudaoMetricsAutoConfiguration {
         return registry -> registry.config().commonTags("application", applicationName);
     }
 
+    /**
+     * 上报 {@link CacheUtils} 创建的本地缓存的命中率、加载耗时、淘汰数量等指标，以及共享的刷新线程池
+     */
+    @Bean
+    public MeterBinder localCacheMeterBinder() {
+        return registry -> {
+            new ExecutorServiceMetrics(CacheUtils.getRefreshExecutor(), "cache-refresh", Collections.emptyList())
+                    .bindTo(registry);
+            CacheUtils.addListener((name, cache) -> GuavaCacheMetrics.monitor(registry, cache, name));
+        };
+    }
+
 }
@@ -7,7 +7,9 @@ import cn.iocoder.yudao.framework.common.enums.DocumentEnum;
 import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
 import cn.iocoder.yudao.framework.mq.core.interceptor.RedisMessageInterceptor;
 import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamBatchMessageListener;
 import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageListener;
+import cn.iocoder.yudao.framework.mq.core.stream.RedisStreamBatchMessageListenerContainer;
 import cn.iocoder.yudao.framework.mq.job.RedisPendingMessageResendJob;
 import cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguration;
 import lombok.extern.slf4j.Slf4j;
@@ -114,34 +116,66 @@ public class YudaoMQAutoConfiguration {
 //                StreamMessageListenerContainer.create(redisTemplate.getRequiredConnectionFactory(), containerOptions);
                 DefaultStreamMessageListenerContainerX.create(redisMQTemplate.getRedisTemplate().getRequiredConnectionFactory(), containerOptions);
 
-        // 第二步，注册监听器，消费对应的 Stream 主题
+        // 第二步，注册监听器，消费对应的 Stream 主题。批量监听器，由 RedisStreamBatchMessageListenerContainer 负责
         String consumerName = buildConsumerName();
-        listeners.parallelStream().forEach(listener -> {
+        listeners.parallelStream().filter(listener -> !(listener instanceof AbstractStreamBatchMessageListener)).forEach(listener -> {
             log.info("[redisStreamMessageListenerContainer][开始注册 StreamKey({}) 对应的监听器({})]",
                     listener.getStreamKey(), listener.getClass().getName());
             // 创建 listener 对应的消费者分组
-            try {
-                redisTemplate.opsForStream().createGroup(listener.getStreamKey(), listener.getGroup());
-            } catch (Exception ignore) {
-            }
+            createGroup(redisTemplate, listener);
             // 设置 listener 对应的 redisTemplate
             listener.setRedisMQTemplate(redisMQTemplate);
-            // 创建 Consumer 对象
-            Consumer consumer = Consumer.from(listener.getGroup(), consumerName);
             // 设置 Consumer 消费进度，以最小消费进度为准
             StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
-            // 设置 Consumer 监听
-            StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
-                    .builder(streamOffset).consumer(consumer)
-                    .autoAcknowledge(false) // 不自动 ack
-                    .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
-            container.register(builder.build(), listener);
-            log.info("[redisStreamMessageListenerContainer][完成注册 StreamKey({}) 对应的监听器({})]",
-                    listener.getStreamKey(), listener.getClass().getName());
+            // 按照并发数，注册多个 Consumer 监听
+            for (int i = 0; i < listener.getConcurrency(); i++) {
+                // 创建 Consumer 对象
+                Consumer consumer = Consumer.from(listener.getGroup(),
+                        RedisStreamBatchMessageListenerContainer.buildConsumerName(consumerName, i));
+                // 设置 Consumer 监听
+                StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
+                        .builder(streamOffset).consumer(consumer)
+                        .autoAcknowledge(false) // 不自动 ack
+                        .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
+                container.register(builder.build(), listener);
+            }
+            log.info("[redisStreamMessageListenerContainer][完成注册 StreamKey({}) 对应的监听器({})，并发数({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), listener.getConcurrency());
         });
         return container;
     }
 
+    /**
+     * 创建 Redis Stream 批量消费的容器
+     *
+     * 每次拉取多条消息批量处理，并通过一次 XACK 批量确认
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnBean(AbstractStreamBatchMessageListener.class) // 只有 AbstractStreamBatchMessageListener 存在的时候，才需要注册
+    @ConditionalOnProperty(prefix = "yudao.mq.redis.stream", value = "enable", matchIfMissing = true) // 允许使用 yudao.mq.redis.stream.enable=false 禁用多租户
+    public RedisStreamBatchMessageListenerContainer redisStreamBatchMessageListenerContainer(
+            RedisMQTemplate redisMQTemplate, List<AbstractStreamBatchMessageListener<?>> listeners) {
+        RedisTemplate<String, ?> redisTemplate = redisMQTemplate.getRedisTemplate();
+        checkRedisVersion(redisTemplate);
+        listeners.forEach(listener -> {
+            // 创建 listener 对应的消费者分组
+            createGroup(redisTemplate, listener);
+            // 设置 listener 对应的 redisTemplate
+            listener.setRedisMQTemplate(redisMQTemplate);
+        });
+        return new RedisStreamBatchMessageListenerContainer(redisMQTemplate, listeners, buildConsumerName());
+    }
+
+    /**
+     * 创建 listener 对应的消费者分组。如果已经存在，则忽略
+     */
+    private static void createGroup(RedisTemplate<String, ?> redisTemplate, AbstractStreamMessageListener<?> listener) {
+        try {
+            redisTemplate.opsForStream().createGroup(listener.getStreamKey(), listener.getGroup());
+        } catch (Exception ignore) {
+        }
+    }
+
     /**
      * 构建消费者名字，使用本地 IP + 进程编号的方式。
      * 参考自 RocketMQ clientId 的实现
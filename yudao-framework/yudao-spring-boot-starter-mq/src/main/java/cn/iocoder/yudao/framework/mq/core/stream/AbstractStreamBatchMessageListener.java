@@ -0,0 +1,93 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.core.message.AbstractRedisMessage;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Redis Stream 批量监听器抽象类，用于实现集群的批量消费
+ *
+ * 和 {@link AbstractStreamMessageListener} 的区别是：
+ * 1. 每次拉取最多 {@link #getBatchSize()} 条消息，交给 {@link #onMessageList(List)} 一起处理
+ * 2. 处理完成后，通过一次 XACK 命令，确认所有消息，避免每条消息一次 Redis 往返
+ *
+ * 由 {@link RedisStreamBatchMessageListenerContainer} 负责拉取消息，不注册到 Spring Data Redis 的 StreamMessageListenerContainer 中
+ *
+ * @param <T> 消息类型。一定要填写噢，不然会报错
+ *
+ * @author 芋道源码
+ */
+public abstract class AbstractStreamBatchMessageListener<T extends AbstractStreamMessage>
+        extends AbstractStreamMessageListener<T> {
+
+    /**
+     * 处理单条消息，转换成只有一条消息的批量处理
+     *
+     * @param message 消息
+     */
+    @Override
+    public void onMessage(T message) {
+        onMessageList(Collections.singletonList(message));
+    }
+
+    /**
+     * 批量处理消息
+     *
+     * 注意：如果抛出异常，本批次的所有消息都不会被确认，后续由 RedisPendingMessageResendJob 重新投递
+     *
+     * @param messages 消息数组
+     */
+    public abstract void onMessageList(List<T> messages);
+
+    /**
+     * 获得每次拉取的最大消息数量，默认为 100
+     *
+     * @return 最大消息数量
+     */
+    public int getBatchSize() {
+        return 100;
+    }
+
+    /**
+     * 批量消费 Redis Stream 记录
+     *
+     * @param records 记录数组
+     */
+    public void onRecordList(List<ObjectRecord<String, String>> records) {
+        if (CollUtil.isEmpty(records)) {
+            return;
+        }
+        // 1. 解析消息
+        List<T> messages = new ArrayList<>(records.size());
+        records.forEach(record -> messages.add(JsonUtils.parseObject(record.getValue(), getMessageType())));
+
+        // 2. 按照 headers 相同的连续消息分组后处理，保证拦截器（例如说，多租户）对每条消息都生效
+        int fromIndex = 0;
+        for (int i = 1; i <= messages.size(); i++) {
+            if (i < messages.size() && Objects.equals(messages.get(i).getHeaders(), messages.get(fromIndex).getHeaders())) {
+                continue;
+            }
+            List<T> subMessages = messages.subList(fromIndex, i);
+            AbstractRedisMessage first = subMessages.get(0);
+            try {
+                consumeMessageBefore(first);
+                this.onMessageList(subMessages);
+            } finally {
+                consumeMessageAfter(first);
+            }
+            fromIndex = i;
+        }
+
+        // 3. 通过一次 XACK 命令，批量 ack 消息消费完成
+        RecordId[] recordIds = records.stream().map(ObjectRecord::getId).toArray(RecordId[]::new);
+        getRedisMQTemplate().getRedisTemplate().opsForStream().acknowledge(getStreamKey(), getGroup(), recordIds);
+    }
+
+}
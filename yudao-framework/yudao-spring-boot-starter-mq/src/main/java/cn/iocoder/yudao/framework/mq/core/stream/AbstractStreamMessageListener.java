@@ -28,6 +28,7 @@ public abstract class AbstractStreamMessageListener<T extends AbstractStreamMess
     /**
      * 消息类型
      */
+    @Getter
     private final Class<T> messageType;
     /**
      * Redis Channel
@@ -45,6 +46,7 @@ public abstract class AbstractStreamMessageListener<T extends AbstractStreamMess
      * RedisMQTemplate
      */
     @Setter
+    @Getter
     private RedisMQTemplate redisMQTemplate;
 
     @SneakyThrows
@@ -80,6 +82,18 @@ public abstract class AbstractStreamMessageListener<T extends AbstractStreamMess
      */
     public abstract void onMessage(T message);
 
+    /**
+     * 获得并发消费的消费者数量，默认为 1
+     *
+     * 每个消费者对应一个独立的拉取线程，使用不同的消费者名字加入同一个消费者分组；
+     * 对于消息量较大的 Stream，可以重写该方法，提升消费能力
+     *
+     * @return 消费者数量
+     */
+    public int getConcurrency() {
+        return 1;
+    }
+
     /**
      * 通过解析类上的泛型，获得消息类型
      *
@@ -94,14 +108,14 @@ public abstract class AbstractStreamMessageListener<T extends AbstractStreamMess
         return (Class<T>) type;
     }
 
-    private void consumeMessageBefore(AbstractRedisMessage message) {
+    protected void consumeMessageBefore(AbstractRedisMessage message) {
         assert redisMQTemplate != null;
         List<RedisMessageInterceptor> interceptors = redisMQTemplate.getInterceptors();
         // 正序
         interceptors.forEach(interceptor -> interceptor.consumeMessageBefore(message));
     }
 
-    private void consumeMessageAfter(AbstractRedisMessage message) {
+    protected void consumeMessageAfter(AbstractRedisMessage message) {
         assert redisMQTemplate != null;
         List<RedisMessageInterceptor> interceptors = redisMQTemplate.getInterceptors();
         // 倒序
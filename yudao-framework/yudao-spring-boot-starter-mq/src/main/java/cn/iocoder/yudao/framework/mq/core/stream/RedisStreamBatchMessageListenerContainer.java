@@ -0,0 +1,102 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis Stream 批量消费的容器
+ *
+ * 为每个 {@link AbstractStreamBatchMessageListener} 创建 {@link AbstractStreamBatchMessageListener#getConcurrency()} 个拉取线程，
+ * 每个线程使用 XREADGROUP COUNT 一次拉取多条消息，交给监听器批量处理
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class RedisStreamBatchMessageListenerContainer {
+
+    /**
+     * 拉取消息时的阻塞时间
+     */
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final RedisMQTemplate redisMQTemplate;
+    private final List<AbstractStreamBatchMessageListener<?>> listeners;
+    private final String consumerName;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public RedisStreamBatchMessageListenerContainer(RedisMQTemplate redisMQTemplate,
+                                                    List<AbstractStreamBatchMessageListener<?>> listeners,
+                                                    String consumerName) {
+        this.redisMQTemplate = redisMQTemplate;
+        this.listeners = listeners;
+        this.consumerName = consumerName;
+    }
+
+    public void start() {
+        int threads = listeners.stream().mapToInt(AbstractStreamBatchMessageListener::getConcurrency).sum();
+        executor = Executors.newFixedThreadPool(threads, ThreadUtil.newNamedThreadFactory("redis-stream-batch-", true));
+        running = true;
+        listeners.forEach(listener -> {
+            for (int i = 0; i < listener.getConcurrency(); i++) {
+                Consumer consumer = Consumer.from(listener.getGroup(), buildConsumerName(consumerName, i));
+                executor.execute(() -> poll(listener, consumer));
+            }
+            log.info("[start][完成注册 StreamKey({}) 对应的批量监听器({})，并发数({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), listener.getConcurrency());
+        });
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(POLL_TIMEOUT.getSeconds() * 2, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void poll(AbstractStreamBatchMessageListener<?> listener, Consumer consumer) {
+        StreamOperations<String, Object, Object> ops = redisMQTemplate.getRedisTemplate().opsForStream();
+        StreamReadOptions readOptions = StreamReadOptions.empty().count(listener.getBatchSize()).block(POLL_TIMEOUT);
+        StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
+        while (running) {
+            try {
+                List<ObjectRecord<String, String>> records = ops.read(String.class, consumer, readOptions, streamOffset);
+                listener.onRecordList(records);
+            } catch (Throwable ex) {
+                log.error("[poll][StreamKey({}) 消费者({}) 批量消费异常]", listener.getStreamKey(), consumer.getName(), ex);
+                // 避免 Redis 不可用等情况下，空转刷日志
+                ThreadUtil.sleep(POLL_TIMEOUT.toMillis());
+            }
+        }
+    }
+
+    /**
+     * 构建并发消费时，每个消费者的名字
+     *
+     * @param consumerName 消费者名字
+     * @param index 序号
+     * @return 消费者名字。序号为 0 时，保持原名字，兼容未开启并发消费的情况
+     */
+    public static String buildConsumerName(String consumerName, int index) {
+        return index == 0 ? consumerName : consumerName + "#" + index;
+    }
+
+}
@@ -1,29 +1,41 @@
 package cn.iocoder.yudao.framework.mq.job;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
 import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
 import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageListener;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Range;
 import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 这个任务用于处理，crash 之后的消费者未消费完的消息
+ *
+ * 参考 XAUTOCLAIM 的实现思路（兼容 Redis 5.0 版本）：
+ * 1. 通过 XPENDING 按照消息编号游标分页，每页最多 {@link #PAGE_SIZE} 条，避免一次加载整个 pending 队列
+ * 2. 通过一次 XCLAIM 认领整页超时的消息，同时获得消息内容
+ * 3. 通过 pipeline 批量重新投递（或投递到死信队列），并使用一次 XACK 批量确认
  */
 @Slf4j
-@AllArgsConstructor
-public class RedisPendingMessageResendJob {
+public class RedisPendingMessageResendJob implements MeterBinder {
 
-    private static final String LOCK_KEY = "redis:pending:msg:lock";
+    private static final String LOCK_KEY = "redis:pending:msg:lock:%s";
 
     /**
      * 消息超时时间，默认 5 分钟
@@ -31,70 +43,195 @@ public class RedisPendingMessageResendJob {
      * 1. 超时的消息才会被重新投递
      * 2. 由于定时任务 1 分钟一次，消息超时后不会被立即重投，极端情况下消息5分钟过期后，再等 1 分钟才会被扫瞄到
      */
-    private static final int EXPIRE_TIME = 5 * 60;
+    private static final Duration EXPIRE_TIME = Duration.ofMinutes(5);
+
+    /**
+     * 每页处理的 pending 消息数量
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * 最大投递次数，超过后投递到死信队列，不再重新投递
+     */
+    private static final int MAX_DELIVERY_COUNT = 16;
+
+    /**
+     * 死信队列的 Stream Key 后缀
+     */
+    private static final String DEAD_LETTER_SUFFIX = ".dead-letter";
+
+    /**
+     * 消息内容中，记录历史投递次数的字段
+     */
+    private static final String DELIVERY_COUNT_FIELD = "deliveryCount";
 
     private final List<AbstractStreamMessageListener<?>> listeners;
     private final RedisMQTemplate redisTemplate;
     private final String groupName;
     private final RedissonClient redissonClient;
 
+    /**
+     * 每个 Stream 的统计，key 为 Stream Key
+     */
+    private final Map<String, StreamStats> statsMap = new ConcurrentHashMap<>();
+
+    public RedisPendingMessageResendJob(List<AbstractStreamMessageListener<?>> listeners, RedisMQTemplate redisTemplate,
+                                        String groupName, RedissonClient redissonClient) {
+        this.listeners = listeners;
+        this.redisTemplate = redisTemplate;
+        this.groupName = groupName;
+        this.redissonClient = redissonClient;
+        listeners.forEach(listener -> statsMap.putIfAbsent(listener.getStreamKey(), new StreamStats()));
+    }
+
     /**
      * 一分钟执行一次,这里选择每分钟的35秒执行，是为了避免整点任务过多的问题
      */
     @Scheduled(cron = "35 * * * * ?")
     public void messageResend() {
-        RLock lock = redissonClient.getLock(LOCK_KEY);
-        // 尝试加锁
-        if (lock.tryLock()) {
+        // 按照 Stream 维度加锁，不同 Stream 之间互不阻塞
+        listeners.forEach(listener -> {
+            RLock lock = redissonClient.getLock(String.format(LOCK_KEY, listener.getStreamKey()));
+            // 尝试加锁
+            if (!lock.tryLock()) {
+                return;
+            }
             try {
-                execute();
+                execute(listener.getStreamKey());
             } catch (Exception ex) {
-                log.error("[messageResend][执行异常]", ex);
+                log.error("[messageResend][StreamKey({}) 执行异常]", listener.getStreamKey(), ex);
             } finally {
                 lock.unlock();
             }
-        }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        statsMap.forEach((streamKey, stats) -> {
+            FunctionCounter.builder("yudao.mq.redis.stream.reclaimed", stats.reclaimedCount, AtomicLong::get)
+                    .tag("stream", streamKey).description("重新投递的消息数量").register(registry);
+            FunctionCounter.builder("yudao.mq.redis.stream.dead-lettered", stats.deadLetteredCount, AtomicLong::get)
+                    .tag("stream", streamKey).description("投递到死信队列的消息数量").register(registry);
+            Gauge.builder("yudao.mq.redis.stream.pending", stats.pendingCount, AtomicLong::get)
+                    .tag("stream", streamKey).description("pending 的消息数量").register(registry);
+        });
     }
 
     /**
      * 执行清理逻辑
      *
+     * @param streamKey Stream Key
      * @see <a href="https://gitee.com/zhijiantianya/ruoyi-vue-pro/pulls/480/files">讨论</a>
      */
-    private void execute() {
+    private void execute(String streamKey) {
         StreamOperations<String, Object, Object> ops = redisTemplate.getRedisTemplate().opsForStream();
-        listeners.forEach(listener -> {
-            PendingMessagesSummary pendingMessagesSummary = Objects.requireNonNull(ops.pending(listener.getStreamKey(), groupName));
-            // 每个消费者的 pending 队列消息数量
-            Map<String, Long> pendingMessagesPerConsumer = pendingMessagesSummary.getPendingMessagesPerConsumer();
-            pendingMessagesPerConsumer.forEach((consumerName, pendingMessageCount) -> {
-                log.info("[processPendingMessage][消费者({}) 消息数量({})]", consumerName, pendingMessageCount);
-                // 每个消费者的 pending消息的详情信息
-                PendingMessages pendingMessages = ops.pending(listener.getStreamKey(), Consumer.from(groupName, consumerName), Range.unbounded(), pendingMessageCount);
+        StreamStats stats = statsMap.get(streamKey);
+        PendingMessagesSummary pendingMessagesSummary = Objects.requireNonNull(ops.pending(streamKey, groupName));
+        stats.pendingCount.set(pendingMessagesSummary.getTotalPendingMessages());
+        // 每个消费者的 pending 队列消息数量
+        Map<String, Long> pendingMessagesPerConsumer = pendingMessagesSummary.getPendingMessagesPerConsumer();
+        pendingMessagesPerConsumer.forEach((consumerName, pendingMessageCount) -> {
+            log.info("[processPendingMessage][StreamKey({}) 消费者({}) 消息数量({})]", streamKey, consumerName, pendingMessageCount);
+            Consumer consumer = Consumer.from(groupName, consumerName);
+            // 按照消息编号游标分页
+            Range<String> range = Range.unbounded();
+            while (true) {
+                PendingMessages pendingMessages = ops.pending(streamKey, consumer, range, PAGE_SIZE);
                 if (pendingMessages.isEmpty()) {
-                    return;
+                    break;
+                }
+                processPendingMessages(streamKey, consumerName, pendingMessages, stats);
+                if (pendingMessages.size() < PAGE_SIZE) {
+                    break;
                 }
-                pendingMessages.forEach(pendingMessage -> {
-                    // 获取消息上一次传递到 consumer 的时间,
-                    long lastDelivery = pendingMessage.getElapsedTimeSinceLastDelivery().getSeconds();
-                    if (lastDelivery < EXPIRE_TIME){
-                        return;
-                    }
-                    // 获取指定 id 的消息体
-                    List<MapRecord<String, Object, Object>> records = ops.range(listener.getStreamKey(),
-                            Range.of(Range.Bound.inclusive(pendingMessage.getIdAsString()), Range.Bound.inclusive(pendingMessage.getIdAsString())));
-                    if (CollUtil.isEmpty(records)) {
-                        return;
-                    }
-                    // 重新投递消息
-                    redisTemplate.getRedisTemplate().opsForStream().add(StreamRecords.newRecord()
-                            .ofObject(records.get(0).getValue()) // 设置内容
-                            .withStreamKey(listener.getStreamKey()));
-                    // ack 消息消费完成
-                    redisTemplate.getRedisTemplate().opsForStream().acknowledge(groupName, records.get(0));
-                    log.info("[processPendingMessage][消息({})重新投递成功]", records.get(0).getId());
-                });
-            });
+                // 游标移动到本页最后一条消息的下一个编号。不使用 exclusive 区间，是因为 Redis 6.2 之前的 XPENDING 不支持
+                RecordId lastId = pendingMessages.get(pendingMessages.size() - 1).getId();
+                range = Range.of(Range.Bound.inclusive(RecordId.of(lastId.getTimestamp(), lastId.getSequence() + 1).getValue()),
+                        Range.Bound.unbounded());
+            }
+        });
+    }
+
+    private void processPendingMessages(String streamKey, String consumerName,
+                                        PendingMessages pendingMessages, StreamStats stats) {
+        // 1. 筛选超时的消息
+        RecordId[] expiredIds = pendingMessages.stream()
+                .filter(pendingMessage -> pendingMessage.getElapsedTimeSinceLastDelivery().compareTo(EXPIRE_TIME) >= 0)
+                .map(PendingMessage::getId).toArray(RecordId[]::new);
+        if (expiredIds.length == 0) {
+            return;
+        }
+        Map<String, Long> deliveryCounts = new HashMap<>(pendingMessages.size());
+        pendingMessages.forEach(pendingMessage -> deliveryCounts.put(pendingMessage.getIdAsString(),
+                pendingMessage.getTotalDeliveryCount()));
+
+        // 2. 通过一次 XCLAIM 认领超时的消息，并获得消息内容。期间被正常消费（ack）的消息，不会被认领
+        StreamOperations<String, Object, Object> ops = redisTemplate.getRedisTemplate().opsForStream();
+        List<MapRecord<String, Object, Object>> records = ops.claim(streamKey, groupName, consumerName, EXPIRE_TIME, expiredIds);
+        if (CollUtil.isEmpty(records)) {
+            return;
+        }
+
+        // 3. 通过 pipeline 批量重新投递或投递到死信队列，并批量 ack
+        // 重新投递会产生新的消息编号，所以累加消息内容中记录的历史投递次数
+        List<Map<Object, Object>> deadLetterRecords = new ArrayList<>();
+        List<Map<Object, Object>> resendRecords = new ArrayList<>();
+        records.forEach(record -> {
+            Map<Object, Object> value = new HashMap<>(record.getValue());
+            long deliveryCount = Convert.toLong(value.get(DELIVERY_COUNT_FIELD), 0L)
+                    + deliveryCounts.getOrDefault(record.getId().getValue(), 1L);
+            value.put(DELIVERY_COUNT_FIELD, String.valueOf(deliveryCount));
+            if (deliveryCount >= MAX_DELIVERY_COUNT) {
+                deadLetterRecords.add(value);
+            } else {
+                resendRecords.add(value);
+            }
         });
+        RecordId[] claimedIds = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        redisTemplate.getRedisTemplate().executePipelined(new SessionCallback<Object>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                StreamOperations<String, Object, Object> pipelineOps = (StreamOperations<String, Object, Object>) operations.opsForStream();
+                resendRecords.forEach(value -> pipelineOps.add(StreamRecords.newRecord()
+                        .in(streamKey).ofMap(value)));
+                deadLetterRecords.forEach(value -> pipelineOps.add(StreamRecords.newRecord()
+                        .in(streamKey + DEAD_LETTER_SUFFIX).ofMap(value)));
+                pipelineOps.acknowledge(streamKey, groupName, claimedIds);
+                return null;
+            }
+
+        });
+        stats.reclaimedCount.addAndGet(resendRecords.size());
+        stats.deadLetteredCount.addAndGet(deadLetterRecords.size());
+        log.info("[processPendingMessages][StreamKey({}) 消费者({}) 重新投递({}) 条，死信({}) 条]",
+                streamKey, consumerName, resendRecords.size(), deadLetterRecords.size());
+        if (!deadLetterRecords.isEmpty()) {
+            log.warn("[processPendingMessages][StreamKey({}) {} 条消息超过最大投递次数({})，投递到死信队列({})]", streamKey,
+                    deadLetterRecords.size(), MAX_DELIVERY_COUNT, streamKey + DEAD_LETTER_SUFFIX);
+        }
+    }
+
+    /**
+     * Stream 的统计
+     */
+    private static class StreamStats {
+
+        /**
+         * 重新投递的消息数量
+         */
+        private final AtomicLong reclaimedCount = new AtomicLong();
+        /**
+         * 投递到死信队列的消息数量
+         */
+        private final AtomicLong deadLetteredCount = new AtomicLong();
+        /**
+         * 最近一次统计的 pending 消息数量
+         */
+        private final AtomicLong pendingCount = new AtomicLong();
+
     }
+
 }
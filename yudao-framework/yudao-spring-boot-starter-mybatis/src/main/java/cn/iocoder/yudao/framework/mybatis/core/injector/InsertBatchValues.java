@@ -0,0 +1,149 @@
+package cn.iocoder.yudao.framework.mybatis.core.injector;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.mybatis.core.enums.SqlConstants;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.util.*;
+
+/**
+ * 多行 VALUES 的批量插入，即 INSERT INTO table (...) VALUES (...), (...)
+ *
+ * 和 MyBatis Plus 自带的 InsertBatchSomeColumn 的差异是：字段为空时，和单条 insert 一样，不插入该字段，从而使用 DB 的默认值、
+ * 由多租户插件填充 tenant_id 等。因此，要求同一批的实体，为空的字段相同，见 {@link #split(TableInfo, Collection, int)} 方法
+ *
+ * @author 芋道源码
+ */
+public class InsertBatchValues extends AbstractMethod {
+
+    public static final String METHOD_NAME = "insertBatchValues";
+
+    /**
+     * 单条 SQL 的最大参数数量，避免超过 DB 的限制。例如说，MySQL 最多 65535 个
+     */
+    private static final int MAX_PARAMETER_COUNT = 65535;
+    /**
+     * SQL Server 单条 SQL 的最大参数数量，最多 2100 个
+     */
+    private static final int SQL_SERVER_MAX_PARAMETER_COUNT = 2000;
+
+    private static final String COLLECTION = "list";
+    private static final String FIRST = COLLECTION + "[0].";
+    private static final String ITEM = "et";
+
+    public InsertBatchValues() {
+        super(METHOD_NAME);
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        // 字段，以第一个实体的字段是否为空，作为条件
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        KeyGenerator keyGenerator = NoKeyGenerator.INSTANCE;
+        String keyProperty = null;
+        String keyColumn = null;
+        if (tableInfo.havePK()) {
+            String keyColumnScript = tableInfo.getKeyColumn() + COMMA;
+            String keyValueScript = SqlScriptUtils.safeParam(ITEM + DOT + tableInfo.getKeyProperty()) + COMMA;
+            if (tableInfo.getIdType() == IdType.AUTO) {
+                // 自增主键：未设置时，由 DB 生成，并回填到实体中
+                columns.append(SqlScriptUtils.convertIf(keyColumnScript,
+                        String.format("%s != null", FIRST + tableInfo.getKeyProperty()), false));
+                values.append(SqlScriptUtils.convertIf(keyValueScript,
+                        String.format("%s != null", ITEM + DOT + tableInfo.getKeyProperty()), false));
+                keyGenerator = Jdbc3KeyGenerator.INSTANCE;
+                keyProperty = tableInfo.getKeyProperty();
+                keyColumn = tableInfo.getKeyColumn();
+            } else {
+                columns.append(keyColumnScript);
+                values.append(keyValueScript);
+            }
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            columns.append(field.getInsertSqlColumnMaybeIf(FIRST));
+            values.append(field.getInsertSqlPropertyMaybeIf(ITEM + DOT));
+        }
+        String columnScript = SqlScriptUtils.convertTrim(columns.toString(), LEFT_BRACKET, RIGHT_BRACKET, null, COMMA);
+        String valueScript = SqlScriptUtils.convertForeach(
+                SqlScriptUtils.convertTrim(values.toString(), LEFT_BRACKET, RIGHT_BRACKET, null, COMMA),
+                COLLECTION, null, ITEM, COMMA);
+        String sql = String.format("<script>\nINSERT INTO %s %s VALUES %s\n</script>",
+                tableInfo.getTableName(), columnScript, valueScript);
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return addInsertMappedStatement(mapperClass, modelClass, METHOD_NAME, sqlSource, keyGenerator, keyProperty, keyColumn);
+    }
+
+    /**
+     * 是否支持多行 VALUES 的批量插入
+     *
+     * 基于序列的主键（Oracle、PostgreSQL 等），需要逐条通过 selectKey 获取主键，所以不支持
+     *
+     * @param tableInfo 表信息
+     * @return 是否支持
+     */
+    public static boolean isSupport(TableInfo tableInfo) {
+        return tableInfo != null
+                && (tableInfo.getIdType() != IdType.INPUT || tableInfo.getKeySequence() == null);
+    }
+
+    /**
+     * 将实体拆分成多批：同一批的实体，为空的字段相同，并且数量不超过 size
+     *
+     * @param tableInfo 表信息
+     * @param entities 实体们
+     * @param size 每批的最大数量
+     * @return 多批实体
+     */
+    public static <T> List<List<T>> split(TableInfo tableInfo, Collection<T> entities, int size) {
+        // 计算每批的最大数量，避免参数过多
+        int columnCount = tableInfo.getFieldList().size() + 1;
+        int maxParameterCount = SqlConstants.DB_TYPE == DbType.SQL_SERVER || SqlConstants.DB_TYPE == DbType.SQL_SERVER2005
+                ? SQL_SERVER_MAX_PARAMETER_COUNT : MAX_PARAMETER_COUNT;
+        size = Math.max(1, Math.min(size, maxParameterCount / columnCount));
+        // 按照为空的字段分组
+        Map<BitSet, List<T>> groups = new LinkedHashMap<>();
+        for (T entity : entities) {
+            groups.computeIfAbsent(buildNullKey(tableInfo, entity), key -> new ArrayList<>()).add(entity);
+        }
+        List<List<T>> batches = new ArrayList<>();
+        for (List<T> group : groups.values()) {
+            batches.addAll(CollUtil.split(group, size));
+        }
+        return batches;
+    }
+
+    /**
+     * 计算实体为空的字段，作为分组的 key。每个字段占两位：是否为 null、是否为空字符串
+     */
+    private static BitSet buildNullKey(TableInfo tableInfo, Object entity) {
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        BitSet key = new BitSet((fields.size() + 1) * 2);
+        if (tableInfo.havePK()) {
+            setNullKey(key, 0, tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty()));
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            setNullKey(key, (i + 1) * 2, tableInfo.getPropertyValue(entity, fields.get(i).getProperty()));
+        }
+        return key;
+    }
+
+    private static void setNullKey(BitSet key, int index, Object value) {
+        if (value == null) {
+            key.set(index);
+        } else if (value instanceof CharSequence && ((CharSequence) value).length() == 0) {
+            key.set(index + 1);
+        }
+    }
+
+}
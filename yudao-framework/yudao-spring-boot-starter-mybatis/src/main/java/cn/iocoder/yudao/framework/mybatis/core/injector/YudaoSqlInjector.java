@@ -0,0 +1,26 @@
+package cn.iocoder.yudao.framework.mybatis.core.injector;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.github.yulichang.injector.MPJSqlInjector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自定义的 SQL 注入器，在 MyBatis Plus Join 的基础上，拓展 {@link InsertBatchValues} 等方法
+ *
+ * 注意，需要继承 {@link MPJSqlInjector}，否则会丢失连表查询的能力
+ *
+ * @author 芋道源码
+ */
+public class YudaoSqlInjector extends MPJSqlInjector {
+
+    @Override
+    public List<AbstractMethod> getMethodList(Class<?> mapperClass, TableInfo tableInfo) {
+        List<AbstractMethod> methods = new ArrayList<>(super.getMethodList(mapperClass, tableInfo));
+        methods.add(new InsertBatchValues());
+        return methods;
+    }
+
+}
@@ -3,12 +3,16 @@ package cn.iocoder.yudao.framework.mybatis.core.mapper;
 import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.mybatis.core.injector.InsertBatchValues;
 import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.toolkit.Db;
 import com.github.yulichang.base.MPJBaseMapper;
 import org.apache.ibatis.annotations.Param;
@@ -24,12 +28,44 @@ import java.util.List;
  */
 public interface BaseMapperX<T> extends MPJBaseMapper<T> {
 
+    /**
+     * 批量插入时，每批的默认数量
+     */
+    int DEFAULT_BATCH_SIZE = 1000;
+
     default PageResult<T> selectPage(PageParam pageParam, @Param("ew") Wrapper<T> queryWrapper) {
         // MyBatis Plus 查询
         IPage<T> mpPage = MyBatisUtils.buildPage(pageParam);
         selectPage(mpPage, queryWrapper);
-        // 转换返回
-        return new PageResult<>(mpPage.getRecords(), mpPage.getTotal());
+        // 转换返回。不查询总数时，total 返回空
+        return new PageResult<>(mpPage.getRecords(), mpPage.searchCount() ? mpPage.getTotal() : null);
+    }
+
+    /**
+     * 分页查询，支持基于 {@link PageParam#getLastId()} 的游标分页
+     *
+     * 传递 lastId 时，添加 id < lastId 条件，并总是查询第一页，避免 OFFSET 过大时的深分页
+     * 注意，要求 queryWrapper 按照 id 倒序，否则分页结果不正确，所以只在满足该要求的 Mapper 方法中使用
+     *
+     * 另外，传递 lastId 时不查询总数，total 返回空：带上 id < lastId 条件后，COUNT 的结果会随游标变小，没有意义；
+     * 而去掉该条件的 COUNT 又会扫描全部数据，和游标分页的初衷相悖。总数以不传递 lastId 的首页查询为准
+     *
+     * @param pageParam 分页参数
+     * @param queryWrapper 查询条件，需要按照 id 倒序
+     * @return 分页结果
+     */
+    default PageResult<T> selectPageByLastId(PageParam pageParam, Wrapper<T> queryWrapper) {
+        if (pageParam.getLastId() == null) {
+            return selectPage(pageParam, queryWrapper);
+        }
+        MyBatisUtils.addLastIdCondition(queryWrapper, pageParam.getLastId());
+        // MyBatis Plus 查询：总是查询第一页，由 lastId 条件定位；不查询总数
+        Page<T> mpPage = MyBatisUtils.buildPage(pageParam);
+        mpPage.setCurrent(1);
+        mpPage.setSearchCount(false);
+        selectPage(mpPage, queryWrapper);
+        // 转换返回。不查询总数，total 返回空
+        return new PageResult<>(mpPage.getRecords(), null);
     }
 
     default T selectOne(String field, Object value) {
@@ -102,19 +138,39 @@ public interface BaseMapperX<T> extends MPJBaseMapper<T> {
      * @param entities 实体们
      */
     default void insertBatch(Collection<T> entities) {
-        Db.saveBatch(entities);
+        insertBatch(entities, DEFAULT_BATCH_SIZE);
     }
 
     /**
      * 批量插入，适合大量数据插入
      *
+     * 优先使用多行 VALUES 的 INSERT 语句，一批只需要一次 DB 交互；不支持时，例如说基于序列的主键，使用 Db.saveBatch 逐条插入
+     *
      * @param entities 实体们
-     * @param size     插入数量 Db.saveBatch 默认为 1000
+     * @param size     每批的最大数量，默认为 1000
      */
     default void insertBatch(Collection<T> entities, int size) {
-        Db.saveBatch(entities, size);
+        if (CollUtil.isEmpty(entities)) {
+            return;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(CollUtil.getFirst(entities).getClass());
+        if (!InsertBatchValues.isSupport(tableInfo)) {
+            Db.saveBatch(entities, size);
+            return;
+        }
+        InsertBatchValues.split(tableInfo, entities, size).forEach(this::insertBatchValues);
     }
 
+    /**
+     * 多行 VALUES 的批量插入，由 {@link InsertBatchValues} 注入实现
+     *
+     * 注意，同一批的实体，为空的字段必须相同，所以请使用 {@link #insertBatch(Collection)} 方法
+     *
+     * @param list 实体们
+     * @return 插入条数
+     */
+    int insertBatchValues(List<T> list);
+
     default void updateBatch(T update) {
         update(update, new QueryWrapper<>());
     }
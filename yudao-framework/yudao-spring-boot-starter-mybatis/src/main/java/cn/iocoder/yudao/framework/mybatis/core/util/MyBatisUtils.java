@@ -1,8 +1,11 @@
 package cn.iocoder.yudao.framework.mybatis.core.util;
 
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.lang.Assert;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.SortingField;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.core.toolkit.StringPool;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
@@ -30,7 +33,7 @@ public class MyBatisUtils {
 
     public static <T> Page<T> buildPage(PageParam pageParam, Collection<SortingField> sortingFields) {
         // 页码 + 数量
-        Page<T> page = new Page<>(pageParam.getPageNo(), pageParam.getPageSize());
+        Page<T> page = new Page<>(pageParam.getPageNo(), pageParam.getPageSize(), !Boolean.FALSE.equals(pageParam.getSearchCount()));
         // 排序字段
         if (!CollectionUtil.isEmpty(sortingFields)) {
             page.addOrder(sortingFields.stream().map(sortingField -> SortingField.ORDER_ASC.equals(sortingField.getOrder()) ?
@@ -40,6 +43,19 @@ public class MyBatisUtils {
         return page;
     }
 
+    /**
+     * 添加游标分页的条件，即 id < lastId
+     *
+     * 注意，要求查询按照 id 倒序，否则分页结果不正确
+     *
+     * @param queryWrapper 查询条件
+     * @param lastId 上一页最后一条记录的编号
+     */
+    public static void addLastIdCondition(Wrapper<?> queryWrapper, Long lastId) {
+        Assert.isInstanceOf(AbstractWrapper.class, queryWrapper, "游标分页，仅支持 AbstractWrapper 查询条件");
+        ((AbstractWrapper<?, ?, ?>) queryWrapper).apply("id < {0}", lastId);
+    }
+
     /**
      * 将拦截器添加到链中
      * 由于 MybatisPlusInterceptor 不支持添加拦截器，所以只能全量设置
@@ -0,0 +1,246 @@
+package cn.iocoder.yudao.framework.mybatis.core.injector;
+
+import cn.iocoder.yudao.framework.mybatis.core.dataobject.BaseDO;
+import cn.iocoder.yudao.framework.mybatis.core.handler.DefaultDBFieldHandler;
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InsertBatchValues} 的单元测试
+ *
+ * 基于 H2 的 MySQL 模式、自增主键，不依赖 Spring 容器，避免和其它单元测试的 TableInfo 互相影响
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class InsertBatchValuesTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    /**
+     * 当前的租户编号，用于多租户插件
+     */
+    private static Long tenantId = 1L;
+
+    @BeforeAll
+    public static void setUpClass() throws Exception {
+        // 创建 DB
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:insert_batch;MODE=MYSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS \"test_batch\" (" +
+                    "\"id\" bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY," +
+                    "\"name\" varchar(64) NOT NULL," +
+                    "\"remark\" varchar(255) DEFAULT 'none'," +
+                    "\"creator\" varchar(64) DEFAULT ''," +
+                    "\"create_time\" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "\"updater\" varchar(64) DEFAULT ''," +
+                    "\"update_time\" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "\"deleted\" bit NOT NULL DEFAULT FALSE," +
+                    "\"tenant_id\" bigint NOT NULL DEFAULT 0," +
+                    "PRIMARY KEY (\"id\"))");
+        }
+
+        // 创建 MyBatis 配置：自增主键 + 自动填充 + 多租户
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("unit-test", new JdbcTransactionFactory(), dataSource));
+        GlobalConfig globalConfig = GlobalConfigUtils.getGlobalConfig(configuration);
+        globalConfig.setSqlInjector(new YudaoSqlInjector());
+        globalConfig.setMetaObjectHandler(new DefaultDBFieldHandler());
+        globalConfig.getDbConfig().setIdType(IdType.AUTO);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new TenantLineInnerInterceptor(new TenantLineHandler() {
+
+            @Override
+            public Expression getTenantId() {
+                return new LongValue(tenantId);
+            }
+
+        }));
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(TestBatchMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(TestBatchMapper.class).delete(null);
+        }
+    }
+
+    @Test
+    public void testInsertBatch() {
+        // 准备参数：remark 为空时，使用 DB 默认值；tenantId 为空时，由多租户插件填充
+        TestBatchDO batch01 = new TestBatchDO().setName("a");
+        TestBatchDO batch02 = new TestBatchDO().setName("b").setRemark("bb");
+        TestBatchDO batch03 = new TestBatchDO().setName("c").setTenantId(2L);
+        TestBatchDO batch04 = new TestBatchDO().setName("d");
+
+        // 调用
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(TestBatchMapper.class).insertBatch(asList(batch01, batch02, batch03, batch04));
+        }
+        // 断言：主键回填
+        assertNotNull(batch01.getId());
+        assertNotNull(batch02.getId());
+        assertNotNull(batch03.getId());
+        assertNotNull(batch04.getId());
+        // 断言：字段
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            TestBatchMapper mapper = session.getMapper(TestBatchMapper.class);
+            TestBatchDO dbBatch01 = mapper.selectById(batch01.getId());
+            assertEquals("a", dbBatch01.getName());
+            assertEquals("none", dbBatch01.getRemark());
+            assertEquals(1L, dbBatch01.getTenantId());
+            assertNotNull(dbBatch01.getCreateTime());
+            assertNotNull(dbBatch01.getUpdateTime());
+            assertFalse(dbBatch01.getDeleted());
+            TestBatchDO dbBatch02 = mapper.selectById(batch02.getId());
+            assertEquals("bb", dbBatch02.getRemark());
+            assertEquals(1L, dbBatch02.getTenantId());
+            assertEquals("d", mapper.selectById(batch04.getId()).getName());
+        }
+        // 断言：指定的 tenantId，不会被覆盖
+        tenantId = 2L;
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            TestBatchDO dbBatch03 = session.getMapper(TestBatchMapper.class).selectById(batch03.getId());
+            assertEquals("none", dbBatch03.getRemark());
+            assertEquals(2L, dbBatch03.getTenantId());
+        } finally {
+            tenantId = 1L;
+        }
+    }
+
+    @Test
+    public void testSplit() {
+        // 准备参数
+        List<TestBatchDO> list = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            list.add(new TestBatchDO().setName("a" + i));
+        }
+        list.add(new TestBatchDO().setName("b").setRemark("bb"));
+        list.add(new TestBatchDO().setName("c").setRemark(""));
+
+        // 调用
+        List<List<TestBatchDO>> batches = InsertBatchValues.split(TableInfoHelper.getTableInfo(TestBatchDO.class),
+                list, 2);
+        // 断言：为空的字段不同的，拆分到不同批次；同一批次，不超过 2 个
+        assertEquals(5, batches.size());
+        assertEquals(asList(list.get(0), list.get(1)), batches.get(0));
+        assertEquals(asList(list.get(2), list.get(3)), batches.get(1));
+        assertEquals(asList(list.get(4)), batches.get(2));
+        assertEquals(asList(list.get(5)), batches.get(3));
+        assertEquals(asList(list.get(6)), batches.get(4));
+    }
+
+    /**
+     * 压测：对比 JDBC batch 逐条插入，与多行 VALUES 批量插入的耗时
+     */
+    @Test
+    @Disabled("性能测试，需要时手动执行")
+    public void testInsertBatch_benchmark() {
+        int count = 10000;
+        // 预热
+        insertByJdbcBatch(buildList(1000));
+        insertByValues(buildList(1000));
+
+        // 调用：JDBC batch 逐条插入，即 Db.saveBatch 的实现
+        long startTime = System.currentTimeMillis();
+        insertByJdbcBatch(buildList(count));
+        long jdbcBatchTime = System.currentTimeMillis() - startTime;
+        // 调用：多行 VALUES 批量插入
+        startTime = System.currentTimeMillis();
+        insertByValues(buildList(count));
+        long valuesTime = System.currentTimeMillis() - startTime;
+        log.info("[testInsertBatch_benchmark][插入 {} 条，JDBC batch 耗时 {} ms，多行 VALUES 耗时 {} ms]",
+                count, jdbcBatchTime, valuesTime);
+
+        // 断言
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            assertEquals((count + 1000) * 2L, session.getMapper(TestBatchMapper.class).selectCount());
+        }
+    }
+
+    private static List<TestBatchDO> buildList(int count) {
+        List<TestBatchDO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new TestBatchDO().setName("name" + i).setRemark("remark" + i));
+        }
+        return list;
+    }
+
+    private static void insertByJdbcBatch(List<TestBatchDO> list) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            TestBatchMapper mapper = session.getMapper(TestBatchMapper.class);
+            for (int i = 0; i < list.size(); i++) {
+                mapper.insert(list.get(i));
+                if ((i + 1) % BaseMapperX.DEFAULT_BATCH_SIZE == 0 || i == list.size() - 1) {
+                    session.flushStatements();
+                }
+            }
+            session.commit();
+        }
+    }
+
+    private static void insertByValues(List<TestBatchDO> list) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(TestBatchMapper.class).insertBatch(list);
+        }
+    }
+
+    @TableName("test_batch")
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class TestBatchDO extends BaseDO {
+
+        @TableId
+        private Long id;
+        private String name;
+        private String remark;
+        private Long tenantId;
+
+    }
+
+    @Mapper
+    public interface TestBatchMapper extends BaseMapperX<TestBatchDO> {
+    }
+
+}
@@ -1,9 +1,13 @@
 package cn.iocoder.yudao.framework.redis.config;
 
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.redis.core.MultiLevelCacheDecorator;
 import cn.iocoder.yudao.framework.redis.core.TimeoutRedisCacheManager;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -61,16 +65,26 @@ public class YudaoCacheAutoConfiguration {
         return config;
     }
 
+    @Bean
+    @ConditionalOnProperty(prefix = "yudao.cache.local", value = "enable", havingValue = "true")
+    public MultiLevelCacheDecorator multiLevelCacheDecorator(YudaoCacheProperties yudaoCacheProperties,
+                                                             RedissonClient redissonClient) {
+        return new MultiLevelCacheDecorator(yudaoCacheProperties.getLocal().getCaches(), redissonClient);
+    }
+
     @Bean
     public RedisCacheManager redisCacheManager(RedisTemplate<String, Object> redisTemplate,
                                                RedisCacheConfiguration redisCacheConfiguration,
-                                               YudaoCacheProperties yudaoCacheProperties) {
+                                               YudaoCacheProperties yudaoCacheProperties,
+                                               ObjectProvider<MultiLevelCacheDecorator> multiLevelCacheDecorator) {
         // 创建 RedisCacheWriter 对象
         RedisConnectionFactory connectionFactory = Objects.requireNonNull(redisTemplate.getConnectionFactory());
         RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
                 BatchStrategies.scan(yudaoCacheProperties.getRedisScanBatchSize()));
         // 创建 TenantRedisCacheManager 对象
-        return new TimeoutRedisCacheManager(cacheWriter, redisCacheConfiguration);
+        TimeoutRedisCacheManager cacheManager = new TimeoutRedisCacheManager(cacheWriter, redisCacheConfiguration);
+        cacheManager.setMultiLevelCacheDecorator(multiLevelCacheDecorator.getIfAvailable());
+        return cacheManager;
     }
 
 }
@@ -4,6 +4,10 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Cache 配置项
  *
@@ -24,4 +28,46 @@ public class YudaoCacheProperties {
      */
     private Integer redisScanBatchSize = REDIS_SCAN_BATCH_SIZE_DEFAULT;
 
+    /**
+     * 多级缓存配置，在 Redis 缓存前，增加进程内的 Caffeine 缓存
+     */
+    private Local local = new Local();
+
+    @Data
+    public static class Local {
+
+        /**
+         * 是否开启
+         */
+        private Boolean enable = false;
+
+        /**
+         * 开启一级缓存的 Cache 们，未配置的 Cache 仍然只使用 Redis 缓存
+         */
+        private List<LocalCache> caches = Collections.emptyList();
+
+    }
+
+    @Data
+    public static class LocalCache {
+
+        /**
+         * Cache 名字，不包括 # 后的过期时间、以及多租户的后缀。例如说，user_role_ids
+         */
+        private String name;
+
+        /**
+         * 最大数量。多租户时，每个租户单独计算
+         */
+        private Long maximumSize = 1000L;
+
+        /**
+         * 写入后的过期时间，不超过 Redis 缓存的过期时间
+         *
+         * 其它节点的删除消息丢失时，最多读取到这么久的旧数据
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+    }
+
 }
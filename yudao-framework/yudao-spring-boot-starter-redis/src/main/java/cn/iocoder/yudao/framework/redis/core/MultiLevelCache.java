@@ -0,0 +1,141 @@
+package cn.iocoder.yudao.framework.redis.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 多级缓存的 {@link org.springframework.cache.Cache} 实现类：一级为进程内的 Caffeine 缓存，二级为 Redis 缓存
+ *
+ * 1. 读取时，优先读取一级缓存；未命中时，读取二级缓存，并回填到一级缓存
+ * 2. 写入、删除时，先操作二级缓存，再操作一级缓存，并通过 Redis pub/sub 广播，删除其它节点的一级缓存
+ *
+ * 注意，一级缓存的 key 使用 {@link String#valueOf(Object)} 转换，所以要求 key 的 toString 能唯一标识
+ *
+ * @author 芋道源码
+ */
+public class MultiLevelCache extends AbstractValueAdaptingCache {
+
+    private final RedisCache redisCache;
+
+    /**
+     * 一级缓存
+     *
+     * key：{@link #toLocalKey(Object)}
+     * value：存储的值，null 使用 {@link org.springframework.cache.support.NullValue} 表示
+     */
+    private final Cache<String, Object> localCache;
+
+    private final MultiLevelCacheDecorator decorator;
+
+    private final MultiLevelCacheDecorator.Stats stats;
+
+    public MultiLevelCache(RedisCache redisCache, Cache<String, Object> localCache,
+                           MultiLevelCacheDecorator decorator, MultiLevelCacheDecorator.Stats stats) {
+        super(redisCache.isAllowNullValues());
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.decorator = decorator;
+        this.stats = stats;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        // 情况一：一级缓存命中
+        String localKey = toLocalKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            stats.getLocalHits().increment();
+            return value;
+        }
+        stats.getLocalMisses().increment();
+
+        // 情况二：二级缓存命中，回填到一级缓存
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper == null) {
+            stats.getRedisMisses().increment();
+            return null;
+        }
+        stats.getRedisHits().increment();
+        value = toStoreValue(wrapper.get());
+        localCache.put(localKey, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = toLocalKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            stats.getLocalHits().increment();
+            return (T) fromStoreValue(value);
+        }
+        stats.getLocalMisses().increment();
+
+        // 由 RedisCache 保证同一个 key 只加载一次
+        T result = redisCache.get(key, valueLoader);
+        localCache.put(localKey, toStoreValue(result));
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        localCache.put(toLocalKey(key), toStoreValue(value));
+        decorator.publish(getName(), toLocalKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = redisCache.putIfAbsent(key, value);
+        // 不确定最终的值，所以删除一级缓存，下次读取时回填
+        localCache.invalidate(toLocalKey(key));
+        decorator.publish(getName(), toLocalKey(key));
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(toLocalKey(key));
+        decorator.publish(getName(), toLocalKey(key));
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        decorator.publish(getName(), null);
+    }
+
+    /**
+     * 删除一级缓存，用于其它节点的广播
+     *
+     * @param localKey 一级缓存的 key。为空时，删除所有
+     */
+    void evictLocal(String localKey) {
+        if (localKey == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(localKey);
+        }
+    }
+
+    private static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+
+}
@@ -0,0 +1,207 @@
+package cn.iocoder.yudao.framework.redis.core;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.redis.config.YudaoCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
+
+/**
+ * 多级缓存的装饰器，为配置了一级缓存的 {@link RedisCache}，创建对应的 {@link MultiLevelCache}
+ *
+ * 1. 广播：订阅 Redis pub/sub，收到其它节点的删除消息时，删除本节点的一级缓存
+ * 2. 监控：按照 Cache 名字，统计一级、二级缓存的命中率，上报到 Micrometer
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class MultiLevelCacheDecorator implements InitializingBean, DisposableBean, MeterBinder {
+
+    /**
+     * 广播删除消息的 Redis Channel
+     */
+    private static final String CHANNEL = "multi_level_cache";
+
+    /**
+     * 一级缓存配置
+     *
+     * key：Cache 名字，不包括 # 后的过期时间、以及多租户的后缀
+     */
+    private final Map<String, YudaoCacheProperties.LocalCache> localCacheProperties;
+
+    private final RTopic topic;
+
+    /**
+     * 当前节点编号
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private Integer listenerId;
+
+    /**
+     * 已创建的多级缓存
+     *
+     * key：Cache 名字，即 {@link Cache#getName()}
+     */
+    private final Map<String, MultiLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 命中率统计。多租户时，同一个 Cache 名字的所有租户，共享一个统计
+     *
+     * key：Cache 名字，同 {@link #localCacheProperties} 的 key
+     */
+    private final Map<String, Stats> statsMap = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    public MultiLevelCacheDecorator(Collection<YudaoCacheProperties.LocalCache> localCaches, RedissonClient redissonClient) {
+        this.localCacheProperties = convertMap(localCaches, YudaoCacheProperties.LocalCache::getName);
+        this.topic = redissonClient.getTopic(CHANNEL, StringCodec.INSTANCE);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    @Override
+    public void destroy() {
+        if (listenerId != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    /**
+     * 装饰 RedisCache。如果未配置一级缓存，则直接返回
+     *
+     * @param redisCache RedisCache 对象
+     * @return Cache 对象
+     */
+    public Cache decorate(RedisCache redisCache) {
+        String name = getBaseName(redisCache.getName());
+        YudaoCacheProperties.LocalCache properties = localCacheProperties.get(name);
+        if (properties == null) {
+            return redisCache;
+        }
+        // 一级缓存的过期时间，不超过二级缓存的过期时间
+        Duration expireAfterWrite = properties.getExpireAfterWrite();
+        Duration ttl = redisCache.getCacheConfiguration().getTtl();
+        if (!ttl.isZero() && !ttl.isNegative() && ttl.compareTo(expireAfterWrite) < 0) {
+            expireAfterWrite = ttl;
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        MultiLevelCache cache = new MultiLevelCache(redisCache, localCache, this, getStats(name));
+        caches.put(cache.getName(), cache);
+        return cache;
+    }
+
+    /**
+     * 广播删除消息，删除其它节点的一级缓存
+     *
+     * @param name Cache 名字
+     * @param key 一级缓存的 key。为空时，表示删除所有
+     */
+    void publish(String name, String key) {
+        topic.publishAsync(JsonUtils.toJsonString(new MultiLevelCacheMessage(nodeId, name, key)))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("[publish][Cache({}) key({}) 广播删除消息失败]", name, key, ex);
+                    }
+                });
+    }
+
+    private void onMessage(String json) {
+        MultiLevelCacheMessage message = JsonUtils.parseObject(json, MultiLevelCacheMessage.class);
+        // 忽略自己发送的消息，因为已经处理过
+        if (message == null || nodeId.equals(message.getNodeId())) {
+            return;
+        }
+        MultiLevelCache cache = caches.get(message.getName());
+        if (cache != null) {
+            cache.evictLocal(message.getKey());
+        }
+    }
+
+    /**
+     * 获得 Cache 的名字，去除 # 后的过期时间、以及多租户的后缀
+     */
+    private static String getBaseName(String name) {
+        return StrUtil.subBefore(StrUtil.subBefore(name, "#", false), StrUtil.COLON, false);
+    }
+
+    // ========== 监控相关 ==========
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        statsMap.forEach((name, stats) -> bindStats(registry, name, stats));
+    }
+
+    private Stats getStats(String name) {
+        return statsMap.computeIfAbsent(name, key -> {
+            Stats stats = new Stats();
+            if (meterRegistry != null) {
+                bindStats(meterRegistry, key, stats);
+            }
+            return stats;
+        });
+    }
+
+    private static void bindStats(MeterRegistry registry, String name, Stats stats) {
+        bindStats(registry, name, "local", stats.getLocalHits(), stats.getLocalMisses());
+        bindStats(registry, name, "redis", stats.getRedisHits(), stats.getRedisMisses());
+    }
+
+    private static void bindStats(MeterRegistry registry, String name, String level, LongAdder hits, LongAdder misses) {
+        FunctionCounter.builder("yudao.cache.gets", hits, LongAdder::sum)
+                .tags("cache", name, "level", level, "result", "hit")
+                .description("多级缓存的读取次数").register(registry);
+        FunctionCounter.builder("yudao.cache.gets", misses, LongAdder::sum)
+                .tags("cache", name, "level", level, "result", "miss")
+                .description("多级缓存的读取次数").register(registry);
+        Gauge.builder("yudao.cache.hit.ratio", () -> {
+                    long hitCount = hits.sum();
+                    long total = hitCount + misses.sum();
+                    return total == 0 ? Double.NaN : (double) hitCount / total;
+                }).tags("cache", name, "level", level)
+                .description("多级缓存的命中率").register(registry);
+    }
+
+    /**
+     * 命中率统计
+     */
+    @Getter
+    public static class Stats {
+
+        private final LongAdder localHits = new LongAdder();
+        private final LongAdder localMisses = new LongAdder();
+        private final LongAdder redisHits = new LongAdder();
+        private final LongAdder redisMisses = new LongAdder();
+
+    }
+
+}
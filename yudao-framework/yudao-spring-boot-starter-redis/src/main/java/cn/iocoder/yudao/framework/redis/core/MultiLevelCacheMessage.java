@@ -0,0 +1,30 @@
+package cn.iocoder.yudao.framework.redis.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 多级缓存的删除消息，通过 Redis pub/sub 广播，删除其它节点的一级缓存
+ *
+ * @author 芋道源码
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiLevelCacheMessage {
+
+    /**
+     * 发送消息的节点编号，用于忽略自己发送的消息
+     */
+    private String nodeId;
+    /**
+     * Cache 名字
+     */
+    private String name;
+    /**
+     * 一级缓存的 key。为空时，表示删除所有
+     */
+    private String key;
+
+}
@@ -2,6 +2,8 @@ package cn.iocoder.yudao.framework.redis.core;
 
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.StrUtil;
+import lombok.Setter;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -16,16 +18,32 @@ import java.time.Duration;
  * 在 {@link Cacheable#cacheNames()} 格式为 "key#ttl" 时，# 后面的 ttl 为过期时间。
  * 单位为最后一个字母（支持的单位有：d 天，h 小时，m 分钟，s 秒），默认单位为 s 秒
  *
+ * 设置 {@link MultiLevelCacheDecorator} 时，配置了一级缓存的 Cache，使用 {@link MultiLevelCache} 多级缓存
+ *
  * @author 芋道源码
  */
 public class TimeoutRedisCacheManager extends RedisCacheManager {
 
     private static final String SPLIT = "#";
 
+    /**
+     * 多级缓存的装饰器，为空时不使用多级缓存
+     */
+    @Setter
+    private MultiLevelCacheDecorator multiLevelCacheDecorator;
+
     public TimeoutRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultCacheConfiguration) {
         super(cacheWriter, defaultCacheConfiguration);
     }
 
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        if (multiLevelCacheDecorator != null && cache instanceof RedisCache) {
+            cache = multiLevelCacheDecorator.decorate((RedisCache) cache);
+        }
+        return super.decorateCache(cache);
+    }
+
     @Override
     protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
         if (StrUtil.isEmpty(name)) {
@@ -0,0 +1,238 @@
+package cn.iocoder.yudao.framework.redis.core;
+
+import cn.iocoder.yudao.framework.redis.config.YudaoCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link MultiLevelCache} 和 {@link MultiLevelCacheDecorator} 的单元测试
+ *
+ * 两个 {@link MultiLevelCacheDecorator} 模拟两个节点，共享同一个 Redis 缓存、以及 Redis pub/sub
+ *
+ * @author 芋道源码
+ */
+public class MultiLevelCacheTest {
+
+    private static final String CACHE_NAME = "user_role_ids";
+
+    /**
+     * 订阅的监听器，模拟 Redis pub/sub 的广播
+     */
+    private final List<MessageListener<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private RedisCache redisCache;
+
+    private MultiLevelCacheDecorator decorator1;
+    private MultiLevelCacheDecorator decorator2;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // mock Redis pub/sub：发布时，同步投递给所有节点
+        RTopic topic = mock(RTopic.class);
+        when(topic.addListener(eq(String.class), any())).thenAnswer(invocation -> {
+            listeners.add(invocation.getArgument(1));
+            return listeners.size();
+        });
+        when(topic.publishAsync(any())).thenAnswer(invocation -> {
+            listeners.forEach(listener -> listener.onMessage("multi_level_cache", invocation.getArgument(0)));
+            return mock(RFuture.class);
+        });
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getTopic(anyString(), any())).thenReturn(topic);
+        // mock Redis 缓存
+        redisCache = mock(RedisCache.class);
+        when(redisCache.getName()).thenReturn(CACHE_NAME);
+        when(redisCache.isAllowNullValues()).thenReturn(true);
+        when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig());
+
+        // 创建两个节点
+        List<YudaoCacheProperties.LocalCache> localCaches = singletonList(new YudaoCacheProperties.LocalCache().setName(CACHE_NAME));
+        decorator1 = new MultiLevelCacheDecorator(localCaches, redissonClient);
+        decorator1.afterPropertiesSet();
+        decorator2 = new MultiLevelCacheDecorator(localCaches, redissonClient);
+        decorator2.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        decorator1.destroy();
+        decorator2.destroy();
+    }
+
+    @Test
+    public void testDecorate_notConfigured() {
+        // mock 方法
+        RedisCache otherRedisCache = mock(RedisCache.class);
+        when(otherRedisCache.getName()).thenReturn("other#10m");
+
+        // 调用，并断言：未配置一级缓存时，直接返回
+        assertSame(otherRedisCache, decorator1.decorate(otherRedisCache));
+    }
+
+    @Test
+    public void testGet_readThrough() {
+        // mock 方法
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper("admin"));
+        Cache cache = decorator1.decorate(redisCache);
+
+        // 调用：第一次，读取二级缓存，并回填到一级缓存
+        assertEquals("admin", cache.get(1L, String.class));
+        // 调用：第二次，命中一级缓存
+        assertEquals("admin", cache.get(1L, String.class));
+        // 断言
+        verify(redisCache, times(1)).get(eq(1L));
+    }
+
+    @Test
+    public void testGet_nullValue() {
+        // mock 方法：二级缓存中，存储的是 null
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper(null));
+        Cache cache = decorator1.decorate(redisCache);
+
+        // 调用，并断言：null 也回填到一级缓存
+        assertNull(cache.get(1L).get());
+        assertNull(cache.get(1L).get());
+        verify(redisCache, times(1)).get(eq(1L));
+    }
+
+    @Test
+    public void testGet_miss() {
+        // mock 方法：二级缓存也未命中
+        Cache cache = decorator1.decorate(redisCache);
+
+        // 调用，并断言：不回填一级缓存，每次都读取二级缓存
+        assertNull(cache.get(1L));
+        assertNull(cache.get(1L));
+        verify(redisCache, times(2)).get(eq(1L));
+    }
+
+    @Test
+    public void testGet_valueLoader() {
+        // mock 方法
+        when(redisCache.get(eq(1L), any(Callable.class))).thenReturn("admin");
+        Cache cache = decorator1.decorate(redisCache);
+
+        // 调用：第一次，由二级缓存加载
+        assertEquals("admin", cache.get(1L, () -> "admin"));
+        // 调用：第二次，命中一级缓存
+        assertEquals("admin", cache.get(1L, () -> "admin"));
+        // 断言
+        verify(redisCache, times(1)).get(eq(1L), any(Callable.class));
+    }
+
+    @Test
+    public void testPut() {
+        // 准备参数
+        Cache cache1 = decorator1.decorate(redisCache);
+        Cache cache2 = decorator2.decorate(redisCache);
+        // 调用：节点 2 读取，回填到一级缓存
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper("old"));
+        assertEquals("old", cache2.get(1L, String.class));
+
+        // 调用：节点 1 写入
+        cache1.put(1L, "new");
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper("new"));
+        // 断言：写入二级缓存；节点 1 直接读取一级缓存，不会被自己的广播删除
+        verify(redisCache).put(eq(1L), eq("new"));
+        assertEquals("new", cache1.get(1L, String.class));
+        verify(redisCache, times(1)).get(eq(1L));
+        // 断言：节点 2 的一级缓存被广播删除，重新读取二级缓存
+        assertEquals("new", cache2.get(1L, String.class));
+        verify(redisCache, times(2)).get(eq(1L));
+    }
+
+    @Test
+    public void testEvict() {
+        // 准备参数
+        when(redisCache.get(any())).thenAnswer(invocation -> new SimpleValueWrapper("value" + invocation.getArgument(0)));
+        Cache cache1 = decorator1.decorate(redisCache);
+        Cache cache2 = decorator2.decorate(redisCache);
+        cache1.get(1L);
+        cache2.get(1L);
+        cache2.get(2L);
+
+        // 调用：节点 1 删除
+        cache1.evict(1L);
+        // 断言：删除二级缓存，以及两个节点的一级缓存
+        verify(redisCache).evict(eq(1L));
+        cache1.get(1L);
+        cache2.get(1L);
+        verify(redisCache, times(4)).get(eq(1L));
+        // 断言：其它 key 不受影响
+        cache2.get(2L);
+        verify(redisCache, times(1)).get(eq(2L));
+    }
+
+    @Test
+    public void testClear() {
+        // 准备参数
+        when(redisCache.get(any())).thenAnswer(invocation -> new SimpleValueWrapper("value" + invocation.getArgument(0)));
+        Cache cache1 = decorator1.decorate(redisCache);
+        Cache cache2 = decorator2.decorate(redisCache);
+        cache2.get(1L);
+        cache2.get(2L);
+
+        // 调用：节点 1 清空
+        cache1.clear();
+        // 断言：清空二级缓存，以及节点 2 的所有一级缓存
+        verify(redisCache).clear();
+        cache2.get(1L);
+        cache2.get(2L);
+        verify(redisCache, times(2)).get(eq(1L));
+        verify(redisCache, times(2)).get(eq(2L));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        // 准备参数
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper("old"));
+        when(redisCache.putIfAbsent(eq(1L), eq("new"))).thenReturn(new SimpleValueWrapper("old"));
+        Cache cache1 = decorator1.decorate(redisCache);
+        Cache cache2 = decorator2.decorate(redisCache);
+        cache1.get(1L);
+        cache2.get(1L);
+
+        // 调用
+        Cache.ValueWrapper wrapper = cache1.putIfAbsent(1L, "new");
+        // 断言：返回二级缓存的结果，并删除两个节点的一级缓存
+        assertEquals("old", wrapper.get());
+        cache1.get(1L);
+        cache2.get(1L);
+        verify(redisCache, times(4)).get(eq(1L));
+    }
+
+    @Test
+    public void testOnMessage_otherCache() {
+        // 准备参数：节点 2 只有 user_role_ids 缓存
+        when(redisCache.get(eq(1L))).thenReturn(new SimpleValueWrapper("admin"));
+        Cache cache2 = decorator2.decorate(redisCache);
+        cache2.get(1L);
+
+        // 调用：节点 1 广播其它 Cache 的删除消息
+        decorator1.publish("other", "1");
+
+        // 断言：不影响节点 2 的一级缓存
+        cache2.get(1L);
+        verify(redisCache, times(1)).get(eq(1L));
+    }
+
+}
@@ -0,0 +1,80 @@
+package cn.iocoder.yudao.framework.apilog.config;
+
+import cn.iocoder.yudao.framework.apilog.core.enums.ApiAccessLogRejectPolicyEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * API 访问日志配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.access-log")
+@Validated
+@Data
+public class ApiAccessLogProperties {
+
+    /**
+     * 是否开启，默认为 true
+     */
+    private boolean enable = true;
+
+    /**
+     * 需要排除的 URL，默认为空。匹配到的请求，不记录请求参数，也不缓存 Request Body
+     */
+    private List<String> excludeUrls = Collections.emptyList();
+    /**
+     * 记录的 Request Body 的最大字节数，超过的部分会被截断
+     *
+     * 同时也是 CacheRequestBodyFilter 缓存 Request Body 的最大字节数，超过时不缓存
+     */
+    @NotNull(message = "Request Body 的最大字节数不能为空")
+    @Min(value = 0, message = "Request Body 的最大字节数不能小于 0")
+    private Integer requestBodyMaxSize = 4096;
+    /**
+     * 记录的请求参数（JSON 序列化后）的最大长度，超过的部分会被截断
+     */
+    @NotNull(message = "请求参数的最大长度不能为空")
+    @Min(value = 16, message = "请求参数的最大长度不能小于 16")
+    private Integer requestParamsMaxLength = 8000;
+
+    /**
+     * 缓冲队列的容量
+     */
+    @NotNull(message = "缓冲队列的容量不能为空")
+    @Min(value = 1, message = "缓冲队列的容量不能小于 1")
+    private Integer queueCapacity = 10000;
+    /**
+     * 每批写入的最大数量
+     */
+    @NotNull(message = "每批写入的最大数量不能为空")
+    @Min(value = 1, message = "每批写入的最大数量不能小于 1")
+    private Integer batchSize = 200;
+    /**
+     * 写入的最大间隔。未攒满 {@link #batchSize} 时，达到该间隔也会写入
+     */
+    @NotNull(message = "写入的最大间隔不能为空")
+    private Duration flushInterval = Duration.ofSeconds(1);
+    /**
+     * 缓冲队列已满时的拒绝策略
+     */
+    @NotNull(message = "拒绝策略不能为空")
+    private ApiAccessLogRejectPolicyEnum rejectPolicy = ApiAccessLogRejectPolicyEnum.DISCARD;
+    /**
+     * 采样率，取值范围 (0, 1]。默认为 1，即记录全部日志
+     */
+    @NotNull(message = "采样率不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "采样率必须大于 0")
+    @DecimalMax(value = "1", message = "采样率不能大于 1")
+    private Double sampleRate = 1D;
+
+}
@@ -0,0 +1,25 @@
+package cn.iocoder.yudao.framework.apilog.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * API 访问日志的缓冲队列已满时的拒绝策略枚举
+ *
+ * @author 芋道源码
+ */
+@Getter
+@AllArgsConstructor
+public enum ApiAccessLogRejectPolicyEnum {
+
+    DISCARD("丢弃当前日志"),
+    DISCARD_OLDEST("丢弃队列中最早的日志"),
+    CALLER_RUNS("由请求线程直接写入"),
+    ;
+
+    /**
+     * 名字
+     */
+    private final String name;
+
+}
@@ -2,7 +2,10 @@ package cn.iocoder.yudao.framework.apilog.core.filter;
 
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.map.MapBuilder;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.apilog.config.ApiAccessLogProperties;
 import cn.iocoder.yudao.framework.apilog.core.service.ApiAccessLog;
 import cn.iocoder.yudao.framework.apilog.core.service.ApiAccessLogFrameworkService;
 import cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants;
@@ -13,6 +16,8 @@ import cn.iocoder.yudao.framework.web.config.WebProperties;
 import cn.iocoder.yudao.framework.web.core.filter.ApiRequestFilter;
 import cn.iocoder.yudao.framework.web.core.util.WebFrameworkUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -33,12 +38,18 @@ import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString
 @Slf4j
 public class ApiAccessLogFilter extends ApiRequestFilter {
 
+    private final ApiAccessLogProperties properties;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
     private final String applicationName;
 
     private final ApiAccessLogFrameworkService apiAccessLogFrameworkService;
 
-    public ApiAccessLogFilter(WebProperties webProperties, String applicationName, ApiAccessLogFrameworkService apiAccessLogFrameworkService) {
+    public ApiAccessLogFilter(WebProperties webProperties, ApiAccessLogProperties properties,
+                              String applicationName, ApiAccessLogFrameworkService apiAccessLogFrameworkService) {
         super(webProperties);
+        this.properties = properties;
         this.applicationName = applicationName;
         this.apiAccessLogFrameworkService = apiAccessLogFrameworkService;
     }
@@ -48,27 +59,36 @@ public class ApiAccessLogFilter extends ApiRequestFilter {
             throws ServletException, IOException {
         // 获得开始时间
         LocalDateTime beginTime = LocalDateTime.now();
-        // 提前获得参数，避免 XssFilter 过滤处理
-        Map<String, String> queryString = ServletUtils.getParamMap(request);
-        String requestBody = ServletUtils.isJsonRequest(request) ? ServletUtils.getBody(request) : null;
+        // 提前获得参数，避免 XssFilter 过滤处理。排除的 URL，不记录请求参数
+        boolean exclude = isExcludeUrl(request);
+        Map<String, String> queryString = exclude ? null : ServletUtils.getParamMap(request);
+        // 对于 JSON 请求，在 Controller 读取 Request Body 时，按照最大字节数记录
+        ApiAccessLogRequestWrapper requestWrapper = !exclude && ServletUtils.isJsonRequest(request)
+                ? new ApiAccessLogRequestWrapper(request, properties.getRequestBodyMaxSize()) : null;
 
         try {
             // 继续过滤器
-            filterChain.doFilter(request, response);
+            filterChain.doFilter(requestWrapper != null ? requestWrapper : request, response);
             // 正常执行，记录日志
-            createApiAccessLog(request, beginTime, queryString, requestBody, null);
+            createApiAccessLog(request, beginTime, exclude, queryString, requestWrapper, null);
         } catch (Exception ex) {
             // 异常执行，记录日志
-            createApiAccessLog(request, beginTime, queryString, requestBody, ex);
+            createApiAccessLog(request, beginTime, exclude, queryString, requestWrapper, ex);
             throw ex;
         }
     }
 
-    private void createApiAccessLog(HttpServletRequest request, LocalDateTime beginTime,
-                                    Map<String, String> queryString, String requestBody, Exception ex) {
+    private boolean isExcludeUrl(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return properties.getExcludeUrls().stream().anyMatch(excludeUrl -> pathMatcher.match(excludeUrl, uri));
+    }
+
+    private void createApiAccessLog(HttpServletRequest request, LocalDateTime beginTime, boolean exclude,
+                                    Map<String, String> queryString, ApiAccessLogRequestWrapper requestWrapper,
+                                    Exception ex) {
         ApiAccessLog accessLog = new ApiAccessLog();
         try {
-            this.buildApiAccessLogDTO(accessLog, request, beginTime, queryString, requestBody, ex);
+            this.buildApiAccessLogDTO(accessLog, request, beginTime, exclude, queryString, requestWrapper, ex);
             apiAccessLogFrameworkService.createApiAccessLog(accessLog);
         } catch (Throwable th) {
             log.error("[createApiAccessLog][url({}) log({}) 发生异常]", request.getRequestURI(), toJsonString(accessLog), th);
@@ -76,7 +96,8 @@ public class ApiAccessLogFilter extends ApiRequestFilter {
     }
 
     private void buildApiAccessLogDTO(ApiAccessLog accessLog, HttpServletRequest request, LocalDateTime beginTime,
-                                      Map<String, String> queryString, String requestBody, Exception ex) {
+                                      boolean exclude, Map<String, String> queryString,
+                                      ApiAccessLogRequestWrapper requestWrapper, Exception ex) {
         // 处理用户信息
         accessLog.setUserId(WebFrameworkUtils.getLoginUserId(request));
         accessLog.setUserType(WebFrameworkUtils.getLoginUserType(request));
@@ -94,10 +115,10 @@ public class ApiAccessLogFilter extends ApiRequestFilter {
         }
         // 设置其它字段
         accessLog.setTraceId(TracerUtils.getTraceId());
+        accessLog.setTenantId(WebFrameworkUtils.getTenantId(request));
         accessLog.setApplicationName(applicationName);
         accessLog.setRequestUrl(request.getRequestURI());
-        Map<String, Object> requestParams = MapUtil.<String, Object>builder().put("query", queryString).put("body", requestBody).build();
-        accessLog.setRequestParams(toJsonString(requestParams));
+        accessLog.setRequestParams(exclude ? "" : buildRequestParams(queryString, requestWrapper));
         accessLog.setRequestMethod(request.getMethod());
         accessLog.setUserAgent(ServletUtils.getUserAgent(request));
         accessLog.setUserIp(ServletUtils.getClientIP(request));
@@ -107,4 +128,15 @@ public class ApiAccessLogFilter extends ApiRequestFilter {
         accessLog.setDuration((int) LocalDateTimeUtil.between(accessLog.getBeginTime(), accessLog.getEndTime(), ChronoUnit.MILLIS));
     }
 
+    private String buildRequestParams(Map<String, String> queryString, ApiAccessLogRequestWrapper requestWrapper) {
+        String requestBody = requestWrapper != null ? requestWrapper.getCapturedBody() : null;
+        MapBuilder<String, Object> builder = MapUtil.<String, Object>builder().put("query", queryString).put("body", requestBody);
+        if (requestWrapper != null && requestWrapper.isTruncated()) {
+            builder.put("bodyTruncated", true);
+        }
+        // 超过最大长度时截断，避免超过字段长度
+        String requestParams = toJsonString(builder.build());
+        return StrUtil.maxLength(requestParams, properties.getRequestParamsMaxLength() - 3);
+    }
+
 }
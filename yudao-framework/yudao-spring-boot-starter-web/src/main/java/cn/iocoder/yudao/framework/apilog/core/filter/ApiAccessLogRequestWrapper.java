@@ -0,0 +1,176 @@
+package cn.iocoder.yudao.framework.apilog.core.filter;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * API 访问日志的 Request Wrapper
+ *
+ * 在 Controller 读取 Request Body 的同时，将内容复制到固定大小的缓冲区中，超过 {@link #maxSize} 的部分直接丢弃，
+ * 避免为了记录访问日志，额外持有大请求体（上传、批量导入等）的完整副本
+ *
+ * @author 芋道源码
+ */
+public class ApiAccessLogRequestWrapper extends HttpServletRequestWrapper {
+
+    /**
+     * 最多记录的字节数
+     */
+    private final int maxSize;
+    /**
+     * 已记录的内容
+     */
+    private final ByteArrayOutputStream captured;
+    /**
+     * 是否被截断
+     */
+    @Getter
+    private boolean truncated;
+
+    /**
+     * 是否已经获取过 InputStream。只复制第一次读取的内容，避免重复读取时重复记录
+     */
+    private boolean inputStreamObtained;
+
+    public ApiAccessLogRequestWrapper(HttpServletRequest request, int maxSize) {
+        super(request);
+        this.maxSize = maxSize;
+        this.captured = new ByteArrayOutputStream(Math.min(maxSize, 1024));
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        return new BufferedReader(new InputStreamReader(getInputStream(), getCharset()));
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        ServletInputStream inputStream = super.getInputStream();
+        if (inputStreamObtained) {
+            return inputStream;
+        }
+        inputStreamObtained = true;
+        return new TeeServletInputStream(inputStream);
+    }
+
+    /**
+     * 获得已记录的 Request Body
+     *
+     * @return Request Body；未读取时，返回 null
+     */
+    public String getCapturedBody() {
+        if (!inputStreamObtained) {
+            return null;
+        }
+        byte[] bytes = captured.toByteArray();
+        Charset charset = getCharset();
+        // 被截断时，UTF-8 编码需要回退到完整字符的边界，避免末尾出现乱码
+        int length = truncated && StandardCharsets.UTF_8.equals(charset) ? getUtf8Boundary(bytes) : bytes.length;
+        return new String(bytes, 0, length, charset);
+    }
+
+    /**
+     * 获得 UTF-8 编码的完整字符的边界，即去掉末尾不完整的字符后的长度
+     *
+     * @param bytes UTF-8 编码的字节
+     * @return 长度
+     */
+    static int getUtf8Boundary(byte[] bytes) {
+        // 找到最后一个字符的首字节：跳过末尾最多 3 个 10xxxxxx 的后续字节
+        int start = bytes.length - 1;
+        while (start >= 0 && bytes.length - start < 4 && (bytes[start] & 0xC0) == 0x80) {
+            start--;
+        }
+        if (start < 0) {
+            return bytes.length;
+        }
+        // 根据首字节，计算该字符的字节数
+        int lead = bytes[start] & 0xFF;
+        int charLength = lead < 0x80 ? 1 : (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 1;
+        return bytes.length - start < charLength ? start : bytes.length;
+    }
+
+    private Charset getCharset() {
+        String encoding = getCharacterEncoding();
+        return StrUtil.isEmpty(encoding) ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    }
+
+    private void capture(int b) {
+        if (captured.size() < maxSize) {
+            captured.write(b);
+        } else {
+            truncated = true;
+        }
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        int remaining = maxSize - captured.size();
+        if (len > remaining) {
+            truncated = true;
+            len = remaining;
+        }
+        if (len > 0) {
+            captured.write(b, off, len);
+        }
+    }
+
+    private class TeeServletInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        private TeeServletInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b != -1) {
+                capture(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = delegate.read(b, off, len);
+            if (count > 0) {
+                capture(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+    }
+
+}
@@ -17,6 +17,12 @@ public class ApiAccessLog {
      * 链路追踪编号
      */
     private String traceId;
+    /**
+     * 租户编号
+     *
+     * 日志由单独的写入线程批量写入，没有请求的租户上下文，所以需要记录下来
+     */
+    private Long tenantId;
     /**
      * 用户编号
      */
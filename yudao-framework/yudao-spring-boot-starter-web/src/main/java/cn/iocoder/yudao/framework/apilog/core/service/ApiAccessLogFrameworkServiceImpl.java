@@ -1,28 +1,198 @@
 package cn.iocoder.yudao.framework.apilog.core.service;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.iocoder.yudao.framework.apilog.config.ApiAccessLogProperties;
+import cn.iocoder.yudao.framework.apilog.core.enums.ApiAccessLogRejectPolicyEnum;
 import cn.iocoder.yudao.module.infra.api.logger.ApiAccessLogApi;
 import cn.iocoder.yudao.module.infra.api.logger.dto.ApiAccessLogCreateReqDTO;
-import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * API 访问日志 Framework Service 实现类
  *
- * 基于 {@link ApiAccessLogApi} 服务，记录访问日志
+ * 基于 {@link ApiAccessLogApi} 服务，记录访问日志。
+ * 请求线程只负责将日志放入有界的缓冲队列，由单独的写入线程按照数量、时间攒批，批量写入，
+ * 避免每个请求占用一次异步线程池、一次单行 INSERT。
+ *
+ * 写入线程没有请求的租户上下文，所以每条日志记录 {@link ApiAccessLog#getTenantId()}，写入时按照租户分组
  *
  * @author 芋道源码
  */
-@RequiredArgsConstructor
-public class ApiAccessLogFrameworkServiceImpl implements ApiAccessLogFrameworkService {
+@Slf4j
+public class ApiAccessLogFrameworkServiceImpl implements ApiAccessLogFrameworkService, MeterBinder {
 
     private final ApiAccessLogApi apiAccessLogApi;
+    private final ApiAccessLogProperties properties;
+
+    /**
+     * 缓冲队列
+     */
+    private final BlockingQueue<ApiAccessLog> queue;
+    /**
+     * 写入线程
+     */
+    private Thread flushThread;
+    /**
+     * 是否运行中
+     */
+    private volatile boolean running;
+
+    /**
+     * 被丢弃的日志数量，包括采样丢弃、队列已满丢弃
+     */
+    private final AtomicLong discardCount = new AtomicLong();
+    /**
+     * 写入失败的日志数量
+     */
+    private final AtomicLong failureCount = new AtomicLong();
+    /**
+     * 写入耗时，在 {@link #bindTo(MeterRegistry)} 时才创建
+     */
+    private volatile Timer flushTimer;
+
+    public ApiAccessLogFrameworkServiceImpl(ApiAccessLogApi apiAccessLogApi, ApiAccessLogProperties properties) {
+        this.apiAccessLogApi = apiAccessLogApi;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public void start() {
+        running = true;
+        flushThread = new Thread(this::runFlushLoop, "api-access-log-flush");
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (flushThread == null) {
+            return;
+        }
+        flushThread.interrupt();
+        // 等待写入线程，将队列中剩余的日志写完
+        ThreadUtil.waitForDie(flushThread);
+    }
 
     @Override
-    @Async
     public void createApiAccessLog(ApiAccessLog apiAccessLog) {
-        ApiAccessLogCreateReqDTO reqDTO = BeanUtil.copyProperties(apiAccessLog, ApiAccessLogCreateReqDTO.class);
-        apiAccessLogApi.createApiAccessLog(reqDTO);
+        // 采样
+        if (properties.getSampleRate() < 1D
+                && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            discardCount.incrementAndGet();
+            return;
+        }
+        // 放入缓冲队列
+        if (queue.offer(apiAccessLog)) {
+            return;
+        }
+        // 缓冲队列已满，执行拒绝策略
+        ApiAccessLogRejectPolicyEnum rejectPolicy = properties.getRejectPolicy();
+        if (rejectPolicy == ApiAccessLogRejectPolicyEnum.CALLER_RUNS) {
+            flush(Collections.singletonList(apiAccessLog));
+            return;
+        }
+        if (rejectPolicy == ApiAccessLogRejectPolicyEnum.DISCARD_OLDEST
+                && queue.poll() != null) {
+            discardCount.incrementAndGet();
+            if (queue.offer(apiAccessLog)) {
+                return;
+            }
+        }
+        discardCount.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("yudao.access-log.queue.size", queue, BlockingQueue::size)
+                .description("API 访问日志的缓冲队列深度").register(registry);
+        Gauge.builder("yudao.access-log.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("API 访问日志的缓冲队列剩余容量").register(registry);
+        Gauge.builder("yudao.access-log.discard", discardCount, AtomicLong::get)
+                .description("API 访问日志的丢弃数量").register(registry);
+        Gauge.builder("yudao.access-log.failure", failureCount, AtomicLong::get)
+                .description("API 访问日志的写入失败数量").register(registry);
+        flushTimer = Timer.builder("yudao.access-log.flush")
+                .description("API 访问日志的批量写入耗时").register(registry);
+    }
+
+    private void runFlushLoop() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<ApiAccessLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                // 1. 等待第一条日志
+                ApiAccessLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 2. 攒批，直到数量达到 batchSize，或者时间达到 flushInterval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    ApiAccessLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                // 关闭时被中断，将队列中剩余的日志写完
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            // 3. 批量写入
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ApiAccessLog> apiAccessLogs) {
+        long startTime = System.nanoTime();
+        try {
+            // 按照租户分组写入，避免一批日志混合多个租户。注意，租户编号可能为空，所以不使用 groupingBy
+            Map<Long, List<ApiAccessLog>> tenantLogs = new LinkedHashMap<>();
+            apiAccessLogs.forEach(apiAccessLog -> tenantLogs.computeIfAbsent(apiAccessLog.getTenantId(),
+                    key -> new ArrayList<>()).add(apiAccessLog));
+            tenantLogs.forEach(this::flush);
+        } finally {
+            Timer timer = flushTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void flush(Long tenantId, List<ApiAccessLog> apiAccessLogs) {
+        try {
+            List<ApiAccessLogCreateReqDTO> reqDTOs = BeanUtil.copyToList(apiAccessLogs, ApiAccessLogCreateReqDTO.class);
+            apiAccessLogApi.createApiAccessLogList(reqDTOs);
+        } catch (Throwable ex) {
+            failureCount.addAndGet(apiAccessLogs.size());
+            log.error("[flush][租户({}) 写入 API 访问日志({} 条)发生异常]", tenantId, apiAccessLogs.size(), ex);
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.framework.web.config;
 
+import cn.iocoder.yudao.framework.apilog.config.ApiAccessLogProperties;
 import cn.iocoder.yudao.framework.apilog.core.service.ApiErrorLogFrameworkService;
 import cn.iocoder.yudao.framework.common.enums.WebFilterOrderEnum;
 import cn.iocoder.yudao.framework.web.core.filter.CacheRequestBodyFilter;
@@ -28,7 +29,7 @@ import javax.annotation.Resource;
 import javax.servlet.Filter;
 
 @AutoConfiguration
-@EnableConfigurationProperties(WebProperties.class)
+@EnableConfigurationProperties({WebProperties.class, ApiAccessLogProperties.class})
 public class YudaoWebAutoConfiguration implements WebMvcConfigurer {
 
     @Resource
@@ -95,10 +96,14 @@ public class YudaoWebAutoConfiguration implements WebMvcConfigurer {
 
     /**
      * 创建 RequestBodyCacheFilter Bean，可重复读取请求内容
+     *
+     * 复用访问日志的排除 URL、Request Body 最大字节数，避免缓存大请求体
      */
     @Bean
-    public FilterRegistrationBean<CacheRequestBodyFilter> requestBodyCacheFilter() {
-        return createFilterBean(new CacheRequestBodyFilter(), WebFilterOrderEnum.REQUEST_BODY_CACHE_FILTER);
+    public FilterRegistrationBean<CacheRequestBodyFilter> requestBodyCacheFilter(ApiAccessLogProperties apiAccessLogProperties) {
+        CacheRequestBodyFilter filter = new CacheRequestBodyFilter(apiAccessLogProperties.getExcludeUrls(),
+                apiAccessLogProperties.getRequestBodyMaxSize());
+        return createFilterBean(filter, WebFilterOrderEnum.REQUEST_BODY_CACHE_FILTER);
     }
 
     /**
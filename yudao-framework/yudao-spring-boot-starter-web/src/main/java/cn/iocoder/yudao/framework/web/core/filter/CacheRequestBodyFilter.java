@@ -1,6 +1,8 @@
 package cn.iocoder.yudao.framework.web.core.filter;
 
 import cn.iocoder.yudao.framework.common.util.servlet.ServletUtils;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
@@ -8,24 +10,55 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Request Body 缓存 Filter，实现它的可重复读取
  *
+ * 为避免大请求体（上传、批量导入等）被完整复制一份，以下情况不缓存：
+ * 1. 匹配 {@link #excludeUrls} 的请求
+ * 2. Content-Length 超过 {@link #maxSize} 的请求
+ * 3. 未知 Content-Length 时，由 {@link CacheRequestBodyWrapper} 最多缓存 {@link #maxSize} 字节，超过时不再缓存
+ *
  * @author 芋道源码
  */
 public class CacheRequestBodyFilter extends OncePerRequestFilter {
 
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * 需要排除的 URL
+     */
+    private final List<String> excludeUrls;
+    /**
+     * 缓存的最大字节数
+     */
+    private final int maxSize;
+
+    public CacheRequestBodyFilter(List<String> excludeUrls, int maxSize) {
+        this.excludeUrls = excludeUrls;
+        this.maxSize = maxSize;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws IOException, ServletException {
-        filterChain.doFilter(new CacheRequestBodyWrapper(request), response);
+        filterChain.doFilter(new CacheRequestBodyWrapper(request, maxSize), response);
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         // 只处理 json 请求内容
-        return !ServletUtils.isJsonRequest(request);
+        if (!ServletUtils.isJsonRequest(request)) {
+            return true;
+        }
+        // 超过最大字节数的，不缓存
+        if (request.getContentLengthLong() > maxSize) {
+            return true;
+        }
+        // 排除的 URL，不缓存
+        String uri = request.getRequestURI();
+        return excludeUrls.stream().anyMatch(excludeUrl -> pathMatcher.match(excludeUrl, uri));
     }
 
 }
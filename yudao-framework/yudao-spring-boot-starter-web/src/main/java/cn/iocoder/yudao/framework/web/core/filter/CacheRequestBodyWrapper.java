@@ -1,19 +1,16 @@
 package cn.iocoder.yudao.framework.web.core.filter;
 
-import cn.iocoder.yudao.framework.common.util.servlet.ServletUtils;
-
 import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.*;
 
 /**
  *  Request Body 缓存 Wrapper
  *
+ * 最多缓存 maxSize 字节。超过时，缓存的只是开头部分，和剩余的原始内容拼接后返回，此时只能读取一次
+ *
  * @author 芋道源码
  */
 public class CacheRequestBodyWrapper extends HttpServletRequestWrapper {
@@ -22,10 +19,28 @@ public class CacheRequestBodyWrapper extends HttpServletRequestWrapper {
      * 缓存的内容
      */
     private final byte[] body;
+    /**
+     * 是否超过最大字节数，即 {@link #body} 只是开头部分
+     */
+    private final boolean overflow;
+    /**
+     * 超过最大字节数时，是否已经获取过 InputStream
+     */
+    private boolean overflowObtained;
 
-    public CacheRequestBodyWrapper(HttpServletRequest request) {
+    public CacheRequestBodyWrapper(HttpServletRequest request, int maxSize) throws IOException {
         super(request);
-        body = ServletUtils.getBodyBytes(request);
+        // 最多读取 maxSize + 1 字节，用于判断是否超过
+        InputStream inputStream = request.getInputStream();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(maxSize + 1, 1024));
+        byte[] buffer = new byte[Math.min(maxSize + 1, 8192)];
+        int count;
+        while (output.size() <= maxSize
+                && (count = inputStream.read(buffer, 0, Math.min(buffer.length, maxSize + 1 - output.size()))) != -1) {
+            output.write(buffer, 0, count);
+        }
+        body = output.toByteArray();
+        overflow = body.length > maxSize;
     }
 
     @Override
@@ -35,34 +50,53 @@ public class CacheRequestBodyWrapper extends HttpServletRequestWrapper {
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
-        final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
-        // 返回 ServletInputStream
-        return new ServletInputStream() {
-
-            @Override
-            public int read() {
-                return inputStream.read();
-            }
-
-            @Override
-            public boolean isFinished() {
-                return false;
-            }
-
-            @Override
-            public boolean isReady() {
-                return false;
-            }
-
-            @Override
-            public void setReadListener(ReadListener readListener) {}
-
-            @Override
-            public int available() {
-                return body.length;
-            }
-
-        };
+        if (!overflow) {
+            return new BodyServletInputStream(new ByteArrayInputStream(body));
+        }
+        // 超过最大字节数：第一次读取时，拼接缓存的开头部分和剩余的原始内容；之后，只能读取到剩余的原始内容
+        if (overflowObtained) {
+            return super.getInputStream();
+        }
+        overflowObtained = true;
+        return new BodyServletInputStream(new SequenceInputStream(new ByteArrayInputStream(body), super.getInputStream()));
+    }
+
+    private static class BodyServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+
+        private BodyServletInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return delegate.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return false;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {}
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
     }
 
 }
@@ -0,0 +1,66 @@
+package cn.iocoder.yudao.framework.apilog.core.filter;
+
+import cn.hutool.core.io.IoUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ApiAccessLogRequestWrapper} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class ApiAccessLogRequestWrapperTest {
+
+    @Test
+    public void testGetCapturedBody() throws Exception {
+        // 准备参数
+        ApiAccessLogRequestWrapper wrapper = new ApiAccessLogRequestWrapper(buildRequest("{\"name\":\"芋艿\"}"), 1024);
+
+        // 调用：未读取时，返回 null
+        assertNull(wrapper.getCapturedBody());
+        // 调用：读取后，记录完整内容
+        assertEquals("{\"name\":\"芋艿\"}", IoUtil.read(wrapper.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("{\"name\":\"芋艿\"}", wrapper.getCapturedBody());
+        assertFalse(wrapper.isTruncated());
+    }
+
+    @Test
+    public void testGetCapturedBody_truncatedUtf8() throws Exception {
+        // 准备参数：截断在“艿”的 3 个字节中间
+        ApiAccessLogRequestWrapper wrapper = new ApiAccessLogRequestWrapper(buildRequest("芋艿"), 4);
+
+        // 调用：Controller 读取到完整内容
+        assertEquals("芋艿", IoUtil.read(wrapper.getInputStream(), StandardCharsets.UTF_8));
+        // 断言：回退到完整字符的边界，末尾没有乱码
+        assertEquals("芋", wrapper.getCapturedBody());
+        assertTrue(wrapper.isTruncated());
+    }
+
+    @Test
+    public void testGetUtf8Boundary() {
+        byte[] bytes = "a芋😀".getBytes(StandardCharsets.UTF_8); // 1 + 3 + 4 字节
+        // 调用，并断言：完整的字符，不回退
+        assertEquals(8, ApiAccessLogRequestWrapper.getUtf8Boundary(bytes));
+        assertEquals(4, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 4)));
+        assertEquals(1, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 1)));
+        // 调用，并断言：不完整的字符，回退到它的首字节
+        assertEquals(1, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 2)));
+        assertEquals(1, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 3)));
+        assertEquals(4, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 5)));
+        assertEquals(4, ApiAccessLogRequestWrapper.getUtf8Boundary(Arrays.copyOf(bytes, 7)));
+        assertEquals(0, ApiAccessLogRequestWrapper.getUtf8Boundary(new byte[0]));
+    }
+
+    private static MockHttpServletRequest buildRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin-api/system/user/create");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+}
@@ -0,0 +1,62 @@
+package cn.iocoder.yudao.framework.apilog.core.service;
+
+import cn.iocoder.yudao.framework.apilog.config.ApiAccessLogProperties;
+import cn.iocoder.yudao.module.infra.api.logger.ApiAccessLogApi;
+import cn.iocoder.yudao.module.infra.api.logger.dto.ApiAccessLogCreateReqDTO;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link ApiAccessLogFrameworkServiceImpl} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class ApiAccessLogFrameworkServiceImplTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_multiTenant() {
+        // 准备参数：攒满一批才写入
+        ApiAccessLogApi apiAccessLogApi = mock(ApiAccessLogApi.class);
+        ApiAccessLogProperties properties = new ApiAccessLogProperties();
+        properties.setBatchSize(4);
+        properties.setFlushInterval(Duration.ofSeconds(10L));
+        ApiAccessLogFrameworkServiceImpl service = new ApiAccessLogFrameworkServiceImpl(apiAccessLogApi, properties);
+
+        // 调用：租户 1、租户 2 的日志，混合在一批
+        service.start();
+        service.createApiAccessLog(buildApiAccessLog(1L, "/a"));
+        service.createApiAccessLog(buildApiAccessLog(2L, "/b"));
+        service.createApiAccessLog(buildApiAccessLog(1L, "/c"));
+        service.createApiAccessLog(buildApiAccessLog(2L, "/d"));
+        service.stop();
+
+        // 断言：按照租户分组写入，每组只有一个租户
+        ArgumentCaptor<List<ApiAccessLogCreateReqDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(apiAccessLogApi, times(2)).createApiAccessLogList(captor.capture());
+        for (List<ApiAccessLogCreateReqDTO> reqDTOs : captor.getAllValues()) {
+            assertEquals(2, reqDTOs.size());
+            Set<Long> tenantIds = reqDTOs.stream().map(ApiAccessLogCreateReqDTO::getTenantId).collect(Collectors.toSet());
+            assertEquals(1, tenantIds.size());
+        }
+        Set<Long> tenantIds = captor.getAllValues().stream().map(reqDTOs -> reqDTOs.get(0).getTenantId())
+                .collect(Collectors.toSet());
+        assertEquals(2, tenantIds.size());
+    }
+
+    private static ApiAccessLog buildApiAccessLog(Long tenantId, String requestUrl) {
+        ApiAccessLog apiAccessLog = new ApiAccessLog();
+        apiAccessLog.setTenantId(tenantId);
+        apiAccessLog.setRequestUrl(requestUrl);
+        return apiAccessLog;
+    }
+
+}
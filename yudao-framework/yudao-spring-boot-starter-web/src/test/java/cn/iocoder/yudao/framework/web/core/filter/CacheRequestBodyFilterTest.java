@@ -0,0 +1,144 @@
+package cn.iocoder.yudao.framework.web.core.filter;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CacheRequestBodyFilter} 和 {@link CacheRequestBodyWrapper} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class CacheRequestBodyFilterTest {
+
+    @Test
+    public void testDoFilter_cache() throws Exception {
+        // 准备参数
+        CacheRequestBodyFilter filter = new CacheRequestBodyFilter(emptyList(), 1024);
+        MockHttpServletRequest request = buildJsonRequest("/admin-api/system/user/create", "{\"name\":\"芋艿\"}");
+        MockFilterChain chain = new MockFilterChain();
+
+        // 调用
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        // 断言：缓存，可重复读取
+        ServletRequest chainRequest = chain.getRequest();
+        assertTrue(chainRequest instanceof CacheRequestBodyWrapper);
+        assertEquals("{\"name\":\"芋艿\"}", IoUtil.read(chainRequest.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("{\"name\":\"芋艿\"}", IoUtil.read(chainRequest.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDoFilter_largeBody() throws Exception {
+        // 准备参数：Content-Length 超过最大字节数
+        CacheRequestBodyFilter filter = new CacheRequestBodyFilter(emptyList(), 1024);
+        MockHttpServletRequest request = buildJsonRequest("/admin-api/system/user/import", StrUtil.repeat('a', 2048));
+        MockFilterChain chain = new MockFilterChain();
+
+        // 调用
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        // 断言：不缓存，直接使用原始请求
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    public void testDoFilter_excludeUrl() throws Exception {
+        // 准备参数
+        CacheRequestBodyFilter filter = new CacheRequestBodyFilter(singletonList("/admin-api/infra/file/**"), 1024);
+        MockHttpServletRequest request = buildJsonRequest("/admin-api/infra/file/upload", "{}");
+        MockFilterChain chain = new MockFilterChain();
+
+        // 调用
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        // 断言：不缓存，直接使用原始请求
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    public void testWrapper_overflow() throws Exception {
+        // 准备参数：未知 Content-Length 的大请求体，记录从原始请求读取的字节数
+        byte[] body = StrUtil.repeat('a', 10000).getBytes(StandardCharsets.UTF_8);
+        CountingServletInputStream inputStream = new CountingServletInputStream(body);
+        MockHttpServletRequest request = new MockHttpServletRequest() {
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return inputStream;
+            }
+
+        };
+
+        // 调用
+        CacheRequestBodyWrapper wrapper = new CacheRequestBodyWrapper(request, 100);
+        // 断言：最多读取 maxSize + 1 字节，不会完整缓存
+        assertEquals(101, inputStream.count);
+        // 断言：第一次读取，拼接后得到完整内容；之后，不能重复读取
+        assertArrayEquals(body, IoUtil.readBytes(wrapper.getInputStream()));
+        assertEquals(10000, inputStream.count);
+        assertEquals(-1, wrapper.getInputStream().read());
+    }
+
+    private static MockHttpServletRequest buildJsonRequest(String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static class CountingServletInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream delegate;
+
+        private int count;
+
+        private CountingServletInputStream(byte[] body) {
+            this.delegate = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            int b = delegate.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int n = delegate.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {}
+
+    }
+
+}
@@ -17,6 +17,12 @@ public class ApiAccessLogCreateReqDTO {
      * 链路追踪编号
      */
     private String traceId;
+    /**
+     * 租户编号
+     *
+     * 为空时，表示非租户的请求
+     */
+    private Long tenantId;
     /**
      * 用户编号
      */
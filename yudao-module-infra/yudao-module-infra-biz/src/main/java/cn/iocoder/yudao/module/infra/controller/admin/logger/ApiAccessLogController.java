@@ -13,17 +13,18 @@ import cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO;
 import cn.iocoder.yudao.module.infra.service.logger.ApiAccessLogService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.EXPORT;
@@ -34,6 +35,11 @@ import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.E
 @Validated
 public class ApiAccessLogController {
 
+    /**
+     * 导出时，每页查询的数量
+     */
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
     @Resource
     private ApiAccessLogService apiAccessLogService;
 
@@ -49,12 +55,15 @@ public class ApiAccessLogController {
     @Operation(summary = "导出API 访问日志 Excel")
     @PreAuthorize("@ss.hasPermission('infra:api-access-log:export')")
     @OperateLog(type = EXPORT)
+    @Parameter(name = "gzip", description = "是否 gzip 压缩", example = "false")
     public void exportApiAccessLogExcel(@Valid ApiAccessLogExportReqVO exportReqVO,
+                                        @RequestParam(value = "gzip", defaultValue = "false") Boolean gzip,
                                         HttpServletResponse response) throws IOException {
-        List<ApiAccessLogDO> list = apiAccessLogService.getApiAccessLogList(exportReqVO);
-        // 导出 Excel
-        List<ApiAccessLogExcelVO> datas = ApiAccessLogConvert.INSTANCE.convertList02(list);
-        ExcelUtils.write(response, "API 访问日志.xls", "数据", ApiAccessLogExcelVO.class, datas);
+        // 导出 Excel：访问日志的数据量较大，基于 id 游标分页查询，流式写入
+        ExcelUtils.write(response, "API 访问日志.xls", "数据", ApiAccessLogExcelVO.class,
+                (ApiAccessLogDO last) -> apiAccessLogService.getApiAccessLogList(exportReqVO,
+                        last != null ? last.getId() : null, EXPORT_PAGE_SIZE),
+                ApiAccessLogConvert.INSTANCE::convertList02, gzip);
     }
 
 }
@@ -30,4 +30,6 @@ public interface ApiAccessLogConvert {
 
     ApiAccessLogDO convert(ApiAccessLogCreateReqDTO bean);
 
+    List<ApiAccessLogDO> convertList03(List<ApiAccessLogCreateReqDTO> list);
+
 }
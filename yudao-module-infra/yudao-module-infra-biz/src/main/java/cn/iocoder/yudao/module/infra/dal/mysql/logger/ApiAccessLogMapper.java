@@ -6,6 +6,7 @@ import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogExportReqVO;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogPageReqVO;
 import cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
@@ -19,7 +20,7 @@ import java.util.List;
 public interface ApiAccessLogMapper extends BaseMapperX<ApiAccessLogDO> {
 
     default PageResult<ApiAccessLogDO> selectPage(ApiAccessLogPageReqVO reqVO) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<ApiAccessLogDO>()
+        return selectPageByLastId(reqVO, new LambdaQueryWrapperX<ApiAccessLogDO>()
                 .eqIfPresent(ApiAccessLogDO::getUserId, reqVO.getUserId())
                 .eqIfPresent(ApiAccessLogDO::getUserType, reqVO.getUserType())
                 .eqIfPresent(ApiAccessLogDO::getApplicationName, reqVO.getApplicationName())
@@ -44,4 +45,28 @@ public interface ApiAccessLogMapper extends BaseMapperX<ApiAccessLogDO> {
         );
     }
 
+    /**
+     * 基于 id 游标，查询一页 API 访问日志，用于 Excel 流式导出
+     *
+     * 相比 OFFSET 分页，使用 id < maxId 定位，不会随页数增加而变慢；并且不执行 COUNT 查询
+     *
+     * @param reqVO 查询条件
+     * @param maxId 上一页最后一条的编号，首页时为 null
+     * @param size 每页数量
+     * @return API 访问日志列表
+     */
+    default List<ApiAccessLogDO> selectList(ApiAccessLogExportReqVO reqVO, Long maxId, Integer size) {
+        return selectPage(new Page<>(1, size, false), new LambdaQueryWrapperX<ApiAccessLogDO>()
+                .eqIfPresent(ApiAccessLogDO::getUserId, reqVO.getUserId())
+                .eqIfPresent(ApiAccessLogDO::getUserType, reqVO.getUserType())
+                .eqIfPresent(ApiAccessLogDO::getApplicationName, reqVO.getApplicationName())
+                .likeIfPresent(ApiAccessLogDO::getRequestUrl, reqVO.getRequestUrl())
+                .betweenIfPresent(ApiAccessLogDO::getBeginTime, reqVO.getBeginTime())
+                .geIfPresent(ApiAccessLogDO::getDuration, reqVO.getDuration())
+                .eqIfPresent(ApiAccessLogDO::getResultCode, reqVO.getResultCode())
+                .ltIfPresent(ApiAccessLogDO::getId, maxId)
+                .orderByDesc(ApiAccessLogDO::getId)
+        ).getRecords();
+    }
+
 }
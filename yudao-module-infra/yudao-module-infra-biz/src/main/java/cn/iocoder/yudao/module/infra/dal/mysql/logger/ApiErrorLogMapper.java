@@ -19,7 +19,7 @@ import java.util.List;
 public interface ApiErrorLogMapper extends BaseMapperX<ApiErrorLogDO> {
 
     default PageResult<ApiErrorLogDO> selectPage(ApiErrorLogPageReqVO reqVO) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<ApiErrorLogDO>()
+        return selectPageByLastId(reqVO, new LambdaQueryWrapperX<ApiErrorLogDO>()
                 .eqIfPresent(ApiErrorLogDO::getUserId, reqVO.getUserId())
                 .eqIfPresent(ApiErrorLogDO::getUserType, reqVO.getUserType())
                 .eqIfPresent(ApiErrorLogDO::getApplicationName, reqVO.getApplicationName())
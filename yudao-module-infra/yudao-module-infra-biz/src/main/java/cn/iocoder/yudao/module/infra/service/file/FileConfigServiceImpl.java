@@ -50,7 +50,7 @@ public class FileConfigServiceImpl implements FileConfigService {
      * {@link FileClient} 缓存，通过它异步刷新 fileClientFactory
      */
     @Getter
-    private final LoadingCache<Long, FileClient> clientCache = buildAsyncReloadingCache(Duration.ofSeconds(10L),
+    private final LoadingCache<Long, FileClient> clientCache = buildAsyncReloadingCache("file.config.client", Duration.ofSeconds(10L),
             new CacheLoader<Long, FileClient>() {
 
                 @Override
@@ -22,6 +22,13 @@ public interface ApiAccessLogService {
      */
     void createApiAccessLog(ApiAccessLogCreateReqDTO createReqDTO);
 
+    /**
+     * 批量创建 API 访问日志
+     *
+     * @param createReqDTOs API 访问日志列表
+     */
+    void createApiAccessLogList(List<ApiAccessLogCreateReqDTO> createReqDTOs);
+
     /**
      * 获得 API 访问日志分页
      *
@@ -38,4 +45,14 @@ public interface ApiAccessLogService {
      */
     List<ApiAccessLogDO> getApiAccessLogList(ApiAccessLogExportReqVO exportReqVO);
 
+    /**
+     * 获得 API 访问日志列表, 用于 Excel 流式导出
+     *
+     * @param exportReqVO 查询条件
+     * @param maxId 上一页最后一条的编号，首页时为 null
+     * @param size 每页数量
+     * @return API 访问日志列表，按照编号倒序
+     */
+    List<ApiAccessLogDO> getApiAccessLogList(ApiAccessLogExportReqVO exportReqVO, Long maxId, Integer size);
+
 }
@@ -1,6 +1,8 @@
 package cn.iocoder.yudao.module.infra.service.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import cn.iocoder.yudao.module.infra.api.logger.dto.ApiAccessLogCreateReqDTO;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogExportReqVO;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogPageReqVO;
@@ -11,7 +13,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * API 访问日志 Service 实现类
@@ -31,6 +36,25 @@ public class ApiAccessLogServiceImpl implements ApiAccessLogService {
         apiAccessLogMapper.insert(apiAccessLog);
     }
 
+    @Override
+    public void createApiAccessLogList(List<ApiAccessLogCreateReqDTO> createDTOs) {
+        if (CollUtil.isEmpty(createDTOs)) {
+            return;
+        }
+        // 按照租户分组，在对应租户的上下文中写入。因为调用方是批量写入线程，没有租户上下文
+        Map<Long, List<ApiAccessLogCreateReqDTO>> tenantDTOs = new LinkedHashMap<>();
+        createDTOs.forEach(createDTO -> tenantDTOs.computeIfAbsent(createDTO.getTenantId(),
+                key -> new ArrayList<>()).add(createDTO));
+        tenantDTOs.forEach((tenantId, dtos) -> {
+            Runnable runnable = () -> apiAccessLogMapper.insertBatch(ApiAccessLogConvert.INSTANCE.convertList03(dtos));
+            if (tenantId != null) {
+                TenantUtils.execute(tenantId, runnable);
+            } else {
+                TenantUtils.executeIgnore(runnable);
+            }
+        });
+    }
+
     @Override
     public PageResult<ApiAccessLogDO> getApiAccessLogPage(ApiAccessLogPageReqVO pageReqVO) {
         return apiAccessLogMapper.selectPage(pageReqVO);
@@ -41,4 +65,9 @@ public class ApiAccessLogServiceImpl implements ApiAccessLogService {
         return apiAccessLogMapper.selectList(exportReqVO);
     }
 
+    @Override
+    public List<ApiAccessLogDO> getApiAccessLogList(ApiAccessLogExportReqVO exportReqVO, Long maxId, Integer size) {
+        return apiAccessLogMapper.selectList(exportReqVO, maxId, size);
+    }
+
 }
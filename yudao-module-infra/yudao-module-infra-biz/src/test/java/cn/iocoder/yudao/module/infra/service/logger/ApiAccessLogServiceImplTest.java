@@ -3,6 +3,7 @@ package cn.iocoder.yudao.module.infra.service.logger;
 import cn.iocoder.yudao.framework.common.enums.UserTypeEnum;
 import cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
 import cn.iocoder.yudao.framework.test.core.ut.BaseDbUnitTest;
 import cn.iocoder.yudao.module.infra.api.logger.dto.ApiAccessLogCreateReqDTO;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogExportReqVO;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils.buildBetweenTime;
@@ -20,7 +22,7 @@ import static cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils.bui
 import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgnoreId;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 @Import(ApiAccessLogServiceImpl.class)
 public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
@@ -75,6 +77,35 @@ public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
         assertPojoEquals(apiAccessLogDO, pageResult.getList().get(0));
     }
 
+    @Test
+    public void testGetApiAccessLogPage_lastId() {
+        // mock 数据
+        ApiAccessLogDO log01 = randomPojo(ApiAccessLogDO.class, o -> {
+            o.setId(null); // 使用自增编号，保证顺序
+            o.setApplicationName("yudao-test");
+        });
+        apiAccessLogMapper.insert(log01);
+        ApiAccessLogDO log02 = cloneIgnoreId(log01, o -> {});
+        apiAccessLogMapper.insert(log02);
+        ApiAccessLogDO log03 = cloneIgnoreId(log01, o -> {});
+        apiAccessLogMapper.insert(log03);
+        // 准备参数
+        ApiAccessLogPageReqVO reqVO = new ApiAccessLogPageReqVO();
+        reqVO.setApplicationName("yudao-test");
+        reqVO.setPageNo(10); // 游标分页时，忽略 pageNo
+        reqVO.setPageSize(2);
+        reqVO.setLastId(log03.getId());
+        reqVO.setSearchCount(false);
+
+        // 调用
+        PageResult<ApiAccessLogDO> pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        // 断言：不查询总数；从 lastId 之后，按照编号倒序
+        assertNull(pageResult.getTotal());
+        assertEquals(2, pageResult.getList().size());
+        assertEquals(log02.getId(), pageResult.getList().get(0).getId());
+        assertEquals(log01.getId(), pageResult.getList().get(1).getId());
+    }
+
     @Test
     public void testGetApiAccessLogList() {
         ApiAccessLogDO apiAccessLogDO = randomPojo(ApiAccessLogDO.class, o -> {
@@ -118,6 +149,37 @@ public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
         assertPojoEquals(apiAccessLogDO, list.get(0));
     }
 
+    @Test
+    public void testGetApiAccessLogList_cursor() {
+        // mock 数据：指定编号，并且乱序插入，保证结果只和编号有关
+        ApiAccessLogDO log01 = randomPojo(ApiAccessLogDO.class, o -> {
+            o.setId(100L);
+            o.setApplicationName("yudao-test");
+        });
+        ApiAccessLogDO log02 = cloneIgnoreId(log01, o -> o.setId(200L));
+        ApiAccessLogDO log03 = cloneIgnoreId(log01, o -> o.setId(300L));
+        apiAccessLogMapper.insert(log02);
+        apiAccessLogMapper.insert(log03);
+        apiAccessLogMapper.insert(log01);
+        // 测试 applicationName 不匹配
+        apiAccessLogMapper.insert(cloneIgnoreId(log01, o -> o.setId(400L).setApplicationName("test")));
+        // 准备参数
+        ApiAccessLogExportReqVO reqVO = new ApiAccessLogExportReqVO();
+        reqVO.setApplicationName("yudao-test");
+
+        // 调用：第一页
+        List<ApiAccessLogDO> list = apiAccessLogService.getApiAccessLogList(reqVO, null, 2);
+        // 断言：按照编号倒序
+        assertEquals(2, list.size());
+        assertEquals(log03.getId(), list.get(0).getId());
+        assertEquals(log02.getId(), list.get(1).getId());
+        // 调用：第二页
+        list = apiAccessLogService.getApiAccessLogList(reqVO, list.get(1).getId(), 2);
+        // 断言
+        assertEquals(1, list.size());
+        assertEquals(log01.getId(), list.get(0).getId());
+    }
+
     @Test
     public void testCreateApiAccessLog() {
         // 准备参数
@@ -130,4 +192,38 @@ public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
         assertPojoEquals(createDTO, apiAccessLogDO);
     }
 
+    @Test
+    public void testCreateApiAccessLogList() {
+        // 准备参数
+        List<ApiAccessLogCreateReqDTO> createDTOs = Arrays.asList(randomPojo(ApiAccessLogCreateReqDTO.class),
+                randomPojo(ApiAccessLogCreateReqDTO.class));
+
+        // 调用
+        apiAccessLogService.createApiAccessLogList(createDTOs);
+        // 断言
+        List<ApiAccessLogDO> apiAccessLogDOs = apiAccessLogMapper.selectList();
+        assertEquals(2, apiAccessLogDOs.size());
+        assertPojoEquals(createDTOs.get(0), apiAccessLogDOs.get(0));
+        assertPojoEquals(createDTOs.get(1), apiAccessLogDOs.get(1));
+    }
+
+    @Test
+    public void testCreateApiAccessLogList_multiTenant() {
+        // 准备参数：租户 1、租户 2、非租户的日志混合在一批
+        List<ApiAccessLogCreateReqDTO> createDTOs = Arrays.asList(
+                randomPojo(ApiAccessLogCreateReqDTO.class, o -> o.setTenantId(1L)),
+                randomPojo(ApiAccessLogCreateReqDTO.class, o -> o.setTenantId(2L)),
+                randomPojo(ApiAccessLogCreateReqDTO.class, o -> o.setTenantId(1L)),
+                randomPojo(ApiAccessLogCreateReqDTO.class, o -> o.setTenantId(null)));
+
+        // 调用
+        apiAccessLogService.createApiAccessLogList(createDTOs);
+        // 断言：全部写入
+        List<ApiAccessLogDO> apiAccessLogDOs = apiAccessLogMapper.selectList();
+        assertEquals(4, apiAccessLogDOs.size());
+        // 断言：租户上下文被还原
+        assertNull(TenantContextHolder.getTenantId());
+        assertFalse(TenantContextHolder.isIgnore());
+    }
+
 }
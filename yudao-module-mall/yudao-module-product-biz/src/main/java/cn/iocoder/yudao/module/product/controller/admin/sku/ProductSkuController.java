@@ -1,14 +1,37 @@
 package cn.iocoder.yudao.module.product.controller.admin.sku;
 
+import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.module.product.controller.admin.sku.vo.ProductSkuUpdateStockBucketReqVO;
+import cn.iocoder.yudao.module.product.service.sku.ProductSkuService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.Resource;
+import javax.validation.Valid;
+
+import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
+
 @Tag(name = "管理后台 - 商品 SKU")
 @RestController
 @RequestMapping("/product/sku")
 @Validated
 public class ProductSkuController {
 
+    @Resource
+    private ProductSkuService productSkuService;
+
+    @PutMapping("/update-stock-bucket")
+    @Operation(summary = "更新商品 SKU 库存分桶", description = "用于热门 SKU，将库存拆分到多个分桶，减少下单时的行锁竞争")
+    @PreAuthorize("@ss.hasPermission('product:spu:update')")
+    public CommonResult<Boolean> updateStockBucket(@Valid @RequestBody ProductSkuUpdateStockBucketReqVO updateReqVO) {
+        productSkuService.updateSkuStockBucket(updateReqVO.getId(), updateReqVO.getBucketCount());
+        return success(true);
+    }
+
 }
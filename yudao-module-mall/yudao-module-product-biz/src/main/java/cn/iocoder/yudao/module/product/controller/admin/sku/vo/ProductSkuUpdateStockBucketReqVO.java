@@ -0,0 +1,24 @@
+package cn.iocoder.yudao.module.product.controller.admin.sku.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Schema(description = "管理后台 - 商品 SKU 库存分桶更新 Request VO")
+@Data
+public class ProductSkuUpdateStockBucketReqVO {
+
+    @Schema(description = "SKU 编号", requiredMode = Schema.RequiredMode.REQUIRED, example = "1024")
+    @NotNull(message = "SKU 编号不能为空")
+    private Long id;
+
+    @Schema(description = "分桶数量，为 1 时表示关闭分桶", requiredMode = Schema.RequiredMode.REQUIRED, example = "8")
+    @NotNull(message = "分桶数量不能为空")
+    @Min(value = 1, message = "分桶数量不能小于 1")
+    @Max(value = 64, message = "分桶数量不能大于 64")
+    private Integer bucketCount;
+
+}
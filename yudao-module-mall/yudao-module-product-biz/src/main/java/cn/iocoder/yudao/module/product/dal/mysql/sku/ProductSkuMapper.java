@@ -22,6 +22,16 @@ public interface ProductSkuMapper extends BaseMapperX<ProductSkuDO> {
         return selectList(ProductSkuDO::getSpuId, spuIds);
     }
 
+    /**
+     * 获得 SKU，并加行锁，避免调整库存分桶时，并发扣减库存
+     *
+     * @param id 编号
+     * @return SKU
+     */
+    default ProductSkuDO selectByIdForUpdate(Long id) {
+        return selectOne(new LambdaQueryWrapperX<ProductSkuDO>().eq(ProductSkuDO::getId, id).last("FOR UPDATE"));
+    }
+
     default void deleteBySpuId(Long spuId) {
         delete(new LambdaQueryWrapperX<ProductSkuDO>().eq(ProductSkuDO::getSpuId, spuId));
     }
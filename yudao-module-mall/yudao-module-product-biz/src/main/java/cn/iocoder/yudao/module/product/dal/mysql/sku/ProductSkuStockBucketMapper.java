@@ -0,0 +1,84 @@
+package cn.iocoder.yudao.module.product.dal.mysql.sku;
+
+import cn.hutool.core.lang.Assert;
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
+import cn.iocoder.yudao.module.product.dal.dataobject.sku.ProductSkuStockBucketDO;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface ProductSkuStockBucketMapper extends BaseMapperX<ProductSkuStockBucketDO> {
+
+    default List<ProductSkuStockBucketDO> selectListBySkuId(Long skuId) {
+        return selectList(ProductSkuStockBucketDO::getSkuId, skuId);
+    }
+
+    default List<ProductSkuStockBucketDO> selectListBySkuId(Collection<Long> skuIds) {
+        return selectList(ProductSkuStockBucketDO::getSkuId, skuIds);
+    }
+
+    /**
+     * 获得 SKU 的分桶数组，并加行锁，避免调整分桶时，并发扣减库存
+     *
+     * @param skuId SKU 编号
+     * @return 分桶数组
+     */
+    default List<ProductSkuStockBucketDO> selectListBySkuIdForUpdate(Long skuId) {
+        return selectList(new LambdaQueryWrapperX<ProductSkuStockBucketDO>()
+                .eq(ProductSkuStockBucketDO::getSkuId, skuId).last("FOR UPDATE"));
+    }
+
+    /**
+     * 获得分桶，并加行锁，用于读取最新的库存
+     *
+     * @param id 编号
+     * @return 分桶
+     */
+    default ProductSkuStockBucketDO selectByIdForUpdate(Long id) {
+        return selectOne(new LambdaQueryWrapperX<ProductSkuStockBucketDO>()
+                .eq(ProductSkuStockBucketDO::getId, id).last("FOR UPDATE"));
+    }
+
+    default void deleteBySkuId(Long skuId) {
+        delete(new LambdaQueryWrapperX<ProductSkuStockBucketDO>().eq(ProductSkuStockBucketDO::getSkuId, skuId));
+    }
+
+    default void deleteBySkuId(Collection<Long> skuIds) {
+        delete(new LambdaQueryWrapperX<ProductSkuStockBucketDO>().in(ProductSkuStockBucketDO::getSkuId, skuIds));
+    }
+
+    /**
+     * 更新分桶库存（增加）
+     *
+     * @param id        编号
+     * @param incrCount 增加库存（正数）
+     */
+    default void updateStockIncr(Long id, Integer incrCount) {
+        Assert.isTrue(incrCount > 0);
+        LambdaUpdateWrapper<ProductSkuStockBucketDO> updateWrapper = new LambdaUpdateWrapper<ProductSkuStockBucketDO>()
+                .setSql(" stock = stock + " + incrCount)
+                .eq(ProductSkuStockBucketDO::getId, id);
+        update(null, updateWrapper);
+    }
+
+    /**
+     * 更新分桶库存（减少）
+     *
+     * @param id        编号
+     * @param incrCount 减少库存（负数）
+     * @return 更新条数
+     */
+    default int updateStockDecr(Long id, Integer incrCount) {
+        Assert.isTrue(incrCount < 0);
+        LambdaUpdateWrapper<ProductSkuStockBucketDO> updateWrapper = new LambdaUpdateWrapper<ProductSkuStockBucketDO>()
+                .setSql(" stock = stock + " + incrCount) // 负数，所以使用 + 号
+                .eq(ProductSkuStockBucketDO::getId, id)
+                .ge(ProductSkuStockBucketDO::getStock, -incrCount); // cas 逻辑
+        return update(null, updateWrapper);
+    }
+
+}
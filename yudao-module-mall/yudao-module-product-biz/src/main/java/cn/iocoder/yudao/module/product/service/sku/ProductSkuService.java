@@ -76,6 +76,16 @@ public interface ProductSkuService {
      */
     void updateSkuStock(ProductSkuUpdateStockReqDTO updateStockReqDTO);
 
+    /**
+     * 更新 SKU 的库存分桶数量
+     *
+     * 热门 SKU 开启分桶后，库存拆分到多个分桶中扣减，避免单行的行锁竞争
+     *
+     * @param id SKU 编号
+     * @param bucketCount 分桶数量。为 1 时，表示关闭分桶
+     */
+    void updateSkuStockBucket(Long id, Integer bucketCount);
+
     /**
      * 获得商品 SKU 集合
      *
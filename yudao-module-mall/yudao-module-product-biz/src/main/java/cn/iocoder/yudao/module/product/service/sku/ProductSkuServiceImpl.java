@@ -2,7 +2,9 @@ package cn.iocoder.yudao.module.product.service.sku;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuUpdateStockReqDTO;
 import cn.iocoder.yudao.module.product.controller.admin.sku.vo.ProductSkuBaseVO;
 import cn.iocoder.yudao.module.product.controller.admin.sku.vo.ProductSkuCreateOrUpdateReqVO;
@@ -10,22 +12,31 @@ import cn.iocoder.yudao.module.product.convert.sku.ProductSkuConvert;
 import cn.iocoder.yudao.module.product.dal.dataobject.property.ProductPropertyDO;
 import cn.iocoder.yudao.module.product.dal.dataobject.property.ProductPropertyValueDO;
 import cn.iocoder.yudao.module.product.dal.dataobject.sku.ProductSkuDO;
+import cn.iocoder.yudao.module.product.dal.dataobject.sku.ProductSkuStockBucketDO;
 import cn.iocoder.yudao.module.product.dal.mysql.sku.ProductSkuMapper;
+import cn.iocoder.yudao.module.product.dal.mysql.sku.ProductSkuStockBucketMapper;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyService;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyValueService;
 import cn.iocoder.yudao.module.product.service.spu.ProductSpuService;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
-import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
-import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertSet;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
 import static cn.iocoder.yudao.module.product.enums.ErrorCodeConstants.*;
 
 /**
@@ -35,10 +46,29 @@ import static cn.iocoder.yudao.module.product.enums.ErrorCodeConstants.*;
  */
 @Service
 @Validated
+@Slf4j
 public class ProductSkuServiceImpl implements ProductSkuService {
 
+    /**
+     * 单个分桶扣减库存时，CAS 的最大尝试次数
+     */
+    private static final int BUCKET_STOCK_DECR_MAX_ATTEMPTS = 3;
+
+    /**
+     * 待刷新汇总库存的 SKU 编号，仅包含开启分桶的 SKU
+     */
+    private final Set<Long> stockBucketSkuIds = ConcurrentHashMap.newKeySet();
+    /**
+     * 待刷新的 SPU 库存增量，key 为 SPU 编号
+     *
+     * 下单时，合并到这里，再由 {@link #flushStock()} 批量更新，避免每个订单都更新 SPU 行
+     */
+    private final Map<Long, Integer> spuStockIncrCounts = new ConcurrentHashMap<>();
+
     @Resource
     private ProductSkuMapper productSkuMapper;
+    @Resource
+    private ProductSkuStockBucketMapper productSkuStockBucketMapper;
 
     @Resource
     @Lazy // 循环依赖，避免报错
@@ -49,12 +79,19 @@ public class ProductSkuServiceImpl implements ProductSkuService {
     @Resource
     private ProductPropertyValueService productPropertyValueService;
 
+    @Resource
+    @Lazy // 循环依赖，避免报错
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
+
     @Override
     public void deleteSku(Long id) {
         // 校验存在
         validateSkuExists(id);
         // 删除
         productSkuMapper.deleteById(id);
+        productSkuStockBucketMapper.deleteBySkuId(id);
+        // 失效价格计算的 SKU 快照
+        tradePriceSnapshotApi.invalidateSkuSnapshot(Collections.singleton(id));
     }
 
     private void validateSkuExists(Long id) {
@@ -158,7 +195,12 @@ public class ProductSkuServiceImpl implements ProductSkuService {
 
     @Override
     public void deleteSkuBySpuId(Long spuId) {
+        List<ProductSkuDO> skus = productSkuMapper.selectListBySpuId(spuId);
         productSkuMapper.deleteBySpuId(spuId);
+        if (CollUtil.isNotEmpty(skus)) {
+            productSkuStockBucketMapper.deleteBySkuId(convertSet(skus, ProductSkuDO::getId));
+            tradePriceSnapshotApi.invalidateSkuSnapshot(convertSet(skus, ProductSkuDO::getId));
+        }
     }
 
     @Override
@@ -187,6 +229,7 @@ public class ProductSkuServiceImpl implements ProductSkuService {
         }
 
         productSkuMapper.updateBatch(updateSkus);
+        tradePriceSnapshotApi.invalidateSkuSnapshot(convertSet(updateSkus, ProductSkuDO::getId));
         return updateSkus.size();
     }
 
@@ -212,6 +255,7 @@ public class ProductSkuServiceImpl implements ProductSkuService {
         }
 
         productSkuMapper.updateBatch(updateSkus);
+        tradePriceSnapshotApi.invalidateSkuSnapshot(convertSet(updateSkus, ProductSkuDO::getId));
         return updateSkus.size();
     }
 
@@ -246,18 +290,36 @@ public class ProductSkuServiceImpl implements ProductSkuService {
         }
         if (CollUtil.isNotEmpty(updateSkus)) {
             updateSkus.forEach(sku -> productSkuMapper.updateById(sku));
+            // 开启分桶的 SKU，按照新的库存，重新拆分分桶
+            Map<Long, List<ProductSkuStockBucketDO>> bucketMap = convertMultiMap(
+                    productSkuStockBucketMapper.selectListBySkuId(convertSet(updateSkus, ProductSkuDO::getId)),
+                    ProductSkuStockBucketDO::getSkuId);
+            updateSkus.stream().filter(sku -> bucketMap.containsKey(sku.getId()))
+                    .forEach(sku -> splitStockBucket(sku.getId(), sku.getStock(), bucketMap.get(sku.getId()).size()));
         }
         if (CollUtil.isNotEmpty(existsSkuMap)) {
             productSkuMapper.deleteBatchIds(existsSkuMap.values());
+            productSkuStockBucketMapper.deleteBySkuId(existsSkuMap.values());
         }
+
+        // 失效价格计算的 SKU 快照，包括更新的、删除的
+        Set<Long> changedSkuIds = convertSet(updateSkus, ProductSkuDO::getId);
+        changedSkuIds.addAll(existsSkuMap.values());
+        tradePriceSnapshotApi.invalidateSkuSnapshot(changedSkuIds);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void updateSkuStock(ProductSkuUpdateStockReqDTO updateStockReqDTO) {
-        // 更新 SKU 库存
+        // 更新 SKU 库存：开启分桶的 SKU，更新分桶库存；否则，直接更新 SKU 库存
+        Set<Long> skuIds = convertSet(updateStockReqDTO.getItems(), ProductSkuUpdateStockReqDTO.Item::getId);
+        Map<Long, List<ProductSkuStockBucketDO>> bucketMap = convertMultiMap(
+                productSkuStockBucketMapper.selectListBySkuId(skuIds), ProductSkuStockBucketDO::getSkuId);
         updateStockReqDTO.getItems().forEach(item -> {
-            if (item.getIncrCount() > 0) {
+            List<ProductSkuStockBucketDO> buckets = bucketMap.get(item.getId());
+            if (CollUtil.isNotEmpty(buckets)) {
+                updateBucketStock(buckets, item.getIncrCount());
+            } else if (item.getIncrCount() > 0) {
                 productSkuMapper.updateStockIncr(item.getId(), item.getIncrCount());
             } else if (item.getIncrCount() < 0) {
                 int updateStockIncr = productSkuMapper.updateStockDecr(item.getId(), item.getIncrCount());
@@ -266,13 +328,186 @@ public class ProductSkuServiceImpl implements ProductSkuService {
                 }
             }
         });
+        // 失效价格计算的 SKU 快照。存在事务时，在事务提交后才失效
+        tradePriceSnapshotApi.invalidateSkuSnapshot(skuIds);
 
-        // 更新 SPU 库存
-        List<ProductSkuDO> skus = productSkuMapper.selectBatchIds(
-                convertSet(updateStockReqDTO.getItems(), ProductSkuUpdateStockReqDTO.Item::getId));
+        // 更新 SPU 库存：事务提交后，合并增量，由定时任务批量更新
+        List<ProductSkuDO> skus = productSkuMapper.selectBatchIds(skuIds);
         Map<Long, Integer> spuStockIncrCounts = ProductSkuConvert.INSTANCE.convertSpuStockMap(
                 updateStockReqDTO.getItems(), skus);
-        productSpuService.updateSpuStock(spuStockIncrCounts);
+        Runnable task = () -> {
+            stockBucketSkuIds.addAll(bucketMap.keySet());
+            spuStockIncrCounts.forEach((spuId, incrCount) -> this.spuStockIncrCounts.merge(spuId, incrCount, Integer::sum));
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+
+        });
+    }
+
+    /**
+     * 更新分桶库存
+     *
+     * 从随机的分桶开始，分散不同订单的行锁竞争；单个分桶库存不足时，继续扣减下一个分桶
+     *
+     * @param buckets 分桶数组
+     * @param incrCount 更新库存，正数为增加，负数为减少
+     */
+    private void updateBucketStock(List<ProductSkuStockBucketDO> buckets, Integer incrCount) {
+        int start = RandomUtil.randomInt(buckets.size());
+        if (incrCount > 0) {
+            productSkuStockBucketMapper.updateStockIncr(buckets.get(start).getId(), incrCount);
+            return;
+        }
+        int remainCount = -incrCount;
+        for (int i = 0; i < buckets.size() && remainCount > 0; i++) {
+            remainCount -= decrBucketStock(buckets.get((start + i) % buckets.size()), remainCount);
+        }
+        // 所有分桶都不足时，抛出异常，回滚已扣减的分桶
+        if (remainCount > 0) {
+            throw exception(SKU_STOCK_NOT_ENOUGH);
+        }
+    }
+
+    /**
+     * 扣减单个分桶的库存，最多扣减 maxCount
+     *
+     * 分桶的库存，可能已被并发的订单扣减，导致 CAS 失败。此时，重新读取最新的库存后重试，
+     * 最多 {@link #BUCKET_STOCK_DECR_MAX_ATTEMPTS} 次，避免分桶仍有库存时，却跳过该分桶
+     *
+     * @param bucket 分桶
+     * @param maxCount 最多扣减的库存（正数）
+     * @return 实际扣减的库存
+     */
+    private int decrBucketStock(ProductSkuStockBucketDO bucket, int maxCount) {
+        int stock = bucket.getStock();
+        for (int i = 0; i < BUCKET_STOCK_DECR_MAX_ATTEMPTS; i++) {
+            int count = Math.min(maxCount, stock);
+            if (count <= 0) {
+                return 0;
+            }
+            if (productSkuStockBucketMapper.updateStockDecr(bucket.getId(), -count) > 0) {
+                return count;
+            }
+            // CAS 失败，重新读取。使用加锁的当前读，避免事务内的快照读，读取到旧的库存
+            ProductSkuStockBucketDO latestBucket = productSkuStockBucketMapper.selectByIdForUpdate(bucket.getId());
+            if (latestBucket == null) { // 分桶已被调整，跳过
+                return 0;
+            }
+            stock = latestBucket.getStock();
+        }
+        return 0;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void updateSkuStockBucket(Long id, Integer bucketCount) {
+        // 校验存在，并加锁，避免并发扣减库存
+        ProductSkuDO sku = productSkuMapper.selectByIdForUpdate(id);
+        if (sku == null) {
+            throw exception(SKU_NOT_EXISTS);
+        }
+
+        // 汇总当前库存：已开启分桶时，以分桶为准
+        List<ProductSkuStockBucketDO> buckets = productSkuStockBucketMapper.selectListBySkuIdForUpdate(id);
+        Integer stock = CollUtil.isEmpty(buckets) ? sku.getStock()
+                : getSumValue(buckets, ProductSkuStockBucketDO::getStock, Integer::sum);
+
+        // 重新拆分分桶，并更新 SKU 的汇总库存
+        splitStockBucket(id, stock, bucketCount);
+        productSkuMapper.updateById(new ProductSkuDO().setId(id).setStock(stock));
+        tradePriceSnapshotApi.invalidateSkuSnapshot(Collections.singleton(id));
+    }
+
+    /**
+     * 将库存平均拆分到分桶中，余数分配给前面的分桶
+     *
+     * @param skuId SKU 编号
+     * @param stock 库存
+     * @param bucketCount 分桶数量。小于等于 1 时，仅删除分桶
+     */
+    private void splitStockBucket(Long skuId, Integer stock, int bucketCount) {
+        productSkuStockBucketMapper.deleteBySkuId(skuId);
+        if (bucketCount <= 1) {
+            return;
+        }
+        List<ProductSkuStockBucketDO> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ProductSkuStockBucketDO().setSkuId(skuId).setBucketNo(i)
+                    .setStock(stock / bucketCount + (i < stock % bucketCount ? 1 : 0)));
+        }
+        productSkuStockBucketMapper.insertBatch(buckets);
+    }
+
+    /**
+     * 刷新库存：
+     * 1. 开启分桶的 SKU，汇总分桶库存到 SKU 上
+     * 2. 批量更新合并后的 SPU 库存增量
+     *
+     * 注意，增量中包含多个租户的数据，所以忽略租户，直接按照编号更新
+     */
+    @Scheduled(initialDelay = 1, fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void flushStock() {
+        TenantUtils.executeIgnore(() -> {
+            flushSkuStock();
+            flushSpuStock();
+        });
+    }
+
+    private void flushSkuStock() {
+        // 1. 刷新开启分桶的 SKU 的汇总库存。由于是覆盖汇总值，重复刷新也不会有问题
+        if (stockBucketSkuIds.isEmpty()) {
+            return;
+        }
+        List<Long> skuIds = new ArrayList<>(stockBucketSkuIds);
+        stockBucketSkuIds.removeAll(skuIds);
+        try {
+            Map<Long, List<ProductSkuStockBucketDO>> bucketMap = convertMultiMap(
+                    productSkuStockBucketMapper.selectListBySkuId(skuIds), ProductSkuStockBucketDO::getSkuId);
+            bucketMap.forEach((skuId, buckets) -> productSkuMapper.updateById(new ProductSkuDO().setId(skuId)
+                    .setStock(getSumValue(buckets, ProductSkuStockBucketDO::getStock, Integer::sum))));
+            // 失效价格计算的 SKU 快照。由于忽略租户，会按照编号失效所有租户的
+            tradePriceSnapshotApi.invalidateSkuSnapshot(bucketMap.keySet());
+        } catch (Exception ex) {
+            log.error("[flushSkuStock][SKU({}) 汇总库存刷新失败]", skuIds, ex);
+            stockBucketSkuIds.addAll(skuIds);
+        }
+    }
+
+    private void flushSpuStock() {
+        // 2. 批量更新 SPU 库存增量。注意，逐个 remove 出来，避免丢失并发合并的增量
+        Map<Long, Integer> incrCounts = new HashMap<>();
+        new ArrayList<>(spuStockIncrCounts.keySet()).forEach(spuId -> {
+            Integer incrCount = spuStockIncrCounts.remove(spuId);
+            if (incrCount != null && incrCount != 0) {
+                incrCounts.put(spuId, incrCount);
+            }
+        });
+        if (incrCounts.isEmpty()) {
+            return;
+        }
+        try {
+            productSpuService.updateSpuStock(incrCounts);
+        } catch (Exception ex) {
+            log.error("[flushSpuStock][SPU 库存增量({}) 刷新失败]", incrCounts, ex);
+            incrCounts.forEach((spuId, incrCount) -> spuStockIncrCounts.merge(spuId, incrCount, Integer::sum));
+        }
+    }
+
+    /**
+     * 关闭时，刷新剩余的库存，减少丢失的 SPU 库存增量
+     */
+    @PreDestroy
+    public void destroy() {
+        flushStock();
     }
 
 }
@@ -17,6 +17,7 @@ import cn.iocoder.yudao.module.product.service.brand.ProductBrandService;
 import cn.iocoder.yudao.module.product.service.category.ProductCategoryService;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyValueService;
 import cn.iocoder.yudao.module.product.service.sku.ProductSkuService;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
 import com.google.common.collect.Maps;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -55,6 +56,10 @@ public class ProductSpuServiceImpl implements ProductSpuService {
     @Lazy // 循环依赖，避免报错
     private ProductPropertyValueService productPropertyValueService;
 
+    @Resource
+    @Lazy // 循环依赖，避免报错
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long createSpu(ProductSpuCreateReqVO createReqVO) {
@@ -94,6 +99,8 @@ public class ProductSpuServiceImpl implements ProductSpuService {
         productSpuMapper.updateById(updateObj);
         // 批量更新 SKU
         productSkuService.updateSkuList(updateObj.getId(), updateReqVO.getSkus());
+        // 失效价格计算的 SPU 快照
+        tradePriceSnapshotApi.invalidateSpuSnapshot(Collections.singleton(updateObj.getId()));
     }
 
     /**
@@ -155,6 +162,8 @@ public class ProductSpuServiceImpl implements ProductSpuService {
         productSpuMapper.deleteById(id);
         // 删除关联的 SKU
         productSkuService.deleteSkuBySpuId(id);
+        // 失效价格计算的 SPU 快照
+        tradePriceSnapshotApi.invalidateSpuSnapshot(Collections.singleton(id));
     }
 
     private void validateSpuExists(Long id) {
@@ -211,6 +220,7 @@ public class ProductSpuServiceImpl implements ProductSpuService {
     @Transactional(rollbackFor = Exception.class)
     public void updateSpuStock(Map<Long, Integer> stockIncrCounts) {
         stockIncrCounts.forEach((id, incCount) -> productSpuMapper.updateStock(id, incCount));
+        // 价格计算不使用 SPU 库存，所以无需失效价格计算的 SPU 快照
     }
 
     @Override
@@ -222,6 +232,8 @@ public class ProductSpuServiceImpl implements ProductSpuService {
         // 更新状态
         ProductSpuDO productSpuDO = productSpuMapper.selectById(updateReqVO.getId()).setStatus(updateReqVO.getStatus());
         productSpuMapper.updateById(productSpuDO);
+        // 失效价格计算的 SPU 快照
+        tradePriceSnapshotApi.invalidateSpuSnapshot(Collections.singleton(updateReqVO.getId()));
     }
 
     @Override
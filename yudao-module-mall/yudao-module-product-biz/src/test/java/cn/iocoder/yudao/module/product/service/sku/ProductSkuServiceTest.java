@@ -6,18 +6,24 @@ import cn.iocoder.yudao.framework.test.core.util.AssertUtils;
 import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuUpdateStockReqDTO;
 import cn.iocoder.yudao.module.product.controller.admin.sku.vo.ProductSkuCreateOrUpdateReqVO;
 import cn.iocoder.yudao.module.product.dal.dataobject.sku.ProductSkuDO;
+import cn.iocoder.yudao.module.product.dal.dataobject.sku.ProductSkuStockBucketDO;
 import cn.iocoder.yudao.module.product.dal.mysql.sku.ProductSkuMapper;
+import cn.iocoder.yudao.module.product.dal.mysql.sku.ProductSkuStockBucketMapper;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyService;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyValueService;
 import cn.iocoder.yudao.module.product.service.spu.ProductSpuService;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.SetUtils.asSet;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertServiceException;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
@@ -26,6 +32,8 @@ import static cn.iocoder.yudao.module.product.enums.ErrorCodeConstants.SKU_STOCK
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -37,10 +45,12 @@ import static org.mockito.Mockito.verify;
 public class ProductSkuServiceTest extends BaseDbUnitTest {
 
     @Resource
-    private ProductSkuService productSkuService;
+    private ProductSkuServiceImpl productSkuService;
 
     @Resource
     private ProductSkuMapper productSkuMapper;
+    @Resource
+    private ProductSkuStockBucketMapper productSkuStockBucketMapper;
 
     @MockBean
     private ProductSpuService productSpuService;
@@ -48,6 +58,8 @@ public class ProductSkuServiceTest extends BaseDbUnitTest {
     private ProductPropertyService productPropertyService;
     @MockBean
     private ProductPropertyValueService productPropertyValueService;
+    @MockBean
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
 
     public Long generateId() {
         return RandomUtil.randomLong(100000, 999999);
@@ -120,6 +132,8 @@ public class ProductSkuServiceTest extends BaseDbUnitTest {
         // 断言
         ProductSkuDO sku = productSkuMapper.selectById(1L);
         assertEquals(sku.getStock(), 30);
+        verify(tradePriceSnapshotApi).invalidateSkuSnapshot(eq(asSet(1L)));
+        productSkuService.flushStock();
         verify(productSpuService).updateSpuStock(argThat(spuStockIncrCounts -> {
             assertEquals(spuStockIncrCounts.size(), 1);
             assertEquals(spuStockIncrCounts.get(10L), 10);
@@ -147,6 +161,7 @@ public class ProductSkuServiceTest extends BaseDbUnitTest {
         // 断言
         ProductSkuDO sku = productSkuMapper.selectById(1L);
         assertEquals(sku.getStock(), 10);
+        productSkuService.flushStock();
         verify(productSpuService).updateSpuStock(argThat(spuStockIncrCounts -> {
             assertEquals(spuStockIncrCounts.size(), 1);
             assertEquals(spuStockIncrCounts.get(10L), -10);
@@ -173,6 +188,113 @@ public class ProductSkuServiceTest extends BaseDbUnitTest {
                 SKU_STOCK_NOT_ENOUGH);
     }
 
+    @Test
+    public void testUpdateSkuStockBucket() {
+        // mock 数据
+        productSkuMapper.insert(randomPojo(ProductSkuDO.class, o -> {
+            o.setId(1L).setSpuId(10L).setStock(22);
+            o.getProperties().forEach(p -> {
+                // 指定 id 范围 解决 Value too long
+                p.setPropertyId(generateId());
+                p.setValueId(generateId());
+            });
+        }));
+
+        // 调用：拆分为 4 个分桶
+        productSkuService.updateSkuStockBucket(1L, 4);
+        // 断言：余数分配给前面的分桶
+        List<ProductSkuStockBucketDO> buckets = productSkuStockBucketMapper.selectListBySkuId(1L);
+        assertEquals(4, buckets.size());
+        buckets.sort(Comparator.comparing(ProductSkuStockBucketDO::getBucketNo));
+        assertEquals(Arrays.asList(6, 6, 5, 5), convertList(buckets, ProductSkuStockBucketDO::getStock));
+
+        // 调用：关闭分桶
+        productSkuService.updateSkuStockBucket(1L, 1);
+        // 断言
+        assertEquals(0, productSkuStockBucketMapper.selectListBySkuId(1L).size());
+        assertEquals(22, productSkuMapper.selectById(1L).getStock());
+    }
+
+    @Test
+    public void testUpdateSkuStock_bucketDecrSuccess() {
+        // 准备参数：扣减的数量，大于单个分桶的库存
+        ProductSkuUpdateStockReqDTO updateStockReqDTO = new ProductSkuUpdateStockReqDTO()
+                .setItems(singletonList(new ProductSkuUpdateStockReqDTO.Item().setId(1L).setIncrCount(-12)));
+        // mock 数据
+        productSkuMapper.insert(randomPojo(ProductSkuDO.class, o -> {
+            o.setId(1L).setSpuId(10L).setStock(20);
+            o.getProperties().forEach(p -> {
+                // 指定 id 范围 解决 Value too long
+                p.setPropertyId(generateId());
+                p.setValueId(generateId());
+            });
+        }));
+        productSkuService.updateSkuStockBucket(1L, 4);
+
+        // 调用
+        productSkuService.updateSkuStock(updateStockReqDTO);
+        // 断言：分桶库存扣减，SKU 汇总库存在刷新后更新
+        List<ProductSkuStockBucketDO> buckets = productSkuStockBucketMapper.selectListBySkuId(1L);
+        assertEquals(8, buckets.stream().mapToInt(ProductSkuStockBucketDO::getStock).sum());
+        assertEquals(20, productSkuMapper.selectById(1L).getStock());
+        productSkuService.flushStock();
+        assertEquals(8, productSkuMapper.selectById(1L).getStock());
+        // 断言：开启分桶、扣减库存、刷新汇总库存时，都失效价格计算的 SKU 快照
+        verify(tradePriceSnapshotApi, times(3)).invalidateSkuSnapshot(eq(asSet(1L)));
+        verify(productSpuService).updateSpuStock(argThat(spuStockIncrCounts -> {
+            assertEquals(spuStockIncrCounts.size(), 1);
+            assertEquals(spuStockIncrCounts.get(10L), -12);
+            return true;
+        }));
+    }
+
+    @Test
+    public void testUpdateSkuStock_bucketDecrFail() {
+        // 准备参数
+        ProductSkuUpdateStockReqDTO updateStockReqDTO = new ProductSkuUpdateStockReqDTO()
+                .setItems(singletonList(new ProductSkuUpdateStockReqDTO.Item().setId(1L).setIncrCount(-30)));
+        // mock 数据
+        productSkuMapper.insert(randomPojo(ProductSkuDO.class, o -> {
+            o.setId(1L).setSpuId(10L).setStock(20);
+            o.getProperties().forEach(p -> {
+                // 指定 id 范围 解决 Value too long
+                p.setPropertyId(generateId());
+                p.setValueId(generateId());
+            });
+        }));
+        productSkuService.updateSkuStockBucket(1L, 4);
+
+        // 调用并断言：扣减失败时，已扣减的分桶回滚
+        AssertUtils.assertServiceException(() -> productSkuService.updateSkuStock(updateStockReqDTO),
+                SKU_STOCK_NOT_ENOUGH);
+        List<ProductSkuStockBucketDO> buckets = productSkuStockBucketMapper.selectListBySkuId(1L);
+        assertEquals(20, buckets.stream().mapToInt(ProductSkuStockBucketDO::getStock).sum());
+    }
+
+    @Test
+    public void testUpdateSkuStock_bucketDecrRetry() {
+        // 准备参数：同一个 SKU 扣减两次，第二次扣减时，读取到的分桶库存已过期
+        ProductSkuUpdateStockReqDTO updateStockReqDTO = new ProductSkuUpdateStockReqDTO()
+                .setItems(Arrays.asList(new ProductSkuUpdateStockReqDTO.Item().setId(1L).setIncrCount(-3),
+                        new ProductSkuUpdateStockReqDTO.Item().setId(1L).setIncrCount(-7)));
+        // mock 数据
+        productSkuMapper.insert(randomPojo(ProductSkuDO.class, o -> {
+            o.setId(1L).setSpuId(10L).setStock(10);
+            o.getProperties().forEach(p -> {
+                // 指定 id 范围 解决 Value too long
+                p.setPropertyId(generateId());
+                p.setValueId(generateId());
+            });
+        }));
+        productSkuService.updateSkuStockBucket(1L, 2);
+
+        // 调用：CAS 失败时，重新读取分桶库存后重试，而不是跳过仍有库存的分桶
+        productSkuService.updateSkuStock(updateStockReqDTO);
+        // 断言
+        List<ProductSkuStockBucketDO> buckets = productSkuStockBucketMapper.selectListBySkuId(1L);
+        assertEquals(Arrays.asList(0, 0), convertList(buckets, ProductSkuStockBucketDO::getStock));
+    }
+
     @Test
     public void testDeleteSku_success() {
         ProductSkuDO dbSku = randomPojo(ProductSkuDO.class, o -> {
@@ -192,6 +314,7 @@ public class ProductSkuServiceTest extends BaseDbUnitTest {
         productSkuService.deleteSku(id);
         // 校验数据不存在了
         assertNull(productSkuMapper.selectById(id));
+        verify(tradePriceSnapshotApi).invalidateSkuSnapshot(eq(asSet(id)));
     }
 
     @Test
@@ -20,6 +20,7 @@ import cn.iocoder.yudao.module.product.service.category.ProductCategoryServiceIm
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyService;
 import cn.iocoder.yudao.module.product.service.property.ProductPropertyValueService;
 import cn.iocoder.yudao.module.product.service.sku.ProductSkuServiceImpl;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
 import com.google.common.collect.Lists;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -39,8 +40,10 @@ import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgn
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
 import static org.assertj.core.util.Lists.newArrayList;
+import static java.util.Collections.singleton;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 // TODO @芋艿：review 下单元测试
@@ -69,6 +72,8 @@ public class ProductSpuServiceImplTest extends BaseDbUnitTest {
     private ProductPropertyService productPropertyService;
     @MockBean
     private ProductPropertyValueService productPropertyValueService;
+    @MockBean
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
 
     public String generateNo() {
         return DateUtil.format(new Date(), "yyyyMMddHHmmss") + RandomUtil.randomInt(100000, 999999);
@@ -171,6 +176,7 @@ public class ProductSpuServiceImplTest extends BaseDbUnitTest {
         // 校验是否更新正确
         ProductSpuDO spu = productSpuMapper.selectById(reqVO.getId()); // 获取最新的
         assertPojoEquals(reqVO, spu);
+        verify(tradePriceSnapshotApi).invalidateSpuSnapshot(eq(singleton(reqVO.getId())));
     }
 
     @Test
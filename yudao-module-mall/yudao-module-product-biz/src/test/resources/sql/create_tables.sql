@@ -22,6 +22,20 @@ CREATE TABLE IF NOT EXISTS `product_sku` (
     PRIMARY KEY("id")
 ) COMMENT '商品sku';
 
+CREATE TABLE IF NOT EXISTS `product_sku_stock_bucket` (
+    `id` bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    `sku_id` bigint NOT NULL COMMENT 'SKU 编号',
+    `bucket_no` int NOT NULL COMMENT '分桶序号',
+    `stock` int NOT NULL COMMENT '库存',
+    "creator" varchar(64) DEFAULT '',
+    "create_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "updater" varchar(64) DEFAULT '',
+    "update_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "deleted" bit NOT NULL DEFAULT FALSE,
+    "tenant_id" bigint not null default  '0',
+    PRIMARY KEY("id")
+) COMMENT '商品 SKU 库存分桶';
+
 CREATE TABLE IF NOT EXISTS `product_spu` (
     `id` bigint NOT NULL AUTO_INCREMENT COMMENT '商品 SPU 编号，自增',
     `name` varchar(128) NOT NULL COMMENT '商品名称',
@@ -0,0 +1,43 @@
+package cn.iocoder.yudao.module.promotion.dal.redis;
+
+/**
+ * 营销 Redis Key 枚举类
+ *
+ * @author 芋道源码
+ */
+public interface RedisKeyConstants {
+
+    /**
+     * 秒杀活动的库存
+     *
+     * KEY 格式：promotion:seckill_stock:{activityId}
+     * VALUE 数据类型：HASH，field 为 activity（活动库存）、version（加载的版本号）或 SKU 编号（活动商品库存），value 为剩余库存
+     */
+    String SECKILL_STOCK = "promotion:seckill_stock:%d";
+
+    /**
+     * 秒杀活动库存的版本号，每次从 DB 加载库存时自增
+     *
+     * KEY 格式：promotion:seckill_stock_version
+     * VALUE 数据类型：String 版本号
+     */
+    String SECKILL_STOCK_VERSION = "promotion:seckill_stock_version";
+
+    /**
+     * 秒杀活动库存的分布式锁，保证库存的加载、同步到 DB、删除，不会交错执行
+     *
+     * KEY 格式：promotion:seckill_stock_lock:{activityId}
+     * VALUE 数据格式：HASH // RLock.class：Redisson 的 Lock 锁，使用 Hash 数据结构
+     * 过期时间：不固定
+     */
+    String SECKILL_STOCK_LOCK = "promotion:seckill_stock_lock:%d";
+
+    /**
+     * 库存发生变化，待同步到 DB 的秒杀活动编号
+     *
+     * KEY 格式：promotion:seckill_stock_dirty
+     * VALUE 数据类型：SET 秒杀活动编号
+     */
+    String SECKILL_STOCK_DIRTY = "promotion:seckill_stock_dirty";
+
+}
@@ -0,0 +1,72 @@
+package cn.iocoder.yudao.module.promotion.dal.redis.seckill;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+
+import static cn.iocoder.yudao.module.promotion.dal.redis.RedisKeyConstants.SECKILL_STOCK_LOCK;
+
+/**
+ * 秒杀活动库存的锁 Redis DAO
+ *
+ * 库存的加载、同步到 DB、删除，都在该锁内执行，避免把旧的库存同步到 DB，或者加载到事务提交前的库存
+ *
+ * @author 芋道源码
+ */
+@Repository
+public class SeckillStockLockRedisDAO {
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    public void lock(Long activityId, Runnable runnable) {
+        RLock lock = redissonClient.getLock(formatKey(activityId));
+        lock.lock();
+        try {
+            // 执行逻辑
+            runnable.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 加锁，直到当前事务完成（提交或回滚）后，才释放
+     *
+     * 不存在事务时，直接执行，执行后释放
+     *
+     * @param activityId 活动编号
+     * @param runnable 执行逻辑
+     */
+    public void lockUntilCompletion(Long activityId, Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock(activityId, runnable);
+            return;
+        }
+        RLock lock = redissonClient.getLock(formatKey(activityId));
+        lock.lock();
+        try {
+            // 执行逻辑
+            runnable.run();
+        } finally {
+            // 最后注册，保证 runnable 注册的事务回调，都在释放锁之前执行
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+
+            });
+        }
+    }
+
+    private static String formatKey(Long activityId) {
+        return String.format(SECKILL_STOCK_LOCK, activityId);
+    }
+
+}
@@ -0,0 +1,235 @@
+package cn.iocoder.yudao.module.promotion.dal.redis.seckill;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.module.promotion.dal.redis.RedisKeyConstants.SECKILL_STOCK;
+import static cn.iocoder.yudao.module.promotion.dal.redis.RedisKeyConstants.SECKILL_STOCK_DIRTY;
+import static cn.iocoder.yudao.module.promotion.dal.redis.RedisKeyConstants.SECKILL_STOCK_VERSION;
+
+/**
+ * 秒杀活动库存的 Redis DAO
+ *
+ * 秒杀时，库存的校验与扣减，都通过 Lua 脚本原子执行，避免 DB 行锁的竞争，以及「先读后写」导致的超卖
+ *
+ * @author 芋道源码
+ */
+@Repository
+public class SeckillStockRedisDAO {
+
+    /**
+     * 活动库存的 field
+     */
+    public static final String ACTIVITY_FIELD = "activity";
+    /**
+     * 版本号的 field
+     *
+     * 每次加载时，使用新的版本号。归还库存时，版本号不一致，说明库存已经重新加载，不再归还
+     */
+    public static final String VERSION_FIELD = "version";
+
+    /**
+     * 扣减结果：库存不足
+     */
+    public static final long DECR_NOT_ENOUGH = 0L;
+    /**
+     * 扣减结果：库存未加载
+     */
+    public static final long DECR_NOT_LOADED = -1L;
+
+    /**
+     * 加载库存：已加载时，不做处理，避免覆盖已扣减的库存
+     *
+     * KEYS[1]：库存 key；KEYS[2]：版本号 key；ARGV[1]：过期时间（毫秒）；ARGV[2...]：field、库存，成对出现
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], 'version', redis.call('INCR', KEYS[2]))\n" +
+            "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end\n" +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1])\n" +
+            "return 1", Long.class);
+
+    /**
+     * 扣减库存：活动库存、所有 SKU 库存都充足时，才扣减。成功时，返回库存的版本号
+     *
+     * KEYS[1]：库存 key；KEYS[2]：待同步的活动 key；ARGV[1]：活动编号；ARGV[2]：总数量；ARGV[3...]：SKU 编号、数量，成对出现
+     */
+    private static final RedisScript<Long> DECR_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end\n" +
+            "local stock = tonumber(redis.call('HGET', KEYS[1], 'activity'))\n" +
+            "if stock == nil or stock < tonumber(ARGV[2]) then return 0 end\n" +
+            "for i = 3, #ARGV, 2 do\n" +
+            "  local skuStock = tonumber(redis.call('HGET', KEYS[1], ARGV[i]))\n" +
+            "  if skuStock == nil or skuStock < tonumber(ARGV[i + 1]) then return 0 end\n" +
+            "end\n" +
+            "redis.call('HINCRBY', KEYS[1], 'activity', -tonumber(ARGV[2]))\n" +
+            "for i = 3, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1])) end\n" +
+            "redis.call('SADD', KEYS[2], ARGV[1])\n" +
+            "return tonumber(redis.call('HGET', KEYS[1], 'version'))", Long.class);
+
+    /**
+     * 归还库存：未加载、或者版本号不一致（已重新加载）时，不做处理
+     *
+     * 参数同 {@link #DECR_SCRIPT}，额外的 ARGV[#ARGV]：扣减时的版本号
+     */
+    private static final RedisScript<Long> INCR_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'version') ~= ARGV[#ARGV] then return 0 end\n" +
+            "redis.call('HINCRBY', KEYS[1], 'activity', tonumber(ARGV[2]))\n" +
+            "for i = 3, #ARGV - 1, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], tonumber(ARGV[i + 1])) end\n" +
+            "redis.call('SADD', KEYS[2], ARGV[1])\n" +
+            "return 1", Long.class);
+
+    /**
+     * 删除库存，并返回删除前的库存
+     *
+     * KEYS[1]：库存 key
+     */
+    private static final RedisScript<List> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local stocks = redis.call('HGETALL', KEYS[1])\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "return stocks", List.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 加载库存
+     *
+     * @param activityId 活动编号
+     * @param activityStock 活动库存
+     * @param skuStocks SKU 库存，key 为 SKU 编号
+     * @param timeout 过期时间
+     * @return 是否加载。已加载时，返回 false
+     */
+    public boolean load(Long activityId, Integer activityStock, Map<Long, Integer> skuStocks, Duration timeout) {
+        List<String> args = new ArrayList<>(skuStocks.size() * 2 + 3);
+        args.add(String.valueOf(timeout.toMillis()));
+        args.add(ACTIVITY_FIELD);
+        args.add(String.valueOf(activityStock));
+        skuStocks.forEach((skuId, stock) -> {
+            args.add(String.valueOf(skuId));
+            args.add(String.valueOf(stock));
+        });
+        Long result = stringRedisTemplate.execute(LOAD_SCRIPT, Arrays.asList(formatKey(activityId), SECKILL_STOCK_VERSION),
+                args.toArray());
+        return Objects.equals(result, 1L);
+    }
+
+    /**
+     * 扣减库存
+     *
+     * @param activityId 活动编号
+     * @param count 总数量
+     * @param skuCounts SKU 数量，key 为 SKU 编号
+     * @return 扣减结果。成功时，返回库存的版本号（大于 0）；失败时，见 {@link #DECR_NOT_ENOUGH}、{@link #DECR_NOT_LOADED}
+     */
+    public long decrement(Long activityId, Integer count, Map<Long, Integer> skuCounts) {
+        Long result = stringRedisTemplate.execute(DECR_SCRIPT, Arrays.asList(formatKey(activityId), SECKILL_STOCK_DIRTY),
+                buildArgs(activityId, count, skuCounts));
+        return result != null ? result : DECR_NOT_LOADED;
+    }
+
+    /**
+     * 归还库存，例如说下单失败时
+     *
+     * 库存已经重新加载时，扣减的库存已经同步到 DB、或者被删除，所以不再归还，避免库存变多
+     *
+     * @param activityId 活动编号
+     * @param count 总数量
+     * @param skuCounts SKU 数量，key 为 SKU 编号
+     * @param version 扣减时的版本号，即 {@link #decrement(Long, Integer, Map)} 的返回
+     * @return 是否归还
+     */
+    public boolean increment(Long activityId, Integer count, Map<Long, Integer> skuCounts, long version) {
+        List<Object> args = new ArrayList<>(Arrays.asList(buildArgs(activityId, count, skuCounts)));
+        args.add(String.valueOf(version));
+        Long result = stringRedisTemplate.execute(INCR_SCRIPT, Arrays.asList(formatKey(activityId), SECKILL_STOCK_DIRTY),
+                args.toArray());
+        return Objects.equals(result, 1L);
+    }
+
+    /**
+     * 获得库存
+     *
+     * @param activityId 活动编号
+     * @return 库存，key 为 {@link #ACTIVITY_FIELD} 或 SKU 编号。未加载时，返回空
+     */
+    public Map<String, Integer> getStocks(Long activityId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(formatKey(activityId));
+        Map<String, Integer> stocks = new HashMap<>(entries.size());
+        entries.forEach((field, stock) -> stocks.put((String) field, Convert.toInt(stock)));
+        stocks.remove(VERSION_FIELD);
+        return stocks;
+    }
+
+    /**
+     * 删除库存，下次扣减时，重新从 DB 加载
+     *
+     * @param activityId 活动编号
+     */
+    public void delete(Long activityId) {
+        stringRedisTemplate.delete(formatKey(activityId));
+    }
+
+    /**
+     * 删除库存，并返回删除前的库存。读取与删除是原子的，所以不会丢失期间的扣减
+     *
+     * @param activityId 活动编号
+     * @return 删除前的库存，格式同 {@link #getStocks(Long)}
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> remove(Long activityId) {
+        List<Object> entries = stringRedisTemplate.execute(REMOVE_SCRIPT, Collections.singletonList(formatKey(activityId)));
+        Map<String, Integer> stocks = new HashMap<>();
+        for (int i = 0; entries != null && i + 1 < entries.size(); i += 2) {
+            stocks.put((String) entries.get(i), Convert.toInt(entries.get(i + 1)));
+        }
+        stocks.remove(VERSION_FIELD);
+        return stocks;
+    }
+
+    /**
+     * 弹出待同步到 DB 的活动编号
+     *
+     * @param count 最大数量
+     * @return 活动编号
+     */
+    public List<Long> popDirtyActivityIds(int count) {
+        List<String> ids = stringRedisTemplate.opsForSet().pop(SECKILL_STOCK_DIRTY, count);
+        return CollUtil.isEmpty(ids) ? Collections.emptyList() : convertList(ids, Long::valueOf);
+    }
+
+    /**
+     * 重新标记活动待同步到 DB，例如说同步失败时
+     *
+     * @param activityId 活动编号
+     */
+    public void addDirtyActivityId(Long activityId) {
+        stringRedisTemplate.opsForSet().add(SECKILL_STOCK_DIRTY, String.valueOf(activityId));
+    }
+
+    private static Object[] buildArgs(Long activityId, Integer count, Map<Long, Integer> skuCounts) {
+        List<String> args = new ArrayList<>(skuCounts.size() * 2 + 2);
+        args.add(String.valueOf(activityId));
+        args.add(String.valueOf(count));
+        skuCounts.forEach((skuId, skuCount) -> {
+            args.add(String.valueOf(skuId));
+            args.add(String.valueOf(skuCount));
+        });
+        return args.toArray();
+    }
+
+    private static String formatKey(Long activityId) {
+        return String.format(SECKILL_STOCK, activityId);
+    }
+
+}
@@ -14,6 +14,8 @@ import cn.iocoder.yudao.module.promotion.dal.mysql.discount.DiscountActivityMapp
 import cn.iocoder.yudao.module.promotion.dal.mysql.discount.DiscountProductMapper;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionActivityStatusEnum;
 import cn.iocoder.yudao.module.promotion.util.PromotionUtils;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -39,6 +41,10 @@ public class DiscountActivityServiceImpl implements DiscountActivityService {
     @Resource
     private DiscountProductMapper discountProductMapper;
 
+    @Resource
+    @Lazy // 循环依赖，避免报错
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
+
     @Override
     public List<DiscountProductDO> getMatchDiscountProductList(Collection<Long> skuIds) {
         // TODO 芋艿：开启、满足 skuId、日期内
@@ -58,6 +64,8 @@ public class DiscountActivityServiceImpl implements DiscountActivityService {
         List<DiscountProductDO> discountProducts = convertList(createReqVO.getProducts(),
                 product -> DiscountActivityConvert.INSTANCE.convert(product).setActivityId(discountActivity.getId()));
         discountProductMapper.insertBatch(discountProducts);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
         // 返回
         return discountActivity.getId();
     }
@@ -78,6 +86,8 @@ public class DiscountActivityServiceImpl implements DiscountActivityService {
         discountActivityMapper.updateById(updateObj);
         // 更新商品
         updateDiscountProduct(updateReqVO);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     private void updateDiscountProduct(DiscountActivityUpdateReqVO updateReqVO) {
@@ -138,6 +148,8 @@ public class DiscountActivityServiceImpl implements DiscountActivityService {
         // 更新为关闭。
         DiscountActivityDO updateObj = new DiscountActivityDO().setId(id).setStatus(PromotionActivityStatusEnum.CLOSE.getStatus());
         discountActivityMapper.updateById(updateObj);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     @Override
@@ -150,6 +162,8 @@ public class DiscountActivityServiceImpl implements DiscountActivityService {
 
         // 删除
         discountActivityMapper.deleteById(id);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     private DiscountActivityDO validateDiscountActivityExists(Long id) {
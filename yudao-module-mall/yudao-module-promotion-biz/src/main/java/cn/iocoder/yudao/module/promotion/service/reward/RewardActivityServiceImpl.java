@@ -11,6 +11,8 @@ import cn.iocoder.yudao.module.promotion.dal.dataobject.reward.RewardActivityDO;
 import cn.iocoder.yudao.module.promotion.dal.mysql.reward.RewardActivityMapper;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionActivityStatusEnum;
 import cn.iocoder.yudao.module.promotion.util.PromotionUtils;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -34,6 +36,10 @@ public class RewardActivityServiceImpl implements RewardActivityService {
     @Resource
     private RewardActivityMapper rewardActivityMapper;
 
+    @Resource
+    @Lazy // 循环依赖，避免报错
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
+
     @Override
     public Long createRewardActivity(RewardActivityCreateReqVO createReqVO) {
         // 校验商品是否冲突
@@ -43,6 +49,8 @@ public class RewardActivityServiceImpl implements RewardActivityService {
         RewardActivityDO rewardActivity = RewardActivityConvert.INSTANCE.convert(createReqVO)
                 .setStatus(PromotionUtils.calculateActivityStatus(createReqVO.getEndTime()));
         rewardActivityMapper.insert(rewardActivity);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
         // 返回
         return rewardActivity.getId();
     }
@@ -61,6 +69,8 @@ public class RewardActivityServiceImpl implements RewardActivityService {
         RewardActivityDO updateObj = RewardActivityConvert.INSTANCE.convert(updateReqVO)
                 .setStatus(PromotionUtils.calculateActivityStatus(updateReqVO.getEndTime()));
         rewardActivityMapper.updateById(updateObj);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     @Override
@@ -77,6 +87,8 @@ public class RewardActivityServiceImpl implements RewardActivityService {
         // 更新
         RewardActivityDO updateObj = new RewardActivityDO().setId(id).setStatus(PromotionActivityStatusEnum.CLOSE.getStatus());
         rewardActivityMapper.updateById(updateObj);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     @Override
@@ -89,6 +101,8 @@ public class RewardActivityServiceImpl implements RewardActivityService {
 
         // 删除
         rewardActivityMapper.deleteById(id);
+        // 失效价格计算的营销快照
+        tradePriceSnapshotApi.invalidatePromotionSnapshot();
     }
 
     private RewardActivityDO validateRewardActivityExists(Long id) {
@@ -1,6 +1,7 @@
 package cn.iocoder.yudao.module.promotion.service.seckill;
 
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.module.promotion.api.seckill.dto.SeckillActivityUpdateStockReqDTO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityCreateReqVO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityPageReqVO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityUpdateReqVO;
@@ -34,18 +35,13 @@ public interface SeckillActivityService {
     void updateSeckillActivity(@Valid SeckillActivityUpdateReqVO updateReqVO);
 
     /**
-     * 更新秒杀活动
+     * 扣减秒杀活动的库存
      *
-     * @param activityDO 秒杀活动
-     */
-    void updateSeckillActivity(SeckillActivityDO activityDO);
-
-    /**
-     * 更新秒杀活动商品
+     * 通过 Redis 原子扣减，再异步批量同步到 DB
      *
-     * @param productList 活动商品列表
+     * @param updateStockReqDTO 扣减信息
      */
-    void updateSeckillActivityProductList(List<SeckillProductDO> productList);
+    void updateSeckillStock(SeckillActivityUpdateStockReqDTO updateStockReqDTO);
 
     /**
      * 关闭秒杀活动
@@ -3,10 +3,12 @@ package cn.iocoder.yudao.module.promotion.service.seckill;
 import cn.hutool.core.util.ObjectUtil;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import cn.iocoder.yudao.module.product.api.sku.ProductSkuApi;
 import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
 import cn.iocoder.yudao.module.product.api.spu.ProductSpuApi;
 import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
+import cn.iocoder.yudao.module.promotion.api.seckill.dto.SeckillActivityUpdateStockReqDTO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityCreateReqVO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityPageReqVO;
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityUpdateReqVO;
@@ -16,15 +18,26 @@ import cn.iocoder.yudao.module.promotion.dal.dataobject.seckill.seckillactivity.
 import cn.iocoder.yudao.module.promotion.dal.dataobject.seckill.seckillactivity.SeckillProductDO;
 import cn.iocoder.yudao.module.promotion.dal.mysql.seckill.seckillactivity.SeckillActivityMapper;
 import cn.iocoder.yudao.module.promotion.dal.mysql.seckill.seckillactivity.SeckillProductMapper;
+import cn.iocoder.yudao.module.promotion.dal.redis.seckill.SeckillStockLockRedisDAO;
+import cn.iocoder.yudao.module.promotion.dal.redis.seckill.SeckillStockRedisDAO;
 import cn.iocoder.yudao.module.promotion.util.PromotionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static cn.hutool.core.collection.CollUtil.isNotEmpty;
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
@@ -41,13 +54,27 @@ import static java.util.Collections.singletonList;
  */
 @Service
 @Validated
+@Slf4j
 public class SeckillActivityServiceImpl implements SeckillActivityService {
 
+    /**
+     * Redis 库存在活动结束后，额外保留的时间
+     */
+    private static final Duration SECKILL_STOCK_EXPIRE_DELAY = Duration.ofDays(1);
+    /**
+     * 每批同步到 DB 的活动数量
+     */
+    private static final int SECKILL_STOCK_SYNC_BATCH_SIZE = 100;
+
     @Resource
     private SeckillActivityMapper seckillActivityMapper;
     @Resource
     private SeckillProductMapper seckillProductMapper;
     @Resource
+    private SeckillStockRedisDAO seckillStockRedisDAO;
+    @Resource
+    private SeckillStockLockRedisDAO seckillStockLockRedisDAO;
+    @Resource
     private SeckillConfigService seckillConfigService;
     @Resource
     private ProductSpuApi productSpuApi;
@@ -63,9 +90,10 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         validateProductExists(createReqVO.getSpuId(), createReqVO.getProducts());
 
         // 插入秒杀活动
+        Integer stock = getSumValue(createReqVO.getProducts(), SeckillProductBaseVO::getStock, Integer::sum);
         SeckillActivityDO activity = SeckillActivityConvert.INSTANCE.convert(createReqVO)
                 .setStatus(PromotionUtils.calculateActivityStatus(createReqVO.getEndTime()))
-                .setTotalStock(getSumValue(createReqVO.getProducts(), SeckillProductBaseVO::getStock, Integer::sum));
+                .setStock(stock).setTotalStock(stock);
         seckillActivityMapper.insert(activity);
         // 插入商品
         List<SeckillProductDO> products = SeckillActivityConvert.INSTANCE.convertList(createReqVO.getProducts(), activity);
@@ -135,23 +163,171 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         // 校验商品是否存在
         validateProductExists(updateReqVO.getSpuId(), updateReqVO.getProducts());
 
-        // 更新活动
+        // 同步 Redis 中的库存到 DB 后，删除；事务完成前，不会重新加载，所以库存以更新后的为准
+        removeSeckillStock(seckillActivity);
+
+        // 更新活动：总库存 = 更新后的库存 + 已售出的库存
+        seckillActivity = seckillActivityMapper.selectById(updateReqVO.getId()); // 重新读取同步后的库存
+        int soldStock = ObjectUtil.defaultIfNull(seckillActivity.getTotalStock(), 0)
+                - ObjectUtil.defaultIfNull(seckillActivity.getStock(), 0);
+        Integer stock = ObjectUtil.defaultIfNull(getSumValue(updateReqVO.getProducts(), SeckillProductBaseVO::getStock, Integer::sum), 0);
         SeckillActivityDO updateObj = SeckillActivityConvert.INSTANCE.convert(updateReqVO)
                 .setStatus(PromotionUtils.calculateActivityStatus(updateReqVO.getEndTime()))
-                .setTotalStock(getSumValue(updateReqVO.getProducts(), SeckillProductBaseVO::getStock, Integer::sum));
+                .setStock(stock).setTotalStock(stock + soldStock);
         seckillActivityMapper.updateById(updateObj);
         // 更新商品
         updateSeckillProduct(updateObj, updateReqVO.getProducts());
     }
 
     @Override
-    public void updateSeckillActivity(SeckillActivityDO activityDO) {
-        seckillActivityMapper.updateById(activityDO);
+    public void updateSeckillStock(SeckillActivityUpdateStockReqDTO updateStockReqDTO) {
+        Long activityId = updateStockReqDTO.getActivityId();
+        Integer count = updateStockReqDTO.getCount();
+        Map<Long, Integer> skuCounts = convertMap(updateStockReqDTO.getItems(), SeckillActivityUpdateStockReqDTO.Item::getSkuId,
+                SeckillActivityUpdateStockReqDTO.Item::getCount, Integer::sum);
+        // 1.1 通过 Lua 脚本，原子校验并扣减库存
+        long result = seckillStockRedisDAO.decrement(activityId, count, skuCounts);
+        // 1.2 库存未加载时，从 DB 加载后，再扣减一次
+        if (result == SeckillStockRedisDAO.DECR_NOT_LOADED) {
+            loadSeckillStock(activityId);
+            result = seckillStockRedisDAO.decrement(activityId, count, skuCounts);
+        }
+        if (result <= 0) {
+            throw exception(SECKILL_ACTIVITY_UPDATE_STOCK_FAIL);
+        }
+
+        // 2. 调用方的事务回滚时（例如说，下单失败），归还库存。扣减后库存已重新加载时，不归还
+        long version = result;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        seckillStockRedisDAO.increment(activityId, count, skuCounts, version);
+                    }
+                }
+
+            });
+        }
     }
 
-    @Override
-    public void updateSeckillActivityProductList(List<SeckillProductDO> productList) {
-        seckillProductMapper.updateBatch(productList);
+    /**
+     * 从 DB 加载秒杀活动的库存到 Redis
+     *
+     * 在锁内加载，避免加载到活动修改的事务提交前的库存
+     *
+     * @param activityId 活动编号
+     */
+    private void loadSeckillStock(Long activityId) {
+        seckillStockLockRedisDAO.lock(activityId, () -> {
+            SeckillActivityDO activity = validateSeckillActivityExists(activityId);
+            List<SeckillProductDO> products = seckillProductMapper.selectListByActivityId(activityId);
+            Map<Long, Integer> skuStocks = convertMap(products, SeckillProductDO::getSkuId, SeckillProductDO::getStock);
+            seckillStockRedisDAO.load(activityId, ObjectUtil.defaultIfNull(activity.getStock(), 0), skuStocks,
+                    getSeckillStockTimeout(activity));
+        });
+    }
+
+    /**
+     * 获得 Redis 库存的过期时间：活动结束后，再保留一段时间，保证库存都同步到 DB
+     *
+     * @param activity 活动
+     * @return 过期时间
+     */
+    private static Duration getSeckillStockTimeout(SeckillActivityDO activity) {
+        Duration timeout = Duration.between(LocalDateTime.now(), activity.getEndTime());
+        return timeout.isNegative() ? SECKILL_STOCK_EXPIRE_DELAY : timeout.plus(SECKILL_STOCK_EXPIRE_DELAY);
+    }
+
+    /**
+     * 通过定时任务轮询，将 Redis 中变化的库存，批量同步到 DB
+     *
+     * 同步的是 Redis 中的库存值，而不是增量，所以重复同步、多节点同时同步，都不会导致库存错误；
+     * 同步在锁内执行，所以不会覆盖活动修改后的库存
+     */
+    @Scheduled(initialDelay = 5, fixedDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void syncSeckillStock() {
+        List<Long> failureIds = new ArrayList<>();
+        while (true) {
+            List<Long> activityIds = seckillStockRedisDAO.popDirtyActivityIds(SECKILL_STOCK_SYNC_BATCH_SIZE);
+            activityIds.forEach(activityId -> {
+                try {
+                    syncSeckillStock(activityId);
+                } catch (Exception ex) {
+                    log.error("[syncSeckillStock][活动({}) 同步库存失败]", activityId, ex);
+                    failureIds.add(activityId);
+                }
+            });
+            if (activityIds.size() < SECKILL_STOCK_SYNC_BATCH_SIZE) {
+                break;
+            }
+        }
+        // 同步失败的，下次重试
+        failureIds.forEach(seckillStockRedisDAO::addDirtyActivityId);
+    }
+
+    private void syncSeckillStock(Long activityId) {
+        seckillStockLockRedisDAO.lock(activityId, () -> saveSeckillStock(activityId, seckillStockRedisDAO.getStocks(activityId)));
+    }
+
+    /**
+     * 将 Redis 中的库存，写入到 DB
+     *
+     * @param activityId 活动编号
+     * @param stocks Redis 中的库存，格式见 {@link SeckillStockRedisDAO#getStocks(Long)}
+     */
+    private void saveSeckillStock(Long activityId, Map<String, Integer> stocks) {
+        if (stocks.isEmpty()) { // 已过期或者已删除
+            return;
+        }
+        // 定时任务没有租户上下文，并且都是按照编号更新，所以忽略租户
+        TenantUtils.executeIgnore(() -> {
+            seckillActivityMapper.updateById(new SeckillActivityDO().setId(activityId)
+                    .setStock(stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD)));
+            List<SeckillProductDO> products = seckillProductMapper.selectListByActivityId(activityId);
+            List<SeckillProductDO> updateList = convertList(products,
+                    product -> new SeckillProductDO().setId(product.getId()).setStock(stocks.get(String.valueOf(product.getSkuId()))),
+                    product -> stocks.containsKey(String.valueOf(product.getSkuId())));
+            if (isNotEmpty(updateList)) {
+                seckillProductMapper.updateBatch(updateList);
+            }
+        });
+    }
+
+    /**
+     * 同步 Redis 中的库存到 DB 后，删除，下次扣减时，重新从 DB 加载
+     *
+     * 1. 读取与删除是原子的，所以不会丢失上次同步后的扣减
+     * 2. 锁持有到事务完成，期间不会重新加载、也不会被定时任务同步，避免加载到事务提交前的库存，或者覆盖更新后的库存
+     * 3. 事务回滚时，写入 DB 的库存也会回滚，所以将删除的库存重新加载到 Redis，由定时任务同步到 DB
+     *
+     * @param activity 活动
+     */
+    private void removeSeckillStock(SeckillActivityDO activity) {
+        Long activityId = activity.getId();
+        seckillStockLockRedisDAO.lockUntilCompletion(activityId, () -> {
+            Map<String, Integer> stocks = seckillStockRedisDAO.remove(activityId);
+            saveSeckillStock(activityId, stocks);
+            if (stocks.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        Map<String, Integer> skuStocks = new HashMap<>(stocks);
+                        Integer activityStock = skuStocks.remove(SeckillStockRedisDAO.ACTIVITY_FIELD);
+                        seckillStockRedisDAO.load(activityId, activityStock,
+                                convertMap(skuStocks.entrySet(), entry -> Long.valueOf(entry.getKey()), Map.Entry::getValue),
+                                getSeckillStockTimeout(activity));
+                        seckillStockRedisDAO.addDirtyActivityId(activityId);
+                    }
+                }
+
+            });
+        });
     }
 
     /**
@@ -195,6 +371,8 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         // 更新
         SeckillActivityDO updateObj = new SeckillActivityDO().setId(id).setStatus(CommonStatusEnum.DISABLE.getStatus());
         seckillActivityMapper.updateById(updateObj);
+        // 同步 Redis 中的库存到 DB 后，删除
+        removeSeckillStock(activity);
     }
 
     @Override
@@ -206,6 +384,8 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
             throw exception(SECKILL_ACTIVITY_DELETE_FAIL_STATUS_NOT_CLOSED_OR_END);
         }
 
+        // 删除 Redis 中的库存
+        removeSeckillStock(seckillActivity);
         // 删除活动
         seckillActivityMapper.deleteById(id);
         // 删除活动商品
@@ -0,0 +1,179 @@
+package cn.iocoder.yudao.module.promotion.dal.redis.seckill;
+
+import cn.hutool.core.map.MapUtil;
+import cn.iocoder.yudao.framework.test.core.ut.BaseRedisUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static cn.iocoder.yudao.module.promotion.dal.redis.RedisKeyConstants.SECKILL_STOCK_DIRTY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SeckillStockRedisDAO} 的单元测试类
+ *
+ * @author 芋道源码
+ */
+@Import(SeckillStockRedisDAO.class)
+public class SeckillStockRedisDAOTest extends BaseRedisUnitTest {
+
+    @Resource
+    private SeckillStockRedisDAO seckillStockRedisDAO;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        seckillStockRedisDAO.delete(1L);
+        stringRedisTemplate.delete(SECKILL_STOCK_DIRTY);
+    }
+
+    @Test
+    public void testDecrement_notLoaded() {
+        // 调用，并断言
+        assertEquals(SeckillStockRedisDAO.DECR_NOT_LOADED,
+                seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1)));
+    }
+
+    @Test
+    public void testDecrement_notEnough() {
+        // mock 数据
+        seckillStockRedisDAO.load(1L, 3, MapUtil.<Long, Integer>builder().put(10L, 1).put(20L, 2).build(),
+                Duration.ofMinutes(1));
+
+        // 调用：其中一个 SKU 库存不足，整体都不扣减
+        long result = seckillStockRedisDAO.decrement(1L, 2, MapUtil.<Long, Integer>builder().put(10L, 1).put(20L, 1).build());
+        assertTrue(result > 0);
+        result = seckillStockRedisDAO.decrement(1L, 2, MapUtil.<Long, Integer>builder().put(10L, 1).put(20L, 1).build());
+        assertEquals(SeckillStockRedisDAO.DECR_NOT_ENOUGH, result);
+        // 断言
+        Map<String, Integer> stocks = seckillStockRedisDAO.getStocks(1L);
+        assertEquals(1, stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD));
+        assertEquals(0, stocks.get("10"));
+        assertEquals(1, stocks.get("20"));
+    }
+
+    @Test
+    public void testLoad_exists() {
+        // mock 数据
+        seckillStockRedisDAO.load(1L, 2, MapUtil.of(10L, 2), Duration.ofMinutes(1));
+        seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1));
+
+        // 调用：已加载时，不覆盖已扣减的库存
+        assertFalse(seckillStockRedisDAO.load(1L, 2, MapUtil.of(10L, 2), Duration.ofMinutes(1)));
+        // 断言
+        assertEquals(1, seckillStockRedisDAO.getStocks(1L).get("10"));
+    }
+
+    @Test
+    public void testIncrement() {
+        // mock 数据
+        seckillStockRedisDAO.load(1L, 2, MapUtil.of(10L, 2), Duration.ofMinutes(1));
+        long version = seckillStockRedisDAO.decrement(1L, 2, MapUtil.of(10L, 2));
+
+        // 调用
+        assertTrue(seckillStockRedisDAO.increment(1L, 1, MapUtil.of(10L, 1), version));
+        // 断言
+        Map<String, Integer> stocks = seckillStockRedisDAO.getStocks(1L);
+        assertEquals(2, stocks.size()); // 不包含版本号
+        assertEquals(1, stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD));
+        assertEquals(1, stocks.get("10"));
+        assertEquals(1, seckillStockRedisDAO.popDirtyActivityIds(10).size());
+    }
+
+    @Test
+    public void testIncrement_reloaded() {
+        // mock 数据：扣减后，库存被删除、重新加载
+        seckillStockRedisDAO.load(1L, 2, MapUtil.of(10L, 2), Duration.ofMinutes(1));
+        long version = seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1));
+        seckillStockRedisDAO.delete(1L);
+        seckillStockRedisDAO.load(1L, 1, MapUtil.of(10L, 1), Duration.ofMinutes(1));
+
+        // 调用：版本号不一致，不归还
+        assertFalse(seckillStockRedisDAO.increment(1L, 1, MapUtil.of(10L, 1), version));
+        // 断言
+        Map<String, Integer> stocks = seckillStockRedisDAO.getStocks(1L);
+        assertEquals(1, stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD));
+        assertEquals(1, stocks.get("10"));
+    }
+
+    @Test
+    public void testIncrement_deleted() {
+        // mock 数据：扣减后，库存被删除
+        seckillStockRedisDAO.load(1L, 2, MapUtil.of(10L, 2), Duration.ofMinutes(1));
+        long version = seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1));
+        seckillStockRedisDAO.delete(1L);
+
+        // 调用，并断言：未加载，不归还
+        assertFalse(seckillStockRedisDAO.increment(1L, 1, MapUtil.of(10L, 1), version));
+        assertTrue(seckillStockRedisDAO.getStocks(1L).isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        // mock 数据
+        seckillStockRedisDAO.load(1L, 3, MapUtil.of(10L, 3), Duration.ofMinutes(1));
+        seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1));
+
+        // 调用
+        Map<String, Integer> stocks = seckillStockRedisDAO.remove(1L);
+        // 断言：返回删除前的库存，不包含版本号
+        assertEquals(2, stocks.size());
+        assertEquals(2, stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD));
+        assertEquals(2, stocks.get("10"));
+        assertTrue(seckillStockRedisDAO.getStocks(1L).isEmpty());
+        assertTrue(seckillStockRedisDAO.remove(1L).isEmpty());
+    }
+
+    /**
+     * 压测：10000 个并发下单，抢 100 个库存，不会超卖
+     */
+    @Test
+    public void testDecrement_concurrent() throws InterruptedException {
+        // mock 数据
+        int stock = 100;
+        int orderCount = 10000;
+        seckillStockRedisDAO.load(1L, stock, MapUtil.of(10L, stock), Duration.ofMinutes(1));
+
+        // 调用
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch finishLatch = new CountDownLatch(orderCount);
+        AtomicInteger successCount = new AtomicInteger();
+        for (int i = 0; i < orderCount; i++) {
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                    if (seckillStockRedisDAO.decrement(1L, 1, MapUtil.of(10L, 1)) > 0) {
+                        successCount.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finishLatch.countDown();
+                }
+            });
+        }
+        startLatch.countDown();
+        assertTrue(finishLatch.await(1, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        // 断言：恰好卖出 100 个，库存不为负
+        assertEquals(stock, successCount.get());
+        Map<String, Integer> stocks = seckillStockRedisDAO.getStocks(1L);
+        assertEquals(0, stocks.get(SeckillStockRedisDAO.ACTIVITY_FIELD));
+        assertEquals(0, stocks.get("10"));
+    }
+
+}
@@ -12,7 +12,9 @@ import cn.iocoder.yudao.module.promotion.dal.mysql.discount.DiscountActivityMapp
 import cn.iocoder.yudao.module.promotion.dal.mysql.discount.DiscountProductMapper;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionActivityStatusEnum;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionDiscountTypeEnum;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
@@ -31,6 +33,7 @@ import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
 import static cn.iocoder.yudao.module.promotion.enums.ErrorCodeConstants.DISCOUNT_ACTIVITY_NOT_EXISTS;
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 
 /**
 * {@link DiscountActivityServiceImpl} 的单元测试类
@@ -47,6 +50,8 @@ public class DiscountActivityServiceImplTest extends BaseDbUnitTest {
     private DiscountActivityMapper discountActivityMapper;
     @Resource
     private DiscountProductMapper discountProductMapper;
+    @MockBean
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
 
     @Test
     public void testCreateDiscountActivity_success() {
@@ -143,6 +148,7 @@ public class DiscountActivityServiceImplTest extends BaseDbUnitTest {
         // 校验状态
         DiscountActivityDO discountActivity = discountActivityMapper.selectById(id);
         assertEquals(discountActivity.getStatus(), PromotionActivityStatusEnum.CLOSE.getStatus());
+        verify(tradePriceSnapshotApi).invalidatePromotionSnapshot();
     }
 
     @Test
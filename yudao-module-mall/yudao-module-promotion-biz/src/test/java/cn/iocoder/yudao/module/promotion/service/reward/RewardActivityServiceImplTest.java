@@ -10,7 +10,9 @@ import cn.iocoder.yudao.module.promotion.dal.mysql.reward.RewardActivityMapper;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionActivityStatusEnum;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionConditionTypeEnum;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionProductScopeEnum;
+import cn.iocoder.yudao.module.trade.api.price.TradePriceSnapshotApi;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
@@ -30,6 +32,7 @@ import static cn.iocoder.yudao.module.promotion.enums.ErrorCodeConstants.REWARD_
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 
 /**
 * {@link RewardActivityServiceImpl} 的单元测试类
@@ -44,6 +47,8 @@ public class RewardActivityServiceImplTest extends BaseDbUnitTest {
 
     @Resource
     private RewardActivityMapper rewardActivityMapper;
+    @MockBean
+    private TradePriceSnapshotApi tradePriceSnapshotApi;
 
     @Test
     public void testCreateRewardActivity_success() {
@@ -106,6 +111,7 @@ public class RewardActivityServiceImplTest extends BaseDbUnitTest {
         // 校验状态
         RewardActivityDO rewardActivity = rewardActivityMapper.selectById(id);
         assertEquals(rewardActivity.getStatus(), PromotionActivityStatusEnum.CLOSE.getStatus());
+        verify(tradePriceSnapshotApi).invalidatePromotionSnapshot();
     }
 
     @Test
@@ -7,9 +7,12 @@ import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.Se
 import cn.iocoder.yudao.module.promotion.controller.admin.seckill.vo.activity.SeckillActivityUpdateReqVO;
 import cn.iocoder.yudao.module.promotion.dal.dataobject.seckill.seckillactivity.SeckillActivityDO;
 import cn.iocoder.yudao.module.promotion.dal.mysql.seckill.seckillactivity.SeckillActivityMapper;
+import cn.iocoder.yudao.module.promotion.dal.redis.seckill.SeckillStockLockRedisDAO;
+import cn.iocoder.yudao.module.promotion.dal.redis.seckill.SeckillStockRedisDAO;
 import cn.iocoder.yudao.module.promotion.service.seckill.SeckillActivityServiceImpl;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
@@ -38,6 +41,11 @@ public class SeckillActivityServiceImplTest extends BaseDbUnitTest {
     @Resource
     private SeckillActivityMapper seckillActivityMapper;
 
+    @MockBean
+    private SeckillStockRedisDAO seckillStockRedisDAO;
+    @MockBean
+    private SeckillStockLockRedisDAO seckillStockLockRedisDAO;
+
     @Test
     public void testCreateSeckillActivity_success() {
         // 准备参数
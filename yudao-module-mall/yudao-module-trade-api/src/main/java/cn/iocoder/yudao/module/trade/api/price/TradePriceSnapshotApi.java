@@ -0,0 +1,40 @@
+package cn.iocoder.yudao.module.trade.api.price;
+
+import java.util.Collection;
+
+/**
+ * 价格计算的快照 API 接口
+ *
+ * 商品、营销的数据变更时，调用该接口，失效交易模块中价格计算的快照。
+ * 存在事务时，在事务提交后才失效，并广播到所有节点
+ *
+ * @author 芋道源码
+ */
+public interface TradePriceSnapshotApi {
+
+    /**
+     * 失效商品 SKU 的快照
+     *
+     * 例如说，SKU 的价格、库存、属性发生变化
+     *
+     * @param skuIds SKU 编号数组
+     */
+    void invalidateSkuSnapshot(Collection<Long> skuIds);
+
+    /**
+     * 失效商品 SPU 的快照
+     *
+     * 例如说，SPU 的状态、分类、运费模板发生变化
+     *
+     * @param spuIds SPU 编号数组
+     */
+    void invalidateSpuSnapshot(Collection<Long> spuIds);
+
+    /**
+     * 失效当前租户的营销快照，包括限时折扣、满减送
+     *
+     * 由于活动的商品范围，可能是全部商品、商品分类，所以不按照编号失效
+     */
+    void invalidatePromotionSnapshot();
+
+}
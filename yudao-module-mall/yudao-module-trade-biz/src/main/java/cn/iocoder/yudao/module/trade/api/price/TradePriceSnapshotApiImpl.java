@@ -0,0 +1,37 @@
+package cn.iocoder.yudao.module.trade.api.price;
+
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+
+/**
+ * 价格计算的快照 API 接口实现类
+ *
+ * @author 芋道源码
+ */
+@Service
+@Validated
+public class TradePriceSnapshotApiImpl implements TradePriceSnapshotApi {
+
+    @Resource
+    private TradePriceSnapshotService tradePriceSnapshotService;
+
+    @Override
+    public void invalidateSkuSnapshot(Collection<Long> skuIds) {
+        tradePriceSnapshotService.invalidateSkuSnapshot(skuIds);
+    }
+
+    @Override
+    public void invalidateSpuSnapshot(Collection<Long> spuIds) {
+        tradePriceSnapshotService.invalidateSpuSnapshot(spuIds);
+    }
+
+    @Override
+    public void invalidatePromotionSnapshot() {
+        tradePriceSnapshotService.invalidatePromotionSnapshot();
+    }
+
+}
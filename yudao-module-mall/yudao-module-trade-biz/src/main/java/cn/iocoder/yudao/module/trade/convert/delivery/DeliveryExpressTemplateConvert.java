@@ -7,15 +7,10 @@ import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemp
 import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateDO;
 import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateFreeDO;
 import cn.iocoder.yudao.module.trade.service.delivery.bo.DeliveryExpressTemplateRespBO;
-import com.google.common.collect.Maps;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
-import java.util.Map;
-
-import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMultiMap;
-import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.findFirst;
 
 @Mapper
 public interface DeliveryExpressTemplateConvert {
@@ -74,23 +69,4 @@ public interface DeliveryExpressTemplateConvert {
     default List<DeliveryExpressTemplateFreeDO> convertTemplateFreeList(Long templateId, List<ExpressTemplateFreeBaseVO> list) {
         return CollectionUtils.convertList(list, vo -> convertTemplateFree(templateId, vo));
     }
-
-    default Map<Long, DeliveryExpressTemplateRespBO> convertMap(Integer areaId, List<DeliveryExpressTemplateDO> templateList,
-                                                                List<DeliveryExpressTemplateChargeDO> chargeList,
-                                                                List<DeliveryExpressTemplateFreeDO> freeList) {
-        Map<Long, List<DeliveryExpressTemplateChargeDO>> templateIdChargeMap = convertMultiMap(chargeList,
-                DeliveryExpressTemplateChargeDO::getTemplateId);
-        Map<Long, List<DeliveryExpressTemplateFreeDO>> templateIdFreeMap = convertMultiMap(freeList,
-                DeliveryExpressTemplateFreeDO::getTemplateId);
-        // 组合运费模板配置 RespBO
-        Map<Long, DeliveryExpressTemplateRespBO> result = Maps.newHashMapWithExpectedSize(templateList.size());
-        templateList.forEach(template -> {
-            DeliveryExpressTemplateRespBO bo = new DeliveryExpressTemplateRespBO()
-                    .setChargeMode(template.getChargeMode())
-                    .setCharge(convertTemplateCharge(findFirst(templateIdChargeMap.get(template.getId()), charge -> charge.getAreaIds().contains(areaId))))
-                    .setFree(convertTemplateFree(findFirst(templateIdFreeMap.get(template.getId()), free -> free.getAreaIds().contains(areaId))));
-            result.put(template.getId(), bo);
-        });
-        return result;
-    }
 }
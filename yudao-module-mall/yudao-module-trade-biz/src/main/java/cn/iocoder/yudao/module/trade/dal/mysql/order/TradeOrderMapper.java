@@ -24,7 +24,7 @@ public interface TradeOrderMapper extends BaseMapperX<TradeOrderDO> {
     }
 
     default PageResult<TradeOrderDO> selectPage(TradeOrderPageReqVO reqVO, Set<Long> userIds) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<TradeOrderDO>()
+        return selectPageByLastId(reqVO, new LambdaQueryWrapperX<TradeOrderDO>()
                 .likeIfPresent(TradeOrderDO::getNo, reqVO.getNo())
                 .eqIfPresent(TradeOrderDO::getUserId, reqVO.getUserId())
                 .inIfPresent(TradeOrderDO::getUserId, userIds)
@@ -36,15 +36,16 @@ public interface TradeOrderMapper extends BaseMapperX<TradeOrderDO> {
                 .eqIfPresent(TradeOrderDO::getTerminal,reqVO.getTerminal())
                 .eqIfPresent(TradeOrderDO::getLogisticsId, reqVO.getLogisticsId())
                 .inIfPresent(TradeOrderDO::getPickUpStoreId, reqVO.getPickUpStoreIds())
-                .betweenIfPresent(TradeOrderDO::getCreateTime, reqVO.getCreateTime()));
+                .betweenIfPresent(TradeOrderDO::getCreateTime, reqVO.getCreateTime())
+                .orderByDesc(TradeOrderDO::getId)); // 倒序，同时支持游标分页
     }
 
     default PageResult<TradeOrderDO> selectPage(AppTradeOrderPageReqVO reqVO, Long userId) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<TradeOrderDO>()
+        return selectPageByLastId(reqVO, new LambdaQueryWrapperX<TradeOrderDO>()
                 .eq(TradeOrderDO::getUserId, userId)
                 .eqIfPresent(TradeOrderDO::getStatus, reqVO.getStatus())
                 .eqIfPresent(TradeOrderDO::getCommentStatus, reqVO.getCommentStatus())
-                .orderByDesc(TradeOrderDO::getId)); // TODO 芋艿：未来不同的 status，不同的排序
+                .orderByDesc(TradeOrderDO::getId)); // TODO 芋艿：未来不同的 status，不同的排序；注意，游标分页要求按照编号倒序
     }
 
     default Long selectCountByUserIdAndStatus(Long userId, Integer status, Boolean commentStatus) {
@@ -1,7 +1,12 @@
 package cn.iocoder.yudao.module.trade.framework.order.config;
 
+import com.alibaba.ttl.TtlRunnable;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 // TODO @LeeYan9: 可以直接给 TradeOrderProperties 一个 @Component生效哈
 /**
@@ -11,4 +16,24 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @EnableConfigurationProperties(TradeOrderProperties.class)
 public class TradeOrderConfig {
+
+    public static final String ORDER_CREATE_THREAD_POOL_TASK_EXECUTOR = "ORDER_CREATE_THREAD_POOL_TASK_EXECUTOR";
+
+    /**
+     * 下单时，并行查询的线程池
+     */
+    @Bean(ORDER_CREATE_THREAD_POOL_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor orderCreateThreadPoolTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16); // 设置核心线程数
+        executor.setMaxPoolSize(32); // 设置最大线程数
+        executor.setKeepAliveSeconds(60); // 设置空闲时间
+        executor.setQueueCapacity(200); // 设置队列大小
+        executor.setThreadNamePrefix("order-create-"); // 配置线程池的前缀
+        executor.setTaskDecorator(TtlRunnable::get); // 传递租户、登录用户等上下文
+        // 繁忙时，由下单线程自己执行，退化为串行查询
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
 }
@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.trade.mq.consumer.delivery;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.module.trade.mq.message.delivery.DeliveryExpressTemplateInvalidateMessage;
+import cn.iocoder.yudao.module.trade.service.delivery.DeliveryExpressTemplateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link DeliveryExpressTemplateInvalidateMessage} 的消费者
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class DeliveryExpressTemplateInvalidateConsumer extends AbstractChannelMessageListener<DeliveryExpressTemplateInvalidateMessage> {
+
+    @Resource
+    private DeliveryExpressTemplateService deliveryExpressTemplateService;
+
+    @Override
+    public void onMessage(DeliveryExpressTemplateInvalidateMessage message) {
+        log.debug("[onMessage][收到运费模板缓存失效消息({})]", message);
+        deliveryExpressTemplateService.invalidateLocalExpressTemplateCache(message.getId());
+    }
+
+}
@@ -0,0 +1,30 @@
+package cn.iocoder.yudao.module.trade.mq.consumer.price;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.module.trade.mq.message.price.TradePriceSnapshotInvalidateMessage;
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link TradePriceSnapshotInvalidateMessage} 的消费者
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class TradePriceSnapshotInvalidateConsumer extends AbstractChannelMessageListener<TradePriceSnapshotInvalidateMessage> {
+
+    @Resource
+    private TradePriceSnapshotService tradePriceSnapshotService;
+
+    @Override
+    public void onMessage(TradePriceSnapshotInvalidateMessage message) {
+        log.debug("[onMessage][收到价格快照失效消息({})]", message);
+        tradePriceSnapshotService.invalidateLocalSnapshot(message.getSkuIds(), message.getSpuIds(),
+                Boolean.TRUE.equals(message.getPromotion()));
+    }
+
+}
@@ -0,0 +1,28 @@
+package cn.iocoder.yudao.module.trade.mq.message.delivery;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 快递运费模板的缓存失效 Message
+ *
+ * 用于广播所有节点，失效本地的运费模板区域索引。租户编号，通过消息的 header 传递
+ *
+ * @author 芋道源码
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class DeliveryExpressTemplateInvalidateMessage extends AbstractChannelMessage {
+
+    /**
+     * 运费模板编号
+     */
+    private Long id;
+
+    @Override
+    public String getChannel() {
+        return "trade.delivery-express-template.invalidate";
+    }
+
+}
@@ -0,0 +1,38 @@
+package cn.iocoder.yudao.module.trade.mq.message.price;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Set;
+
+/**
+ * 价格计算的快照失效 Message
+ *
+ * 用于广播所有节点，失效本地的快照。租户编号，通过消息的 header 传递
+ *
+ * @author 芋道源码
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class TradePriceSnapshotInvalidateMessage extends AbstractChannelMessage {
+
+    /**
+     * 商品 SKU 编号集合
+     */
+    private Set<Long> skuIds;
+    /**
+     * 商品 SPU 编号集合
+     */
+    private Set<Long> spuIds;
+    /**
+     * 是否失效营销快照
+     */
+    private Boolean promotion;
+
+    @Override
+    public String getChannel() {
+        return "trade.price-snapshot.invalidate";
+    }
+
+}
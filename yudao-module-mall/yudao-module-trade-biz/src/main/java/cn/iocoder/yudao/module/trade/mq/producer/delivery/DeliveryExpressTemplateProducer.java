@@ -0,0 +1,30 @@
+package cn.iocoder.yudao.module.trade.mq.producer.delivery;
+
+import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.trade.mq.message.delivery.DeliveryExpressTemplateInvalidateMessage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 快递运费模板相关消息的 Producer
+ *
+ * @author 芋道源码
+ */
+@Component
+public class DeliveryExpressTemplateProducer {
+
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 发送 {@link DeliveryExpressTemplateInvalidateMessage} 消息
+     *
+     * @param id 运费模板编号
+     */
+    public void sendExpressTemplateInvalidateMessage(Long id) {
+        DeliveryExpressTemplateInvalidateMessage message = new DeliveryExpressTemplateInvalidateMessage().setId(id);
+        redisMQTemplate.send(message);
+    }
+
+}
@@ -0,0 +1,34 @@
+package cn.iocoder.yudao.module.trade.mq.producer.price;
+
+import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.trade.mq.message.price.TradePriceSnapshotInvalidateMessage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Set;
+
+/**
+ * 价格计算的快照相关消息的 Producer
+ *
+ * @author 芋道源码
+ */
+@Component
+public class TradePriceSnapshotProducer {
+
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 发送 {@link TradePriceSnapshotInvalidateMessage} 消息
+     *
+     * @param skuIds 商品 SKU 编号集合
+     * @param spuIds 商品 SPU 编号集合
+     * @param promotion 是否失效营销快照
+     */
+    public void sendSnapshotInvalidateMessage(Set<Long> skuIds, Set<Long> spuIds, boolean promotion) {
+        TradePriceSnapshotInvalidateMessage message = new TradePriceSnapshotInvalidateMessage()
+                .setSkuIds(skuIds).setSpuIds(spuIds).setPromotion(promotion);
+        redisMQTemplate.send(message);
+    }
+
+}
@@ -0,0 +1,131 @@
+package cn.iocoder.yudao.module.trade.service.delivery;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateChargeDO;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateDO;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateFreeDO;
+import cn.iocoder.yudao.module.trade.service.delivery.bo.DeliveryExpressTemplateRespBO;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static cn.iocoder.yudao.module.trade.convert.delivery.DeliveryExpressTemplateConvert.INSTANCE;
+
+/**
+ * 快递运费模板的区域索引，由模板、运费规则、包邮规则预先编译而成
+ *
+ * 1. 编译：计算规则配置的每个区域，匹配的运费规则、包邮规则；和逐个规则匹配一样，只匹配直接配置的区域
+ * 2. 匹配：在有序的区域编号数组中二分查找，得到运费规则、包邮规则的下标
+ *
+ * 创建后不可变，可以被多线程共享；注意，返回的规则也是共享的，不允许修改
+ *
+ * @author 芋道源码
+ */
+public class DeliveryExpressTemplateIndex {
+
+    /**
+     * 无匹配的规则
+     */
+    private static final int NONE = -1;
+
+    /**
+     * 配送计费方式
+     */
+    private final Integer chargeMode;
+    /**
+     * 有匹配规则的区域编号，从小到大排序
+     */
+    private final int[] areaIds;
+    /**
+     * 运费规则的下标，和 {@link #areaIds} 一一对应。无匹配时，为 {@link #NONE}
+     */
+    private final int[] chargeIndexes;
+    /**
+     * 包邮规则的下标，和 {@link #areaIds} 一一对应。无匹配时，为 {@link #NONE}
+     */
+    private final int[] freeIndexes;
+    private final DeliveryExpressTemplateRespBO.Charge[] charges;
+    private final DeliveryExpressTemplateRespBO.Free[] frees;
+
+    private DeliveryExpressTemplateIndex(Integer chargeMode, int[] areaIds, int[] chargeIndexes, int[] freeIndexes,
+                                         DeliveryExpressTemplateRespBO.Charge[] charges,
+                                         DeliveryExpressTemplateRespBO.Free[] frees) {
+        this.chargeMode = chargeMode;
+        this.areaIds = areaIds;
+        this.chargeIndexes = chargeIndexes;
+        this.freeIndexes = freeIndexes;
+        this.charges = charges;
+        this.frees = frees;
+    }
+
+    /**
+     * 编译运费模板的区域索引
+     *
+     * @param template 运费模板
+     * @param chargeList 运费规则数组
+     * @param freeList 包邮规则数组
+     * @return 区域索引
+     */
+    public static DeliveryExpressTemplateIndex build(DeliveryExpressTemplateDO template,
+                                                     List<DeliveryExpressTemplateChargeDO> chargeList,
+                                                     List<DeliveryExpressTemplateFreeDO> freeList) {
+        chargeList = CollUtil.emptyIfNull(chargeList);
+        freeList = CollUtil.emptyIfNull(freeList);
+        // 1. 分别计算每个区域，匹配的运费规则、包邮规则
+        Map<Integer, Integer> chargeIndexMap = buildRuleIndexMap(chargeList, DeliveryExpressTemplateChargeDO::getAreaIds);
+        Map<Integer, Integer> freeIndexMap = buildRuleIndexMap(freeList, DeliveryExpressTemplateFreeDO::getAreaIds);
+
+        // 2. 合并成有序的数组
+        TreeSet<Integer> areaIdSet = new TreeSet<>(chargeIndexMap.keySet());
+        areaIdSet.addAll(freeIndexMap.keySet());
+        int[] areaIds = new int[areaIdSet.size()];
+        int[] chargeIndexes = new int[areaIds.length];
+        int[] freeIndexes = new int[areaIds.length];
+        int i = 0;
+        for (Integer areaId : areaIdSet) {
+            areaIds[i] = areaId;
+            chargeIndexes[i] = chargeIndexMap.getOrDefault(areaId, NONE);
+            freeIndexes[i] = freeIndexMap.getOrDefault(areaId, NONE);
+            i++;
+        }
+        return new DeliveryExpressTemplateIndex(template.getChargeMode(), areaIds, chargeIndexes, freeIndexes,
+                chargeList.stream().map(INSTANCE::convertTemplateCharge).toArray(DeliveryExpressTemplateRespBO.Charge[]::new),
+                freeList.stream().map(INSTANCE::convertTemplateFree).toArray(DeliveryExpressTemplateRespBO.Free[]::new));
+    }
+
+    /**
+     * 计算每个区域匹配的规则下标
+     *
+     * 同一个区域配置在多个规则时，以第一个规则为准
+     *
+     * @param rules 规则数组
+     * @param areaIdsFunction 获得规则配置的区域编号数组的方法
+     * @return 区域编号与规则下标的映射
+     */
+    private static <T> Map<Integer, Integer> buildRuleIndexMap(List<T> rules, Function<T, List<Integer>> areaIdsFunction) {
+        Map<Integer, Integer> result = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            for (Integer areaId : CollUtil.emptyIfNull(areaIdsFunction.apply(rules.get(i)))) {
+                result.putIfAbsent(areaId, i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 匹配区域对应的运费模板配置
+     *
+     * @param areaId 区域编号
+     * @return 运费模板配置。未匹配的规则，为 null
+     */
+    public DeliveryExpressTemplateRespBO match(int areaId) {
+        DeliveryExpressTemplateRespBO bo = new DeliveryExpressTemplateRespBO().setChargeMode(chargeMode);
+        int i = Arrays.binarySearch(areaIds, areaId);
+        if (i < 0) {
+            return bo;
+        }
+        return bo.setCharge(chargeIndexes[i] != NONE ? charges[chargeIndexes[i]] : null)
+                .setFree(freeIndexes[i] != NONE ? frees[freeIndexes[i]] : null);
+    }
+
+}
@@ -92,4 +92,11 @@ public interface DeliveryExpressTemplateService {
      */
     Map<Long, DeliveryExpressTemplateRespBO> getExpressTemplateMapByIdsAndArea(Collection<Long> ids, Integer areaId);
 
+    /**
+     * 失效本地的运费模板缓存
+     *
+     * @param id 运费模板编号
+     */
+    void invalidateLocalExpressTemplateCache(Long id);
+
 }
@@ -2,7 +2,11 @@ package cn.iocoder.yudao.module.trade.service.delivery;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.ObjectUtil;
+import cn.iocoder.yudao.framework.common.core.KeyValue;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
 import cn.iocoder.yudao.module.trade.controller.admin.delivery.vo.expresstemplate.DeliveryExpressTemplateCreateReqVO;
 import cn.iocoder.yudao.module.trade.controller.admin.delivery.vo.expresstemplate.DeliveryExpressTemplateDetailRespVO;
 import cn.iocoder.yudao.module.trade.controller.admin.delivery.vo.expresstemplate.DeliveryExpressTemplatePageReqVO;
@@ -13,13 +17,22 @@ import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemp
 import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateChargeMapper;
 import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateFreeMapper;
 import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateMapper;
+import cn.iocoder.yudao.module.trade.mq.producer.delivery.DeliveryExpressTemplateProducer;
 import cn.iocoder.yudao.module.trade.service.delivery.bo.DeliveryExpressTemplateRespBO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
@@ -36,6 +49,28 @@ import static cn.iocoder.yudao.module.trade.enums.ErrorCodeConstants.EXPRESS_TEM
 @Validated
 public class DeliveryExpressTemplateServiceImpl implements DeliveryExpressTemplateService {
 
+    /**
+     * 运费模板区域索引的过期时间
+     *
+     * 运费模板变更时，会广播失效所有节点的缓存，所以过期时间只是兜底
+     */
+    private static final Duration TEMPLATE_INDEX_EXPIRE_TIME = Duration.ofMinutes(10L);
+
+    /**
+     * 运费模板的区域索引缓存
+     *
+     * key 为「租户编号 + 运费模板编号」；value 为 Optional 的原因是，不存在的运费模板也缓存，避免重复查询
+     */
+    private final Cache<KeyValue<Long, Long>, Optional<DeliveryExpressTemplateIndex>> templateIndexCache =
+            buildTemplateIndexCache();
+    /**
+     * 运费模板区域索引的版本号，每次失效时递增
+     *
+     * 查询、编译前记录版本号，写入缓存时校验版本号未变化，避免编译期间发生的失效，被旧的区域索引覆盖。
+     * 只有变更过的运费模板才会记录，数量有限，所以不清理
+     */
+    private final ConcurrentMap<KeyValue<Long, Long>, Long> templateIndexVersions = new ConcurrentHashMap<>();
+
     @Resource
     private DeliveryExpressTemplateMapper expressTemplateMapper;
     @Resource
@@ -43,6 +78,19 @@ public class DeliveryExpressTemplateServiceImpl implements DeliveryExpressTempla
     @Resource
     private DeliveryExpressTemplateFreeMapper expressTemplateFreeMapper;
 
+    @Resource
+    private DeliveryExpressTemplateProducer deliveryExpressTemplateProducer;
+
+    private static Cache<KeyValue<Long, Long>, Optional<DeliveryExpressTemplateIndex>> buildTemplateIndexCache() {
+        Cache<KeyValue<Long, Long>, Optional<DeliveryExpressTemplateIndex>> cache = CacheBuilder.newBuilder()
+                .maximumSize(CacheUtils.MAXIMUM_SIZE_DEFAULT)
+                .expireAfterWrite(TEMPLATE_INDEX_EXPIRE_TIME)
+                .recordStats() // 记录命中率等统计
+                .build();
+        CacheUtils.register("trade.delivery.express-template-index", cache);
+        return cache;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long createDeliveryExpressTemplate(DeliveryExpressTemplateCreateReqVO createReqVO) {
@@ -82,6 +130,8 @@ public class DeliveryExpressTemplateServiceImpl implements DeliveryExpressTempla
         // 更新模板主表
         DeliveryExpressTemplateDO updateObj = INSTANCE.convert(updateReqVO);
         expressTemplateMapper.updateById(updateObj);
+        // 失效缓存
+        invalidateExpressTemplateCache(updateReqVO.getId());
     }
 
     private void updateExpressTemplateFree(DeliveryExpressTemplateUpdateReqVO updateReqVO) {
@@ -161,6 +211,8 @@ public class DeliveryExpressTemplateServiceImpl implements DeliveryExpressTempla
         expressTemplateChargeMapper.deleteByTemplateId(id);
         // 删除包邮从表
         expressTemplateFreeMapper.deleteByTemplateId(id);
+        // 失效缓存
+        invalidateExpressTemplateCache(id);
     }
 
     /**
@@ -224,28 +276,110 @@ public class DeliveryExpressTemplateServiceImpl implements DeliveryExpressTempla
     @Override
     public Map<Long, DeliveryExpressTemplateRespBO> getExpressTemplateMapByIdsAndArea(Collection<Long> ids, Integer areaId) {
         Assert.notNull(areaId, "区域编号 {} 不能为空", areaId);
-        // 查询 template 数组
+        // 查询 template 的区域索引
         if (CollUtil.isEmpty(ids)) {
             return Collections.emptyMap();
         }
-        List<DeliveryExpressTemplateDO> templateList = expressTemplateMapper.selectBatchIds(ids);
-        // 查询 templateCharge 数组
-        List<DeliveryExpressTemplateChargeDO> chargeList = expressTemplateChargeMapper.selectByTemplateIds(ids);
-        // 查询 templateFree 数组
-        List<DeliveryExpressTemplateFreeDO> freeList = expressTemplateFreeMapper.selectListByTemplateIds(ids);
+        Map<Long, DeliveryExpressTemplateIndex> indexMap = getExpressTemplateIndexMap(ids);
 
-        // 组合运费模板配置 RespBO
-        return INSTANCE.convertMap(areaId, templateList, chargeList, freeList);
+        // 匹配运费模板配置 RespBO
+        Map<Long, DeliveryExpressTemplateRespBO> result = Maps.newHashMapWithExpectedSize(indexMap.size());
+        indexMap.forEach((id, index) -> result.put(id, index.match(areaId)));
+        return result;
     }
 
-    private DeliveryExpressTemplateRespBO.Charge findMatchExpressTemplateCharge(
-            List<DeliveryExpressTemplateChargeDO> templateChargeList, Integer areaId) {
-        return INSTANCE.convertTemplateCharge(findFirst(templateChargeList, item -> item.getAreaIds().contains(areaId)));
+    /**
+     * 获得运费模板的区域索引，只查询、编译未命中缓存的运费模板
+     *
+     * @param ids 运费模板编号数组
+     * @return 区域索引的映射，不存在的运费模板会被忽略
+     */
+    private Map<Long, DeliveryExpressTemplateIndex> getExpressTemplateIndexMap(Collection<Long> ids) {
+        // 1. 读取缓存
+        Long tenantId = TenantContextHolder.getTenantId();
+        Map<Long, DeliveryExpressTemplateIndex> result = Maps.newHashMapWithExpectedSize(ids.size());
+        Set<Long> missIds = new HashSet<>();
+        ids.forEach(id -> {
+            Optional<DeliveryExpressTemplateIndex> index = templateIndexCache.getIfPresent(new KeyValue<>(tenantId, id));
+            if (index != null) {
+                index.ifPresent(value -> result.put(id, value));
+            } else {
+                missIds.add(id);
+            }
+        });
+        if (missIds.isEmpty()) {
+            return result;
+        }
+
+        // 2. 查询未命中的，编译后写入缓存。查询前记录版本号，用于写入缓存时校验
+        Map<Long, Long> versions = Maps.newHashMapWithExpectedSize(missIds.size());
+        missIds.forEach(id -> versions.put(id, templateIndexVersions.getOrDefault(new KeyValue<>(tenantId, id), 0L)));
+        Map<Long, DeliveryExpressTemplateDO> templateMap = convertMap(expressTemplateMapper.selectBatchIds(missIds),
+                DeliveryExpressTemplateDO::getId);
+        Map<Long, List<DeliveryExpressTemplateChargeDO>> chargeMap = convertMultiMap(
+                expressTemplateChargeMapper.selectByTemplateIds(missIds), DeliveryExpressTemplateChargeDO::getTemplateId);
+        Map<Long, List<DeliveryExpressTemplateFreeDO>> freeMap = convertMultiMap(
+                expressTemplateFreeMapper.selectListByTemplateIds(missIds), DeliveryExpressTemplateFreeDO::getTemplateId);
+        missIds.forEach(id -> {
+            DeliveryExpressTemplateDO template = templateMap.get(id);
+            DeliveryExpressTemplateIndex index = template != null
+                    ? DeliveryExpressTemplateIndex.build(template, chargeMap.get(id), freeMap.get(id)) : null;
+            putTemplateIndexCache(new KeyValue<>(tenantId, id), versions.get(id), index);
+            if (index != null) {
+                result.put(id, index);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 写入运费模板的区域索引缓存
+     *
+     * 通过 compute 与 {@link #invalidateLocalExpressTemplateCache(Long)} 互斥：版本号变化时，说明编译期间发生了失效，不写入缓存
+     *
+     * @param key 缓存 key
+     * @param version 查询前的版本号
+     * @param index 区域索引，可以为空
+     */
+    private void putTemplateIndexCache(KeyValue<Long, Long> key, Long version, DeliveryExpressTemplateIndex index) {
+        templateIndexVersions.compute(key, (k, currentVersion) -> {
+            if (Objects.equals(ObjectUtil.defaultIfNull(currentVersion, 0L), version)) {
+                templateIndexCache.put(k, Optional.ofNullable(index));
+            }
+            return currentVersion;
+        });
+    }
+
+    /**
+     * 失效运费模板的缓存，包括本地、以及其它节点
+     *
+     * @param id 运费模板编号
+     */
+    private void invalidateExpressTemplateCache(Long id) {
+        // 事务提交后，再失效缓存。否则，其它请求可能在事务提交前，重新读取到旧的运费模板
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateLocalExpressTemplateCache(id);
+            deliveryExpressTemplateProducer.sendExpressTemplateInvalidateMessage(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                invalidateLocalExpressTemplateCache(id);
+                deliveryExpressTemplateProducer.sendExpressTemplateInvalidateMessage(id);
+            }
+
+        });
     }
 
-    private DeliveryExpressTemplateRespBO.Free findMatchExpressTemplateFree(
-            List<DeliveryExpressTemplateFreeDO> templateFreeList, Integer areaId) {
-        return INSTANCE.convertTemplateFree(findFirst(templateFreeList, item -> item.getAreaIds().contains(areaId)));
+    @Override
+    public void invalidateLocalExpressTemplateCache(Long id) {
+        // 递增版本号的同时失效，保证编译中的旧区域索引不会再写入缓存
+        templateIndexVersions.compute(new KeyValue<>(TenantContextHolder.getTenantId(), id), (key, version) -> {
+            templateIndexCache.invalidate(key);
+            return ObjectUtil.defaultIfNull(version, 0L) + 1;
+        });
     }
 
 }
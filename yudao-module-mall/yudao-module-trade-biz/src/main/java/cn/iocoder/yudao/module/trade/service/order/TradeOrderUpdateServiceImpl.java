@@ -62,9 +62,11 @@ import cn.iocoder.yudao.module.trade.service.message.bo.TradeOrderMessageWhenDel
 import cn.iocoder.yudao.module.trade.service.price.TradePriceService;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateReqBO;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateRespBO;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -73,12 +75,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
 import static cn.iocoder.yudao.module.pay.enums.ErrorCodeConstants.ORDER_UPDATE_PRICE_FAIL_EQUAL;
 import static cn.iocoder.yudao.module.pay.enums.ErrorCodeConstants.ORDER_UPDATE_PRICE_FAIL_PAID;
 import static cn.iocoder.yudao.module.trade.enums.ErrorCodeConstants.*;
+import static cn.iocoder.yudao.module.trade.framework.order.config.TradeOrderConfig.ORDER_CREATE_THREAD_POOL_TASK_EXECUTOR;
 
 /**
  * 交易订单【写】Service 实现类
@@ -90,6 +96,11 @@ import static cn.iocoder.yudao.module.trade.enums.ErrorCodeConstants.*;
 @Slf4j
 public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
 
+    /**
+     * 创建订单各阶段耗时的 Timer 名字
+     */
+    private static final String CREATE_STAGE_TIMER_NAME = "yudao.trade.order.create";
+
     @Resource
     private TradeOrderMapper tradeOrderMapper;
     @Resource
@@ -136,6 +147,9 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
     @Resource
     private TradeOrderProperties tradeOrderProperties;
 
+    @Resource(name = ORDER_CREATE_THREAD_POOL_TASK_EXECUTOR)
+    private ThreadPoolTaskExecutor orderCreateExecutor;
+
     // =================== Order ===================
 
     @Override
@@ -187,36 +201,85 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public TradeOrderDO createOrder(Long userId, String userIp, AppTradeOrderCreateReqVO createReqVO) {
-        // 1. 价格计算
+        // 1. 准备阶段：并行执行只读的查询。此时还未开启事务，不占用数据库连接
+        long startTime = System.nanoTime();
+        // 1.1 收件地址、拼团用户，提交到线程池
+        CompletableFuture<AddressRespDTO> addressFuture = CompletableFuture.supplyAsync(() ->
+                // 用户选择物流配送的时候才需要填写收货地址
+                Objects.equals(createReqVO.getDeliveryType(), DeliveryTypeEnum.EXPRESS.getMode())
+                        ? validateAddress(userId, createReqVO.getAddressId()) : new AddressRespDTO(), orderCreateExecutor);
+        CompletableFuture<MemberUserRespDTO> userFuture = CompletableFuture.supplyAsync(() ->
+                createReqVO.getCombinationActivityId() != null ? memberUserApi.getUser(userId) : null, orderCreateExecutor);
+        // 1.2 价格计算，耗时最长，由当前线程执行
         TradePriceCalculateRespBO calculateRespBO = calculatePrice(userId, createReqVO);
+        AddressRespDTO address = joinFuture(addressFuture);
+        MemberUserRespDTO user = joinFuture(userFuture);
+        recordCreateStage("prepare", startTime);
+
+        // 2. 事务阶段：创建订单，并扣减库存、优惠劵等资源
+        startTime = System.nanoTime();
+        try {
+            return getSelf().createOrder0(userId, userIp, createReqVO, calculateRespBO, address, user);
+        } finally {
+            recordCreateStage("transaction", startTime);
+        }
+    }
 
-        // 2.1 插入 TradeOrderDO 订单
-        TradeOrderDO order = createTradeOrder(userId, userIp, createReqVO, calculateRespBO);
-        // 2.2 插入 TradeOrderItemDO 订单项
+    /**
+     * 创建订单的事务阶段
+     *
+     * 注意，热点的库存扣减放在事务的最后，缩短行锁的持有时间
+     *
+     * @param userId          用户编号
+     * @param userIp          用户 IP
+     * @param createReqVO     创建订单请求
+     * @param calculateRespBO 订单价格计算结果
+     * @param address         收件地址
+     * @param user            用户，仅拼团订单需要
+     * @return 交易订单
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public TradeOrderDO createOrder0(Long userId, String userIp, AppTradeOrderCreateReqVO createReqVO,
+                                     TradePriceCalculateRespBO calculateRespBO, AddressRespDTO address,
+                                     MemberUserRespDTO user) {
+        // 1.1 插入 TradeOrderDO 订单
+        TradeOrderDO order = createTradeOrder(userId, userIp, createReqVO, calculateRespBO, address);
+        // 1.2 插入 TradeOrderItemDO 订单项
         List<TradeOrderItemDO> orderItems = createTradeOrderItems(order, calculateRespBO);
 
-        // 3. 订单创建完后的逻辑
-        afterCreateTradeOrder(userId, createReqVO, order, orderItems, calculateRespBO);
-        // 3.1 拼团的特殊逻辑
+        // 2. 拼团的特殊逻辑。放在扣减资源之前，尽早校验
         // TODO @puhui999：这个逻辑，先抽个小方法；未来要通过设计模式，把这些拼团之类的逻辑，抽象出去
-        // 拼团
         if (Objects.equals(TradeOrderTypeEnum.COMBINATION.getType(), order.getType())) {
-            createCombinationRecord(userId, createReqVO, orderItems, order);
+            createCombinationRecord(userId, createReqVO, orderItems, order, user);
         }
-        // 3.2 秒杀的特殊逻辑
-        if (Objects.equals(TradeOrderTypeEnum.SECKILL.getType(), order.getType())) {
 
-        }
-        // 3.3 砍价的特殊逻辑
+        // 3. 订单创建完后的逻辑
+        afterCreateTradeOrder(userId, createReqVO, order, orderItems, calculateRespBO);
 
         // TODO @LeeYan9: 是可以思考下, 订单的营销优惠记录, 应该记录在哪里, 微信讨论起来!
         return order;
     }
 
-    private void createCombinationRecord(Long userId, AppTradeOrderCreateReqVO createReqVO, List<TradeOrderItemDO> orderItems, TradeOrderDO order) {
-        MemberUserRespDTO user = memberUserApi.getUser(userId);
+    private static <T> T joinFuture(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            // 抛出原始异常，例如说 ServiceException 业务异常
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static void recordCreateStage(String stage, long startTime) {
+        Metrics.timer(CREATE_STAGE_TIMER_NAME, "stage", stage)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    private void createCombinationRecord(Long userId, AppTradeOrderCreateReqVO createReqVO, List<TradeOrderItemDO> orderItems,
+                                         TradeOrderDO order, MemberUserRespDTO user) {
         List<CombinationRecordRespDTO> recordRespDTOS = combinationRecordApi.getRecordListByUserIdAndActivityId(userId, createReqVO.getCombinationActivityId());
         // TODO 拼团一次应该只能选择一种规格的商品
         TradeOrderItemDO orderItemDO = orderItems.get(0);
@@ -249,13 +312,7 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
     }
 
     private TradeOrderDO createTradeOrder(Long userId, String clientIp, AppTradeOrderCreateReqVO createReqVO,
-                                          TradePriceCalculateRespBO calculateRespBO) {
-        // 用户选择物流配送的时候才需要填写收货地址
-        AddressRespDTO address = new AddressRespDTO();
-        if (Objects.equals(createReqVO.getDeliveryType(), DeliveryTypeEnum.EXPRESS.getMode())) {
-            // 用户收件地址的校验
-            address = validateAddress(userId, createReqVO.getAddressId());
-        }
+                                          TradePriceCalculateRespBO calculateRespBO, AddressRespDTO address) {
         TradeOrderDO order = TradeOrderConvert.INSTANCE.convert(userId, clientIp, createReqVO, calculateRespBO, address);
         String no = orderNoRedisDAO.generate(TradeOrderNoRedisDAO.TRADE_ORDER_NO_PREFIX);
         order.setType(validateActivity(createReqVO));
@@ -301,7 +358,8 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
     /**
      * 执行创建完创建完订单后的逻辑
      *
-     * 例如说：优惠劵的扣减、积分的扣减、支付单的创建等等
+     * 例如说：优惠劵的扣减、积分的扣减、支付单的创建等等。
+     * 其中，秒杀、砍价、商品的库存扣减，是并发最高的行锁，所以放在最后执行
      *
      * @param userId          用户编号
      * @param createReqVO     创建订单请求
@@ -311,8 +369,25 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
     private void afterCreateTradeOrder(Long userId, AppTradeOrderCreateReqVO createReqVO,
                                        TradeOrderDO tradeOrderDO, List<TradeOrderItemDO> orderItems,
                                        TradePriceCalculateRespBO calculateRespBO) {
+        // 1. 有使用优惠券时更新 TODO 芋艿：需要前置；
+        if (createReqVO.getCouponId() != null) {
+            couponApi.useCoupon(new CouponUseReqDTO().setId(createReqVO.getCouponId()).setUserId(userId)
+                    .setOrderId(tradeOrderDO.getId()));
+        }
+        // 扣减积分 TODO 芋艿：待实现，需要前置；
+        // 这个是不是应该放到支付成功之后？如果支付后的话，可能积分可以重复使用哈。资源类，都要预扣
+
+        // 2. 删除购物车商品
+        Set<Long> cartIds = convertSet(createReqVO.getItems(), AppTradeOrderSettlementReqVO.Item::getCartId);
+        if (CollUtil.isNotEmpty(cartIds)) {
+            cartService.deleteCart(userId, cartIds);
+        }
+
+        // 3. 生成预支付
+        createPayOrder(tradeOrderDO, orderItems, calculateRespBO);
+
+        // 4.1 如果是秒杀商品：额外扣减秒杀的库存；
         Integer count = getSumValue(orderItems, TradeOrderItemDO::getCount, Integer::sum);
-        // 1）如果是秒杀商品：额外扣减秒杀的库存；
         if (Objects.equals(TradeOrderTypeEnum.SECKILL.getType(), tradeOrderDO.getType())) {
             SeckillActivityUpdateStockReqDTO updateStockReqDTO = new SeckillActivityUpdateStockReqDTO();
             updateStockReqDTO.setActivityId(createReqVO.getSeckillActivityId());
@@ -326,29 +401,11 @@ public class TradeOrderUpdateServiceImpl implements TradeOrderUpdateService {
             }));
             seckillActivityApi.updateSeckillStock(updateStockReqDTO);
         }
-        // 2）如果是砍价活动：额外扣减砍价的库存；
+        // 4.2 如果是砍价活动：额外扣减砍价的库存；
         bargainActivityApi.updateBargainActivityStock(createReqVO.getBargainActivityId(), count);
-        // 扣减积分 TODO 芋艿：待实现，需要前置；
-        // 这个是不是应该放到支付成功之后？如果支付后的话，可能积分可以重复使用哈。资源类，都要预扣
-
-        // 有使用优惠券时更新 TODO 芋艿：需要前置；
-        if (createReqVO.getCouponId() != null) {
-            couponApi.useCoupon(new CouponUseReqDTO().setId(createReqVO.getCouponId()).setUserId(userId)
-                    .setOrderId(tradeOrderDO.getId()));
-        }
-
-        // 下单时扣减商品库存
+        // 4.3 下单时扣减商品库存。价格计算的 SKU 快照，由商品模块在库存变更时失效
         productSkuApi.updateSkuStock(TradeOrderConvert.INSTANCE.convertNegative(orderItems));
 
-        // 删除购物车商品
-        Set<Long> cartIds = convertSet(createReqVO.getItems(), AppTradeOrderSettlementReqVO.Item::getCartId);
-        if (CollUtil.isNotEmpty(cartIds)) {
-            cartService.deleteCart(userId, cartIds);
-        }
-
-        // 生成预支付
-        createPayOrder(tradeOrderDO, orderItems, calculateRespBO);
-
         // 增加订单日志 TODO 芋艿：待实现
     }
 
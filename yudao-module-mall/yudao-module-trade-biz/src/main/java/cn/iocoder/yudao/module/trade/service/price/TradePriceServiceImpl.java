@@ -1,14 +1,14 @@
 package cn.iocoder.yudao.module.trade.service.price;
 
-import cn.iocoder.yudao.module.product.api.sku.ProductSkuApi;
 import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
-import cn.iocoder.yudao.module.product.api.spu.ProductSpuApi;
 import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
 import cn.iocoder.yudao.module.product.enums.spu.ProductSpuStatusEnum;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateReqBO;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateRespBO;
 import cn.iocoder.yudao.module.trade.service.price.calculator.TradePriceCalculator;
 import cn.iocoder.yudao.module.trade.service.price.calculator.TradePriceCalculatorHelper;
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +16,7 @@ import org.springframework.validation.annotation.Validated;
 import javax.annotation.Resource;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
@@ -33,10 +34,13 @@ import static cn.iocoder.yudao.module.trade.enums.ErrorCodeConstants.PRICE_CALCU
 @Slf4j
 public class TradePriceServiceImpl implements TradePriceService {
 
+    /**
+     * 每个价格计算器的耗时指标
+     */
+    private static final String CALCULATOR_TIMER_NAME = "yudao.trade.price.calculator";
+
     @Resource
-    private ProductSkuApi productSkuApi;
-    @Resource
-    private ProductSpuApi productSpuApi;
+    private TradePriceSnapshotService tradePriceSnapshotService;
 
     @Resource
     private List<TradePriceCalculator> priceCalculators;
@@ -52,7 +56,7 @@ public class TradePriceServiceImpl implements TradePriceService {
         // 2.1 计算价格
         TradePriceCalculateRespBO calculateRespBO = TradePriceCalculatorHelper
                 .buildCalculateResp(calculateReqBO, spuList, skuList);
-        priceCalculators.forEach(calculator -> calculator.calculate(calculateReqBO, calculateRespBO));
+        priceCalculators.forEach(calculator -> calculate(calculator, calculateReqBO, calculateRespBO));
         // 2.2  如果最终支付金额小于等于 0，则抛出业务异常
         if (calculateRespBO.getPrice().getPayPrice() <= 0) {
             log.error("[calculatePrice][价格计算不正确，请求 calculateReqDTO({})，结果 priceCalculate({})]",
@@ -62,11 +66,22 @@ public class TradePriceServiceImpl implements TradePriceService {
         return calculateRespBO;
     }
 
+    private void calculate(TradePriceCalculator calculator,
+                           TradePriceCalculateReqBO calculateReqBO, TradePriceCalculateRespBO calculateRespBO) {
+        long startTime = System.nanoTime();
+        try {
+            calculator.calculate(calculateReqBO, calculateRespBO);
+        } finally {
+            Metrics.timer(CALCULATOR_TIMER_NAME, "calculator", calculator.getClass().getSimpleName())
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
     private List<ProductSkuRespDTO> checkSkuList(TradePriceCalculateReqBO reqBO) {
         // 获得商品 SKU 数组
         Map<Long, Integer> skuIdCountMap = convertMap(reqBO.getItems(),
                 TradePriceCalculateReqBO.Item::getSkuId, TradePriceCalculateReqBO.Item::getCount);
-        List<ProductSkuRespDTO> skus = productSkuApi.getSkuList(skuIdCountMap.keySet());
+        List<ProductSkuRespDTO> skus = tradePriceSnapshotService.getSkuList(skuIdCountMap.keySet());
 
         // 校验商品 SKU
         skus.forEach(sku -> {
@@ -83,7 +98,7 @@ public class TradePriceServiceImpl implements TradePriceService {
 
     private List<ProductSpuRespDTO> checkSpuList(List<ProductSkuRespDTO> skuList) {
         // 获得商品 SPU 数组
-        List<ProductSpuRespDTO> spus = productSpuApi.getSpuList(convertSet(skuList, ProductSkuRespDTO::getSpuId));
+        List<ProductSpuRespDTO> spus = tradePriceSnapshotService.getSpuList(convertSet(skuList, ProductSkuRespDTO::getSpuId));
 
         // 校验商品 SPU
         spus.forEach(spu -> {
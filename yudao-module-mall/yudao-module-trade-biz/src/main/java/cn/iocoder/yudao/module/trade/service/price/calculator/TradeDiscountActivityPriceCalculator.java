@@ -2,12 +2,12 @@ package cn.iocoder.yudao.module.trade.service.price.calculator;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.iocoder.yudao.module.promotion.api.discount.DiscountActivityApi;
 import cn.iocoder.yudao.module.promotion.api.discount.dto.DiscountProductRespDTO;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionDiscountTypeEnum;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionTypeEnum;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateReqBO;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateRespBO;
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
@@ -29,12 +29,12 @@ import static cn.iocoder.yudao.module.trade.service.price.calculator.TradePriceC
 public class TradeDiscountActivityPriceCalculator implements TradePriceCalculator {
 
     @Resource
-    private DiscountActivityApi discountActivityApi;
+    private TradePriceSnapshotService tradePriceSnapshotService;
 
     @Override
     public void calculate(TradePriceCalculateReqBO param, TradePriceCalculateRespBO result) {
         // 获得 SKU 对应的限时折扣活动
-        List<DiscountProductRespDTO> discountProducts = discountActivityApi.getMatchDiscountProductList(
+        List<DiscountProductRespDTO> discountProducts = tradePriceSnapshotService.getMatchDiscountProductList(
                 convertSet(result.getItems(), TradePriceCalculateRespBO.OrderItem::getSkuId));
         if (CollUtil.isEmpty(discountProducts)) {
             return;
@@ -0,0 +1,84 @@
+package cn.iocoder.yudao.module.trade.service.price.snapshot;
+
+import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
+import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
+import cn.iocoder.yudao.module.promotion.api.discount.dto.DiscountProductRespDTO;
+import cn.iocoder.yudao.module.promotion.api.reward.dto.RewardActivityMatchRespDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 价格计算的商品、营销快照 Service 接口
+ *
+ * 价格计算（购物车、结算、下单）时，读取的商品 SKU、SPU、限时折扣、满减送等数据，都通过该快照读取：
+ * 1. 按照编号逐个缓存，批量读取时，只查询未命中的编号
+ * 2. 商品、营销变更时，在事务提交后主动失效，并广播到其它节点；营销活动的开始、结束，通过过期时间兜底
+ *
+ * @author 芋道源码
+ */
+public interface TradePriceSnapshotService {
+
+    /**
+     * 获得商品 SKU 数组
+     *
+     * @param ids SKU 编号数组
+     * @return SKU 数组
+     */
+    List<ProductSkuRespDTO> getSkuList(Collection<Long> ids);
+
+    /**
+     * 获得商品 SPU 数组
+     *
+     * @param ids SPU 编号数组
+     * @return SPU 数组
+     */
+    List<ProductSpuRespDTO> getSpuList(Collection<Long> ids);
+
+    /**
+     * 获得 SKU 匹配的限时折扣商品数组
+     *
+     * @param skuIds SKU 编号数组
+     * @return 限时折扣商品数组
+     */
+    List<DiscountProductRespDTO> getMatchDiscountProductList(Collection<Long> skuIds);
+
+    /**
+     * 获得 SPU 匹配的满减送活动数组
+     *
+     * @param spuIds SPU 编号数组
+     * @return 满减送活动数组，其中 spuIds 为活动商品与 spuIds 的交集
+     */
+    List<RewardActivityMatchRespDTO> getMatchRewardActivityList(Collection<Long> spuIds);
+
+    /**
+     * 失效商品 SKU 的快照，并广播到其它节点
+     *
+     * 例如说，下单、取消订单时，SKU 的库存发生变化
+     *
+     * @param skuIds SKU 编号数组
+     */
+    void invalidateSkuSnapshot(Collection<Long> skuIds);
+
+    /**
+     * 失效商品 SPU 的快照，并广播到其它节点
+     *
+     * @param spuIds SPU 编号数组
+     */
+    void invalidateSpuSnapshot(Collection<Long> spuIds);
+
+    /**
+     * 失效当前租户的营销快照（限时折扣、满减送），并广播到其它节点
+     */
+    void invalidatePromotionSnapshot();
+
+    /**
+     * 失效本地的快照
+     *
+     * @param skuIds SKU 编号数组
+     * @param spuIds SPU 编号数组
+     * @param promotion 是否失效营销快照
+     */
+    void invalidateLocalSnapshot(Collection<Long> skuIds, Collection<Long> spuIds, boolean promotion);
+
+}
@@ -0,0 +1,282 @@
+package cn.iocoder.yudao.module.trade.service.price.snapshot;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.common.core.KeyValue;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import cn.iocoder.yudao.module.product.api.sku.ProductSkuApi;
+import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
+import cn.iocoder.yudao.module.product.api.spu.ProductSpuApi;
+import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
+import cn.iocoder.yudao.module.promotion.api.discount.DiscountActivityApi;
+import cn.iocoder.yudao.module.promotion.api.discount.dto.DiscountProductRespDTO;
+import cn.iocoder.yudao.module.promotion.api.reward.RewardActivityApi;
+import cn.iocoder.yudao.module.promotion.api.reward.dto.RewardActivityMatchRespDTO;
+import cn.iocoder.yudao.module.trade.mq.producer.price.TradePriceSnapshotProducer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
+
+/**
+ * 价格计算的商品、营销快照 Service 实现类
+ *
+ * 缓存的 key 为「租户编号 + 数据编号」，避免不同租户之间串数据
+ *
+ * @author 芋道源码
+ */
+@Service
+@Slf4j
+public class TradePriceSnapshotServiceImpl implements TradePriceSnapshotService, MeterBinder {
+
+    /**
+     * 快照的过期时间
+     *
+     * 商品、营销活动的变更会主动失效快照，而营销活动的开始、结束，最多延迟该时间生效
+     */
+    private static final Duration EXPIRE_TIME = Duration.ofSeconds(30L);
+    /**
+     * 每种快照的最大数量
+     */
+    private static final long MAXIMUM_SIZE = 10000L;
+
+    /**
+     * SKU 快照。value 为 Optional 的原因是，不存在的 SKU 也缓存，避免重复查询
+     */
+    private final Cache<KeyValue<Long, Long>, Optional<ProductSkuRespDTO>> skuCache = buildCache();
+    /**
+     * SPU 快照
+     */
+    private final Cache<KeyValue<Long, Long>, Optional<ProductSpuRespDTO>> spuCache = buildCache();
+    /**
+     * SKU 匹配的限时折扣商品快照
+     */
+    private final Cache<KeyValue<Long, Long>, Optional<DiscountProductRespDTO>> discountProductCache = buildCache();
+    /**
+     * SPU 匹配的满减送活动快照
+     */
+    private final Cache<KeyValue<Long, Long>, List<RewardActivityMatchRespDTO>> rewardActivityCache = buildCache();
+
+    @Resource
+    private ProductSkuApi productSkuApi;
+    @Resource
+    private ProductSpuApi productSpuApi;
+    @Resource
+    private DiscountActivityApi discountActivityApi;
+    @Resource
+    private RewardActivityApi rewardActivityApi;
+
+    @Resource
+    private TradePriceSnapshotProducer tradePriceSnapshotProducer;
+
+    private static <K, V> Cache<K, V> buildCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_TIME)
+                .recordStats() // 记录命中率等统计
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, skuCache, "trade.price.snapshot.sku");
+        GuavaCacheMetrics.monitor(registry, spuCache, "trade.price.snapshot.spu");
+        GuavaCacheMetrics.monitor(registry, discountProductCache, "trade.price.snapshot.discount-product");
+        GuavaCacheMetrics.monitor(registry, rewardActivityCache, "trade.price.snapshot.reward-activity");
+    }
+
+    @Override
+    public List<ProductSkuRespDTO> getSkuList(Collection<Long> ids) {
+        return getList(skuCache, ids, productSkuApi::getSkuList, ProductSkuRespDTO::getId);
+    }
+
+    @Override
+    public List<ProductSpuRespDTO> getSpuList(Collection<Long> ids) {
+        return getList(spuCache, ids, productSpuApi::getSpuList, ProductSpuRespDTO::getId);
+    }
+
+    @Override
+    public List<DiscountProductRespDTO> getMatchDiscountProductList(Collection<Long> skuIds) {
+        return getList(discountProductCache, skuIds, discountActivityApi::getMatchDiscountProductList,
+                DiscountProductRespDTO::getSkuId);
+    }
+
+    @Override
+    public List<RewardActivityMatchRespDTO> getMatchRewardActivityList(Collection<Long> spuIds) {
+        if (CollUtil.isEmpty(spuIds)) {
+            return new ArrayList<>();
+        }
+        // 1. 读取快照
+        Long tenantId = TenantContextHolder.getTenantId();
+        Map<Long, List<RewardActivityMatchRespDTO>> spuActivities = new LinkedHashMap<>();
+        Set<Long> missIds = new LinkedHashSet<>();
+        spuIds.forEach(spuId -> {
+            List<RewardActivityMatchRespDTO> activities = rewardActivityCache.getIfPresent(new KeyValue<>(tenantId, spuId));
+            if (activities != null) {
+                spuActivities.put(spuId, activities);
+            } else {
+                missIds.add(spuId);
+            }
+        });
+
+        // 2. 查询未命中的，按照 SPU 拆分后，写入快照
+        if (!missIds.isEmpty()) {
+            List<RewardActivityMatchRespDTO> activities = CollUtil.emptyIfNull(
+                    rewardActivityApi.getMatchRewardActivityList(missIds));
+            missIds.forEach(spuId -> {
+                List<RewardActivityMatchRespDTO> matchActivities = convertList(activities, activity -> activity,
+                        activity -> CollUtil.contains(activity.getSpuIds(), spuId));
+                rewardActivityCache.put(new KeyValue<>(tenantId, spuId), matchActivities);
+                spuActivities.put(spuId, matchActivities);
+            });
+        }
+
+        // 3. 合并：同一个活动，合并匹配的 SPU。注意，需要复制一份，避免修改快照
+        Map<Long, RewardActivityMatchRespDTO> result = new LinkedHashMap<>();
+        spuActivities.forEach((spuId, activities) -> activities.forEach(activity ->
+                result.computeIfAbsent(activity.getId(), key -> BeanUtil.copyProperties(activity,
+                        RewardActivityMatchRespDTO.class).setSpuIds(new ArrayList<>())).getSpuIds().add(spuId)));
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * 批量读取快照，只查询未命中的编号
+     *
+     * @param cache 快照
+     * @param ids 编号数组
+     * @param loader 批量查询的方法
+     * @param idFunction 获得编号的方法
+     * @return 数据数组，不存在的编号会被忽略
+     */
+    private static <T> List<T> getList(Cache<KeyValue<Long, Long>, Optional<T>> cache, Collection<Long> ids,
+                                       Function<Collection<Long>, List<T>> loader, Function<T, Long> idFunction) {
+        if (CollUtil.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+        // 1. 读取快照
+        Long tenantId = TenantContextHolder.getTenantId();
+        List<T> result = new ArrayList<>(ids.size());
+        Set<Long> missIds = new LinkedHashSet<>();
+        ids.forEach(id -> {
+            Optional<T> value = cache.getIfPresent(new KeyValue<>(tenantId, id));
+            if (value != null) {
+                value.ifPresent(result::add);
+            } else {
+                missIds.add(id);
+            }
+        });
+        if (missIds.isEmpty()) {
+            return result;
+        }
+
+        // 2. 查询未命中的，并写入快照
+        Map<Long, T> loadMap = convertMap(CollUtil.emptyIfNull(loader.apply(missIds)), idFunction);
+        missIds.forEach(id -> {
+            T value = loadMap.get(id);
+            cache.put(new KeyValue<>(tenantId, id), Optional.ofNullable(value));
+            if (value != null) {
+                result.add(value);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void invalidateSkuSnapshot(Collection<Long> skuIds) {
+        if (CollUtil.isEmpty(skuIds)) {
+            return;
+        }
+        invalidateSnapshot(new HashSet<>(skuIds), null, false);
+    }
+
+    @Override
+    public void invalidateSpuSnapshot(Collection<Long> spuIds) {
+        if (CollUtil.isEmpty(spuIds)) {
+            return;
+        }
+        invalidateSnapshot(null, new HashSet<>(spuIds), false);
+    }
+
+    @Override
+    public void invalidatePromotionSnapshot() {
+        invalidateSnapshot(null, null, true);
+    }
+
+    private void invalidateSnapshot(Set<Long> skuIds, Set<Long> spuIds, boolean promotion) {
+        // 事务提交后，再失效快照。否则，其它请求可能在事务提交前，重新读取到旧的数据
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateLocalSnapshot(skuIds, spuIds, promotion);
+            tradePriceSnapshotProducer.sendSnapshotInvalidateMessage(skuIds, spuIds, promotion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                invalidateLocalSnapshot(skuIds, spuIds, promotion);
+                tradePriceSnapshotProducer.sendSnapshotInvalidateMessage(skuIds, spuIds, promotion);
+            }
+
+        });
+    }
+
+    @Override
+    public void invalidateLocalSnapshot(Collection<Long> skuIds, Collection<Long> spuIds, boolean promotion) {
+        Long tenantId = TenantContextHolder.getTenantId();
+        invalidateLocal(skuCache, tenantId, skuIds);
+        invalidateLocal(spuCache, tenantId, spuIds);
+        if (promotion) {
+            invalidateLocal(discountProductCache, tenantId);
+            invalidateLocal(rewardActivityCache, tenantId);
+        }
+    }
+
+    /**
+     * 按照编号，失效快照
+     *
+     * 租户编号为空时（例如说，忽略租户的定时任务），由于编号是全局唯一的，所以遍历失效所有租户下该编号的快照
+     *
+     * @param cache 快照
+     * @param tenantId 租户编号
+     * @param ids 编号数组
+     */
+    private static void invalidateLocal(Cache<KeyValue<Long, Long>, ?> cache, Long tenantId, Collection<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return;
+        }
+        if (tenantId != null) {
+            cache.invalidateAll(convertList(ids, id -> new KeyValue<>(tenantId, id)));
+            return;
+        }
+        Set<Long> idSet = new HashSet<>(ids);
+        cache.asMap().keySet().removeIf(key -> idSet.contains(key.getValue()));
+    }
+
+    /**
+     * 失效租户的所有快照。租户编号为空时，失效所有租户的快照
+     *
+     * @param cache 快照
+     * @param tenantId 租户编号
+     */
+    private static void invalidateLocal(Cache<KeyValue<Long, Long>, ?> cache, Long tenantId) {
+        if (tenantId == null) {
+            cache.invalidateAll();
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> tenantId.equals(key.getKey()));
+    }
+
+}
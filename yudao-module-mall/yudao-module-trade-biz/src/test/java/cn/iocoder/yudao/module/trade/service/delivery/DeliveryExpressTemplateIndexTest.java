@@ -0,0 +1,55 @@
+package cn.iocoder.yudao.module.trade.service.delivery;
+
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateChargeDO;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateDO;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateFreeDO;
+import cn.iocoder.yudao.module.trade.enums.delivery.DeliveryExpressChargeModeEnum;
+import cn.iocoder.yudao.module.trade.service.delivery.bo.DeliveryExpressTemplateRespBO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link DeliveryExpressTemplateIndex} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class DeliveryExpressTemplateIndexTest {
+
+    @Test
+    public void testMatch() {
+        // 准备参数：中国 1000；上海 2000；北京、北京市朝阳区 3000、4000（朝阳区重复配置，以第一个为准）
+        DeliveryExpressTemplateDO template = new DeliveryExpressTemplateDO().setId(1L)
+                .setChargeMode(DeliveryExpressChargeModeEnum.PIECE.getType());
+        DeliveryExpressTemplateIndex index = DeliveryExpressTemplateIndex.build(template, asList(
+                new DeliveryExpressTemplateChargeDO().setAreaIds(Collections.singletonList(1)).setStartPrice(1000),
+                new DeliveryExpressTemplateChargeDO().setAreaIds(Collections.singletonList(310000)).setStartPrice(2000),
+                new DeliveryExpressTemplateChargeDO().setAreaIds(asList(110000, 110105)).setStartPrice(3000),
+                new DeliveryExpressTemplateChargeDO().setAreaIds(Collections.singletonList(110105)).setStartPrice(4000)
+        ), Collections.singletonList(
+                new DeliveryExpressTemplateFreeDO().setAreaIds(Collections.singletonList(310000)).setFreeCount(10)
+        ));
+
+        // 断言：直接配置的区域
+        assertEquals(2000, index.match(310000).getCharge().getStartPrice());
+        assertEquals(3000, index.match(110105).getCharge().getStartPrice());
+        assertEquals(1000, index.match(1).getCharge().getStartPrice());
+        // 断言：只匹配直接配置的区域，不匹配后代区域
+        assertNull(index.match(310106).getCharge()); // 上海 静安区
+        assertNull(index.match(110101).getCharge()); // 北京 东城区
+        assertNull(index.match(440305).getCharge()); // 广东 深圳 南山区
+        // 断言：包邮规则
+        assertEquals(10, index.match(310000).getFree().getFreeCount());
+        assertNull(index.match(310106).getFree());
+        assertNull(index.match(110105).getFree());
+        // 断言：未匹配的区域
+        DeliveryExpressTemplateRespBO bo = index.match(2); // 蒙古
+        assertEquals(DeliveryExpressChargeModeEnum.PIECE.getType(), bo.getChargeMode());
+        assertNull(bo.getCharge());
+        assertNull(bo.getFree());
+    }
+
+}
@@ -0,0 +1,102 @@
+package cn.iocoder.yudao.module.trade.service.delivery;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateChargeDO;
+import cn.iocoder.yudao.module.trade.dal.dataobject.delivery.DeliveryExpressTemplateDO;
+import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateChargeMapper;
+import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateFreeMapper;
+import cn.iocoder.yudao.module.trade.dal.mysql.delivery.DeliveryExpressTemplateMapper;
+import cn.iocoder.yudao.module.trade.enums.delivery.DeliveryExpressChargeModeEnum;
+import cn.iocoder.yudao.module.trade.mq.producer.delivery.DeliveryExpressTemplateProducer;
+import cn.iocoder.yudao.module.trade.service.delivery.bo.DeliveryExpressTemplateRespBO;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static cn.iocoder.yudao.framework.common.util.collection.SetUtils.asSet;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link DeliveryExpressTemplateServiceImpl} 的单元测试类
+ *
+ * @author 芋道源码
+ */
+public class DeliveryExpressTemplateServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private DeliveryExpressTemplateServiceImpl deliveryExpressTemplateService;
+
+    @Mock
+    private DeliveryExpressTemplateMapper expressTemplateMapper;
+    @Mock
+    private DeliveryExpressTemplateChargeMapper expressTemplateChargeMapper;
+    @Mock
+    private DeliveryExpressTemplateFreeMapper expressTemplateFreeMapper;
+    @Mock
+    private DeliveryExpressTemplateProducer deliveryExpressTemplateProducer;
+
+    @Test
+    public void testGetExpressTemplateMapByIdsAndArea_cache() {
+        // mock 方法：运费模板 1 存在，运费模板 2 不存在
+        when(expressTemplateMapper.selectBatchIds(eq(asSet(1L, 2L)))).thenReturn(singletonList(buildTemplate(1L)));
+        when(expressTemplateChargeMapper.selectByTemplateIds(eq(asSet(1L, 2L)))).thenReturn(singletonList(
+                new DeliveryExpressTemplateChargeDO().setTemplateId(1L).setAreaIds(singletonList(310000)).setStartPrice(1000)));
+
+        // 调用：第一次，查询并编译
+        Map<Long, DeliveryExpressTemplateRespBO> result = deliveryExpressTemplateService
+                .getExpressTemplateMapByIdsAndArea(asList(1L, 2L), 310000);
+        assertEquals(1, result.size());
+        assertEquals(1000, result.get(1L).getCharge().getStartPrice());
+        // 调用：第二次，命中缓存；不存在的运费模板 2 也不会重复查询
+        result = deliveryExpressTemplateService.getExpressTemplateMapByIdsAndArea(asList(1L, 2L), 110000);
+        assertEquals(1, result.size());
+        assertNull(result.get(1L).getCharge());
+        verify(expressTemplateMapper, times(1)).selectBatchIds(any());
+    }
+
+    @Test
+    public void testDeleteDeliveryExpressTemplate_invalidate() {
+        // mock 方法
+        when(expressTemplateMapper.selectBatchIds(eq(asSet(1L)))).thenReturn(singletonList(buildTemplate(1L)));
+        when(expressTemplateMapper.selectById(eq(1L))).thenReturn(buildTemplate(1L));
+        deliveryExpressTemplateService.getExpressTemplateMapByIdsAndArea(singletonList(1L), 310000);
+
+        // 调用
+        deliveryExpressTemplateService.deleteDeliveryExpressTemplate(1L);
+        // 断言：失效本地缓存，重新查询；并广播到其它节点
+        deliveryExpressTemplateService.getExpressTemplateMapByIdsAndArea(singletonList(1L), 310000);
+        verify(expressTemplateMapper, times(2)).selectBatchIds(eq(asSet(1L)));
+        verify(deliveryExpressTemplateProducer).sendExpressTemplateInvalidateMessage(eq(1L));
+    }
+
+    @Test
+    public void testGetExpressTemplateMapByIdsAndArea_invalidateWhileLoading() {
+        // mock 方法：查询后、写入缓存前，运费模板被修改，收到失效消息
+        when(expressTemplateMapper.selectBatchIds(eq(asSet(1L)))).thenAnswer(invocation -> {
+            deliveryExpressTemplateService.invalidateLocalExpressTemplateCache(1L);
+            return singletonList(buildTemplate(1L));
+        });
+
+        // 调用：本次查询到的，是失效前的运费模板
+        Map<Long, DeliveryExpressTemplateRespBO> result = deliveryExpressTemplateService
+                .getExpressTemplateMapByIdsAndArea(singletonList(1L), 310000);
+        assertEquals(1, result.size());
+        // 断言：旧的区域索引没有写入缓存，再次调用时重新查询
+        deliveryExpressTemplateService.getExpressTemplateMapByIdsAndArea(singletonList(1L), 310000);
+        verify(expressTemplateMapper, times(2)).selectBatchIds(eq(asSet(1L)));
+        // 断言：没有再失效时，正常写入缓存
+        deliveryExpressTemplateService.getExpressTemplateMapByIdsAndArea(singletonList(1L), 310000);
+        verify(expressTemplateMapper, times(2)).selectBatchIds(eq(asSet(1L)));
+    }
+
+    private static DeliveryExpressTemplateDO buildTemplate(Long id) {
+        return new DeliveryExpressTemplateDO().setId(id).setChargeMode(DeliveryExpressChargeModeEnum.PIECE.getType());
+    }
+
+}
@@ -2,15 +2,14 @@ package cn.iocoder.yudao.module.trade.service.price;
 
 import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
 import cn.iocoder.yudao.module.product.api.property.dto.ProductPropertyValueDetailRespDTO;
-import cn.iocoder.yudao.module.product.api.sku.ProductSkuApi;
 import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
-import cn.iocoder.yudao.module.product.api.spu.ProductSpuApi;
 import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
 import cn.iocoder.yudao.module.product.enums.spu.ProductSpuStatusEnum;
 import cn.iocoder.yudao.module.trade.enums.order.TradeOrderTypeEnum;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateReqBO;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateRespBO;
 import cn.iocoder.yudao.module.trade.service.price.calculator.TradePriceCalculator;
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -35,9 +34,7 @@ public class TradePriceServiceImplTest extends BaseMockitoUnitTest {
     private TradePriceServiceImpl tradePriceService;
 
     @Mock
-    private ProductSkuApi productSkuApi;
-    @Mock
-    private ProductSpuApi productSpuApi;
+    private TradePriceSnapshotService tradePriceSnapshotService;
     @Mock
     private List<TradePriceCalculator> priceCalculators;
 
@@ -64,8 +61,8 @@ public class TradePriceServiceImplTest extends BaseMockitoUnitTest {
                         .setProperties(singletonList(new ProductPropertyValueDetailRespDTO().setPropertyId(1L).setPropertyName("颜色")
                                 .setValueId(4L).setValueName("黑色")))
         );
-        when(productSkuApi.getSkuList(Mockito.eq(asSet(100L, 200L, 300L)))).thenReturn(skuList);
-        when(productSpuApi.getSpuList(Mockito.eq(asSet(1001L))))
+        when(tradePriceSnapshotService.getSkuList(Mockito.eq(asSet(100L, 200L, 300L)))).thenReturn(skuList);
+        when(tradePriceSnapshotService.getSpuList(Mockito.eq(asSet(1001L))))
                 .thenReturn(singletonList(new ProductSpuRespDTO().setId(1001L).setName("小菜").setCategoryId(666L)
                         .setStatus(ProductSpuStatusEnum.ENABLE.getStatus())));
 
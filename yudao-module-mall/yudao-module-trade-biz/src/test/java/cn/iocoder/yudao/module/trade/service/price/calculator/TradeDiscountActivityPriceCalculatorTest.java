@@ -1,12 +1,12 @@
 package cn.iocoder.yudao.module.trade.service.price.calculator;
 
 import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
-import cn.iocoder.yudao.module.promotion.api.discount.DiscountActivityApi;
 import cn.iocoder.yudao.module.promotion.api.discount.dto.DiscountProductRespDTO;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionDiscountTypeEnum;
 import cn.iocoder.yudao.module.promotion.enums.common.PromotionTypeEnum;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateReqBO;
 import cn.iocoder.yudao.module.trade.service.price.bo.TradePriceCalculateRespBO;
+import cn.iocoder.yudao.module.trade.service.price.snapshot.TradePriceSnapshotService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -31,7 +31,7 @@ public class TradeDiscountActivityPriceCalculatorTest extends BaseMockitoUnitTes
     private TradeDiscountActivityPriceCalculator tradeDiscountActivityPriceCalculator;
 
     @Mock
-    private DiscountActivityApi discountActivityApi;
+    private TradePriceSnapshotService tradePriceSnapshotService;
 
     @Test
     public void testCalculate() {
@@ -55,7 +55,7 @@ public class TradeDiscountActivityPriceCalculatorTest extends BaseMockitoUnitTes
         TradePriceCalculatorHelper.recountAllPrice(result);
 
         // mock 方法（限时折扣活动）
-        when(discountActivityApi.getMatchDiscountProductList(eq(asSet(10L, 20L)))).thenReturn(asList(
+        when(tradePriceSnapshotService.getMatchDiscountProductList(eq(asSet(10L, 20L)))).thenReturn(asList(
                 randomPojo(DiscountProductRespDTO.class, o -> o.setActivityId(1000L)
                         .setActivityName("活动 1000 号").setSkuId(10L)
                         .setDiscountType(PromotionDiscountTypeEnum.PRICE.getType()).setDiscountPrice(40)),
@@ -0,0 +1,142 @@
+package cn.iocoder.yudao.module.trade.service.price.snapshot;
+
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.product.api.sku.ProductSkuApi;
+import cn.iocoder.yudao.module.product.api.sku.dto.ProductSkuRespDTO;
+import cn.iocoder.yudao.module.product.api.spu.ProductSpuApi;
+import cn.iocoder.yudao.module.product.api.spu.dto.ProductSpuRespDTO;
+import cn.iocoder.yudao.module.promotion.api.discount.DiscountActivityApi;
+import cn.iocoder.yudao.module.promotion.api.reward.RewardActivityApi;
+import cn.iocoder.yudao.module.promotion.api.reward.dto.RewardActivityMatchRespDTO;
+import cn.iocoder.yudao.module.trade.mq.producer.price.TradePriceSnapshotProducer;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static cn.iocoder.yudao.framework.common.util.collection.SetUtils.asSet;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TradePriceSnapshotServiceImpl} 的单元测试类
+ *
+ * @author 芋道源码
+ */
+public class TradePriceSnapshotServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private TradePriceSnapshotServiceImpl tradePriceSnapshotService;
+
+    @Mock
+    private ProductSkuApi productSkuApi;
+    @Mock
+    private ProductSpuApi productSpuApi;
+    @Mock
+    private DiscountActivityApi discountActivityApi;
+    @Mock
+    private RewardActivityApi rewardActivityApi;
+    @Mock
+    private TradePriceSnapshotProducer tradePriceSnapshotProducer;
+
+    @Test
+    public void testGetSkuList() {
+        // mock 方法
+        when(productSkuApi.getSkuList(eq(asSet(1L, 2L)))).thenReturn(singletonList(new ProductSkuRespDTO().setId(1L)));
+        when(productSkuApi.getSkuList(eq(asSet(3L)))).thenReturn(singletonList(new ProductSkuRespDTO().setId(3L)));
+
+        // 调用：第一次，查询所有
+        List<ProductSkuRespDTO> skus = tradePriceSnapshotService.getSkuList(asList(1L, 2L));
+        assertEquals(1, skus.size());
+        assertEquals(1L, skus.get(0).getId());
+        // 调用：第二次，只查询未命中的；不存在的 2L 也不会重复查询
+        skus = tradePriceSnapshotService.getSkuList(asList(1L, 2L, 3L));
+        assertEquals(2, skus.size());
+        verify(productSkuApi, times(1)).getSkuList(eq(asSet(1L, 2L)));
+        verify(productSkuApi, times(1)).getSkuList(eq(asSet(3L)));
+    }
+
+    @Test
+    public void testInvalidateSkuSnapshot() {
+        // mock 方法
+        when(productSkuApi.getSkuList(eq(asSet(1L)))).thenReturn(singletonList(new ProductSkuRespDTO().setId(1L)));
+        tradePriceSnapshotService.getSkuList(singletonList(1L));
+
+        // 调用
+        tradePriceSnapshotService.invalidateSkuSnapshot(singletonList(1L));
+        // 断言：重新查询，并广播
+        tradePriceSnapshotService.getSkuList(singletonList(1L));
+        verify(productSkuApi, times(2)).getSkuList(eq(asSet(1L)));
+        verify(tradePriceSnapshotProducer).sendSnapshotInvalidateMessage(eq(asSet(1L)), isNull(), eq(false));
+    }
+
+    @Test
+    public void testInvalidateSpuSnapshot() {
+        // mock 方法
+        when(productSpuApi.getSpuList(eq(asSet(10L)))).thenReturn(singletonList(new ProductSpuRespDTO().setId(10L)));
+        tradePriceSnapshotService.getSpuList(singletonList(10L));
+
+        // 调用
+        tradePriceSnapshotService.invalidateSpuSnapshot(singletonList(10L));
+        // 断言：重新查询，并广播
+        tradePriceSnapshotService.getSpuList(singletonList(10L));
+        verify(productSpuApi, times(2)).getSpuList(eq(asSet(10L)));
+        verify(tradePriceSnapshotProducer).sendSnapshotInvalidateMessage(isNull(), eq(asSet(10L)), eq(false));
+    }
+
+    @Test
+    public void testInvalidatePromotionSnapshot() {
+        // mock 方法：租户 1、租户 2，都读取过满减送快照
+        when(rewardActivityApi.getMatchRewardActivityList(eq(asSet(10L)))).thenReturn(emptyList());
+        TenantUtils.execute(1L, () -> tradePriceSnapshotService.getMatchRewardActivityList(singletonList(10L)));
+        TenantUtils.execute(2L, () -> tradePriceSnapshotService.getMatchRewardActivityList(singletonList(10L)));
+
+        // 调用：失效租户 1 的营销快照
+        TenantUtils.execute(1L, () -> tradePriceSnapshotService.invalidatePromotionSnapshot());
+        // 断言：只有租户 1 重新查询
+        TenantUtils.execute(1L, () -> tradePriceSnapshotService.getMatchRewardActivityList(singletonList(10L)));
+        TenantUtils.execute(2L, () -> tradePriceSnapshotService.getMatchRewardActivityList(singletonList(10L)));
+        verify(rewardActivityApi, times(3)).getMatchRewardActivityList(eq(asSet(10L)));
+        verify(tradePriceSnapshotProducer).sendSnapshotInvalidateMessage(isNull(), isNull(), eq(true));
+    }
+
+    @Test
+    public void testInvalidateLocalSnapshot_ignoreTenant() {
+        // mock 方法：租户 1 读取过 SKU 快照
+        when(productSkuApi.getSkuList(eq(asSet(1L)))).thenReturn(singletonList(new ProductSkuRespDTO().setId(1L)));
+        TenantUtils.execute(1L, () -> tradePriceSnapshotService.getSkuList(singletonList(1L)));
+
+        // 调用：没有租户编号，例如说忽略租户的定时任务
+        tradePriceSnapshotService.invalidateLocalSnapshot(singletonList(1L), null, false);
+        // 断言：按照编号失效，租户 1 重新查询
+        TenantUtils.execute(1L, () -> tradePriceSnapshotService.getSkuList(singletonList(1L)));
+        verify(productSkuApi, times(2)).getSkuList(eq(asSet(1L)));
+    }
+
+    @Test
+    public void testGetMatchRewardActivityList() {
+        // mock 方法
+        when(rewardActivityApi.getMatchRewardActivityList(eq(asSet(10L, 20L)))).thenReturn(singletonList(
+                new RewardActivityMatchRespDTO().setId(100L).setSpuIds(asList(10L, 20L))));
+        when(rewardActivityApi.getMatchRewardActivityList(eq(asSet(30L)))).thenReturn(singletonList(
+                new RewardActivityMatchRespDTO().setId(100L).setSpuIds(singletonList(30L))));
+        tradePriceSnapshotService.getMatchRewardActivityList(asList(10L, 20L));
+
+        // 调用
+        List<RewardActivityMatchRespDTO> activities = tradePriceSnapshotService.getMatchRewardActivityList(
+                asList(10L, 30L));
+        // 断言：同一个活动，合并匹配的 SPU
+        assertEquals(1, activities.size());
+        assertEquals(100L, activities.get(0).getId());
+        assertEquals(asList(10L, 30L), activities.get(0).getSpuIds());
+        verify(rewardActivityApi, times(1)).getMatchRewardActivityList(eq(asSet(10L, 20L)));
+    }
+
+}
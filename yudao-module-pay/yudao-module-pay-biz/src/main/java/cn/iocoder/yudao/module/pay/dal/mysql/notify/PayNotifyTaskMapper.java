@@ -3,10 +3,10 @@ package cn.iocoder.yudao.module.pay.dal.mysql.notify;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.QueryWrapperX;
 import cn.iocoder.yudao.module.pay.controller.admin.notify.vo.PayNotifyTaskPageReqVO;
 import cn.iocoder.yudao.module.pay.dal.dataobject.notify.PayNotifyTaskDO;
 import cn.iocoder.yudao.module.pay.enums.notify.PayNotifyStatusEnum;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import java.time.LocalDateTime;
@@ -16,18 +16,23 @@ import java.util.List;
 public interface PayNotifyTaskMapper extends BaseMapperX<PayNotifyTaskDO> {
 
     /**
-     * 获得需要通知的 PayNotifyTaskDO 记录。需要满足如下条件：
+     * 分页获得需要通知的 PayNotifyTaskDO 记录。需要满足如下条件：
      *
      * 1. status 非成功
      * 2. nextNotifyTime 小于当前时间
+     * 3. id 大于 minId，按照 id 升序，用于游标分页
      *
+     * @param minId 最小编号（不包含）
+     * @param size 数量
      * @return PayTransactionNotifyTaskDO 数组
      */
-    default List<PayNotifyTaskDO> selectListByNotify() {
-        return selectList(new LambdaQueryWrapper<PayNotifyTaskDO>()
-                .in(PayNotifyTaskDO::getStatus, PayNotifyStatusEnum.WAITING.getStatus(),
+    default List<PayNotifyTaskDO> selectListByNotify(Long minId, Integer size) {
+        return selectList(new QueryWrapperX<PayNotifyTaskDO>() // 由于要使用 limitN 语句，所以只能用 QueryWrapperX
+                .in("status", PayNotifyStatusEnum.WAITING.getStatus(),
                         PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus(), PayNotifyStatusEnum.REQUEST_FAILURE.getStatus())
-                .le(PayNotifyTaskDO::getNextNotifyTime, LocalDateTime.now()));
+                .le("next_notify_time", LocalDateTime.now())
+                .gt("id", minId)
+                .orderByAsc("id").limitN(size));
     }
 
     default PageResult<PayNotifyTaskDO> selectPage(PayNotifyTaskPageReqVO reqVO) {
@@ -16,7 +16,7 @@ import java.util.List;
 public interface PayOrderMapper extends BaseMapperX<PayOrderDO> {
 
     default PageResult<PayOrderDO> selectPage(PayOrderPageReqVO reqVO) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<PayOrderDO>()
+        return selectPageByLastId(reqVO, new LambdaQueryWrapperX<PayOrderDO>()
                 .eqIfPresent(PayOrderDO::getAppId, reqVO.getAppId())
                 .eqIfPresent(PayOrderDO::getChannelCode, reqVO.getChannelCode())
                 .likeIfPresent(PayOrderDO::getMerchantOrderId, reqVO.getMerchantOrderId())
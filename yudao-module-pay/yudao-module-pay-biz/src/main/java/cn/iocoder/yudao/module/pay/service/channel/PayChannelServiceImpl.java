@@ -44,7 +44,7 @@ public class PayChannelServiceImpl implements PayChannelService {
      * {@link PayClient} 缓存，通过它异步清空 smsClientFactory
      */
     @Getter
-    private final LoadingCache<Long, PayClient> clientCache = buildAsyncReloadingCache(Duration.ofSeconds(10L),
+    private final LoadingCache<Long, PayClient> clientCache = buildAsyncReloadingCache("pay.channel.client", Duration.ofSeconds(10L),
             new CacheLoader<Long, PayClient>() {
 
                 @Override
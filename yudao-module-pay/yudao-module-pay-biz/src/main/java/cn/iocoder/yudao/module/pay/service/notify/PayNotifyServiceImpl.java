@@ -3,6 +3,7 @@ package cn.iocoder.yudao.module.pay.service.notify;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.RandomUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpUtil;
@@ -23,9 +24,11 @@ import cn.iocoder.yudao.module.pay.dal.mysql.notify.PayNotifyTaskMapper;
 import cn.iocoder.yudao.module.pay.dal.redis.notify.PayNotifyLockRedisDAO;
 import cn.iocoder.yudao.module.pay.enums.notify.PayNotifyStatusEnum;
 import cn.iocoder.yudao.module.pay.enums.notify.PayNotifyTypeEnum;
+import cn.iocoder.yudao.module.pay.framework.job.config.PayJobConfiguration;
 import cn.iocoder.yudao.module.pay.service.order.PayOrderService;
 import cn.iocoder.yudao.module.pay.service.refund.PayRefundService;
 import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -38,12 +41,11 @@ import javax.annotation.Resource;
 import javax.validation.Valid;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils.addTime;
 import static cn.iocoder.yudao.module.pay.framework.job.config.PayJobConfiguration.NOTIFY_THREAD_POOL_TASK_EXECUTOR;
@@ -67,6 +69,39 @@ public class PayNotifyServiceImpl implements PayNotifyService {
      */
     public static final long NOTIFY_TIMEOUT_MILLIS = 120 * DateUtils.SECOND_MILLIS;
 
+    /**
+     * 分页获得通知任务的数量
+     */
+    private static final int NOTIFY_PAGE_SIZE = 100;
+    /**
+     * 最大同时通知的任务数
+     *
+     * 需要小于 {@link PayJobConfiguration#notifyThreadPoolTaskExecutor()} 的最大线程数 + 队列大小，避免触发拒绝策略
+     */
+    private static final int NOTIFY_MAX_CONCURRENCY = 100;
+    /**
+     * 每个应用，最大同时通知的任务数
+     */
+    private static final int NOTIFY_APP_CONCURRENCY = 4;
+    /**
+     * 下次通知间隔的抖动比例
+     */
+    private static final double NOTIFY_DELAY_JITTER = 0.1;
+
+    /**
+     * 回调耗时的 Timer 名字
+     */
+    private static final String NOTIFY_TIMER_NAME = "yudao.pay.notify";
+
+    /**
+     * 正在通知的任务编号
+     */
+    private final Set<Long> notifyingTaskIds = ConcurrentHashMap.newKeySet();
+    /**
+     * 每个应用正在通知的任务数，key 为应用编号
+     */
+    private final Map<Long, AtomicInteger> appNotifyingCounts = new ConcurrentHashMap<>();
+
     @Resource
     @Lazy // 循环依赖，避免报错
     private PayOrderService orderService;
@@ -116,43 +151,67 @@ public class PayNotifyServiceImpl implements PayNotifyService {
 
     @Override
     public int executeNotify() throws InterruptedException {
-        // 获得需要通知的任务
-        List<PayNotifyTaskDO> tasks = notifyTaskMapper.selectListByNotify();
-        if (CollUtil.isEmpty(tasks)) {
-            return 0;
-        }
-
-        // 遍历，逐个通知
-        CountDownLatch latch = new CountDownLatch(tasks.size());
-        tasks.forEach(task -> threadPoolTaskExecutor.execute(() -> {
-            try {
-                executeNotify(task);
-            } finally {
-                latch.countDown();
+        // 分页获得需要通知的任务，提交到线程池后立即返回，不阻塞定时任务的线程
+        int count = 0;
+        Long minId = 0L;
+        while (notifyingTaskIds.size() < NOTIFY_MAX_CONCURRENCY) {
+            List<PayNotifyTaskDO> tasks = notifyTaskMapper.selectListByNotify(minId, NOTIFY_PAGE_SIZE);
+            if (CollUtil.isEmpty(tasks)) {
+                break;
+            }
+            for (PayNotifyTaskDO task : tasks) {
+                if (notifyingTaskIds.size() >= NOTIFY_MAX_CONCURRENCY) {
+                    break;
+                }
+                if (submitNotify(task)) {
+                    count++;
+                }
+            }
+            if (tasks.size() < NOTIFY_PAGE_SIZE) {
+                break;
             }
-        }));
-        // 等待完成
-        awaitExecuteNotify(latch);
-        // 返回执行完成的任务数（成功 + 失败)
-        return tasks.size();
+            minId = tasks.get(tasks.size() - 1).getId();
+        }
+        // 返回提交的任务数
+        return count;
     }
 
     /**
-     * 等待全部支付通知的完成
-     * 每 1 秒会打印一次剩余任务数量
+     * 提交单个支付通知到线程池
+     *
+     * 以下情况，不进行提交，等待下次定时任务：
+     * 1. 任务正在通知中，例如说上次定时任务提交的还未执行完
+     * 2. 任务所属的应用，正在通知的任务数已达到 {@link #NOTIFY_APP_CONCURRENCY}。避免某个应用的回调接口缓慢，占满线程池
      *
-     * @param latch Latch
-     * @throws InterruptedException 如果被打断
+     * @param task 通知任务
+     * @return 是否提交
      */
-    private void awaitExecuteNotify(CountDownLatch latch) throws InterruptedException {
-        long size = latch.getCount();
-        for (int i = 0; i < NOTIFY_TIMEOUT; i++) {
-            if (latch.await(1L, TimeUnit.SECONDS)) {
-                return;
-            }
-            log.info("[awaitExecuteNotify][任务处理中， 总任务数({}) 剩余任务数({})]", size, latch.getCount());
+    private boolean submitNotify(PayNotifyTaskDO task) {
+        if (!notifyingTaskIds.add(task.getId())) {
+            return false;
+        }
+        AtomicInteger appCount = appNotifyingCounts.computeIfAbsent(task.getAppId(), key -> new AtomicInteger());
+        if (appCount.incrementAndGet() > NOTIFY_APP_CONCURRENCY) {
+            appCount.decrementAndGet();
+            notifyingTaskIds.remove(task.getId());
+            return false;
+        }
+        try {
+            threadPoolTaskExecutor.execute(() -> {
+                try {
+                    executeNotify(task);
+                } finally {
+                    appCount.decrementAndGet();
+                    notifyingTaskIds.remove(task.getId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            appCount.decrementAndGet();
+            notifyingTaskIds.remove(task.getId());
+            log.warn("[submitNotify][task({}) 线程池已满，等待下次通知]", task.getId());
+            return false;
         }
-        log.error("[awaitExecuteNotify][任务未处理完，总任务数({}) 剩余任务数({})]", size, latch.getCount());
     }
 
     /**
@@ -183,11 +242,16 @@ public class PayNotifyServiceImpl implements PayNotifyService {
         // 发起回调
         CommonResult<?> invokeResult = null;
         Throwable invokeException = null;
+        long startTime = System.nanoTime();
         try {
             invokeResult = executeNotifyInvoke(task);
         } catch (Throwable e) {
             invokeException = e;
         }
+        // 按照应用，记录回调的耗时与结果
+        Metrics.timer(NOTIFY_TIMER_NAME, "appId", String.valueOf(task.getAppId()),
+                "success", String.valueOf(invokeResult != null && invokeResult.isSuccess()))
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
 
         // 处理结果
         Integer newStatus = processNotifyResult(task, invokeResult, invokeException);
@@ -260,14 +324,26 @@ public class PayNotifyServiceImpl implements PayNotifyService {
             notifyTaskMapper.updateById(updateTask);
             return updateTask.getStatus();
         }
-        // 2.2 未超过最大回调次数
-        updateTask.setNextNotifyTime(addTime(Duration.ofSeconds(PayNotifyTaskDO.NOTIFY_FREQUENCY[updateTask.getNotifyTimes()])));
+        // 2.2 未超过最大回调次数。增加随机的抖动，避免同一时刻失败的任务，在同一时刻重试
+        updateTask.setNextNotifyTime(addTime(buildNotifyDelay(PayNotifyTaskDO.NOTIFY_FREQUENCY[updateTask.getNotifyTimes()])));
         updateTask.setStatus(invokeException != null ? PayNotifyStatusEnum.REQUEST_FAILURE.getStatus()
                 : PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus());
         notifyTaskMapper.updateById(updateTask);
         return updateTask.getStatus();
     }
 
+    /**
+     * 计算下次通知的间隔，在 frequency 的基础上，增加 ±{@link #NOTIFY_DELAY_JITTER} 的抖动
+     *
+     * @param frequency 通知频率，单位：秒
+     * @return 间隔
+     */
+    private static Duration buildNotifyDelay(int frequency) {
+        long millis = frequency * DateUtils.SECOND_MILLIS;
+        long jitter = (long) (millis * NOTIFY_DELAY_JITTER);
+        return Duration.ofMillis(millis + RandomUtil.randomLong(-jitter, jitter + 1));
+    }
+
     @Override
     public PayNotifyTaskDO getNotifyTask(Long id) {
         return notifyTaskMapper.selectById(id);
@@ -3,6 +3,7 @@ package cn.iocoder.yudao.module.pay.service.notify;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.framework.test.core.ut.BaseDbUnitTest;
 import cn.iocoder.yudao.module.pay.controller.admin.notify.vo.PayNotifyTaskPageReqVO;
 import cn.iocoder.yudao.module.pay.dal.dataobject.notify.PayNotifyLogDO;
@@ -18,6 +19,7 @@ import cn.iocoder.yudao.module.pay.framework.job.config.PayJobConfiguration;
 import cn.iocoder.yudao.module.pay.service.order.PayOrderService;
 import cn.iocoder.yudao.module.pay.service.refund.PayRefundService;
 import cn.iocoder.yudao.module.pay.service.refund.PayRefundServiceImpl;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.redisson.api.RLock;
@@ -26,8 +28,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants.BAD_REQUEST;
 import static cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils.*;
@@ -37,8 +43,7 @@ import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -165,7 +170,65 @@ public class PayNotifyServiceTest extends BaseDbUnitTest {
         assertEquals(count, 3);
     }
 
-    @Test // 由于 HttpUtil 不好 mock，所以只测试异常的情况
+    @Test
+    public void testExecuteNotify_appConcurrency() throws InterruptedException {
+        // mock 数据（notify）：同一个应用的多个任务
+        for (int i = 0; i < 6; i++) {
+            notifyTaskMapper.insert(randomPojo(PayNotifyTaskDO.class,
+                    o -> o.setAppId(1024L).setStatus(PayNotifyStatusEnum.WAITING.getStatus())
+                            .setNextNotifyTime(addTime(Duration.ofMinutes(-1)))));
+        }
+        // mock 方法（lock）：阻塞住通知，模拟应用的回调接口缓慢
+        CountDownLatch latch = new CountDownLatch(1);
+        RLock lock = mock(RLock.class);
+        doAnswer(invocation -> latch.await(10, TimeUnit.SECONDS)).when(lock).lock(anyLong(), any());
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+
+        try {
+            // 调用，并断言：只提交应用的最大并发数
+            assertEquals(4, notifyService.executeNotify());
+            // 调用，并断言：通知中的任务不重复提交，其它任务等待应用的并发数释放
+            assertEquals(0, notifyService.executeNotify());
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testExecuteNotify0_success() throws IOException {
+        // mock 方法（本地的 HTTP 服务，模拟接入方的回调接口）
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/notify", exchange -> {
+            byte[] body = JsonUtils.toJsonByte(CommonResult.success(true));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            // mock 数据（task）
+            PayNotifyTaskDO task = randomPojo(PayNotifyTaskDO.class, o -> o.setType(PayNotifyTypeEnum.ORDER.getType())
+                    .setNotifyTimes(0).setMaxNotifyTimes(9)
+                    .setNotifyUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/notify"));
+            notifyTaskMapper.insert(task);
+
+            // 调用
+            notifyService.executeNotify0(task);
+            // 断言，task
+            PayNotifyTaskDO dbTask = notifyTaskMapper.selectById(task.getId());
+            assertEquals(dbTask.getNotifyTimes(), 1);
+            assertEquals(dbTask.getStatus(), PayNotifyStatusEnum.SUCCESS.getStatus());
+            // 断言，log
+            PayNotifyLogDO dbLog = notifyLogMapper.selectOne(null);
+            assertEquals(dbLog.getTaskId(), task.getId());
+            assertEquals(dbLog.getStatus(), PayNotifyStatusEnum.SUCCESS.getStatus());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
     public void testExecuteNotify0_exception() {
         // mock 数据（task）
         PayNotifyTaskDO task = randomPojo(PayNotifyTaskDO.class, o -> o.setType(-1)
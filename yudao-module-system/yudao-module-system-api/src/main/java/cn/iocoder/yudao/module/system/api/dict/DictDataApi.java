@@ -3,6 +3,8 @@ package cn.iocoder.yudao.module.system.api.dict;
 import cn.iocoder.yudao.module.system.api.dict.dto.DictDataRespDTO;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 字典数据 API 接口
@@ -39,4 +41,22 @@ public interface DictDataApi {
      */
     DictDataRespDTO parseDictData(String type, String label);
 
+    /**
+     * 获得指定字典类型的字典数据列表，用于批量缓存
+     *
+     * @param type 字典类型
+     * @return 字典数据列表
+     */
+    List<DictDataRespDTO> getDictDataList(String type);
+
+    /**
+     * 获得字典类型的版本，用于判断字典数据是否变更
+     *
+     * 版本由字典数据的数量、最大更新时间组成。字典类型没有数据时，不返回
+     *
+     * @param types 字典类型数组
+     * @return 版本，key 为字典类型
+     */
+    Map<String, String> getDictDataVersionMap(Collection<String> types);
+
 }
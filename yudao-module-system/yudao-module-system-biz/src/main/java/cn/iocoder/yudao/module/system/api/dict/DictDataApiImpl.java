@@ -8,6 +8,8 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 字典数据 API 实现类
@@ -37,4 +39,15 @@ public class DictDataApiImpl implements DictDataApi {
         return DictDataConvert.INSTANCE.convert02(dictData);
     }
 
+    @Override
+    public List<DictDataRespDTO> getDictDataList(String dictType) {
+        List<DictDataDO> list = dictDataService.getDictDataListByDictType(dictType);
+        return DictDataConvert.INSTANCE.convertList03(list);
+    }
+
+    @Override
+    public Map<String, String> getDictDataVersionMap(Collection<String> dictTypes) {
+        return dictDataService.getDictDataVersionMap(dictTypes);
+    }
+
 }
@@ -29,10 +29,12 @@ import javax.validation.Valid;
 import java.io.IOException;
 import java.util.*;
 
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertSet;
 import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.EXPORT;
+import static cn.iocoder.yudao.module.system.enums.ErrorCodeConstants.USER_IMPORT_LIST_IS_EMPTY;
 
 @Tag(name = "管理后台 - 用户")
 @RestController
@@ -40,6 +42,11 @@ import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.E
 @Validated
 public class UserController {
 
+    /**
+     * 导入时，每批处理的行数
+     */
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
     @Resource
     private AdminUserService userService;
     @Resource
@@ -185,8 +192,15 @@ public class UserController {
     @PreAuthorize("@ss.hasPermission('system:user:import')")
     public CommonResult<UserImportRespVO> importExcel(@RequestParam("file") MultipartFile file,
                                                       @RequestParam(value = "updateSupport", required = false, defaultValue = "false") Boolean updateSupport) throws Exception {
-        List<UserImportExcelVO> list = ExcelUtils.read(file, UserImportExcelVO.class);
-        return success(userService.importUserList(list, updateSupport));
+        // 分批读取、导入，避免大文件全部加载到内存中
+        UserImportRespVO respVO = UserImportRespVO.builder().createUsernames(new ArrayList<>())
+                .updateUsernames(new ArrayList<>()).failureUsernames(new LinkedHashMap<>()).build();
+        int count = ExcelUtils.read(file, UserImportExcelVO.class, IMPORT_BATCH_SIZE,
+                importUsers -> userService.importUserList(importUsers, updateSupport, respVO));
+        if (count == 0) {
+            throw exception(USER_IMPORT_LIST_IS_EMPTY);
+        }
+        return success(respVO);
     }
 
 }
@@ -29,4 +29,6 @@ public interface DictDataConvert {
 
     DictDataRespDTO convert02(DictDataDO bean);
 
+    List<DictDataRespDTO> convertList03(List<DictDataDO> list);
+
 }
@@ -29,6 +29,22 @@ public interface DictDataMapper extends BaseMapperX<DictDataDO> {
                 .in(DictDataDO::getValue, values));
     }
 
+    default List<DictDataDO> selectListByDictType(String dictType) {
+        return selectList(DictDataDO::getDictType, dictType);
+    }
+
+    /**
+     * 获得字典类型们的字典数据，只查询 dict_type、update_time 字段，用于计算版本
+     *
+     * @param dictTypes 字典类型数组
+     * @return 字典数据列表
+     */
+    default List<DictDataDO> selectUpdateTimeListByDictTypes(Collection<String> dictTypes) {
+        return selectList(new LambdaQueryWrapper<DictDataDO>()
+                .select(DictDataDO::getDictType, DictDataDO::getUpdateTime)
+                .in(DictDataDO::getDictType, dictTypes));
+    }
+
     default long selectCountByDictType(String dictType) {
         return selectCount(DictDataDO::getDictType, dictType);
     }
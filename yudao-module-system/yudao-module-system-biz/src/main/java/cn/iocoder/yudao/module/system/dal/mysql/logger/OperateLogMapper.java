@@ -27,7 +27,7 @@ public interface OperateLogMapper extends BaseMapperX<OperateLogDO> {
             query.gt(OperateLogDO::getResultCode, GlobalErrorCodeConstants.SUCCESS.getCode());
         }
         query.orderByDesc(OperateLogDO::getId); // 降序
-        return selectPage(reqVO, query);
+        return selectPageByLastId(reqVO, query);
     }
 
     default List<OperateLogDO> selectList(OperateLogExportReqVO reqVO, Collection<Long> userIds) {
@@ -1,10 +1,12 @@
 package cn.iocoder.yudao.module.system.dal.mysql.permission;
 
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
 import cn.iocoder.yudao.module.system.dal.dataobject.permission.RoleMenuDO;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -37,4 +39,8 @@ public interface RoleMenuMapper extends BaseMapperX<RoleMenuDO> {
         delete(new LambdaQueryWrapper<RoleMenuDO>().eq(RoleMenuDO::getRoleId, roleId));
     }
 
+    default Long selectCountByUpdateTimeGt(LocalDateTime maxUpdateTime) {
+        return selectCount(new LambdaQueryWrapperX<RoleMenuDO>().gt(RoleMenuDO::getUpdateTime, maxUpdateTime));
+    }
+
 }
@@ -2,11 +2,19 @@ package cn.iocoder.yudao.module.system.dal.redis.oauth2;
 
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
+import cn.iocoder.yudao.framework.common.util.date.DateUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2AccessTokenDO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -19,17 +27,78 @@ import static cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants.OAUTH2_
 /**
  * {@link OAuth2AccessTokenDO} 的 RedisDAO
  *
+ * 在 Redis 前面，额外提供一层本地缓存（近端缓存），避免每次请求的鉴权都需要访问 Redis 并反序列化。
+ * 本地缓存按照数量、时间进行淘汰；访问令牌被删除时，通过 Redis Pub/Sub 广播，清理所有节点的本地缓存
+ *
  * @author 芋道源码
  */
 @Repository
-public class OAuth2AccessTokenRedisDAO {
+public class OAuth2AccessTokenRedisDAO implements MeterBinder {
+
+    /**
+     * 本地缓存的 Micrometer 指标名
+     */
+    private static final String LOCAL_CACHE_NAME = "system.oauth2_access_token.local";
 
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 是否开启本地缓存
+     */
+    @Value("${yudao.oauth2.access-token-local-cache.enable:true}")
+    private Boolean localCacheEnable;
+    /**
+     * 本地缓存的最大数量
+     */
+    @Value("${yudao.oauth2.access-token-local-cache.maximum-size:10000}")
+    private Long localCacheMaximumSize;
+    /**
+     * 本地缓存的过期时间，单位：秒
+     *
+     * 作为 Pub/Sub 广播丢失时的兜底，不宜设置过长
+     */
+    @Value("${yudao.oauth2.access-token-local-cache.expire-seconds:30}")
+    private Long localCacheExpireSeconds;
+
+    /**
+     * 访问令牌的本地缓存
+     *
+     * key：访问令牌
+     */
+    private Cache<String, OAuth2AccessTokenDO> localCache;
+
+    @PostConstruct
+    public void initLocalCache() {
+        localCache = CacheBuilder.newBuilder()
+                .maximumSize(Boolean.TRUE.equals(localCacheEnable) ? localCacheMaximumSize : 0)
+                .expireAfterWrite(localCacheExpireSeconds, TimeUnit.SECONDS)
+                .recordStats() // 记录命中、未命中、淘汰的统计
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, localCache, LOCAL_CACHE_NAME);
+    }
+
     public OAuth2AccessTokenDO get(String accessToken) {
+        // 优先从本地缓存中获取
+        OAuth2AccessTokenDO accessTokenDO = localCache.getIfPresent(accessToken);
+        if (accessTokenDO != null) {
+            if (!DateUtils.isExpired(accessTokenDO.getExpiresTime())) {
+                return accessTokenDO;
+            }
+            localCache.invalidate(accessToken);
+        }
+
+        // 获取不到，从 Redis 中获取
         String redisKey = formatKey(accessToken);
-        return JsonUtils.parseObject(stringRedisTemplate.opsForValue().get(redisKey), OAuth2AccessTokenDO.class);
+        accessTokenDO = JsonUtils.parseObject(stringRedisTemplate.opsForValue().get(redisKey), OAuth2AccessTokenDO.class);
+        if (accessTokenDO != null) {
+            localCache.put(accessToken, accessTokenDO);
+        }
+        return accessTokenDO;
     }
 
     public void set(OAuth2AccessTokenDO accessTokenDO) {
@@ -39,17 +108,29 @@ public class OAuth2AccessTokenRedisDAO {
         long time = LocalDateTimeUtil.between(LocalDateTime.now(), accessTokenDO.getExpiresTime(), ChronoUnit.SECONDS);
         if (time > 0) {
             stringRedisTemplate.opsForValue().set(redisKey, JsonUtils.toJsonString(accessTokenDO), time, TimeUnit.SECONDS);
+            localCache.put(accessTokenDO.getAccessToken(), accessTokenDO);
         }
     }
 
     public void delete(String accessToken) {
         String redisKey = formatKey(accessToken);
         stringRedisTemplate.delete(redisKey);
+        localCache.invalidate(accessToken);
     }
 
     public void deleteList(Collection<String> accessTokens) {
         List<String> redisKeys = CollectionUtils.convertList(accessTokens, OAuth2AccessTokenRedisDAO::formatKey);
         stringRedisTemplate.delete(redisKeys);
+        localCache.invalidateAll(accessTokens);
+    }
+
+    /**
+     * 仅删除本地缓存，用于其它节点删除访问令牌后的广播
+     *
+     * @param accessTokens 访问令牌数组
+     */
+    public void deleteLocalList(Collection<String> accessTokens) {
+        localCache.invalidateAll(accessTokens);
     }
 
     private static String formatKey(String accessToken) {
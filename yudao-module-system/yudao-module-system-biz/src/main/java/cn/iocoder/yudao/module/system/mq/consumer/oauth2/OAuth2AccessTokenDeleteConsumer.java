@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.system.mq.consumer.oauth2;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.module.system.mq.message.oauth2.OAuth2AccessTokenDeleteMessage;
+import cn.iocoder.yudao.module.system.service.oauth2.OAuth2TokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link OAuth2AccessTokenDeleteMessage} 的消费者
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class OAuth2AccessTokenDeleteConsumer extends AbstractChannelMessageListener<OAuth2AccessTokenDeleteMessage> {
+
+    @Resource
+    private OAuth2TokenService oauth2TokenService;
+
+    @Override
+    public void onMessage(OAuth2AccessTokenDeleteMessage message) {
+        log.debug("[onMessage][收到 OAuth2 访问令牌删除消息({})]", message.getAccessTokens());
+        oauth2TokenService.removeAccessTokenLocalCache(message.getAccessTokens());
+    }
+
+}
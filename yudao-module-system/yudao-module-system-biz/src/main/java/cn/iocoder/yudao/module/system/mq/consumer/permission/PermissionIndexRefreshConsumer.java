@@ -0,0 +1,35 @@
+package cn.iocoder.yudao.module.system.mq.consumer.permission;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.module.system.mq.message.permission.PermissionIndexRefreshMessage;
+import cn.iocoder.yudao.module.system.service.permission.PermissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link PermissionIndexRefreshMessage} 的消费者
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class PermissionIndexRefreshConsumer extends AbstractChannelMessageListener<PermissionIndexRefreshMessage> {
+
+    @Resource
+    private PermissionService permissionService;
+
+    @Override
+    public void onMessage(PermissionIndexRefreshMessage message) {
+        log.info("[onMessage][收到权限索引刷新消息({})]", message);
+        if (message.getRoleId() != null) {
+            permissionService.refreshPermissionIndexByRole(message.getRoleId(), message.getMenuIds());
+        }
+        if (message.getMenuId() != null) {
+            permissionService.refreshPermissionIndexByMenu(message.getMenuId(), message.getPermission(),
+                    Boolean.TRUE.equals(message.getMenuDeleted()));
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package cn.iocoder.yudao.module.system.mq.message.oauth2;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Collection;
+
+/**
+ * OAuth2 访问令牌删除 Message
+ *
+ * 用于广播所有节点，清理访问令牌的本地缓存
+ *
+ * @author 芋道源码
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class OAuth2AccessTokenDeleteMessage extends AbstractChannelMessage {
+
+    /**
+     * 访问令牌数组
+     */
+    private Collection<String> accessTokens;
+
+    @Override
+    public String getChannel() {
+        return "system.oauth2-access-token.delete";
+    }
+
+}
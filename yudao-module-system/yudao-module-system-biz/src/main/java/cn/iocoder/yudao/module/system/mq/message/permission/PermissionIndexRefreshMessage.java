@@ -0,0 +1,49 @@
+package cn.iocoder.yudao.module.system.mq.message.permission;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Set;
+
+/**
+ * 权限索引刷新 Message
+ *
+ * 用于广播所有节点，增量刷新本地的权限索引。分成两种情况：
+ * 1. 角色的菜单变更：设置 {@link #roleId}、{@link #menuIds}
+ * 2. 菜单的权限标识变更：设置 {@link #menuId}、{@link #permission}、{@link #menuDeleted}
+ *
+ * @author 芋道源码
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class PermissionIndexRefreshMessage extends AbstractChannelMessage {
+
+    /**
+     * 角色编号
+     */
+    private Long roleId;
+    /**
+     * 角色拥有的菜单编号集合，为空时表示角色被删除
+     */
+    private Set<Long> menuIds;
+
+    /**
+     * 菜单编号
+     */
+    private Long menuId;
+    /**
+     * 菜单的权限标识
+     */
+    private String permission;
+    /**
+     * 菜单是否被删除
+     */
+    private Boolean menuDeleted;
+
+    @Override
+    public String getChannel() {
+        return "system.permission-index.refresh";
+    }
+
+}
@@ -0,0 +1,46 @@
+package cn.iocoder.yudao.module.system.mq.producer.permission;
+
+import cn.iocoder.yudao.framework.mq.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.system.mq.message.permission.PermissionIndexRefreshMessage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Set;
+
+/**
+ * Permission 权限相关消息的 Producer
+ *
+ * @author 芋道源码
+ */
+@Component
+public class PermissionProducer {
+
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 发送 {@link PermissionIndexRefreshMessage} 消息，角色的菜单变更
+     *
+     * @param roleId 角色编号
+     * @param menuIds 角色拥有的菜单编号集合
+     */
+    public void sendRoleMenuRefreshMessage(Long roleId, Set<Long> menuIds) {
+        PermissionIndexRefreshMessage message = new PermissionIndexRefreshMessage()
+                .setRoleId(roleId).setMenuIds(menuIds);
+        redisMQTemplate.send(message);
+    }
+
+    /**
+     * 发送 {@link PermissionIndexRefreshMessage} 消息，菜单的权限标识变更
+     *
+     * @param menuId 菜单编号
+     * @param permission 权限标识
+     * @param deleted 是否被删除
+     */
+    public void sendMenuRefreshMessage(Long menuId, String permission, boolean deleted) {
+        PermissionIndexRefreshMessage message = new PermissionIndexRefreshMessage()
+                .setMenuId(menuId).setPermission(permission).setMenuDeleted(deleted);
+        redisMQTemplate.send(message);
+    }
+
+}
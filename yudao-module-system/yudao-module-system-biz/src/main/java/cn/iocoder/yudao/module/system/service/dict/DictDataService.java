@@ -9,6 +9,7 @@ import cn.iocoder.yudao.module.system.dal.dataobject.dict.DictDataDO;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 字典数据 Service 接口
@@ -105,4 +106,22 @@ public interface DictDataService {
      * @return 字典数据
      */
     DictDataDO parseDictData(String dictType, String label);
+
+    /**
+     * 获得指定字典类型的字典数据列表
+     *
+     * @param dictType 字典类型
+     * @return 字典数据列表
+     */
+    List<DictDataDO> getDictDataListByDictType(String dictType);
+
+    /**
+     * 获得字典类型的版本，由字典数据的数量、最大更新时间组成
+     *
+     * 新增、修改、删除字典数据时，版本都会变化，从而实现缓存的增量刷新
+     *
+     * @param dictTypes 字典类型数组
+     * @return 版本，key 为字典类型。字典类型没有数据时，不返回
+     */
+    Map<String, String> getDictDataVersionMap(Collection<String> dictTypes);
 }
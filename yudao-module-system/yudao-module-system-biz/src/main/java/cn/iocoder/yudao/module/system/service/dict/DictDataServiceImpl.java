@@ -17,10 +17,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.*;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.module.system.enums.ErrorCodeConstants.*;
@@ -181,4 +179,27 @@ public class DictDataServiceImpl implements DictDataService {
         return dictDataMapper.selectByDictTypeAndLabel(dictType, label);
     }
 
+    @Override
+    public List<DictDataDO> getDictDataListByDictType(String dictType) {
+        List<DictDataDO> list = dictDataMapper.selectListByDictType(dictType);
+        list.sort(COMPARATOR_TYPE_AND_SORT);
+        return list;
+    }
+
+    @Override
+    public Map<String, String> getDictDataVersionMap(Collection<String> dictTypes) {
+        if (CollUtil.isEmpty(dictTypes)) {
+            return Collections.emptyMap();
+        }
+        // 按照字典类型分组，计算数量、最大更新时间
+        Map<String, List<DictDataDO>> dictDataMap = CollectionUtils.convertMultiMap(
+                dictDataMapper.selectUpdateTimeListByDictTypes(dictTypes), DictDataDO::getDictType);
+        Map<String, String> versionMap = new HashMap<>(dictDataMap.size());
+        dictDataMap.forEach((dictType, list) -> {
+            LocalDateTime maxUpdateTime = CollectionUtils.getMaxValue(list, DictDataDO::getUpdateTime);
+            versionMap.put(dictType, list.size() + "@" + maxUpdateTime);
+        });
+        return versionMap;
+    }
+
 }
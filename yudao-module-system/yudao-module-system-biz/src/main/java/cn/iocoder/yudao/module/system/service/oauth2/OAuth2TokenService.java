@@ -4,6 +4,7 @@ import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.module.system.controller.admin.oauth2.vo.token.OAuth2AccessTokenPageReqVO;
 import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2AccessTokenDO;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -69,6 +70,15 @@ public interface OAuth2TokenService {
      */
     OAuth2AccessTokenDO removeAccessToken(String accessToken);
 
+    /**
+     * 移除访问令牌的本地缓存
+     *
+     * 用于其它节点移除访问令牌后，广播清理当前节点的本地缓存
+     *
+     * @param accessTokens 访问令牌数组
+     */
+    void removeAccessTokenLocalCache(Collection<String> accessTokens);
+
     /**
      * 获得访问令牌分页
      *
@@ -14,13 +14,16 @@ import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2RefreshTokenDO
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2AccessTokenMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2RefreshTokenMapper;
 import cn.iocoder.yudao.module.system.dal.redis.oauth2.OAuth2AccessTokenRedisDAO;
+import cn.iocoder.yudao.module.system.mq.producer.oauth2.OAuth2AccessTokenProducer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
-import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception0;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertSet;
@@ -44,6 +47,9 @@ public class OAuth2TokenServiceImpl implements OAuth2TokenService {
     @Resource
     private OAuth2ClientService oauth2ClientService;
 
+    @Resource
+    private OAuth2AccessTokenProducer oauth2AccessTokenProducer;
+
     @Override
     @Transactional
     public OAuth2AccessTokenDO createAccessToken(Long userId, Integer userType, String clientId, List<String> scopes) {
@@ -72,7 +78,10 @@ public class OAuth2TokenServiceImpl implements OAuth2TokenService {
         List<OAuth2AccessTokenDO> accessTokenDOs = oauth2AccessTokenMapper.selectListByRefreshToken(refreshToken);
         if (CollUtil.isNotEmpty(accessTokenDOs)) {
             oauth2AccessTokenMapper.deleteBatchIds(convertSet(accessTokenDOs, OAuth2AccessTokenDO::getId));
-            oauth2AccessTokenRedisDAO.deleteList(convertSet(accessTokenDOs, OAuth2AccessTokenDO::getAccessToken));
+            Set<String> accessTokens = convertSet(accessTokenDOs, OAuth2AccessTokenDO::getAccessToken);
+            oauth2AccessTokenRedisDAO.deleteList(accessTokens);
+            // 广播清理其它节点的本地缓存
+            oauth2AccessTokenProducer.sendAccessTokenDeleteMessage(accessTokens);
         }
 
         // 已过期的情况下，删除刷新令牌
@@ -123,11 +132,20 @@ public class OAuth2TokenServiceImpl implements OAuth2TokenService {
         }
         oauth2AccessTokenMapper.deleteById(accessTokenDO.getId());
         oauth2AccessTokenRedisDAO.delete(accessToken);
+        oauth2AccessTokenProducer.sendAccessTokenDeleteMessage(Collections.singleton(accessToken));
         // 删除刷新令牌
         oauth2RefreshTokenMapper.deleteByRefreshToken(accessTokenDO.getRefreshToken());
         return accessTokenDO;
     }
 
+    @Override
+    public void removeAccessTokenLocalCache(Collection<String> accessTokens) {
+        if (CollUtil.isEmpty(accessTokens)) {
+            return;
+        }
+        oauth2AccessTokenRedisDAO.deleteLocalList(accessTokens);
+    }
+
     @Override
     public PageResult<OAuth2AccessTokenDO> getAccessTokenPage(OAuth2AccessTokenPageReqVO reqVO) {
         return oauth2AccessTokenMapper.selectPage(reqVO);
@@ -57,6 +57,8 @@ public class MenuServiceImpl implements MenuService {
         MenuDO menu = MenuConvert.INSTANCE.convert(reqVO);
         initMenuProperty(menu);
         menuMapper.insert(menu);
+        // 刷新菜单的权限标识
+        permissionService.processMenuSaved(menu.getId(), menu.getPermission());
         // 返回
         return menu.getId();
     }
@@ -78,6 +80,8 @@ public class MenuServiceImpl implements MenuService {
         MenuDO updateObject = MenuConvert.INSTANCE.convert(reqVO);
         initMenuProperty(updateObject);
         menuMapper.updateById(updateObject);
+        // 刷新菜单的权限标识
+        permissionService.processMenuSaved(updateObject.getId(), updateObject.getPermission());
     }
 
     @Override
@@ -0,0 +1,203 @@
+package cn.iocoder.yudao.module.system.service.permission;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.module.system.dal.dataobject.permission.MenuDO;
+import cn.iocoder.yudao.module.system.dal.dataobject.permission.RoleMenuDO;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 权限索引，用于快速判断角色是否拥有某个权限标识
+ *
+ * 将「权限标识 - 菜单 - 角色」的关系，预先计算成「权限标识 - 角色 BitSet」，
+ * 这样判断权限时，只需要一次 BitSet 的交集计算，无需逐个菜单地查询拥有的角色
+ *
+ * 该对象是不可变的：变更时，通过 withXXX 方法创建新的对象，保证并发读取时的一致性
+ *
+ * @author 芋道源码
+ */
+final class PermissionIndex {
+
+    /**
+     * 版本号，每次变更 +1
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * 菜单的权限标识
+     *
+     * key：菜单编号
+     * value：权限标识。没有权限标识的菜单，不记录
+     */
+    private final Map<Long, String> menuPermissions;
+    /**
+     * 角色拥有的菜单
+     *
+     * key：角色编号
+     * value：菜单编号集合
+     */
+    private final Map<Long, Set<Long>> roleMenuIds;
+    /**
+     * 角色在 BitSet 中的下标
+     *
+     * 为什么不直接使用角色编号？角色编号可能是雪花算法等生成的大数，无法直接作为 BitSet 的下标
+     *
+     * key：角色编号
+     * value：下标
+     */
+    private final Map<Long, Integer> roleIndexes;
+    /**
+     * 拥有权限标识的角色
+     *
+     * key：权限标识
+     * value：角色的 BitSet，下标见 {@link #roleIndexes}
+     */
+    private final Map<String, BitSet> permissionRoles;
+
+    private PermissionIndex(long version, Map<Long, String> menuPermissions, Map<Long, Set<Long>> roleMenuIds,
+                            Map<Long, Integer> roleIndexes, Map<String, BitSet> permissionRoles) {
+        this.version = version;
+        this.menuPermissions = menuPermissions;
+        this.roleMenuIds = roleMenuIds;
+        this.roleIndexes = roleIndexes;
+        this.permissionRoles = permissionRoles;
+    }
+
+    /**
+     * 基于全量的菜单、角色菜单，构建权限索引
+     *
+     * @param menus 菜单列表
+     * @param roleMenus 角色菜单列表
+     * @return 权限索引
+     */
+    public static PermissionIndex build(List<MenuDO> menus, List<RoleMenuDO> roleMenus) {
+        Map<Long, String> menuPermissions = new HashMap<>();
+        menus.forEach(menu -> {
+            if (StrUtil.isNotEmpty(menu.getPermission())) {
+                menuPermissions.put(menu.getId(), menu.getPermission());
+            }
+        });
+        Map<Long, Set<Long>> roleMenuIds = new HashMap<>();
+        roleMenus.forEach(roleMenu -> roleMenuIds.computeIfAbsent(roleMenu.getRoleId(), key -> new HashSet<>())
+                .add(roleMenu.getMenuId()));
+        PermissionIndex index = new PermissionIndex(1L, menuPermissions, roleMenuIds,
+                new HashMap<>(), new HashMap<>());
+        roleMenuIds.keySet().forEach(index::indexRole);
+        return index;
+    }
+
+    /**
+     * 变更角色拥有的菜单
+     *
+     * @param roleId 角色编号
+     * @param menuIds 菜单编号集合。为空时，表示角色被删除，或者不再拥有任何菜单
+     * @return 新的权限索引
+     */
+    public PermissionIndex withRoleMenus(Long roleId, Set<Long> menuIds) {
+        PermissionIndex index = copy();
+        if (CollUtil.isEmpty(menuIds)) {
+            index.roleMenuIds.remove(roleId);
+        } else {
+            index.roleMenuIds.put(roleId, new HashSet<>(menuIds));
+        }
+        index.indexRole(roleId);
+        return index;
+    }
+
+    /**
+     * 变更菜单的权限标识
+     *
+     * @param menuId 菜单编号
+     * @param permission 权限标识，可以为空
+     * @param deleted 是否被删除。被删除时，同时移除角色拥有的该菜单
+     * @return 新的权限索引
+     */
+    public PermissionIndex withMenuPermission(Long menuId, String permission, boolean deleted) {
+        PermissionIndex index = copy();
+        if (StrUtil.isEmpty(permission)) {
+            index.menuPermissions.remove(menuId);
+        } else {
+            index.menuPermissions.put(menuId, permission);
+        }
+        // 重新计算拥有该菜单的角色
+        List<Long> roleIds = new ArrayList<>();
+        index.roleMenuIds.forEach((roleId, menuIds) -> {
+            if (menuIds.contains(menuId)) {
+                roleIds.add(roleId);
+            }
+        });
+        roleIds.forEach(roleId -> {
+            if (deleted) {
+                Set<Long> menuIds = new HashSet<>(index.roleMenuIds.get(roleId));
+                menuIds.remove(menuId);
+                index.roleMenuIds.put(roleId, menuIds);
+            }
+            index.indexRole(roleId);
+        });
+        return index;
+    }
+
+    /**
+     * 获得角色编号集合对应的 BitSet
+     *
+     * @param roleIds 角色编号集合
+     * @return BitSet
+     */
+    public BitSet getRoleBitSet(Collection<Long> roleIds) {
+        BitSet bitSet = new BitSet();
+        roleIds.forEach(roleId -> {
+            Integer roleIndex = roleIndexes.get(roleId);
+            if (roleIndex != null) {
+                bitSet.set(roleIndex);
+            }
+        });
+        return bitSet;
+    }
+
+    /**
+     * 判断角色是否拥有该权限标识
+     *
+     * @param permission 权限标识
+     * @param roleBitSet 角色的 BitSet，通过 {@link #getRoleBitSet(Collection)} 获得
+     * @return 是否拥有
+     */
+    public boolean hasAnyRole(String permission, BitSet roleBitSet) {
+        BitSet permissionRoleBitSet = permissionRoles.get(permission);
+        return permissionRoleBitSet != null && permissionRoleBitSet.intersects(roleBitSet);
+    }
+
+    /**
+     * 复制出新的权限索引，用于变更。BitSet 会被修改，所以需要深拷贝
+     *
+     * @return 新的权限索引
+     */
+    private PermissionIndex copy() {
+        Map<String, BitSet> permissionRoles = new HashMap<>(this.permissionRoles.size());
+        this.permissionRoles.forEach((permission, bitSet) -> permissionRoles.put(permission, (BitSet) bitSet.clone()));
+        return new PermissionIndex(version + 1, new HashMap<>(menuPermissions), new HashMap<>(roleMenuIds),
+                new HashMap<>(roleIndexes), permissionRoles);
+    }
+
+    /**
+     * 重新计算角色拥有的权限标识，更新到 {@link #permissionRoles} 中
+     *
+     * @param roleId 角色编号
+     */
+    private void indexRole(Long roleId) {
+        int roleIndex = roleIndexes.computeIfAbsent(roleId, key -> roleIndexes.size());
+        // 清理角色原有的权限标识
+        permissionRoles.values().forEach(bitSet -> bitSet.clear(roleIndex));
+        // 设置角色现有的权限标识
+        Set<Long> menuIds = roleMenuIds.getOrDefault(roleId, Collections.emptySet());
+        menuIds.forEach(menuId -> {
+            String permission = menuPermissions.get(menuId);
+            if (permission != null) {
+                permissionRoles.computeIfAbsent(permission, key -> new BitSet()).set(roleIndex);
+            }
+        });
+    }
+
+}
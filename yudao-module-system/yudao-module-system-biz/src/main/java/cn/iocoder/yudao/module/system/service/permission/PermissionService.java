@@ -57,6 +57,31 @@ public interface PermissionService {
      */
     void processMenuDeleted(Long menuId);
 
+    /**
+     * 处理菜单保存（新增或修改）时，刷新菜单的权限标识
+     *
+     * @param menuId 菜单编号
+     * @param permission 权限标识
+     */
+    void processMenuSaved(Long menuId, String permission);
+
+    /**
+     * 刷新本地的权限索引：角色的菜单变更
+     *
+     * @param roleId 角色编号
+     * @param menuIds 角色拥有的菜单编号集合，为空时表示角色被删除
+     */
+    void refreshPermissionIndexByRole(Long roleId, Set<Long> menuIds);
+
+    /**
+     * 刷新本地的权限索引：菜单的权限标识变更
+     *
+     * @param menuId 菜单编号
+     * @param permission 权限标识
+     * @param deleted 菜单是否被删除
+     */
+    void refreshPermissionIndexByMenu(Long menuId, String permission, boolean deleted);
+
     /**
      * 获得角色拥有的菜单编号集合
      *
@@ -3,10 +3,12 @@ package cn.iocoder.yudao.module.system.service.permission;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
 import cn.iocoder.yudao.framework.datapermission.core.annotation.DataPermission;
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import cn.iocoder.yudao.module.system.api.permission.dto.DeptDataPermissionRespDTO;
 import cn.iocoder.yudao.module.system.dal.dataobject.permission.MenuDO;
 import cn.iocoder.yudao.module.system.dal.dataobject.permission.RoleDO;
@@ -16,6 +18,7 @@ import cn.iocoder.yudao.module.system.dal.mysql.permission.RoleMenuMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.permission.UserRoleMapper;
 import cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants;
 import cn.iocoder.yudao.module.system.enums.permission.DataScopeEnum;
+import cn.iocoder.yudao.module.system.mq.producer.permission.PermissionProducer;
 import cn.iocoder.yudao.module.system.service.dept.DeptService;
 import cn.iocoder.yudao.module.system.service.user.AdminUserService;
 import com.baomidou.dynamic.datasource.annotation.DSTransactional;
@@ -26,14 +29,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Resource;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertSet;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.getMaxValue;
 import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString;
 
 /**
@@ -59,6 +69,26 @@ public class PermissionServiceImpl implements PermissionService {
     @Resource
     private AdminUserService userService;
 
+    @Resource
+    private PermissionProducer permissionProducer;
+
+    /**
+     * 权限索引，首次使用时构建，之后通过 {@link PermissionProducer} 广播增量刷新
+     */
+    private volatile PermissionIndex permissionIndex;
+    /**
+     * 构建 {@link #permissionIndex} 时，角色菜单的数量
+     */
+    private volatile long permissionIndexRoleMenuCount;
+    /**
+     * 构建 {@link #permissionIndex} 时，角色菜单的最大更新时间
+     */
+    private volatile LocalDateTime permissionIndexRoleMenuMaxUpdateTime;
+    /**
+     * 构建 {@link #permissionIndex} 时的菜单列表
+     */
+    private volatile List<MenuDO> permissionIndexMenus;
+
     @Override
     public boolean hasAnyPermissions(Long userId, String... permissions) {
         // 如果为空，说明已经有权限
@@ -73,41 +103,18 @@ public class PermissionServiceImpl implements PermissionService {
         }
 
         // 情况一：遍历判断每个权限，如果有一满足，说明有权限
+        // 采用严格模式，如果权限找不到对应的 Menu 的话，也认为没有权限
+        Set<Long> roleIds = convertSet(roles, RoleDO::getId);
+        PermissionIndex index = getPermissionIndex();
+        BitSet roleBitSet = index.getRoleBitSet(roleIds);
         for (String permission : permissions) {
-            if (hasAnyPermission(roles, permission)) {
+            if (index.hasAnyRole(permission, roleBitSet)) {
                 return true;
             }
         }
 
         // 情况二：如果是超管，也说明有权限
-        return roleService.hasAnySuperAdmin(convertSet(roles, RoleDO::getId));
-    }
-
-    /**
-     * 判断指定角色，是否拥有该 permission 权限
-     *
-     * @param roles 指定角色数组
-     * @param permission 权限标识
-     * @return 是否拥有
-     */
-    private boolean hasAnyPermission(List<RoleDO> roles, String permission) {
-        List<Long> menuIds = menuService.getMenuIdListByPermissionFromCache(permission);
-        // 采用严格模式，如果权限找不到对应的 Menu 的话，也认为没有权限
-        if (CollUtil.isEmpty(menuIds)) {
-            return false;
-        }
-
-        // 判断是否有权限
-        Set<Long> roleIds = convertSet(roles, RoleDO::getId);
-        for (Long menuId : menuIds) {
-            // 获得拥有该菜单的角色编号集合
-            Set<Long> menuRoleIds = getSelf().getMenuRoleIdListByMenuIdFromCache(menuId);
-            // 如果有交集，说明有权限
-            if (CollUtil.containsAny(menuRoleIds, roleIds)) {
-                return true;
-            }
-        }
-        return false;
+        return roleService.hasAnySuperAdmin(roleIds);
     }
 
     @Override
@@ -131,7 +138,7 @@ public class PermissionServiceImpl implements PermissionService {
     // ========== 角色-菜单的相关方法  ==========
 
     @Override
-    @DSTransactional // 多数据源，使用 @DSTransactional 保证本地事务，以及数据源的切换
+    @Transactional(rollbackFor = Exception.class) // 不使用 @DSTransactional，因为它不支持 Spring 的事务回调，无法在提交后刷新权限索引
     @CacheEvict(value = RedisKeyConstants.MENU_ROLE_ID_LIST,
             allEntries = true) // allEntries 清空所有缓存，主要一次更新涉及到的 menuIds 较多，反倒批量会更快
     public void assignRoleMenu(Long roleId, Set<Long> menuIds) {
@@ -152,6 +159,12 @@ public class PermissionServiceImpl implements PermissionService {
         if (CollUtil.isNotEmpty(deleteMenuIds)) {
             roleMenuMapper.deleteListByRoleIdAndMenuIds(roleId, deleteMenuIds);
         }
+
+        // 事务提交后，刷新权限索引
+        executeAfterCommit(() -> {
+            refreshPermissionIndexByRole(roleId, menuIds);
+            permissionProducer.sendRoleMenuRefreshMessage(roleId, menuIds);
+        });
     }
 
     @Override
@@ -167,12 +180,140 @@ public class PermissionServiceImpl implements PermissionService {
         userRoleMapper.deleteListByRoleId(roleId);
         // 标记删除 RoleMenu
         roleMenuMapper.deleteListByRoleId(roleId);
+
+        // 事务提交后，刷新权限索引
+        executeAfterCommit(() -> {
+            refreshPermissionIndexByRole(roleId, null);
+            permissionProducer.sendRoleMenuRefreshMessage(roleId, null);
+        });
     }
 
     @Override
     @CacheEvict(value = RedisKeyConstants.MENU_ROLE_ID_LIST, key = "#menuId")
     public void processMenuDeleted(Long menuId) {
         roleMenuMapper.deleteListByMenuId(menuId);
+
+        // 事务提交后，刷新权限索引
+        executeAfterCommit(() -> {
+            refreshPermissionIndexByMenu(menuId, null, true);
+            permissionProducer.sendMenuRefreshMessage(menuId, null, true);
+        });
+    }
+
+    @Override
+    public void processMenuSaved(Long menuId, String permission) {
+        // 事务提交后，刷新权限索引
+        executeAfterCommit(() -> {
+            refreshPermissionIndexByMenu(menuId, permission, false);
+            permissionProducer.sendMenuRefreshMessage(menuId, permission, false);
+        });
+    }
+
+    /**
+     * 在事务提交后执行，避免事务回滚时，权限索引已经变更；不存在事务时，直接执行
+     *
+     * @param runnable 执行逻辑
+     */
+    private static void executeAfterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void refreshPermissionIndexByRole(Long roleId, Set<Long> menuIds) {
+        // 未构建时，无需刷新，首次使用时会从 DB 构建
+        if (permissionIndex == null) {
+            return;
+        }
+        permissionIndex = permissionIndex.withRoleMenus(roleId, menuIds);
+        log.info("[refreshPermissionIndexByRole][角色({}) 刷新权限索引，版本({})]", roleId, permissionIndex.getVersion());
+    }
+
+    @Override
+    public synchronized void refreshPermissionIndexByMenu(Long menuId, String permission, boolean deleted) {
+        // 未构建时，无需刷新，首次使用时会从 DB 构建
+        if (permissionIndex == null) {
+            return;
+        }
+        permissionIndex = permissionIndex.withMenuPermission(menuId, permission, deleted);
+        log.info("[refreshPermissionIndexByMenu][菜单({}) 刷新权限索引，版本({})]", menuId, permissionIndex.getVersion());
+    }
+
+    /**
+     * 获得权限索引。如果未构建，则从 DB 全量构建
+     *
+     * @return 权限索引
+     */
+    @VisibleForTesting
+    PermissionIndex getPermissionIndex() {
+        PermissionIndex index = permissionIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (permissionIndex == null) {
+                buildPermissionIndex();
+            }
+            return permissionIndex;
+        }
+    }
+
+    /**
+     * 从 DB 全量构建权限索引
+     */
+    private synchronized void buildPermissionIndex() {
+        // 角色菜单是多租户的，需要忽略租户，加载所有租户的数据
+        List<RoleMenuDO> roleMenus = TenantUtils.executeIgnore(() -> roleMenuMapper.selectList());
+        List<MenuDO> menus = menuService.getMenuList();
+        permissionIndex = PermissionIndex.build(menus, roleMenus);
+        // 记录构建时的数据，用于 refreshPermissionIndex 判断是否有数据变更
+        permissionIndexRoleMenuCount = roleMenus.size();
+        permissionIndexRoleMenuMaxUpdateTime = getMaxValue(roleMenus, RoleMenuDO::getUpdateTime);
+        permissionIndexMenus = menus;
+        log.info("[buildPermissionIndex][构建权限索引，角色菜单数量为 {}]", roleMenus.size());
+    }
+
+    /**
+     * 通过定时任务轮询，判断权限索引构建后，是否有数据变更；有变更时，重新构建
+     *
+     * 目的：兜底广播消息丢失、事务提交后广播前宕机等情况，保证多节点的权限索引最终一致。
+     * 因为增量刷新不会更新构建时的数据，所以每次变更后，也会重新构建一次
+     */
+    @Scheduled(initialDelay = 60, fixedRate = 60, timeUnit = TimeUnit.SECONDS)
+    public void refreshPermissionIndex() {
+        // 未构建时，无需刷新，首次使用时会从 DB 构建
+        if (permissionIndex == null) {
+            return;
+        }
+
+        // 判断角色菜单：新增、修改通过 updateTime 判断；删除是逻辑删除，不一定更新 updateTime，所以通过数量判断
+        boolean changed = TenantUtils.executeIgnore(() -> roleMenuMapper.selectCount() != permissionIndexRoleMenuCount
+                || (permissionIndexRoleMenuMaxUpdateTime != null
+                    && roleMenuMapper.selectCountByUpdateTimeGt(permissionIndexRoleMenuMaxUpdateTime) > 0));
+        // 判断菜单：数量较少，直接比较权限标识
+        if (!changed) {
+            Map<Long, String> menuPermissions = convertMap(menuService.getMenuList(), MenuDO::getId, menu -> StrUtil.nullToEmpty(menu.getPermission()));
+            changed = !menuPermissions.equals(convertMap(permissionIndexMenus, MenuDO::getId, menu -> StrUtil.nullToEmpty(menu.getPermission())));
+        }
+        if (changed) {
+            buildPermissionIndex();
+        }
+    }
+
+    /**
+     * 清空权限索引，下次使用时重新构建
+     */
+    @VisibleForTesting
+    synchronized void clearPermissionIndex() {
+        permissionIndex = null;
     }
 
     @Override
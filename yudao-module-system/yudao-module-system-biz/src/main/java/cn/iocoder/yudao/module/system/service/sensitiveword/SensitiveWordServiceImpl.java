@@ -3,7 +3,6 @@ package cn.iocoder.yudao.module.system.service.sensitiveword;
 import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
-import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
 import cn.iocoder.yudao.module.system.controller.admin.sensitiveword.vo.SensitiveWordCreateReqVO;
 import cn.iocoder.yudao.module.system.controller.admin.sensitiveword.vo.SensitiveWordExportReqVO;
 import cn.iocoder.yudao.module.system.controller.admin.sensitiveword.vo.SensitiveWordPageReqVO;
@@ -11,9 +10,7 @@ import cn.iocoder.yudao.module.system.controller.admin.sensitiveword.vo.Sensitiv
 import cn.iocoder.yudao.module.system.convert.sensitiveword.SensitiveWordConvert;
 import cn.iocoder.yudao.module.system.dal.dataobject.sensitiveword.SensitiveWordDO;
 import cn.iocoder.yudao.module.system.dal.mysql.sensitiveword.SensitiveWordMapper;
-import cn.iocoder.yudao.module.system.util.collection.SimpleTrie;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import cn.iocoder.yudao.module.system.util.collection.AhoCorasickTrie;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -66,21 +63,20 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
     private SensitiveWordMapper sensitiveWordMapper;
 
     /**
-     * 默认的敏感词的字典树，包含所有敏感词
-     */
-    @Getter
-    private volatile SimpleTrie defaultSensitiveWordTrie = new SimpleTrie(Collections.emptySet());
-    /**
-     * 标签与敏感词的字段数的映射
+     * 敏感词的自动机，包含所有敏感词及其标签
+     *
+     * 这里声明 volatile 修饰的原因是，每次刷新时，直接修改指向
      */
     @Getter
-    private volatile Map<String, SimpleTrie> tagSensitiveWordTries = Collections.emptyMap();
+    private volatile AhoCorasickTrie sensitiveWordTrie = new AhoCorasickTrie(Collections.emptyMap());
 
     /**
      * 初始化缓存
+     *
+     * 和 {@link #updateLocalCache(Long)} 互斥执行，避免定时刷新查询到的旧数据，覆盖掉刚更新的缓存
      */
     @PostConstruct
-    public void initLocalCache() {
+    public synchronized void initLocalCache() {
         if (!ENABLED) {
             return;
         }
@@ -90,12 +86,36 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
         log.info("[initLocalCache][缓存敏感词，数量为:{}]", sensitiveWords.size());
 
         // 第二步：构建缓存
+        buildLocalCache(sensitiveWords);
+    }
+
+    /**
+     * 刷新指定敏感词的缓存
+     *
+     * 基于当前的缓存，替换（或移除）该敏感词后，重新构建缓存，无需重新查询所有敏感词
+     *
+     * @param id 敏感词编号
+     */
+    private synchronized void updateLocalCache(Long id) {
+        if (!ENABLED) {
+            return;
+        }
+        List<SensitiveWordDO> sensitiveWords = new ArrayList<>(sensitiveWordCache);
+        sensitiveWords.removeIf(word -> word.getId().equals(id));
+        SensitiveWordDO sensitiveWord = sensitiveWordMapper.selectById(id);
+        if (sensitiveWord != null) {
+            sensitiveWords.add(sensitiveWord);
+        }
+        buildLocalCache(sensitiveWords);
+    }
+
+    private void buildLocalCache(List<SensitiveWordDO> sensitiveWords) {
         // 写入 sensitiveWordTagsCache 缓存
         Set<String> tags = new HashSet<>();
         sensitiveWords.forEach(word -> tags.addAll(word.getTags()));
         sensitiveWordTagsCache = tags;
         sensitiveWordCache = sensitiveWords;
-        // 写入 defaultSensitiveWordTrie、tagSensitiveWordTries 缓存
+        // 写入 sensitiveWordTrie 缓存
         initSensitiveWordTrie(sensitiveWords);
     }
 
@@ -103,21 +123,10 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
         // 过滤禁用的敏感词
         wordDOs = filterList(wordDOs, word -> word.getStatus().equals(CommonStatusEnum.ENABLE.getStatus()));
 
-        // 初始化默认的 defaultSensitiveWordTrie
-        this.defaultSensitiveWordTrie = new SimpleTrie(CollectionUtils.convertList(wordDOs, SensitiveWordDO::getName));
-
-        // 初始化 tagSensitiveWordTries
-        Multimap<String, String> tagWords = HashMultimap.create();
-        for (SensitiveWordDO word : wordDOs) {
-            if (CollUtil.isEmpty(word.getTags())) {
-                continue;
-            }
-            word.getTags().forEach(tag -> tagWords.put(tag, word.getName()));
-        }
-        // 添加到 tagSensitiveWordTries 中
-        Map<String, SimpleTrie> tagSensitiveWordTries = new HashMap<>();
-        tagWords.asMap().forEach((tag, words) -> tagSensitiveWordTries.put(tag, new SimpleTrie(words)));
-        this.tagSensitiveWordTries = tagSensitiveWordTries;
+        // 构建 sensitiveWordTrie，所有标签共用一个自动机
+        Map<String, List<String>> words = new HashMap<>();
+        wordDOs.forEach(word -> words.put(word.getName(), word.getTags()));
+        this.sensitiveWordTrie = new AhoCorasickTrie(words);
     }
 
     /**
@@ -150,7 +159,7 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
         sensitiveWordMapper.insert(sensitiveWord);
 
         // 刷新缓存
-        initLocalCache();
+        updateLocalCache(sensitiveWord.getId());
         return sensitiveWord.getId();
     }
 
@@ -165,7 +174,7 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
         sensitiveWordMapper.updateById(updateObj);
 
         // 刷新缓存
-        initLocalCache();
+        updateLocalCache(updateObj.getId());
     }
 
     @Override
@@ -176,7 +185,7 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
         sensitiveWordMapper.deleteById(id);
 
         // 刷新缓存
-        initLocalCache();
+        updateLocalCache(id);
     }
 
     private void validateSensitiveWordNameUnique(Long id, String name) {
@@ -228,41 +237,16 @@ public class SensitiveWordServiceImpl implements SensitiveWordService {
     public List<String> validateText(String text, List<String> tags) {
         Assert.isTrue(ENABLED, "敏感词功能未开启，请将 ENABLED 设置为 true");
 
-        // 无标签时，默认所有
-        if (CollUtil.isEmpty(tags)) {
-            return defaultSensitiveWordTrie.validate(text);
-        }
-        // 有标签的情况
-        Set<String> result = new HashSet<>();
-        tags.forEach(tag -> {
-            SimpleTrie trie = tagSensitiveWordTries.get(tag);
-            if (trie == null) {
-                return;
-            }
-            result.addAll(trie.validate(text));
-        });
-        return new ArrayList<>(result);
+        // 无标签时，默认所有；有标签时，只校验这些标签的敏感词
+        return sensitiveWordTrie.validate(text, tags);
     }
 
     @Override
     public boolean isTextValid(String text, List<String> tags) {
         Assert.isTrue(ENABLED, "敏感词功能未开启，请将 ENABLED 设置为 true");
 
-        // 无标签时，默认所有
-        if (CollUtil.isEmpty(tags)) {
-            return defaultSensitiveWordTrie.isValid(text);
-        }
-        // 有标签的情况
-        for (String tag : tags) {
-            SimpleTrie trie = tagSensitiveWordTries.get(tag);
-            if (trie == null) {
-                continue;
-            }
-            if (!trie.isValid(text)) {
-                return false;
-            }
-        }
-        return true;
+        // 无标签时，默认所有；有标签时，只校验这些标签的敏感词
+        return sensitiveWordTrie.isValid(text, tags);
     }
 
 }
@@ -39,7 +39,7 @@ public class SmsChannelServiceImpl implements SmsChannelService {
      * {@link SmsClient} 缓存，通过它异步刷新 smsClientFactory
      */
     @Getter
-    private final LoadingCache<Long, SmsClient> idClientCache = buildAsyncReloadingCache(Duration.ofSeconds(10L),
+    private final LoadingCache<Long, SmsClient> idClientCache = buildAsyncReloadingCache("sms.channel.id-client", Duration.ofSeconds(10L),
             new CacheLoader<Long, SmsClient>() {
 
                 @Override
@@ -59,7 +59,7 @@ public class SmsChannelServiceImpl implements SmsChannelService {
      * {@link SmsClient} 缓存，通过它异步刷新 smsClientFactory
      */
     @Getter
-    private final LoadingCache<String, SmsClient> codeClientCache = buildAsyncReloadingCache(Duration.ofSeconds(60L),
+    private final LoadingCache<String, SmsClient> codeClientCache = buildAsyncReloadingCache("sms.channel.code-client", Duration.ofSeconds(60L),
             new CacheLoader<String, SmsClient>() {
 
                 @Override
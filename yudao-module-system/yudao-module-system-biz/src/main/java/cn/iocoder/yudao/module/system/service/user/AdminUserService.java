@@ -192,6 +192,15 @@ public interface AdminUserService {
      */
     UserImportRespVO importUserList(List<UserImportExcelVO> importUsers, boolean isUpdateSupport);
 
+    /**
+     * 分批导入用户，每批一个事务，导入结果累加到 respVO 中
+     *
+     * @param importUsers     本批次的导入用户列表
+     * @param isUpdateSupport 是否支持更新
+     * @param respVO          导入结果
+     */
+    void importUserList(List<UserImportExcelVO> importUsers, boolean isUpdateSupport, UserImportRespVO respVO);
+
     /**
      * 获得指定状态的用户们
      *
@@ -38,6 +38,7 @@ import java.util.*;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertSet;
 import static cn.iocoder.yudao.module.system.enums.ErrorCodeConstants.*;
 
@@ -403,34 +404,94 @@ public class AdminUserServiceImpl implements AdminUserService {
         }
         UserImportRespVO respVO = UserImportRespVO.builder().createUsernames(new ArrayList<>())
                 .updateUsernames(new ArrayList<>()).failureUsernames(new LinkedHashMap<>()).build();
-        importUsers.forEach(importUser -> {
-            // 校验，判断是否有不符合的原因
-            try {
-                validateUserForCreateOrUpdate(null, null, importUser.getMobile(), importUser.getEmail(),
-                        importUser.getDeptId(), null);
-            } catch (ServiceException ex) {
-                respVO.getFailureUsernames().put(importUser.getUsername(), ex.getMessage());
-                return;
+        importUserList(importUsers, isUpdateSupport, respVO);
+        return respVO;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class) // 添加事务，异常则回滚该批次的导入
+    public void importUserList(List<UserImportExcelVO> importUsers, boolean isUpdateSupport, UserImportRespVO respVO) {
+        if (CollUtil.isEmpty(importUsers)) {
+            return;
+        }
+        // 1. 批量查询已存在的用户名、手机号、邮箱，以及部门的校验结果，避免逐行查询 DB
+        Map<String, AdminUserDO> existUsers = new HashMap<>();
+        Set<String> existMobiles = new HashSet<>();
+        Set<String> existEmails = new HashSet<>();
+        Map<Long, String> deptErrors = new HashMap<>();
+        // 关闭数据权限，避免因为没有数据权限，查询不到数据，进而导致唯一校验不正确
+        DataPermissionUtils.executeIgnore(() -> {
+            Set<String> usernames = convertSet(importUsers, UserImportExcelVO::getUsername,
+                    user -> StrUtil.isNotBlank(user.getUsername()));
+            if (CollUtil.isNotEmpty(usernames)) {
+                existUsers.putAll(convertMap(userMapper.selectList(AdminUserDO::getUsername, usernames),
+                        AdminUserDO::getUsername));
+            }
+            Set<String> mobiles = convertSet(importUsers, UserImportExcelVO::getMobile,
+                    user -> StrUtil.isNotBlank(user.getMobile()));
+            if (CollUtil.isNotEmpty(mobiles)) {
+                existMobiles.addAll(convertSet(userMapper.selectList(AdminUserDO::getMobile, mobiles),
+                        AdminUserDO::getMobile));
+            }
+            Set<String> emails = convertSet(importUsers, UserImportExcelVO::getEmail,
+                    user -> StrUtil.isNotBlank(user.getEmail()));
+            if (CollUtil.isNotEmpty(emails)) {
+                existEmails.addAll(convertSet(userMapper.selectList(AdminUserDO::getEmail, emails),
+                        AdminUserDO::getEmail));
+            }
+            convertSet(importUsers, UserImportExcelVO::getDeptId).forEach(deptId -> {
+                try {
+                    deptService.validateDeptList(CollectionUtils.singleton(deptId));
+                } catch (ServiceException ex) {
+                    deptErrors.put(deptId, ex.getMessage());
+                }
+            });
+        });
+
+        // 2. 逐行校验，判断是否有不符合的原因。本批次内重复的手机号、邮箱，也视为已存在
+        List<AdminUserDO> createUsers = new ArrayList<>();
+        List<AdminUserDO> updateUsers = new ArrayList<>();
+        for (UserImportExcelVO importUser : importUsers) {
+            String failure = deptErrors.get(importUser.getDeptId());
+            if (failure == null && StrUtil.isNotBlank(importUser.getMobile()) && !existMobiles.add(importUser.getMobile())) {
+                failure = USER_MOBILE_EXISTS.getMsg();
+            }
+            if (failure == null && StrUtil.isNotBlank(importUser.getEmail()) && !existEmails.add(importUser.getEmail())) {
+                failure = USER_EMAIL_EXISTS.getMsg();
+            }
+            if (failure != null) {
+                respVO.getFailureUsernames().put(importUser.getUsername(), failure);
+                continue;
             }
             // 判断如果不存在，在进行插入
-            AdminUserDO existUser = userMapper.selectByUsername(importUser.getUsername());
+            AdminUserDO existUser = existUsers.get(importUser.getUsername());
             if (existUser == null) {
-                userMapper.insert(UserConvert.INSTANCE.convert(importUser)
-                        .setPassword(encodePassword(userInitPassword)).setPostIds(new HashSet<>())); // 设置默认密码及空岗位编号数组
+                AdminUserDO createUser = UserConvert.INSTANCE.convert(importUser).setPostIds(new HashSet<>()); // 设置空岗位编号数组
+                createUsers.add(createUser);
+                existUsers.put(importUser.getUsername(), createUser);
                 respVO.getCreateUsernames().add(importUser.getUsername());
-                return;
+                continue;
             }
-            // 如果存在，判断是否允许更新
-            if (!isUpdateSupport) {
+            // 如果存在，判断是否允许更新。本批次内新建的用户，不允许再次更新
+            if (!isUpdateSupport || existUser.getId() == null) {
                 respVO.getFailureUsernames().put(importUser.getUsername(), USER_USERNAME_EXISTS.getMsg());
-                return;
+                continue;
             }
             AdminUserDO updateUser = UserConvert.INSTANCE.convert(importUser);
             updateUser.setId(existUser.getId());
-            userMapper.updateById(updateUser);
+            updateUsers.add(updateUser);
             respVO.getUpdateUsernames().add(importUser.getUsername());
-        });
-        return respVO;
+        }
+
+        // 3. 设置默认密码。密码加密比较耗 CPU，所以并行执行
+        createUsers.parallelStream().forEach(user -> user.setPassword(encodePassword(userInitPassword)));
+        // 4. 批量插入、更新
+        if (CollUtil.isNotEmpty(createUsers)) {
+            userMapper.insertBatch(createUsers);
+        }
+        if (CollUtil.isNotEmpty(updateUsers)) {
+            userMapper.updateBatch(updateUsers);
+        }
     }
 
     @Override
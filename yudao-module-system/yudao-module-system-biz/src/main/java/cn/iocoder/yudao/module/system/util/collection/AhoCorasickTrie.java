@@ -0,0 +1,236 @@
+package cn.iocoder.yudao.module.system.util.collection;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+
+import java.util.*;
+
+/**
+ * 基于 Aho–Corasick 自动机，实现带标签的敏感词的校验
+ * <p>
+ * 相比 {@link SimpleTrie} 来说：
+ * 1. 文本只需要遍历一次，而 SimpleTrie 需要从每个位置开始重新匹配
+ * 2. 所有标签共用一个自动机，每个结束节点记录敏感词的标签，所以一次遍历即可支持任意标签的组合，无需每个标签一棵前缀树
+ * <p>
+ * 构建后不可修改，变更时需要构建新的对象，保证并发读取时的一致性
+ * <p>
+ * 和 SimpleTrie 保持一致，长度小于 {@link #MIN_WORD_LENGTH} 的敏感词（即单个字符）会被忽略，避免误伤正常文本
+ *
+ * @author 芋道源码
+ */
+public class AhoCorasickTrie {
+
+    /**
+     * 敏感词的最小长度
+     */
+    public static final int MIN_WORD_LENGTH = 2;
+
+    /**
+     * 根节点
+     */
+    private final Node root = new Node();
+
+    /**
+     * 标签在 BitSet 中的下标
+     *
+     * key：标签
+     * value：下标
+     */
+    private final Map<String, Integer> tagIndexes = new HashMap<>();
+
+    /**
+     * 基于敏感词与标签，构建自动机
+     *
+     * @param words 敏感词与标签的映射。key 为敏感词，value 为标签数组（可以为空）
+     */
+    public AhoCorasickTrie(Map<String, ? extends Collection<String>> words) {
+        // 第一步，构建前缀树
+        words.forEach((word, tags) -> {
+            if (StrUtil.length(word) < MIN_WORD_LENGTH) {
+                return;
+            }
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), key -> new Node());
+            }
+            node.word = word;
+            if (CollUtil.isNotEmpty(tags)) {
+                for (String tag : tags) {
+                    node.tags.set(tagIndexes.computeIfAbsent(tag, key -> tagIndexes.size()));
+                }
+            }
+        });
+
+        // 第二步，按照层级遍历，构建失败指针与输出指针
+        Queue<Node> queue = new ArrayDeque<>();
+        root.children.values().forEach(child -> {
+            child.fail = root;
+            child.outputTags.or(child.tags);
+            queue.add(child);
+        });
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.children.forEach((c, child) -> {
+                // 失败指针：沿着父节点的失败指针，找到第一个有 c 子节点的节点
+                Node fail = node.fail;
+                while (fail != root && !fail.children.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                child.fail = fail.children.getOrDefault(c, root);
+                // 输出指针：失败链上，最近的结束节点
+                child.output = child.fail.word != null ? child.fail : child.fail.output;
+                // 输出标签：自身与输出指针上的所有标签，用于快速判断是否需要遍历输出指针
+                child.outputTags.or(child.tags);
+                if (child.output != null) {
+                    child.outputTags.or(child.output.outputTags);
+                }
+                queue.add(child);
+            });
+        }
+    }
+
+    /**
+     * 验证文本是否合法，即不包含敏感词
+     *
+     * @param text 文本
+     * @param tags 标签数组。为空时，校验所有敏感词
+     * @return 是否 ok
+     */
+    public boolean isValid(String text, Collection<String> tags) {
+        BitSet tagBitSet = buildTagBitSet(tags);
+        if (tagBitSet != null && tagBitSet.isEmpty()) {
+            return true;
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            if (hasOutput(node, tagBitSet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获得文本所包含的不合法的敏感词
+     *
+     * 注意，和 {@link SimpleTrie#validate(String)} 一样，采用最短匹配原则：
+     * 例如说：当敏感词存在 “煞笔”，“煞笔二货 ”时，只会返回 “煞笔”。
+     *
+     * @param text 文本
+     * @param tags 标签数组。为空时，校验所有敏感词
+     * @return 匹配的敏感词，按照在文本中出现的顺序
+     */
+    public List<String> validate(String text, Collection<String> tags) {
+        BitSet tagBitSet = buildTagBitSet(tags);
+        if (tagBitSet != null && tagBitSet.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> results = new LinkedHashSet<>();
+        boolean[] matchedStarts = null; // 已经匹配到敏感词的起始位置，用于实现最短匹配原则
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            if (!hasOutput(node, tagBitSet)) {
+                continue;
+            }
+            // 遍历所有以 i 结尾的敏感词。由于较短的敏感词会先结束，所以同一起始位置，先匹配到的就是最短的
+            for (Node output = node.word != null ? node : node.output; output != null; output = output.output) {
+                if (tagBitSet != null && !output.tags.intersects(tagBitSet)) {
+                    continue;
+                }
+                if (matchedStarts == null) {
+                    matchedStarts = new boolean[text.length()];
+                }
+                int start = i - output.word.length() + 1;
+                if (!matchedStarts[start]) {
+                    matchedStarts[start] = true;
+                    results.add(output.word);
+                }
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * 状态转移：沿着失败指针，找到有 c 子节点的节点
+     *
+     * @param node 当前节点
+     * @param c 字符
+     * @return 下一个节点
+     */
+    private Node next(Node node, char c) {
+        while (node != root && !node.children.containsKey(c)) {
+            node = node.fail;
+        }
+        return node.children.getOrDefault(c, root);
+    }
+
+    /**
+     * 判断节点（包括其输出指针）是否有符合标签的敏感词
+     *
+     * @param node 节点
+     * @param tagBitSet 标签的 BitSet。为 null 时，表示所有敏感词
+     * @return 是否有
+     */
+    private static boolean hasOutput(Node node, BitSet tagBitSet) {
+        if (tagBitSet == null) {
+            return node.word != null || node.output != null;
+        }
+        return node.outputTags.intersects(tagBitSet);
+    }
+
+    /**
+     * 构建标签的 BitSet
+     *
+     * @param tags 标签数组
+     * @return BitSet。tags 为空时，返回 null，表示所有敏感词；tags 都不存在时，返回空 BitSet
+     */
+    private BitSet buildTagBitSet(Collection<String> tags) {
+        if (CollUtil.isEmpty(tags)) {
+            return null;
+        }
+        BitSet tagBitSet = new BitSet();
+        tags.forEach(tag -> {
+            Integer index = tagIndexes.get(tag);
+            if (index != null) {
+                tagBitSet.set(index);
+            }
+        });
+        return tagBitSet;
+    }
+
+    /**
+     * 自动机的节点
+     */
+    private static final class Node {
+
+        /**
+         * 子节点
+         */
+        private final Map<Character, Node> children = new HashMap<>();
+        /**
+         * 失败指针
+         */
+        private Node fail;
+        /**
+         * 输出指针，即失败链上，最近的结束节点
+         */
+        private Node output;
+
+        /**
+         * 敏感词。非空时，表示是结束节点
+         */
+        private String word;
+        /**
+         * 敏感词的标签
+         */
+        private final BitSet tags = new BitSet();
+        /**
+         * 自身与输出指针上的所有标签
+         */
+        private final BitSet outputTags = new BitSet();
+
+    }
+
+}
@@ -16,7 +16,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgnoreId;
@@ -345,6 +347,46 @@ public class DictDataServiceImplTest extends BaseDbUnitTest {
         assertEquals(dictDataDO, dbDictData);
     }
 
+    @Test
+    public void testGetDictDataListByDictType() {
+        // mock 数据
+        DictDataDO dictDataDO = randomDictDataDO().setDictType("yunai").setSort(2);
+        dictDataMapper.insert(dictDataDO);
+        DictDataDO dictDataDO02 = randomDictDataDO().setDictType("yunai").setSort(1);
+        dictDataMapper.insert(dictDataDO02);
+        // 测试 dictType 不匹配
+        dictDataMapper.insert(cloneIgnoreId(dictDataDO, o -> o.setDictType("nai")));
+
+        // 调用
+        List<DictDataDO> list = dictDataService.getDictDataListByDictType("yunai");
+        // 断言：按照 sort 排序
+        assertEquals(2, list.size());
+        assertPojoEquals(dictDataDO02, list.get(0));
+        assertPojoEquals(dictDataDO, list.get(1));
+    }
+
+    @Test
+    public void testGetDictDataVersionMap() {
+        // mock 数据
+        DictDataDO dictDataDO = randomDictDataDO().setDictType("yunai");
+        dictDataMapper.insert(dictDataDO);
+        DictDataDO dictDataDO02 = randomDictDataDO().setDictType("yunai");
+        dictDataMapper.insert(dictDataDO02);
+        // 准备参数
+        List<String> dictTypes = Arrays.asList("yunai", "nai");
+
+        // 调用
+        Map<String, String> versionMap = dictDataService.getDictDataVersionMap(dictTypes);
+        // 断言：没有数据的字典类型，不返回
+        assertEquals(1, versionMap.size());
+        String version = versionMap.get("yunai");
+        assertTrue(version.startsWith("2@"));
+
+        // 调用：删除字典数据后，版本变化
+        dictDataMapper.deleteById(dictDataDO02.getId());
+        assertNotEquals(version, dictDataService.getDictDataVersionMap(dictTypes).get("yunai"));
+    }
+
     // ========== 随机对象 ==========
 
     @SafeVarargs
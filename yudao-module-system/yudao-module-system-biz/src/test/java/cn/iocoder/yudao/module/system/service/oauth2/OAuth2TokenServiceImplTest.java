@@ -15,19 +15,23 @@ import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2RefreshTokenDO
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2AccessTokenMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2RefreshTokenMapper;
 import cn.iocoder.yudao.module.system.dal.redis.oauth2.OAuth2AccessTokenRedisDAO;
+import cn.iocoder.yudao.module.system.mq.producer.oauth2.OAuth2AccessTokenProducer;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgnoreId;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertServiceException;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.*;
+import static cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants.OAUTH2_ACCESS_TOKEN;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -50,9 +54,13 @@ public class OAuth2TokenServiceImplTest extends BaseDbAndRedisUnitTest {
 
     @Resource
     private OAuth2AccessTokenRedisDAO oauth2AccessTokenRedisDAO;
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
 
     @MockBean
     private OAuth2ClientService oauth2ClientService;
+    @MockBean
+    private OAuth2AccessTokenProducer oauth2AccessTokenProducer;
 
     @Test
     public void testCreateAccessToken() {
@@ -253,6 +261,22 @@ public class OAuth2TokenServiceImplTest extends BaseDbAndRedisUnitTest {
         assertNull(oauth2AccessTokenRedisDAO.get(accessTokenDO.getAccessToken()));
     }
 
+    @Test
+    public void testRemoveAccessTokenLocalCache() {
+        // mock 数据（访问令牌），同时写入 Redis 和本地缓存
+        OAuth2AccessTokenDO accessTokenDO = randomPojo(OAuth2AccessTokenDO.class)
+                .setExpiresTime(LocalDateTime.now().plusDays(1));
+        oauth2AccessTokenRedisDAO.set(accessTokenDO);
+        // mock 其它节点已删除 Redis 缓存，此时本地缓存依然命中
+        String accessToken = accessTokenDO.getAccessToken();
+        stringRedisTemplate.delete(String.format(OAUTH2_ACCESS_TOKEN, accessToken));
+        assertNotNull(oauth2AccessTokenRedisDAO.get(accessToken));
+
+        // 调用
+        oauth2TokenService.removeAccessTokenLocalCache(Collections.singleton(accessToken));
+        // 断言
+        assertNull(oauth2AccessTokenRedisDAO.get(accessToken));
+    }
 
     @Test
     public void testGetAccessTokenPage() {
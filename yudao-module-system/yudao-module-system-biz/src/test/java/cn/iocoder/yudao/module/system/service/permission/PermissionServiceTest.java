@@ -14,12 +14,16 @@ import cn.iocoder.yudao.module.system.dal.dataobject.user.AdminUserDO;
 import cn.iocoder.yudao.module.system.dal.mysql.permission.RoleMenuMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.permission.UserRoleMapper;
 import cn.iocoder.yudao.module.system.enums.permission.DataScopeEnum;
+import cn.iocoder.yudao.module.system.mq.producer.permission.PermissionProducer;
 import cn.iocoder.yudao.module.system.service.dept.DeptService;
 import cn.iocoder.yudao.module.system.service.user.AdminUserService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Resource;
 import java.util.Collection;
@@ -57,6 +61,17 @@ public class PermissionServiceTest extends BaseDbUnitTest {
     @MockBean
     private AdminUserService userService;
 
+    @MockBean
+    private PermissionProducer permissionProducer;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        permissionService.clearPermissionIndex();
+    }
+
     @Test
     public void testHasAnyPermissions_superAdmin() {
         try (MockedStatic<SpringUtil> springUtilMockedStatic = mockStatic(SpringUtil.class)) {
@@ -94,9 +109,8 @@ public class PermissionServiceTest extends BaseDbUnitTest {
                     .setStatus(CommonStatusEnum.ENABLE.getStatus()));
             when(roleService.getRoleListFromCache(eq(singleton(100L)))).thenReturn(toList(role));
             // mock 菜单
-            Long menuId = 1000L;
-            when(menuService.getMenuIdListByPermissionFromCache(
-                    eq("system:user:create"))).thenReturn(singletonList(menuId));
+            MenuDO menu = randomPojo(MenuDO.class, o -> o.setId(1000L).setPermission("system:user:create"));
+            when(menuService.getMenuList()).thenReturn(singletonList(menu));
             roleMenuMapper.insert(randomPojo(RoleMenuDO.class).setRoleId(100L).setMenuId(1000L));
 
             // 调用，并断言
@@ -104,6 +118,128 @@ public class PermissionServiceTest extends BaseDbUnitTest {
         }
     }
 
+    @Test
+    public void testHasAnyPermissions_refreshIndex() {
+        try (MockedStatic<SpringUtil> springUtilMockedStatic = mockStatic(SpringUtil.class)) {
+            springUtilMockedStatic.when(() -> SpringUtil.getBean(eq(PermissionServiceImpl.class)))
+                    .thenReturn(permissionService);
+
+            // 准备参数
+            Long userId = 1L;
+            String[] roles = new String[]{"system:user:create"};
+            // mock 用户登录的角色
+            userRoleMapper.insert(randomPojo(UserRoleDO.class).setUserId(userId).setRoleId(100L));
+            RoleDO role = randomPojo(RoleDO.class, o -> o.setId(100L)
+                    .setStatus(CommonStatusEnum.ENABLE.getStatus()));
+            when(roleService.getRoleListFromCache(eq(singleton(100L)))).thenReturn(toList(role));
+            // mock 菜单
+            MenuDO menu = randomPojo(MenuDO.class, o -> o.setId(1000L).setPermission("system:user:create"));
+            when(menuService.getMenuList()).thenReturn(singletonList(menu));
+            // 调用，并断言：首次构建权限索引，无权限
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            long version = permissionService.getPermissionIndex().getVersion();
+
+            // 调用，并断言：分配菜单后，有权限
+            permissionService.assignRoleMenu(100L, singleton(1000L));
+            assertTrue(permissionService.hasAnyPermissions(userId, roles));
+            assertEquals(version + 1, permissionService.getPermissionIndex().getVersion());
+            verify(permissionProducer).sendRoleMenuRefreshMessage(eq(100L), eq(singleton(1000L)));
+            // 调用，并断言：修改菜单的权限标识后，无权限
+            permissionService.processMenuSaved(1000L, "system:user:update");
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            // 调用，并断言：恢复菜单的权限标识后，有权限
+            permissionService.processMenuSaved(1000L, "system:user:create");
+            assertTrue(permissionService.hasAnyPermissions(userId, roles));
+            // 调用，并断言：删除角色后，无权限
+            permissionService.processRoleDeleted(100L);
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+        }
+    }
+
+    @Test
+    public void testHasAnyPermissions_refreshIndexAfterCommit() {
+        try (MockedStatic<SpringUtil> springUtilMockedStatic = mockStatic(SpringUtil.class)) {
+            springUtilMockedStatic.when(() -> SpringUtil.getBean(eq(PermissionServiceImpl.class)))
+                    .thenReturn(permissionService);
+
+            // 准备参数
+            Long userId = 1L;
+            String[] roles = new String[]{"system:user:create"};
+            // mock 用户登录的角色
+            userRoleMapper.insert(randomPojo(UserRoleDO.class).setUserId(userId).setRoleId(100L));
+            RoleDO role = randomPojo(RoleDO.class, o -> o.setId(100L)
+                    .setStatus(CommonStatusEnum.ENABLE.getStatus()));
+            when(roleService.getRoleListFromCache(eq(singleton(100L)))).thenReturn(toList(role));
+            // mock 菜单
+            MenuDO menu = randomPojo(MenuDO.class, o -> o.setId(1000L).setPermission("system:user:create"));
+            when(menuService.getMenuList()).thenReturn(singletonList(menu));
+            // 调用，并断言：首次构建权限索引，无权限
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+
+            // 调用：事务回滚时，不刷新权限索引，也不广播
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.executeWithoutResult(status -> {
+                permissionService.assignRoleMenu(100L, singleton(1000L));
+                // 断言：事务提交前，也不刷新权限索引
+                assertFalse(permissionService.hasAnyPermissions(userId, roles));
+                status.setRollbackOnly();
+            });
+            // 断言
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            verify(permissionProducer, never()).sendRoleMenuRefreshMessage(any(), any());
+
+            // 调用：事务提交后，刷新权限索引，并广播
+            transactionTemplate.executeWithoutResult(status -> permissionService.assignRoleMenu(100L, singleton(1000L)));
+            // 断言
+            assertTrue(permissionService.hasAnyPermissions(userId, roles));
+            verify(permissionProducer).sendRoleMenuRefreshMessage(eq(100L), eq(singleton(1000L)));
+        }
+    }
+
+    @Test
+    public void testRefreshPermissionIndex() {
+        try (MockedStatic<SpringUtil> springUtilMockedStatic = mockStatic(SpringUtil.class)) {
+            springUtilMockedStatic.when(() -> SpringUtil.getBean(eq(PermissionServiceImpl.class)))
+                    .thenReturn(permissionService);
+
+            // 准备参数
+            Long userId = 1L;
+            String[] roles = new String[]{"system:user:create"};
+            // mock 用户登录的角色
+            userRoleMapper.insert(randomPojo(UserRoleDO.class).setUserId(userId).setRoleId(100L));
+            RoleDO role = randomPojo(RoleDO.class, o -> o.setId(100L)
+                    .setStatus(CommonStatusEnum.ENABLE.getStatus()));
+            when(roleService.getRoleListFromCache(eq(singleton(100L)))).thenReturn(toList(role));
+            // mock 菜单
+            MenuDO menu = randomPojo(MenuDO.class, o -> o.setId(1000L).setPermission("system:user:create"));
+            when(menuService.getMenuList()).thenReturn(singletonList(menu));
+            // 调用，并断言：首次构建权限索引，无权限
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            long version = permissionService.getPermissionIndex().getVersion();
+
+            // 调用，并断言：数据未变更时，不重新构建
+            permissionService.refreshPermissionIndex();
+            assertEquals(version, permissionService.getPermissionIndex().getVersion());
+            // 调用，并断言：其它节点分配了菜单（广播丢失），轮询后有权限
+            roleMenuMapper.insert(randomPojo(RoleMenuDO.class).setRoleId(100L).setMenuId(1000L));
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            permissionService.refreshPermissionIndex();
+            assertTrue(permissionService.hasAnyPermissions(userId, roles));
+            // 调用，并断言：其它节点修改了菜单的权限标识（广播丢失），轮询后无权限
+            MenuDO updateMenu = randomPojo(MenuDO.class, o -> o.setId(1000L).setPermission("system:user:update"));
+            when(menuService.getMenuList()).thenReturn(singletonList(updateMenu));
+            permissionService.refreshPermissionIndex();
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+            // 调用，并断言：其它节点删除了角色菜单（广播丢失），轮询后无权限
+            when(menuService.getMenuList()).thenReturn(singletonList(menu));
+            permissionService.refreshPermissionIndex();
+            assertTrue(permissionService.hasAnyPermissions(userId, roles));
+            roleMenuMapper.deleteListByRoleId(100L);
+            permissionService.refreshPermissionIndex();
+            assertFalse(permissionService.hasAnyPermissions(userId, roles));
+        }
+    }
+
     @Test
     public void testHasAnyRoles() {
         try (MockedStatic<SpringUtil> springUtilMockedStatic = mockStatic(SpringUtil.class)) {
@@ -65,11 +65,8 @@ public class SensitiveWordServiceImplTest extends BaseDbUnitTest {
         assertEquals(2, sensitiveWordService.getSensitiveWordCache().size());
         assertPojoEquals(wordDO1, sensitiveWordService.getSensitiveWordCache().get(0));
         assertPojoEquals(wordDO2, sensitiveWordService.getSensitiveWordCache().get(1));
-        // 断言 tagSensitiveWordTries 缓存
-        assertNotNull(sensitiveWordService.getDefaultSensitiveWordTrie());
-        assertEquals(2, sensitiveWordService.getTagSensitiveWordTries().size());
-        assertNotNull(sensitiveWordService.getTagSensitiveWordTries().get("论坛"));
-        assertNotNull(sensitiveWordService.getTagSensitiveWordTries().get("蔬菜"));
+        // 断言 sensitiveWordTrie 缓存
+        assertNotNull(sensitiveWordService.getSensitiveWordTrie());
     }
 
     @Test
@@ -84,6 +81,9 @@ public class SensitiveWordServiceImplTest extends BaseDbUnitTest {
         // 校验记录的属性是否正确
         SensitiveWordDO sensitiveWord = sensitiveWordMapper.selectById(sensitiveWordId);
         assertPojoEquals(reqVO, sensitiveWord);
+        // 校验缓存被增量刷新
+        assertTrue(sensitiveWordService.getSensitiveWordCache().stream()
+                .anyMatch(word -> word.getId().equals(sensitiveWordId)));
     }
 
     @Test
@@ -124,6 +124,9 @@ public class SensitiveWordServiceImplTest extends BaseDbUnitTest {
         sensitiveWordService.deleteSensitiveWord(id);
         // 校验数据不存在了
         assertNull(sensitiveWordMapper.selectById(id));
+        // 校验缓存被增量刷新
+        assertTrue(sensitiveWordService.getSensitiveWordCache().stream()
+                .noneMatch(word -> word.getId().equals(id)));
     }
 
     @Test
@@ -250,6 +253,30 @@ public class SensitiveWordServiceImplTest extends BaseDbUnitTest {
         assertEquals(singletonList("傻瓜"), result);
     }
 
+    @Test
+    public void testValidateText_multiTag() {
+        testInitLocalCache();
+        // 准备参数
+        String text = "你是笨蛋，你是傻瓜";
+
+        // 调用
+        List<String> result = sensitiveWordService.validateText(text, Arrays.asList("论坛", "蔬菜"));
+        // 断言：按照在文本中出现的顺序
+        assertEquals(Arrays.asList("笨蛋", "傻瓜"), result);
+    }
+
+    @Test
+    public void testValidateText_notExistsTag() {
+        testInitLocalCache();
+        // 准备参数
+        String text = "你是傻瓜，你是笨蛋";
+
+        // 调用
+        List<String> result = sensitiveWordService.validateText(text, singletonList("不存在"));
+        // 断言
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     public void testIsTestValid_noTag() {
         testInitLocalCache();
@@ -32,6 +32,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import javax.annotation.Resource;
 import java.io.ByteArrayInputStream;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -545,6 +546,39 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
         assertEquals(0, respVO.getFailureUsernames().size());
     }
 
+    /**
+     * 情况五，分批导入，同一批次内手机号重复
+     */
+    @Test
+    public void testImportUserList_05() {
+        // 准备参数
+        UserImportExcelVO importUser01 = randomPojo(UserImportExcelVO.class, o -> {
+            o.setStatus(randomEle(CommonStatusEnum.values()).getStatus()); // 保证 status 的范围
+            o.setSex(randomEle(SexEnum.values()).getSex()); // 保证 sex 的范围
+        });
+        UserImportExcelVO importUser02 = randomPojo(UserImportExcelVO.class, o -> {
+            o.setStatus(randomEle(CommonStatusEnum.values()).getStatus()); // 保证 status 的范围
+            o.setSex(randomEle(SexEnum.values()).getSex()); // 保证 sex 的范围
+            o.setDeptId(importUser01.getDeptId());
+            o.setMobile(importUser01.getMobile());
+        });
+        UserImportRespVO respVO = UserImportRespVO.builder().createUsernames(newArrayList())
+                .updateUsernames(newArrayList()).failureUsernames(new LinkedHashMap<>()).build();
+        // mock passwordEncoder 的方法
+        when(passwordEncoder.encode(eq("yudaoyuanma"))).thenReturn("java");
+
+        // 调用
+        userService.importUserList(newArrayList(importUser01, importUser02), true, respVO);
+        // 断言
+        assertEquals(singletonList(importUser01.getUsername()), respVO.getCreateUsernames());
+        assertPojoEquals(importUser01, userMapper.selectByUsername(importUser01.getUsername()));
+        assertEquals(0, respVO.getUpdateUsernames().size());
+        assertEquals(1, respVO.getFailureUsernames().size());
+        assertEquals(USER_MOBILE_EXISTS.getMsg(), respVO.getFailureUsernames().get(importUser02.getUsername()));
+        // 断言：相同部门，只校验一次
+        verify(deptService, times(1)).validateDeptList(any());
+    }
+
     @Test
     public void testValidateUserExists_notExists() {
         assertServiceException(() -> userService.validateUserExists(randomLongId()), USER_NOT_EXISTS);
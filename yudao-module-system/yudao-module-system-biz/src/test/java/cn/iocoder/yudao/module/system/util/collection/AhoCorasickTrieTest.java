@@ -0,0 +1,132 @@
+package cn.iocoder.yudao.module.system.util.collection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link AhoCorasickTrie} 的单元测试
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class AhoCorasickTrieTest {
+
+    @Test
+    public void testValidate() {
+        // 准备参数
+        Map<String, List<String>> words = new HashMap<>();
+        words.put("煞笔", singletonList("bad"));
+        words.put("煞笔二货", singletonList("bad"));
+        words.put("笔二", singletonList("other"));
+        words.put("傻瓜", emptyList());
+        AhoCorasickTrie trie = new AhoCorasickTrie(words);
+
+        // 调用，并断言：最短匹配，并按照出现的顺序返回
+        assertEquals(asList("傻瓜", "煞笔", "笔二"), trie.validate("你是傻瓜，煞笔二货", null));
+        assertEquals(singletonList("煞笔"), trie.validate("你是傻瓜，煞笔二货", singletonList("bad")));
+        assertEquals(emptyList(), trie.validate("你是傻瓜，煞笔二货", singletonList("none")));
+        assertFalse(trie.isValid("你是傻瓜", null));
+        assertTrue(trie.isValid("你是傻瓜", singletonList("bad")));
+        assertTrue(trie.isValid("你是好人", null));
+    }
+
+    @Test
+    public void testValidate_singleChar() {
+        // 准备参数：单个字符的敏感词
+        Map<String, List<String>> words = new HashMap<>();
+        words.put("傻", emptyList());
+        words.put("傻瓜", emptyList());
+        AhoCorasickTrie trie = new AhoCorasickTrie(words);
+
+        // 调用，并断言：和 SimpleTrie 一致，忽略单个字符的敏感词
+        assertTrue(trie.isValid("你傻", null));
+        assertEquals(emptyList(), trie.validate("你傻", null));
+        assertTrue(new SimpleTrie(singletonList("傻")).isValid("你傻"));
+        // 调用，并断言：不影响其它敏感词
+        assertEquals(singletonList("傻瓜"), trie.validate("你傻，你是傻瓜", null));
+    }
+
+    @Test
+    public void testValidate_sameAsSimpleTrie() {
+        // 准备参数：较小的字符集，使敏感词之间有较多的重叠
+        Random random = new Random(1024L);
+        Set<String> words = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            words.add(randomText(random, 'a', 6, 2 + random.nextInt(3)));
+        }
+        SimpleTrie simpleTrie = new SimpleTrie(words);
+        Map<String, List<String>> wordTags = new HashMap<>();
+        words.forEach(word -> wordTags.put(word, emptyList()));
+        AhoCorasickTrie trie = new AhoCorasickTrie(wordTags);
+
+        // 断言：随机的文本，和 SimpleTrie 的校验结果一致
+        for (int i = 0; i < 10000; i++) {
+            String text = randomText(random, 'a', 8, random.nextInt(30));
+            assertEquals(simpleTrie.isValid(text), trie.isValid(text, null), text);
+            assertEquals(new HashSet<>(simpleTrie.validate(text)), new HashSet<>(trie.validate(text, null)), text);
+        }
+    }
+
+    @Test
+    @Disabled("性能测试，需要时手动执行")
+    public void testValidate_benchmark() {
+        // 准备参数：10000 个敏感词，分布在 10 个标签中
+        Random random = new Random(1024L);
+        Map<String, List<String>> wordTags = new HashMap<>();
+        Map<String, List<String>> tagWords = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            String word = randomText(random, '一', 2000, 2 + random.nextInt(4));
+            String tag = "tag" + random.nextInt(10);
+            if (wordTags.putIfAbsent(word, singletonList(tag)) == null) {
+                tagWords.computeIfAbsent(tag, key -> new ArrayList<>()).add(word);
+            }
+        }
+        AhoCorasickTrie trie = new AhoCorasickTrie(wordTags);
+        Map<String, SimpleTrie> simpleTries = new HashMap<>();
+        tagWords.forEach((tag, words) -> simpleTries.put(tag, new SimpleTrie(words)));
+        String[] texts = new String[1000];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = randomText(random, '一', 2000, 200);
+        }
+        List<String> tags = asList("tag1", "tag2", "tag3");
+        int count = 100000;
+
+        // 调用：AhoCorasickTrie，一次遍历校验所有标签
+        long trieMatches = 0;
+        long now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            trieMatches += trie.validate(texts[i % texts.length], tags).size();
+        }
+        long trieTime = System.nanoTime() - now;
+        // 调用：每个标签一棵 SimpleTrie，逐个标签校验
+        long simpleTrieMatches = 0;
+        now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Set<String> results = new HashSet<>();
+            for (String tag : tags) {
+                results.addAll(simpleTries.get(tag).validate(texts[i % texts.length]));
+            }
+            simpleTrieMatches += results.size();
+        }
+        long simpleTrieTime = System.nanoTime() - now;
+        log.info("[testValidate_benchmark][AhoCorasickTrie: {} 次/秒，匹配 {} 个；SimpleTrie: {} 次/秒，匹配 {} 个]",
+                count * 1000000000L / trieTime, trieMatches, count * 1000000000L / simpleTrieTime, simpleTrieMatches);
+    }
+
+    private static String randomText(Random random, char first, int charCount, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) (first + random.nextInt(charCount)));
+        }
+        return text.toString();
+    }
+
+}